@@ -170,6 +170,16 @@ public class GeoWaveRDDLoader
 			}
 		}
 
+		if (rddOpts.getTargetSplitSizeBytes() > 0) {
+			GeoWaveInputFormat.setTargetSplitSizeBytes(
+					conf,
+					rddOpts.getTargetSplitSizeBytes());
+		}
+
+		GeoWaveInputFormat.setDeduplicateEntries(
+				conf,
+				rddOpts.isDeduplicateEntries());
+
 		RDD<Tuple2<GeoWaveInputKey, SimpleFeature>> rdd = sc.newAPIHadoopRDD(
 				conf,
 				GeoWaveInputFormat.class,
@@ -19,6 +19,8 @@ public class RDDOptions
 	private QueryOptions queryOptions = null;
 	private int minSplits = -1;
 	private int maxSplits = -1;
+	private long targetSplitSizeBytes = -1;
+	private boolean deduplicateEntries = true;
 
 	public RDDOptions() {}
 
@@ -58,4 +60,22 @@ public class RDDOptions
 		this.maxSplits = maxSplits;
 	}
 
+	public long getTargetSplitSizeBytes() {
+		return targetSplitSizeBytes;
+	}
+
+	public void setTargetSplitSizeBytes(
+			long targetSplitSizeBytes ) {
+		this.targetSplitSizeBytes = targetSplitSizeBytes;
+	}
+
+	public boolean isDeduplicateEntries() {
+		return deduplicateEntries;
+	}
+
+	public void setDeduplicateEntries(
+			boolean deduplicateEntries ) {
+		this.deduplicateEntries = deduplicateEntries;
+	}
+
 }
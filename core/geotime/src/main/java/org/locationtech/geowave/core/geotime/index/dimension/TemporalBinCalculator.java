@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.geotime.index.dimension;
+
+import java.text.NumberFormat;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.WeekFields;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.locationtech.geowave.core.geotime.index.dimension.TemporalBinningStrategy.Unit;
+import org.locationtech.geowave.core.index.StringUtils;
+
+/**
+ * Computes the same bin IDs and bin epochs as the java.util.Calendar based
+ * implementation in {@link TemporalBinningStrategy}, but with java.time and
+ * without creating a calendar per value. The span of time sharing a bin ID and
+ * epoch is cached, so consecutive values in the same bin (the common case for
+ * ingest) cost a range check.
+ *
+ * To produce identical results, ambiguous local times resolve to the later
+ * offset and nonexistent local times are shifted forward, as a lenient
+ * GregorianCalendar does, and weeks follow the first day of week and minimal
+ * days in the first week of the default locale's calendar when this was
+ * created. Bins starting before 1900, where TimeZone and java.time disagree
+ * on offsets (and the Julian to Gregorian cutover is in play), and locales
+ * whose default calendar is not Gregorian are not supported and must be
+ * binned with a Calendar.
+ */
+class TemporalBinCalculator
+{
+	// 1900-01-01T00:00:00Z, TimeZone does not model offsets before this
+	protected static final long MIN_MILLIS = -2208988800000L;
+	private static final String[] TWO_DIGITS = new String[100];
+	static {
+		// formatted exactly as the Calendar based bin IDs are
+		final NumberFormat twoDigitNumber = NumberFormat.getIntegerInstance();
+		twoDigitNumber.setMinimumIntegerDigits(2);
+		twoDigitNumber.setMaximumIntegerDigits(2);
+		for (int i = 0; i < TWO_DIGITS.length; i++) {
+			TWO_DIGITS[i] = twoDigitNumber.format(i);
+		}
+	}
+
+	private final Unit unit;
+	private final ZoneId zone;
+	private final ZoneRules rules;
+	private final boolean supported;
+	private final WeekFields weekFields;
+	private volatile Bin cachedBin = null;
+
+	public TemporalBinCalculator(
+			final Unit unit,
+			final String timezone ) {
+		this.unit = unit;
+		final TimeZone timeZone = TimeZone.getTimeZone(timezone);
+		zone = timeZone.toZoneId();
+		rules = zone.getRules();
+		final Calendar calendar = Calendar.getInstance(timeZone);
+		supported = calendar instanceof GregorianCalendar;
+		// Calendar numbers days of week from Sunday = 1, java.time from
+		// Monday = 1
+		weekFields = WeekFields.of(
+				DayOfWeek.of(((calendar.getFirstDayOfWeek() + 5) % 7) + 1),
+				calendar.getMinimalDaysInFirstWeek());
+	}
+
+	/**
+	 * @return the bin containing the value, or null if the value must be
+	 *         binned with a Calendar instead
+	 */
+	public Bin getBin(
+			final long millis ) {
+		final Bin cached = cachedBin;
+		if ((cached != null) && (millis >= cached.start) && (millis < cached.end)) {
+			return cached;
+		}
+		if (!supported || (millis < MIN_MILLIS)) {
+			return null;
+		}
+		final LocalDateTime local = Instant.ofEpochMilli(
+				millis).atZone(
+				zone).toLocalDateTime();
+		// the local time span that shares this bin ID, the epoch only depends
+		// on fields that are at least as coarse as the bin ID so it is
+		// constant across the span too
+		LocalDateTime idStart;
+		LocalDateTime idEnd;
+		switch (unit) {
+			case MINUTE:
+				idStart = local.truncatedTo(ChronoUnit.MINUTES);
+				idEnd = idStart.plusMinutes(1);
+				break;
+			case HOUR:
+				idStart = local.truncatedTo(ChronoUnit.HOURS);
+				idEnd = idStart.plusHours(1);
+				break;
+			case DAY:
+				idStart = local.toLocalDate().atStartOfDay();
+				idEnd = idStart.plusDays(1);
+				break;
+			case MONTH:
+				idStart = local.toLocalDate().withDayOfMonth(
+						1).atStartOfDay();
+				idEnd = idStart.plusMonths(1);
+				break;
+			case WEEK:
+				// the bin ID is made of both the calendar year and the week
+				idStart = getWeekStart(
+						local.toLocalDate()).atStartOfDay();
+				idEnd = idStart.plusWeeks(1);
+				final LocalDateTime yearStart = local.toLocalDate().withDayOfYear(
+						1).atStartOfDay();
+				if (yearStart.isAfter(idStart)) {
+					idStart = yearStart;
+				}
+				final LocalDateTime yearEnd = yearStart.plusYears(1);
+				if (yearEnd.isBefore(idEnd)) {
+					idEnd = yearEnd;
+				}
+				break;
+			case YEAR:
+			case DECADE:
+			default:
+				idStart = local.toLocalDate().withDayOfYear(
+						1).atStartOfDay();
+				idEnd = idStart.plusYears(1);
+				break;
+		}
+		long start = millis - ChronoUnit.MILLIS.between(
+				idStart,
+				local);
+		long end = start + ChronoUnit.MILLIS.between(
+				idStart,
+				idEnd);
+		if (!rules.isFixedOffset()) {
+			// the local time span only maps to a continuous span of instants
+			// between offset transitions
+			final ZoneOffsetTransition previous = rules.previousTransition(Instant.ofEpochMilli(millis + 1));
+			if (previous != null) {
+				start = Math.max(
+						start,
+						previous.toEpochSecond() * 1000);
+			}
+			final ZoneOffsetTransition next = rules.nextTransition(Instant.ofEpochMilli(millis));
+			if (next != null) {
+				end = Math.min(
+						end,
+						next.toEpochSecond() * 1000);
+			}
+		}
+		final long epoch = getEpoch(local);
+		if (epoch < MIN_MILLIS) {
+			return null;
+		}
+		final Bin bin = new Bin(
+				start,
+				end,
+				epoch,
+				getBinId(local));
+		cachedBin = bin;
+		return bin;
+	}
+
+	private LocalDate getWeekStart(
+			final LocalDate date ) {
+		return date.with(TemporalAdjusters.previousOrSame(weekFields.getFirstDayOfWeek()));
+	}
+
+	private long getEpoch(
+			final LocalDateTime local ) {
+		final LocalDateTime epoch;
+		switch (unit) {
+			case MINUTE:
+				epoch = local.truncatedTo(ChronoUnit.MINUTES);
+				break;
+			case HOUR:
+				epoch = local.truncatedTo(ChronoUnit.HOURS);
+				break;
+			case DAY:
+				epoch = local.toLocalDate().atStartOfDay();
+				break;
+			case MONTH:
+				epoch = local.toLocalDate().withDayOfMonth(
+						1).atStartOfDay();
+				break;
+			case WEEK:
+				// setting the day of week to Sunday, which is not necessarily
+				// the first day of the week
+				epoch = getWeekStart(
+						local.toLocalDate()).plusDays(
+						(7 - weekFields.getFirstDayOfWeek().getValue()) % 7).atStartOfDay();
+				break;
+			case DECADE:
+				epoch = LocalDate.of(
+						(local.getYear() / 10) * 10,
+						1,
+						1).atStartOfDay();
+				break;
+			case YEAR:
+			default:
+				epoch = local.toLocalDate().withDayOfYear(
+						1).atStartOfDay();
+				break;
+		}
+		return ZonedDateTime.ofLocal(
+				epoch,
+				zone,
+				null).withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+	}
+
+	private byte[] getBinId(
+			final LocalDateTime local ) {
+		final StringBuilder id = new StringBuilder(
+				16);
+		id.append(local.getYear());
+		switch (unit) {
+			case YEAR:
+			case DECADE:
+			default:
+				break;
+			case WEEK:
+				id.append(
+						'_').append(
+						TWO_DIGITS[local.get(weekFields.weekOfWeekBasedYear())]);
+				break;
+			case MINUTE:
+			case HOUR:
+			case DAY:
+			case MONTH:
+				// months are zero-based in Calendar
+				id.append(
+						'_').append(
+						TWO_DIGITS[local.getMonthValue() - 1]);
+				if (unit == Unit.MONTH) {
+					break;
+				}
+				id.append(
+						'_').append(
+						TWO_DIGITS[local.getDayOfMonth()]);
+				if (unit == Unit.DAY) {
+					break;
+				}
+				id.append(
+						'_').append(
+						TWO_DIGITS[local.getHour()]);
+				if (unit == Unit.HOUR) {
+					break;
+				}
+				id.append(
+						'_').append(
+						TWO_DIGITS[local.getMinute()]);
+				break;
+		}
+		return StringUtils.stringToBinary(id.toString());
+	}
+
+	/**
+	 * A span of time [start, end) that shares the same bin ID and epoch
+	 */
+	protected static class Bin
+	{
+		private final long start;
+		private final long end;
+		private final long epoch;
+		private final byte[] binId;
+
+		private Bin(
+				final long start,
+				final long end,
+				final long epoch,
+				final byte[] binId ) {
+			this.start = start;
+			this.end = end;
+			this.epoch = epoch;
+			this.binId = binId;
+		}
+
+		public long getEpoch() {
+			return epoch;
+		}
+
+		public byte[] getBinId() {
+			return binId;
+		}
+	}
+}
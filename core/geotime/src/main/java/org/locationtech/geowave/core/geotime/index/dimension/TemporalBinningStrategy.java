@@ -104,6 +104,7 @@ public class TemporalBinningStrategy implements
 
 	private Unit unit;
 	private String timezone;
+	private transient volatile TemporalBinCalculator calculator = null;
 
 	public TemporalBinningStrategy() {}
 
@@ -138,6 +139,18 @@ public class TemporalBinningStrategy implements
 	@Override
 	public BinValue getBinnedValue(
 			final double value ) {
+		final TemporalBinCalculator.Bin bin = getCalculator().getBin(
+				(long) value);
+		if (bin == null) {
+			return getBinnedValueWithCalendar(value);
+		}
+		return new BinValue(
+				bin.getBinId(),
+				(long) value - bin.getEpoch());
+	}
+
+	protected BinValue getBinnedValueWithCalendar(
+			final double value ) {
 		// convert to a calendar and subtract the epoch for the bin
 		final Calendar epochCal = Calendar.getInstance(TimeZone.getTimeZone(timezone));
 		epochCal.setTimeInMillis((long) value);
@@ -373,12 +386,81 @@ public class TemporalBinningStrategy implements
 		return cal;
 	}
 
+	private TemporalBinCalculator getCalculator() {
+		TemporalBinCalculator c = calculator;
+		if (c == null) {
+			c = new TemporalBinCalculator(
+					unit,
+					timezone);
+			calculator = c;
+		}
+		return c;
+	}
+
 	@Override
 	public BinRange[] getNormalizedRanges(
 			final NumericData range ) {
 		if (range.getMax() < range.getMin()) {
 			return new BinRange[] {};
 		}
+		final TemporalBinCalculator c = getCalculator();
+		final TemporalBinCalculator.Bin startBin = c.getBin((long) range.getMin());
+		if (startBin == null) {
+			return getNormalizedRangesWithCalendar(range);
+		}
+		final long binSizeMillis = getBinSizeMillis();
+		final long startEpochMillis = startBin.getEpoch();
+		long epochIterator = startEpochMillis;
+		final List<BinRange> bins = new ArrayList<BinRange>();
+		// see getNormalizedRangesWithCalendar(), this iterates through the
+		// same bins
+		boolean firstBin = ((long) range.getMin() != startEpochMillis);
+		boolean lastBin = false;
+		do {
+			final TemporalBinCalculator.Bin bin = c.getBin(epochIterator);
+			final TemporalBinCalculator.Bin nextBin = c.getBin(epochIterator + (long) (binSizeMillis * 1.5));
+			if ((bin == null) || (nextBin == null)) {
+				return getNormalizedRangesWithCalendar(range);
+			}
+			final long nextEpoch = nextBin.getEpoch();
+			final long maxOfBin = nextEpoch - 1;
+			long startMillis, endMillis;
+			boolean fullExtent;
+			if ((long) range.getMax() <= maxOfBin) {
+				lastBin = true;
+				endMillis = (long) range.getMax();
+				fullExtent = FloatCompareUtils.checkDoublesEqual(
+						range.getMax(),
+						maxOfBin);
+			}
+			else {
+				endMillis = maxOfBin;
+				fullExtent = !firstBin;
+			}
+
+			if (firstBin) {
+				startMillis = (long) range.getMin();
+				firstBin = false;
+			}
+			else {
+				startMillis = epochIterator;
+			}
+			bins.add(new BinRange(
+					bin.getBinId(),
+					startMillis - epochIterator,
+					endMillis - epochIterator,
+					fullExtent));
+			epochIterator = nextEpoch;
+		}
+		while (!lastBin);
+		return bins.toArray(new BinRange[bins.size()]);
+	}
+
+	protected BinRange[] getNormalizedRangesWithCalendar(
+			final NumericData range ) {
+		if (range.getMax() < range.getMin()) {
+			return new BinRange[] {};
+		}
 		final Calendar startEpoch = Calendar.getInstance(TimeZone.getTimeZone(timezone));
 		final long binSizeMillis = getBinSizeMillis();
 		// initialize the epoch to the range min and then reset appropriate
@@ -462,6 +544,7 @@ public class TemporalBinningStrategy implements
 		buffer.get(timeZoneName);
 		unit = Unit.getUnit(unitCalendarEnum);
 		timezone = StringUtils.stringFromBinary(timeZoneName);
+		calculator = null;
 	}
 
 	@Override
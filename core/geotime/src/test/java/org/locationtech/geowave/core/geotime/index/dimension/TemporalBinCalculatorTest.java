@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.geotime.index.dimension;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.core.geotime.index.dimension.TemporalBinningStrategy.Unit;
+import org.locationtech.geowave.core.index.dimension.bin.BinRange;
+import org.locationtech.geowave.core.index.dimension.bin.BinValue;
+import org.locationtech.geowave.core.index.sfc.data.NumericRange;
+
+public class TemporalBinCalculatorTest
+{
+	private static final String[] TIMEZONES = new String[] {
+		"GMT",
+		"EST",
+		"GMT+05:30",
+		"America/New_York",
+		"America/Sao_Paulo",
+		"Australia/Lord_Howe",
+		"Pacific/Apia",
+		"Europe/London",
+		"Europe/Amsterdam",
+		"Africa/Monrovia"
+	};
+	private static final Locale[] LOCALES = new Locale[] {
+		Locale.US,
+		Locale.GERMANY,
+		new Locale(
+				"ar",
+				"EG")
+	};
+	// 1800-01-01 to 2100-01-01
+	private static final long MIN_MILLIS = -5364662400000L;
+	private static final long MAX_MILLIS = 4102444800000L;
+
+	private Locale defaultLocale;
+
+	@Before
+	public void saveLocale() {
+		defaultLocale = Locale.getDefault();
+	}
+
+	@After
+	public void restoreLocale() {
+		Locale.setDefault(defaultLocale);
+	}
+
+	@Test
+	public void testBinnedValuesMatchCalendar() {
+		final Random random = new Random(
+				42);
+		for (final Locale locale : LOCALES) {
+			Locale.setDefault(locale);
+			for (final String timezone : TIMEZONES) {
+				final long[] values = getValues(
+						random,
+						timezone);
+				for (final Unit unit : Unit.values()) {
+					final TemporalBinningStrategy strategy = new TemporalBinningStrategy(
+							unit,
+							timezone);
+					for (final long value : values) {
+						assertBinnedValuesEqual(
+								strategy,
+								value,
+								locale);
+						// a neighboring value, usually a cache hit
+						assertBinnedValuesEqual(
+								strategy,
+								value + 1000,
+								locale);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testNormalizedRangesMatchCalendar() {
+		final Random random = new Random(
+				7);
+		for (final Locale locale : LOCALES) {
+			Locale.setDefault(locale);
+			for (final String timezone : TIMEZONES) {
+				for (final Unit unit : Unit.values()) {
+					final TemporalBinningStrategy strategy = new TemporalBinningStrategy(
+							unit,
+							timezone);
+					for (int i = 0; i < 20; i++) {
+						final long min = MIN_MILLIS + (long) (random.nextDouble() * (MAX_MILLIS - MIN_MILLIS));
+						// up to about 40 bins
+						final long max = min + (long) (random.nextDouble() * 40 * strategy.getBinMax());
+						final NumericRange range = new NumericRange(
+								min,
+								max);
+						final BinRange[] expected = strategy.getNormalizedRangesWithCalendar(range);
+						final BinRange[] actual = strategy.getNormalizedRanges(range);
+						Assert.assertEquals(
+								expected.length,
+								actual.length);
+						for (int b = 0; b < expected.length; b++) {
+							Assert.assertArrayEquals(
+									expected[b].getBinId(),
+									actual[b].getBinId());
+							Assert.assertEquals(
+									expected[b].getNormalizedMin(),
+									actual[b].getNormalizedMin(),
+									0.0);
+							Assert.assertEquals(
+									expected[b].getNormalizedMax(),
+									actual[b].getNormalizedMax(),
+									0.0);
+							Assert.assertEquals(
+									expected[b].isFullExtent(),
+									actual[b].isFullExtent());
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBeforeGregorianUsesCalendar() {
+		final TemporalBinningStrategy strategy = new TemporalBinningStrategy(
+				Unit.YEAR);
+		// 1500-06-01, before the Gregorian cutover
+		final long value = -14705539200000L;
+		Assert.assertNull(new TemporalBinCalculator(
+				Unit.YEAR,
+				"GMT").getBin(value));
+		final BinValue expected = strategy.getBinnedValueWithCalendar(value);
+		final BinValue actual = strategy.getBinnedValue(value);
+		Assert.assertArrayEquals(
+				expected.getBinId(),
+				actual.getBinId());
+		Assert.assertEquals(
+				expected.getNormalizedValue(),
+				actual.getNormalizedValue(),
+				0.0);
+	}
+
+	@Test
+	public void testBinningThroughput() {
+		// not a rigorous benchmark, but shows the difference for sequential
+		// ingest of values within the same bin
+		final TemporalBinningStrategy strategy = new TemporalBinningStrategy(
+				Unit.DAY,
+				"America/New_York");
+		final int count = 200000;
+		final long start = 1500000000000L;
+		long calendarNanos = 0;
+		long calculatorNanos = 0;
+		for (int round = 0; round < 3; round++) {
+			long time = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				strategy.getBinnedValueWithCalendar(start + (i * 1000L));
+			}
+			calendarNanos = System.nanoTime() - time;
+			time = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				strategy.getBinnedValue(start + (i * 1000L));
+			}
+			calculatorNanos = System.nanoTime() - time;
+		}
+		System.out.println(String.format(
+				"Temporal binning of %d values: Calendar %.1f ns/value, java.time %.1f ns/value",
+				count,
+				calendarNanos / (double) count,
+				calculatorNanos / (double) count));
+	}
+
+	private static long[] getValues(
+			final Random random,
+			final String timezone ) {
+		final long[] values = new long[600];
+		for (int i = 0; i < 300; i++) {
+			values[i] = MIN_MILLIS + (long) (random.nextDouble() * (MAX_MILLIS - MIN_MILLIS));
+		}
+		// values around offset transitions, where a Calendar resolves local
+		// times in its own way
+		final ZoneRules rules = ZoneId.of(
+				timezone,
+				ZoneId.SHORT_IDS).getRules();
+		int i = 300;
+		ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(MIN_MILLIS));
+		while ((transition != null) && (i < values.length)) {
+			for (int j = 0; (j < 5) && (i < values.length); j++) {
+				values[i++] = (transition.toEpochSecond() * 1000)
+						+ (long) ((random.nextDouble() - 0.5) * 4 * 3600000L);
+			}
+			transition = rules.nextTransition(transition.getInstant().plusSeconds(
+					30 * 86400L * (1 + random.nextInt(24))));
+		}
+		for (; i < values.length; i++) {
+			values[i] = MIN_MILLIS + (long) (random.nextDouble() * (MAX_MILLIS - MIN_MILLIS));
+		}
+		Arrays.sort(values);
+		return values;
+	}
+
+	private static void assertBinnedValuesEqual(
+			final TemporalBinningStrategy strategy,
+			final long value,
+			final Locale locale ) {
+		final BinValue expected = strategy.getBinnedValueWithCalendar(value);
+		final BinValue actual = strategy.getBinnedValue(value);
+		final String message = locale + " " + Instant.ofEpochMilli(value);
+		Assert.assertArrayEquals(
+				message,
+				expected.getBinId(),
+				actual.getBinId());
+		Assert.assertEquals(
+				message,
+				expected.getNormalizedValue(),
+				actual.getNormalizedValue(),
+				0.0);
+	}
+}
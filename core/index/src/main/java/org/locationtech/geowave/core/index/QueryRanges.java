@@ -30,15 +30,18 @@ public class QueryRanges
 
 	private final Collection<SinglePartitionQueryRanges> partitionRanges;
 	private List<ByteArrayRange> compositeQueryRanges;
+	private final double estimatedOverRead;
 
 	public QueryRanges() {
 		// this implies an infinite range
 		partitionRanges = null;
+		estimatedOverRead = -1;
 	}
 
 	public QueryRanges(
 			final Set<ByteArrayId> partitionKeys,
 			final QueryRanges queryRanges ) {
+		estimatedOverRead = queryRanges == null ? -1 : queryRanges.estimatedOverRead;
 		if ((queryRanges == null) || (queryRanges.partitionRanges == null) || queryRanges.partitionRanges.isEmpty()) {
 			partitionRanges = fromPartitionKeys(partitionKeys);
 		}
@@ -75,7 +78,11 @@ public class QueryRanges
 			final List<QueryRanges> queryRangesList ) {
 		// group by partition
 		final Map<ByteArrayId, Collection<ByteArrayRange>> sortRangesPerPartition = new HashMap<>();
+		double maxOverRead = -1;
 		for (final QueryRanges qr : queryRangesList) {
+			maxOverRead = Math.max(
+					maxOverRead,
+					qr.estimatedOverRead);
 			for (final SinglePartitionQueryRanges r : qr.getPartitionQueryRanges()) {
 				final Collection<ByteArrayRange> ranges = sortRangesPerPartition.get(r.getPartitionKey());
 				if (ranges == null) {
@@ -105,22 +112,39 @@ public class QueryRanges
 					e.getKey(),
 					mergedRanges));
 		}
+		estimatedOverRead = maxOverRead;
 	}
 
 	public QueryRanges(
 			final Collection<SinglePartitionQueryRanges> partitionRanges ) {
+		this(
+				partitionRanges,
+				-1);
+	}
+
+	/**
+	 * @param estimatedOverRead
+	 *            the estimated fraction of the rows within the ranges that are
+	 *            outside of the query, or -1 if it is unknown
+	 */
+	public QueryRanges(
+			final Collection<SinglePartitionQueryRanges> partitionRanges,
+			final double estimatedOverRead ) {
 		this.partitionRanges = partitionRanges;
+		this.estimatedOverRead = estimatedOverRead;
 	}
 
 	public QueryRanges(
 			final ByteArrayRange singleSortKeyRange ) {
 		partitionRanges = Collections.singletonList(new SinglePartitionQueryRanges(
 				singleSortKeyRange));
+		estimatedOverRead = -1;
 	}
 
 	public QueryRanges(
 			final Set<ByteArrayId> partitionKeys ) {
 		partitionRanges = fromPartitionKeys(partitionKeys);
+		estimatedOverRead = -1;
 	}
 
 	private static Collection<SinglePartitionQueryRanges> fromPartitionKeys(
@@ -140,6 +164,15 @@ public class QueryRanges
 				});
 	}
 
+	/**
+	 * @return the estimated fraction of the rows within these ranges that are
+	 *         outside of the query constraints, or -1 if the index strategy
+	 *         does not estimate it
+	 */
+	public double getEstimatedOverRead() {
+		return estimatedOverRead;
+	}
+
 	public Collection<SinglePartitionQueryRanges> getPartitionQueryRanges() {
 		return partitionRanges;
 	}
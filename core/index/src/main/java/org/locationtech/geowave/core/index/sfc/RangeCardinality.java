@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.index.sfc;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+
+/**
+ * Estimates the number of rows stored within a range of sort keys, typically
+ * backed by row range histograms. Space filling curves use it to spend their
+ * range budget where the data is rather than where the query is largest.
+ */
+public interface RangeCardinality
+{
+	/**
+	 * @param partitionKey
+	 *            the partition of the range, null if the index is not
+	 *            partitioned
+	 * @param sortKeyRange
+	 *            the range of sort keys within the partition
+	 * @return the estimated number of rows within the range
+	 */
+	public double cardinality(
+			ByteArrayId partitionKey,
+			ByteArrayRange sortKeyRange );
+}
@@ -20,6 +20,7 @@ import org.locationtech.geowave.core.index.ByteArrayRange;
 public class RangeDecomposition
 {
 	private final ByteArrayRange[] ranges;
+	private final double estimatedOverRead;
 
 	/**
 	 * Constructor used to create a new Range Decomposition object.
@@ -29,7 +30,23 @@ public class RangeDecomposition
 	 */
 	public RangeDecomposition(
 			final ByteArrayRange[] ranges ) {
+		this(
+				ranges,
+				-1);
+	}
+
+	/**
+	 * @param ranges
+	 *            ranges for the space filling curve
+	 * @param estimatedOverRead
+	 *            the estimated fraction of the data within the ranges that is
+	 *            outside of the decomposed query, or -1 if it is unknown
+	 */
+	public RangeDecomposition(
+			final ByteArrayRange[] ranges,
+			final double estimatedOverRead ) {
 		this.ranges = ranges;
+		this.estimatedOverRead = estimatedOverRead;
 	}
 
 	/**
@@ -39,4 +56,13 @@ public class RangeDecomposition
 	public ByteArrayRange[] getRanges() {
 		return ranges;
 	}
+
+	/**
+	 * 
+	 * @return the estimated fraction of the data within the ranges that is
+	 *         outside of the decomposed query, or -1 if it is unknown
+	 */
+	public double getEstimatedOverRead() {
+		return estimatedOverRead;
+	}
 }
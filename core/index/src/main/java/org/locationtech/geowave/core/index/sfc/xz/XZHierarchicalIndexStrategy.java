@@ -13,6 +13,7 @@ package org.locationtech.geowave.core.index.sfc.xz;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -33,6 +34,8 @@ import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
 import org.locationtech.geowave.core.index.StringUtils;
 import org.locationtech.geowave.core.index.dimension.NumericDimensionDefinition;
 import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.index.sfc.RangeCardinality;
+import org.locationtech.geowave.core.index.sfc.RangeDecomposition;
 import org.locationtech.geowave.core.index.sfc.SFCDimensionDefinition;
 import org.locationtech.geowave.core.index.sfc.SFCFactory;
 import org.locationtech.geowave.core.index.sfc.SpaceFillingCurve;
@@ -138,6 +141,48 @@ public class XZHierarchicalIndexStrategy implements
 			final MultiDimensionalNumericData indexedRange,
 			final int maxEstimatedRangeDecomposition,
 			final IndexMetaData... hints ) {
+		return getQueryRanges(
+				indexedRange,
+				maxEstimatedRangeDecomposition,
+				false,
+				XZOrderSFC.DEFAULT_MAX_OVER_READ,
+				null,
+				hints);
+	}
+
+	/**
+	 * Decomposes the query, refining the XZ curve best-first until its ranges
+	 * reach the maximum or its estimated over-read drops to maxOverRead. The
+	 * returned query ranges report the largest estimated over-read of the XZ
+	 * curve's bins. The other getQueryRanges methods decompose breadth-first.
+	 *
+	 * @param cardinality
+	 *            estimates the rows within a range of the XZ curve so that
+	 *            ranges are refined where the data is, null to assume the data
+	 *            is distributed uniformly
+	 */
+	public QueryRanges getQueryRanges(
+			final MultiDimensionalNumericData indexedRange,
+			final int maxEstimatedRangeDecomposition,
+			final double maxOverRead,
+			final RangeCardinality cardinality,
+			final IndexMetaData... hints ) {
+		return getQueryRanges(
+				indexedRange,
+				maxEstimatedRangeDecomposition,
+				true,
+				maxOverRead,
+				cardinality,
+				hints);
+	}
+
+	private QueryRanges getQueryRanges(
+			final MultiDimensionalNumericData indexedRange,
+			final int maxEstimatedRangeDecomposition,
+			final boolean bestFirst,
+			final double maxOverRead,
+			final RangeCardinality cardinality,
+			final IndexMetaData... hints ) {
 
 		// TODO don't just pass max ranges along to the SFC, take tiering and
 		// binning into account to limit the number of ranges correctly
@@ -170,7 +215,8 @@ public class XZHierarchicalIndexStrategy implements
 					pointCurveMultiDimensionalId));
 		}
 
-		if ((xzHints == null) || (xzHints.xzCurveCount > 0)) {
+		double estimatedOverRead = -1;
+		if (((xzHints == null) || (xzHints.xzCurveCount > 0)) && !bestFirst) {
 			partitionedRanges.addAll(BinnedSFCUtils.getQueryRanges(
 					binnedQueries,
 					xzCurve,
@@ -182,13 +228,52 @@ public class XZHierarchicalIndexStrategy implements
 													// SFCs
 					xzCurveMultiDimensionalId));
 		}
+		else if ((xzHints == null) || (xzHints.xzCurveCount > 0)) {
+			// same as BinnedSFCUtils.getQueryRanges, but with the over-read
+			// and cardinality passed to the XZ curve
+			int maxRangeDecompositionPerBin = maxEstimatedRangeDecomposition;
+			if ((maxEstimatedRangeDecomposition > 1) && (binnedQueries.size() > 1)) {
+				maxRangeDecompositionPerBin = (int) Math.ceil((double) maxEstimatedRangeDecomposition
+						/ (double) binnedQueries.size());
+			}
+			for (final BinnedNumericDataset binnedQuery : binnedQueries) {
+				final ByteArrayId partitionKey = new ByteArrayId(
+						ByteArrayUtils.combineArrays(
+								new byte[] {
+									xzCurveMultiDimensionalId
+								},
+								binnedQuery.getBinId()));
+				final RangeDecomposition rangeDecomp;
+				if (maxRangeDecompositionPerBin < 1) {
+					rangeDecomp = xzCurve.decomposeRange(
+							binnedQuery,
+							true,
+							maxRangeDecompositionPerBin);
+				}
+				else {
+					rangeDecomp = ((XZOrderSFC) xzCurve).decomposeRange(
+							binnedQuery,
+							maxRangeDecompositionPerBin,
+							maxOverRead,
+							cardinality,
+							partitionKey);
+				}
+				estimatedOverRead = Math.max(
+						estimatedOverRead,
+						rangeDecomp.getEstimatedOverRead());
+				partitionedRanges.add(new SinglePartitionQueryRanges(
+						partitionKey,
+						Arrays.asList(rangeDecomp.getRanges())));
+			}
+		}
 		if (partitionedRanges.isEmpty()) {
 			return queryRanges;
 		}
 		final List<QueryRanges> queryRangesList = new ArrayList<>();
 		queryRangesList.add(queryRanges);
 		queryRangesList.add(new QueryRanges(
-				partitionedRanges));
+				partitionedRanges,
+				estimatedOverRead));
 		return new QueryRanges(
 				queryRangesList);
 	}
@@ -16,13 +16,17 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.ByteArrayRange;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
 import org.locationtech.geowave.core.index.ByteArrayRange.MergeOperation;
 import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.index.sfc.RangeCardinality;
 import org.locationtech.geowave.core.index.sfc.RangeDecomposition;
 import org.locationtech.geowave.core.index.sfc.SFCDimensionDefinition;
 import org.locationtech.geowave.core.index.sfc.SpaceFillingCurve;
@@ -38,6 +42,12 @@ public class XZOrderSFC implements
 	private final static Logger LOGGER = LoggerFactory.getLogger(XZOrderSFC.class);
 	private static double LOG_POINT_FIVE = Math.log(0.5);
 
+	/**
+	 * a suggested over-read at which a best-first decomposition stops refining,
+	 * even if it has ranges left
+	 */
+	public static final double DEFAULT_MAX_OVER_READ = 0.1;
+
 	// the initial level of 2^dim tree
 	private XElement[] LevelOneElements;
 
@@ -363,6 +373,84 @@ public class XZOrderSFC implements
 			MultiDimensionalNumericData query,
 			boolean overInclusiveOnEdge,
 			int maxRanges ) {
+		return decomposeBreadthFirst(
+				query,
+				maxRanges);
+	}
+
+	/**
+	 * Decomposes the query best-first. Elements that partially overlap the
+	 * query are refined in the order of their estimated false positives, which
+	 * are the rows within the element's extended region that are outside of the
+	 * query. Refinement stops once there are maxRanges ranges or the estimated
+	 * over-read of the ranges is at most maxOverRead, and adjacent ranges are
+	 * merged.
+	 *
+	 * @param maxRanges
+	 *            the maximum number of ranges before merging
+	 * @param maxOverRead
+	 *            the estimated fraction of rows read outside of the query that
+	 *            is acceptable
+	 * @param cardinality
+	 *            estimates the rows within an element, null to assume the rows
+	 *            are distributed uniformly
+	 * @param partitionKey
+	 *            the partition passed to the cardinality estimate
+	 * @return the ranges and their estimated over-read
+	 */
+	public RangeDecomposition decomposeRange(
+			final MultiDimensionalNumericData query,
+			final int maxRanges,
+			final double maxOverRead,
+			final RangeCardinality cardinality,
+			final ByteArrayId partitionKey ) {
+		final double[] queryMins = query.getMinValuesPerDimension();
+		final double[] queryMaxes = query.getMaxValuesPerDimension();
+		for (int i = 0; i < dimensionCount; i++) {
+			queryMins[i] = dimensionDefs[i].normalize(queryMins[i]);
+			queryMaxes[i] = dimensionDefs[i].normalize(queryMaxes[i]);
+		}
+		final BestFirstDecomposition decomposition = new BestFirstDecomposition(
+				queryMins,
+				queryMaxes,
+				cardinality,
+				partitionKey);
+		for (final XElement levelOneEl : LevelOneElements) {
+			decomposition.checkValue(
+					levelOneEl,
+					(short) 1);
+		}
+		// elements that can't be refined any further
+		final List<Candidate> unrefined = new ArrayList<Candidate>();
+		while (!decomposition.candidates.isEmpty()
+				&& ((decomposition.ranges.size() + decomposition.candidates.size() + unrefined.size()) < maxRanges)
+				&& (decomposition.getOverRead() > maxOverRead)) {
+			final Candidate next = decomposition.candidates.poll();
+			if (((next.level + 1) >= g) || (next.falsePositives <= 0)) {
+				unrefined.add(next);
+				continue;
+			}
+			decomposition.readRows -= next.rows;
+			decomposition.falsePositiveRows -= next.falsePositives;
+			for (final XElement child : next.element.children()) {
+				decomposition.checkValue(
+						child,
+						(short) (next.level + 1));
+			}
+		}
+		unrefined.addAll(decomposition.candidates);
+		for (final Candidate candidate : unrefined) {
+			decomposition.ranges.add(candidate.interval);
+		}
+		final List<ByteArrayRange> result = mergeAdjacent(decomposition.ranges);
+		return new RangeDecomposition(
+				result.toArray(new ByteArrayRange[result.size()]),
+				decomposition.getOverRead());
+	}
+
+	private RangeDecomposition decomposeBreadthFirst(
+			MultiDimensionalNumericData query,
+			int maxRanges ) {
 
 		// normalize query values
 		double[] queryMins = query.getMinValuesPerDimension();
@@ -477,6 +565,214 @@ public class XZOrderSFC implements
 		}
 	}
 
+	/**
+	 * Merges ranges that overlap or are adjacent, sequence codes are
+	 * non-negative longs so adjacent ranges differ by one.
+	 */
+	private static List<ByteArrayRange> mergeAdjacent(
+			final List<ByteArrayRange> ranges ) {
+		final List<long[]> codes = new ArrayList<long[]>(
+				ranges.size());
+		for (final ByteArrayRange range : ranges) {
+			codes.add(new long[] {
+				ByteArrayUtils.byteArrayToLong(range.getStart().getBytes()),
+				ByteArrayUtils.byteArrayToLong(range.getEnd().getBytes())
+			});
+		}
+		Collections.sort(
+				codes,
+				new Comparator<long[]>() {
+					@Override
+					public int compare(
+							final long[] o1,
+							final long[] o2 ) {
+						return Long.compare(
+								o1[0],
+								o2[0]);
+					}
+				});
+		final List<ByteArrayRange> result = new ArrayList<ByteArrayRange>();
+		long[] current = null;
+		for (final long[] code : codes) {
+			if ((current != null) && (code[0] <= (current[1] + 1))) {
+				current[1] = Math.max(
+						current[1],
+						code[1]);
+			}
+			else {
+				if (current != null) {
+					result.add(toRange(current));
+				}
+				current = code;
+			}
+		}
+		if (current != null) {
+			result.add(toRange(current));
+		}
+		return result;
+	}
+
+	private static ByteArrayRange toRange(
+			final long[] code ) {
+		return new ByteArrayRange(
+				new ByteArrayId(
+						ByteArrayUtils.longToByteArray(code[0])),
+				new ByteArrayId(
+						ByteArrayUtils.longToByteArray(code[1])));
+	}
+
+	/**
+	 * An element that partially overlaps the query and has not been refined.
+	 * Reading it means reading the interval of all of its descendants.
+	 */
+	private static class Candidate
+	{
+		private final XElement element;
+		private final short level;
+		private final ByteArrayRange interval;
+		private final double rows;
+		private final double falsePositives;
+
+		public Candidate(
+				final XElement element,
+				final short level,
+				final ByteArrayRange interval,
+				final double rows,
+				final double falsePositives ) {
+			this.element = element;
+			this.level = level;
+			this.interval = interval;
+			this.rows = rows;
+			this.falsePositives = falsePositives;
+		}
+	}
+
+	private class BestFirstDecomposition
+	{
+		private final double[] queryMins;
+		private final double[] queryMaxes;
+		private final RangeCardinality cardinality;
+		private final ByteArrayId partitionKey;
+		private final List<ByteArrayRange> ranges = new ArrayList<ByteArrayRange>();
+		// the most false positives first
+		private final PriorityQueue<Candidate> candidates = new PriorityQueue<Candidate>(
+				11,
+				new Comparator<Candidate>() {
+					@Override
+					public int compare(
+							final Candidate o1,
+							final Candidate o2 ) {
+						return Double.compare(
+								o2.falsePositives,
+								o1.falsePositives);
+					}
+				});
+		private double readRows = 0;
+		private double falsePositiveRows = 0;
+
+		public BestFirstDecomposition(
+				final double[] queryMins,
+				final double[] queryMaxes,
+				final RangeCardinality cardinality,
+				final ByteArrayId partitionKey ) {
+			this.queryMins = queryMins;
+			this.queryMaxes = queryMaxes;
+			this.cardinality = cardinality;
+			this.partitionKey = partitionKey;
+		}
+
+		private double getOverRead() {
+			if (readRows <= 0) {
+				return 0;
+			}
+			return Math.max(
+					0,
+					falsePositiveRows / readRows);
+		}
+
+		// same as checkValue of the breadth first decomposition, but partial
+		// matches are queued by their false positives
+		private void checkValue(
+				final XElement value,
+				final short level ) {
+			if (value.isContained(
+					queryMins,
+					queryMaxes)) {
+				final ByteArrayRange range = sequenceInterval(
+						value.minsPerDimension,
+						level,
+						false);
+				ranges.add(range);
+				readRows += getRows(
+						value,
+						range,
+						1);
+			}
+			else if (value.overlaps(
+					queryMins,
+					queryMaxes)) {
+				ranges.add(sequenceInterval(
+						value.minsPerDimension,
+						level,
+						true));
+				final ByteArrayRange interval = sequenceInterval(
+						value.minsPerDimension,
+						level,
+						false);
+				// the fraction of the element's extended region within the
+				// data space [0,1] that is also within the query
+				double volume = 1;
+				double overlap = 1;
+				for (int i = 0; i < dimensionCount; i++) {
+					final double min = value.minsPerDimension[i];
+					final double max = Math.min(
+							value.getExtendedBound(i),
+							1.0);
+					volume *= max - min;
+					overlap *= Math.max(
+							0,
+							Math.min(
+									max,
+									queryMaxes[i]) - Math.max(
+									min,
+									queryMins[i]));
+				}
+				final double rows = getRows(
+						value,
+						interval,
+						volume);
+				final double falsePositives = volume > 0 ? rows * (1 - (overlap / volume)) : 0;
+				candidates.add(new Candidate(
+						value,
+						level,
+						interval,
+						rows,
+						falsePositives));
+				readRows += rows;
+				falsePositiveRows += falsePositives;
+			}
+		}
+
+		private double getRows(
+				final XElement value,
+				final ByteArrayRange interval,
+				final double volume ) {
+			if (cardinality == null) {
+				// uniform, weight by the volume of the extended region
+				double extendedVolume = 1;
+				for (int i = 0; i < dimensionCount; i++) {
+					extendedVolume *= Math.min(
+							value.getExtendedBound(i),
+							1.0) - value.minsPerDimension[i];
+				}
+				return extendedVolume;
+			}
+			return cardinality.cardinality(
+					partitionKey,
+					interval);
+		}
+	}
+
 	/**
 	 * Computes an interval of sequence codes for a given point - for polygons
 	 * this is the lower-left corner.
@@ -12,7 +12,12 @@ package org.locationtech.geowave.core.index.sfc.xz;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
 import org.locationtech.geowave.core.index.dimension.BasicDimensionDefinition;
+import org.locationtech.geowave.core.index.sfc.RangeCardinality;
+import org.locationtech.geowave.core.index.sfc.RangeDecomposition;
 import org.locationtech.geowave.core.index.sfc.SFCDimensionDefinition;
 import org.locationtech.geowave.core.index.sfc.data.BasicNumericDataset;
 import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
@@ -55,6 +60,112 @@ public class XZOrderSFCTest
 				query));
 	}
 
+	@Test
+	public void testBestFirstDecomposition() {
+		final XZOrderSFC sfc = createSFC();
+		final RangeDecomposition decomposition = sfc.decomposeRange(
+				createQuery(),
+				20,
+				XZOrderSFC.DEFAULT_MAX_OVER_READ,
+				null,
+				null);
+		final ByteArrayRange[] ranges = decomposition.getRanges();
+		Assert.assertTrue(ranges.length <= 20);
+		// merged ranges are sorted and neither overlap nor touch
+		for (int i = 1; i < ranges.length; i++) {
+			Assert.assertTrue(ByteArrayUtils.byteArrayToLong(ranges[i].getStart().getBytes()) > (ByteArrayUtils
+					.byteArrayToLong(ranges[i - 1].getEnd().getBytes()) + 1));
+		}
+		Assert.assertTrue(decomposition.getEstimatedOverRead() >= 0);
+		Assert.assertTrue(decomposition.getEstimatedOverRead() <= 1);
+
+		// both a point and a box within the query are covered
+		Assert.assertTrue(isCovered(
+				ranges,
+				sfc.getId(new double[] {
+					20,
+					33.5
+				})));
+		Assert.assertTrue(isCovered(
+				ranges,
+				sfc.getId(new double[] {
+					19.5,
+					20.5,
+					33.2,
+					33.8
+				})));
+	}
+
+	@Test
+	public void testBreadthFirstIsDefault() {
+		final XZOrderSFC sfc = createSFC();
+		// the bounded decomposition of the curve interface doesn't estimate
+		// its over-read, so it isn't best-first
+		Assert.assertEquals(
+				-1,
+				sfc.decomposeRange(
+						createQuery(),
+						true,
+						20).getEstimatedOverRead(),
+				0);
+	}
+
+	@Test
+	public void testCardinalityLimitsRefinement() {
+		final XZOrderSFC sfc = createSFC();
+		final RangeDecomposition uniform = sfc.decomposeRange(
+				createQuery(),
+				50,
+				0,
+				null,
+				null);
+		// without any rows there are no false positives to refine away
+		final RangeDecomposition empty = sfc.decomposeRange(
+				createQuery(),
+				50,
+				0,
+				new RangeCardinality() {
+					@Override
+					public double cardinality(
+							final ByteArrayId partitionKey,
+							final ByteArrayRange sortKeyRange ) {
+						return 0;
+					}
+				},
+				null);
+		Assert.assertEquals(
+				0,
+				empty.getEstimatedOverRead(),
+				0);
+		Assert.assertTrue(empty.getRanges().length < uniform.getRanges().length);
+		Assert.assertTrue(uniform.getEstimatedOverRead() > 0);
+	}
+
+	private static boolean isCovered(
+			final ByteArrayRange[] ranges,
+			final byte[] id ) {
+		final long value = ByteArrayUtils.byteArrayToLong(id);
+		for (final ByteArrayRange range : ranges) {
+			if ((value >= ByteArrayUtils.byteArrayToLong(range.getStart().getBytes()))
+					&& (value <= ByteArrayUtils.byteArrayToLong(range.getEnd().getBytes()))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static MultiDimensionalNumericData createQuery() {
+		return new BasicNumericDataset(
+				new NumericData[] {
+					new NumericRange(
+							19.0,
+							21.0),
+					new NumericRange(
+							33.0,
+							34.0)
+				});
+	}
+
 	private XZOrderSFC createSFC() {
 		SFCDimensionDefinition[] dimensions = {
 			new SFCDimensionDefinition(
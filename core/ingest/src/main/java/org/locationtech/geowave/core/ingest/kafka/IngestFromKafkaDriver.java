@@ -14,6 +14,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -60,8 +61,8 @@ public class IngestFromKafkaDriver
 	private final DataStorePluginOptions storeOptions;
 	private final List<IndexPluginOptions> indexOptions;
 	private final Map<String, AvroFormatPlugin<?, ?>> ingestPlugins;
-	private final KafkaConsumerCommandLineOptions kafkaOptions;
-	private final VisibilityOptions ingestOptions;
+	protected final KafkaConsumerCommandLineOptions kafkaOptions;
+	protected final VisibilityOptions ingestOptions;
 	private final List<Future<?>> futures = new ArrayList<Future<?>>();
 
 	public IngestFromKafkaDriver(
@@ -145,14 +146,11 @@ public class IngestFromKafkaDriver
 					final WritableDataAdapter<?>[] dataAdapters = ingestWithAvroPlugin.getDataAdapters(ingestOptions
 							.getVisibility());
 					adapters.addAll(Arrays.asList(dataAdapters));
-					final KafkaIngestRunData runData = new KafkaIngestRunData(
-							adapters,
-							dataStore);
-
-					futures.add(launchTopicConsumer(
+					futures.addAll(launchTopicConsumers(
 							pluginProvider.getKey(),
 							avroFormatPlugin,
-							runData,
+							adapters,
+							dataStore,
 							queue));
 				}
 				catch (final UnsupportedOperationException e) {
@@ -180,14 +178,34 @@ public class IngestFromKafkaDriver
 		return consumer;
 	}
 
-	private Future<?> launchTopicConsumer(
+	/**
+	 * Start consuming the topic of a format plugin in the background.
+	 *
+	 * @param formatPluginName
+	 *            the name of the format plugin, which is also the topic name
+	 * @param avroFormatPlugin
+	 *            the plugin used to decode messages
+	 * @param adapters
+	 *            the data adapters of the plugin
+	 * @param dataStore
+	 *            the data store to write to
+	 * @param queue
+	 *            the names of the plugins that have not started consuming yet,
+	 *            consumers remove their plugin name once they are set up
+	 * @return a future for each consumer that was launched
+	 */
+	protected List<Future<?>> launchTopicConsumers(
 			final String formatPluginName,
 			final AvroFormatPlugin<?, ?> avroFormatPlugin,
-			final KafkaIngestRunData ingestRunData,
+			final List<WritableDataAdapter<?>> adapters,
+			final DataStore dataStore,
 			final List<String> queue )
 			throws IllegalArgumentException {
+		final KafkaIngestRunData ingestRunData = new KafkaIngestRunData(
+				adapters,
+				dataStore);
 		final ExecutorService executorService = Executors.newFixedThreadPool(queue.size());
-		return executorService.submit(new Runnable() {
+		return Collections.<Future<?>> singletonList(executorService.submit(new Runnable() {
 
 			@Override
 			public void run() {
@@ -204,7 +222,7 @@ public class IngestFromKafkaDriver
 							e);
 				}
 			}
-		});
+		}));
 	}
 
 	public <T> void consumeFromTopic(
@@ -322,11 +340,20 @@ public class IngestFromKafkaDriver
 			final KafkaIngestRunData ingestRunData,
 			final AvroFormatPlugin<T, ?> plugin )
 			throws IOException {
+		writeRecord(
+				dataRecord,
+				ingestRunData,
+				plugin,
+				createIndexMap(plugin));
+	}
 
-		IngestPluginBase<T, ?> ingestPlugin = plugin.getIngestWithAvroPlugin();
-		IndexProvider indexProvider = plugin;
-
-		final Map<ByteArrayId, IndexWriter> writerMap = new HashMap<ByteArrayId, IndexWriter>();
+	/**
+	 * @return the indices specified on the command line as well as the indices
+	 *         required by the plugin keyed by index ID
+	 */
+	protected Map<ByteArrayId, PrimaryIndex> createIndexMap(
+			final IndexProvider indexProvider )
+			throws IOException {
 		final Map<ByteArrayId, PrimaryIndex> indexMap = new HashMap<ByteArrayId, PrimaryIndex>();
 
 		for (IndexPluginOptions indexOption : indexOptions) {
@@ -349,40 +376,90 @@ public class IngestFromKafkaDriver
 						requiredIndex);
 			}
 		}
+		return indexMap;
+	}
+
+	/**
+	 * Convert a decoded record to GeoWave data and write it with the index
+	 * writers cached in the run data.
+	 */
+	protected <T> void writeRecord(
+			final T dataRecord,
+			final KafkaIngestRunData ingestRunData,
+			final AvroFormatPlugin<T, ?> plugin,
+			final Map<ByteArrayId, PrimaryIndex> indexMap )
+			throws IOException {
+		writeGeoWaveData(
+				toGeoWaveData(
+						dataRecord,
+						plugin,
+						indexMap),
+				ingestRunData,
+				indexMap);
+	}
 
+	/**
+	 * Convert a decoded record to GeoWave data without writing it, so that a
+	 * record that can't be converted can be told apart from a failed write.
+	 */
+	protected <T> List<GeoWaveData<?>> toGeoWaveData(
+			final T dataRecord,
+			final AvroFormatPlugin<T, ?> plugin,
+			final Map<ByteArrayId, PrimaryIndex> indexMap )
+			throws IOException {
+
+		IngestPluginBase<T, ?> ingestPlugin = plugin.getIngestWithAvroPlugin();
+
+		final List<GeoWaveData<?>> geowaveData = new ArrayList<GeoWaveData<?>>();
 		try (CloseableIterator<?> geowaveDataIt = ingestPlugin.toGeoWaveData(
 				dataRecord,
 				indexMap.keySet(),
 				ingestOptions.getVisibility())) {
 			while (geowaveDataIt.hasNext()) {
-				final GeoWaveData<?> geowaveData = (GeoWaveData<?>) geowaveDataIt.next();
-				final WritableDataAdapter adapter = ingestRunData.getDataAdapter(geowaveData);
-				if (adapter == null) {
-					LOGGER.warn("Adapter not found for " + geowaveData.getValue());
-					continue;
-				}
-				IndexWriter indexWriter = writerMap.get(adapter.getAdapterId());
-				if (indexWriter == null) {
-					List<PrimaryIndex> indexList = new ArrayList<PrimaryIndex>();
-					for (final ByteArrayId indexId : geowaveData.getIndexIds()) {
-						final PrimaryIndex index = indexMap.get(indexId);
-						if (index == null) {
-							LOGGER.warn("Index '" + indexId.getString() + "' not found for " + geowaveData.getValue());
-							continue;
-						}
-						indexList.add(index);
+				geowaveData.add((GeoWaveData<?>) geowaveDataIt.next());
+			}
+		}
+		return geowaveData;
+	}
+
+	/**
+	 * Write GeoWave data with the index writers cached in the run data.
+	 */
+	protected void writeGeoWaveData(
+			final List<GeoWaveData<?>> geowaveDataList,
+			final KafkaIngestRunData ingestRunData,
+			final Map<ByteArrayId, PrimaryIndex> indexMap )
+			throws IOException {
+
+		final Map<ByteArrayId, IndexWriter> writerMap = new HashMap<ByteArrayId, IndexWriter>();
+
+		for (final GeoWaveData<?> geowaveData : geowaveDataList) {
+			final WritableDataAdapter adapter = ingestRunData.getDataAdapter(geowaveData);
+			if (adapter == null) {
+				LOGGER.warn("Adapter not found for " + geowaveData.getValue());
+				continue;
+			}
+			IndexWriter indexWriter = writerMap.get(adapter.getAdapterId());
+			if (indexWriter == null) {
+				List<PrimaryIndex> indexList = new ArrayList<PrimaryIndex>();
+				for (final ByteArrayId indexId : geowaveData.getIndexIds()) {
+					final PrimaryIndex index = indexMap.get(indexId);
+					if (index == null) {
+						LOGGER.warn("Index '" + indexId.getString() + "' not found for " + geowaveData.getValue());
+						continue;
 					}
-					indexWriter = ingestRunData.getIndexWriter(
-							adapter,
-							indexList.toArray(new PrimaryIndex[indexList.size()]));
-					writerMap.put(
-							adapter.getAdapterId(),
-							indexWriter);
+					indexList.add(index);
 				}
+				indexWriter = ingestRunData.getIndexWriter(
+						adapter,
+						indexList.toArray(new PrimaryIndex[indexList.size()]));
+				writerMap.put(
+						adapter.getAdapterId(),
+						indexWriter);
+			}
 
-				indexWriter.write(geowaveData.getValue());
+			indexWriter.write(geowaveData.getValue());
 
-			}
 		}
 	}
 
@@ -38,6 +38,17 @@ public class KafkaConsumerCommandLineOptions extends
 	@Parameter(names = "--consumerTimeoutMs", description = "By default, this value is -1 and a consumer blocks indefinitely if no new message is available for consumption. By setting the value to a positive integer, a timeout exception is thrown to the consumer if no message is available for consumption after the specified timeout value.")
 	private String consumerTimeoutMs;
 
+	@PropertyReference("bootstrap.servers")
+	@Parameter(names = "--bootstrapServers", description = "A list of host/port pairs in the form host1:port1,host2:port2 to use for establishing the initial connection to the Kafka cluster. When set, the topics are consumed with the Kafka consumer API in batches with offsets committed only after the batch is flushed to GeoWave, rather than with the ZooKeeper based consumer.")
+	private String bootstrapServers;
+
+	@PropertyReference("max.poll.records")
+	@Parameter(names = "--maxPollRecords", description = "The maximum number of records returned in a single poll when using --bootstrapServers.")
+	private String maxPollRecords;
+
+	@Parameter(names = "--consumerThreads", description = "The number of consumers per topic when using --bootstrapServers, the partitions of the topic are balanced across the consumers")
+	private int consumerThreads = 1;
+
 	@Parameter(names = "--reconnectOnTimeout", description = "This flag will flush when the consumer timeout occurs (based on kafka property 'consumer.timeout.ms') and immediately reconnect")
 	private boolean reconnectOnTimeout = false;
 
@@ -97,6 +108,33 @@ public class KafkaConsumerCommandLineOptions extends
 		this.consumerTimeoutMs = consumerTimeoutMs;
 	}
 
+	public String getBootstrapServers() {
+		return bootstrapServers;
+	}
+
+	public void setBootstrapServers(
+			String bootstrapServers ) {
+		this.bootstrapServers = bootstrapServers;
+	}
+
+	public String getMaxPollRecords() {
+		return maxPollRecords;
+	}
+
+	public void setMaxPollRecords(
+			String maxPollRecords ) {
+		this.maxPollRecords = maxPollRecords;
+	}
+
+	public int getConsumerThreads() {
+		return consumerThreads;
+	}
+
+	public void setConsumerThreads(
+			int consumerThreads ) {
+		this.consumerThreads = consumerThreads;
+	}
+
 	public boolean isReconnectOnTimeout() {
 		return reconnectOnTimeout;
 	}
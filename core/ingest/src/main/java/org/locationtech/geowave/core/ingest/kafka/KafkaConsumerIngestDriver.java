@@ -0,0 +1,455 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.ingest.kafka;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.ingest.GeoWaveData;
+import org.locationtech.geowave.core.ingest.avro.AvroFormatPlugin;
+import org.locationtech.geowave.core.ingest.avro.GenericAvroSerializer;
+import org.locationtech.geowave.core.store.DataStore;
+import org.locationtech.geowave.core.store.adapter.WritableDataAdapter;
+import org.locationtech.geowave.core.store.cli.remote.options.DataStorePluginOptions;
+import org.locationtech.geowave.core.store.cli.remote.options.IndexPluginOptions;
+import org.locationtech.geowave.core.store.cli.remote.options.VisibilityOptions;
+import org.locationtech.geowave.core.store.index.PrimaryIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class ingests intermediate data from Kafka topics into GeoWave using the
+ * Kafka consumer API. Records are polled in batches and handed to a writer
+ * thread, and the offsets of a batch are committed only after the index writers
+ * have been flushed, so every record is written at least once. While the writer
+ * is behind, the consumer pauses its partitions and keeps polling so that it
+ * remains a live member of the consumer group. Multiple consumers per topic
+ * share the topic's partitions within the consumer group.
+ */
+public class KafkaConsumerIngestDriver extends
+		IngestFromKafkaDriver
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(KafkaConsumerIngestDriver.class);
+	private static final long POLL_TIMEOUT_MS = 100;
+
+	private final Map<String, KafkaIngestMetrics> metrics = new ConcurrentHashMap<String, KafkaIngestMetrics>();
+	private final List<TopicConsumer<?>> consumers = new CopyOnWriteArrayList<TopicConsumer<?>>();
+
+	public KafkaConsumerIngestDriver(
+			final DataStorePluginOptions storeOptions,
+			final List<IndexPluginOptions> indexOptions,
+			final Map<String, AvroFormatPlugin<?, ?>> ingestPlugins,
+			final KafkaConsumerCommandLineOptions kafkaOptions,
+			final VisibilityOptions ingestOptions ) {
+		super(
+				storeOptions,
+				indexOptions,
+				ingestPlugins,
+				kafkaOptions,
+				ingestOptions);
+	}
+
+	@SuppressWarnings({
+		"rawtypes",
+		"unchecked"
+	})
+	@Override
+	protected List<Future<?>> launchTopicConsumers(
+			final String formatPluginName,
+			final AvroFormatPlugin<?, ?> avroFormatPlugin,
+			final List<WritableDataAdapter<?>> adapters,
+			final DataStore dataStore,
+			final List<String> queue )
+			throws IllegalArgumentException {
+		final int consumerThreads = Math.max(
+				1,
+				kafkaOptions.getConsumerThreads());
+		final KafkaIngestMetrics topicMetrics = new KafkaIngestMetrics(
+				formatPluginName);
+		metrics.put(
+				formatPluginName,
+				topicMetrics);
+		final ExecutorService executorService = Executors.newFixedThreadPool(consumerThreads);
+		final List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < consumerThreads; i++) {
+			final TopicConsumer<?> consumer = new TopicConsumer(
+					formatPluginName,
+					avroFormatPlugin,
+					new KafkaIngestRunData(
+							adapters,
+							dataStore),
+					topicMetrics,
+					queue);
+			consumers.add(consumer);
+			futures.add(executorService.submit(consumer));
+		}
+		executorService.shutdown();
+		return futures;
+	}
+
+	/**
+	 * @return the metrics of each topic keyed by topic name
+	 */
+	public Map<String, KafkaIngestMetrics> getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Stop all consumers. Batches that were already polled are written and
+	 * committed before the consumers close.
+	 */
+	public void stop() {
+		for (final TopicConsumer<?> consumer : consumers) {
+			consumer.stop();
+		}
+	}
+
+	protected Properties getConsumerProperties() {
+		final Properties properties = new Properties();
+		properties.putAll(kafkaOptions.getProperties());
+		// translate the offset reset values of the ZooKeeper based consumer
+		final String offsetReset = properties.getProperty(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG);
+		if ("smallest".equals(offsetReset)) {
+			properties.setProperty(
+					ConsumerConfig.AUTO_OFFSET_RESET_CONFIG,
+					"earliest");
+		}
+		else if ("largest".equals(offsetReset)) {
+			properties.setProperty(
+					ConsumerConfig.AUTO_OFFSET_RESET_CONFIG,
+					"latest");
+		}
+		// these only apply to the ZooKeeper based consumer
+		properties.remove("zookeeper.connect");
+		properties.remove("consumer.timeout.ms");
+		properties.remove("fetch.message.max.bytes");
+		if (kafkaOptions.getFetchMessageMaxBytes() != null) {
+			properties.setProperty(
+					ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG,
+					kafkaOptions.getFetchMessageMaxBytes());
+		}
+		// offsets are committed explicitly once data is flushed
+		properties.setProperty(
+				ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG,
+				"false");
+		return properties;
+	}
+
+	private static long getConsumerTimeoutMs(
+			final KafkaConsumerCommandLineOptions kafkaOptions ) {
+		if (kafkaOptions.getConsumerTimeoutMs() == null) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(kafkaOptions.getConsumerTimeoutMs());
+		}
+		catch (final NumberFormatException e) {
+			LOGGER.warn(
+					"Invalid consumer timeout '" + kafkaOptions.getConsumerTimeoutMs()
+							+ "', consumer will not time out",
+					e);
+			return -1;
+		}
+	}
+
+	/**
+	 * A single consumer of a topic. The consumer is only used from the thread
+	 * running this task, decoding and writing happens on a separate writer
+	 * thread one batch at a time.
+	 */
+	private class TopicConsumer<T> implements
+			Callable<Void>
+	{
+		private final String topic;
+		private final AvroFormatPlugin<T, ?> avroFormatPlugin;
+		private final KafkaIngestRunData ingestRunData;
+		private final KafkaIngestMetrics topicMetrics;
+		private final List<String> queue;
+		private final ExecutorService writer = Executors.newSingleThreadExecutor();
+		private List<ConsumerRecord<byte[], byte[]>> buffer = new ArrayList<ConsumerRecord<byte[], byte[]>>();
+		private Future<Integer> inFlight = null;
+		private Map<TopicPartition, OffsetAndMetadata> inFlightOffsets = null;
+		private Map<ByteArrayId, PrimaryIndex> indexMap;
+		private KafkaConsumer<byte[], byte[]> consumer;
+		private volatile boolean running = true;
+
+		public TopicConsumer(
+				final String topic,
+				final AvroFormatPlugin<T, ?> avroFormatPlugin,
+				final KafkaIngestRunData ingestRunData,
+				final KafkaIngestMetrics topicMetrics,
+				final List<String> queue ) {
+			this.topic = topic;
+			this.avroFormatPlugin = avroFormatPlugin;
+			this.ingestRunData = ingestRunData;
+			this.topicMetrics = topicMetrics;
+			this.queue = queue;
+		}
+
+		public void stop() {
+			running = false;
+			final KafkaConsumer<byte[], byte[]> c = consumer;
+			if (c != null) {
+				c.wakeup();
+			}
+		}
+
+		@Override
+		public Void call()
+				throws Exception {
+			final int batchSize = Math.max(
+					1,
+					kafkaOptions.getBatchSize());
+			final long consumerTimeoutMs = getConsumerTimeoutMs(kafkaOptions);
+			indexMap = createIndexMap(avroFormatPlugin);
+			try (KafkaConsumer<byte[], byte[]> kafkaConsumer = new KafkaConsumer<byte[], byte[]>(
+					getConsumerProperties(),
+					new ByteArrayDeserializer(),
+					new ByteArrayDeserializer())) {
+				consumer = kafkaConsumer;
+				LOGGER.debug("Kafka consumer setup for format [" + topic + "] against topic [" + topic + "]");
+				consumer.subscribe(
+						Collections.singletonList(topic),
+						new ConsumerRebalanceListener() {
+							@Override
+							public void onPartitionsRevoked(
+									final Collection<TopicPartition> partitions ) {
+								// commit everything polled so far before
+								// another consumer takes over these
+								// partitions
+								try {
+									drain();
+								}
+								catch (final Exception e) {
+									LOGGER.error(
+											"Unable to commit offsets of revoked partitions for topic [" + topic + "]",
+											e);
+								}
+								for (final TopicPartition partition : partitions) {
+									topicMetrics.removeLag(partition);
+								}
+							}
+
+							@Override
+							public void onPartitionsAssigned(
+									final Collection<TopicPartition> partitions ) {
+								LOGGER.debug("Consumer of topic [" + topic + "] assigned " + partitions);
+							}
+						});
+				synchronized (queue) {
+					queue.remove(topic);
+				}
+
+				long lastRecordMillis = System.currentTimeMillis();
+				while (running) {
+					final ConsumerRecords<byte[], byte[]> records;
+					try {
+						records = consumer.poll(POLL_TIMEOUT_MS);
+					}
+					catch (final WakeupException e) {
+						if (running) {
+							throw e;
+						}
+						break;
+					}
+					for (final ConsumerRecord<byte[], byte[]> record : records) {
+						buffer.add(record);
+						topicMetrics.recordConsumed(record.serializedValueSize());
+					}
+					if (!records.isEmpty()) {
+						lastRecordMillis = System.currentTimeMillis();
+					}
+
+					if ((inFlight != null) && inFlight.isDone()) {
+						commitInFlight();
+						if (!consumer.paused().isEmpty()) {
+							consumer.resume(consumer.paused());
+						}
+					}
+					if ((inFlight == null)
+							&& ((buffer.size() >= batchSize) || (records.isEmpty() && !buffer.isEmpty()))) {
+						submitBuffer();
+					}
+					if ((inFlight != null) && (buffer.size() >= batchSize) && consumer.paused().isEmpty()) {
+						// the writer is behind, stop fetching but keep polling
+						// to remain in the consumer group
+						consumer.pause(consumer.assignment());
+						topicMetrics.recordPause();
+					}
+
+					if ((consumerTimeoutMs > 0) && records.isEmpty() && buffer.isEmpty() && (inFlight == null)
+							&& ((System.currentTimeMillis() - lastRecordMillis) > consumerTimeoutMs)) {
+						if (kafkaOptions.isFlushAndReconnect()) {
+							LOGGER.info("Consumer timed out from Kafka topic [" + topic + "]... Continuing...");
+							lastRecordMillis = System.currentTimeMillis();
+						}
+						else {
+							LOGGER.info("Consumer timed out from Kafka topic [" + topic + "]... ");
+							break;
+						}
+					}
+				}
+				drain();
+			}
+			finally {
+				consumer = null;
+				writer.shutdownNow();
+				ingestRunData.close();
+				LOGGER.info(topicMetrics.toString());
+			}
+			return null;
+		}
+
+		/**
+		 * Write and commit everything that has been polled, blocking until it
+		 * is flushed.
+		 */
+		private void drain()
+				throws InterruptedException,
+				ExecutionException {
+			if (inFlight != null) {
+				inFlight.get();
+				commitInFlight();
+			}
+			if (!buffer.isEmpty()) {
+				submitBuffer();
+				inFlight.get();
+				commitInFlight();
+			}
+		}
+
+		private void submitBuffer() {
+			final List<ConsumerRecord<byte[], byte[]>> batch = buffer;
+			buffer = new ArrayList<ConsumerRecord<byte[], byte[]>>();
+			final Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<TopicPartition, OffsetAndMetadata>();
+			for (final ConsumerRecord<byte[], byte[]> record : batch) {
+				// the committed offset is the next offset to be read
+				offsets.put(
+						new TopicPartition(
+								record.topic(),
+								record.partition()),
+						new OffsetAndMetadata(
+								record.offset() + 1));
+			}
+			inFlightOffsets = offsets;
+			inFlight = writer.submit(new Callable<Integer>() {
+				@Override
+				public Integer call()
+						throws Exception {
+					return writeBatch(batch);
+				}
+			});
+		}
+
+		private int writeBatch(
+				final List<ConsumerRecord<byte[], byte[]>> batch )
+				throws IOException {
+			for (final ConsumerRecord<byte[], byte[]> record : batch) {
+				final T dataRecord = GenericAvroSerializer.deserialize(
+						record.value(),
+						avroFormatPlugin.getAvroSchema());
+				if (dataRecord == null) {
+					continue;
+				}
+				final List<GeoWaveData<?>> geowaveData;
+				try {
+					geowaveData = toGeoWaveData(
+							dataRecord,
+							avroFormatPlugin,
+							indexMap);
+				}
+				catch (final Exception e) {
+					// a message that can't be converted will never succeed so
+					// it is skipped rather than blocking the partition
+					LOGGER.error(
+							"Unable to convert message at offset " + record.offset() + " of partition "
+									+ record.partition() + ", skipping it: " + e.getMessage(),
+							e);
+					continue;
+				}
+				// write failures propagate so the offsets are not committed
+				// and the batch is consumed again
+				writeGeoWaveData(
+						geowaveData,
+						ingestRunData,
+						indexMap);
+			}
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug(String.format(
+						"Flushing %d items",
+						batch.size()));
+			}
+			// offsets are only committed once this completes
+			ingestRunData.flush();
+			return batch.size();
+		}
+
+		private void commitInFlight()
+				throws InterruptedException,
+				ExecutionException {
+			// throws if the batch could not be written, in which case the
+			// offsets are not committed and the batch will be consumed again
+			final int count = inFlight.get();
+			consumer.commitSync(inFlightOffsets);
+			topicMetrics.recordCommit(count);
+			updateLag(inFlightOffsets);
+			inFlight = null;
+			inFlightOffsets = null;
+		}
+
+		private void updateLag(
+				final Map<TopicPartition, OffsetAndMetadata> committed ) {
+			try {
+				final Map<TopicPartition, Long> endOffsets = consumer.endOffsets(committed.keySet());
+				for (final Entry<TopicPartition, Long> endOffset : endOffsets.entrySet()) {
+					topicMetrics.updateLag(
+							endOffset.getKey(),
+							Math.max(
+									0,
+									endOffset.getValue() - committed.get(
+											endOffset.getKey()).offset()));
+				}
+			}
+			catch (final Exception e) {
+				LOGGER.debug(
+						"Unable to determine lag for topic [" + topic + "]",
+						e);
+			}
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug(topicMetrics.toString());
+			}
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.ingest.kafka;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Thread-safe counters describing the progress of the consumers of a single
+ * topic. Lag is the number of records between the last committed offset and the
+ * end of each partition as of the most recent commit.
+ */
+public class KafkaIngestMetrics
+{
+	private final String topic;
+	private final long startMillis;
+	private final AtomicLong recordsConsumed = new AtomicLong();
+	private final AtomicLong bytesConsumed = new AtomicLong();
+	private final AtomicLong recordsWritten = new AtomicLong();
+	private final AtomicLong commits = new AtomicLong();
+	private final AtomicLong pauses = new AtomicLong();
+	private final Map<TopicPartition, Long> partitionLag = new ConcurrentHashMap<TopicPartition, Long>();
+
+	public KafkaIngestMetrics(
+			final String topic ) {
+		this.topic = topic;
+		startMillis = System.currentTimeMillis();
+	}
+
+	public String getTopic() {
+		return topic;
+	}
+
+	protected void recordConsumed(
+			final long bytes ) {
+		recordsConsumed.incrementAndGet();
+		bytesConsumed.addAndGet(bytes);
+	}
+
+	protected void recordCommit(
+			final long records ) {
+		recordsWritten.addAndGet(records);
+		commits.incrementAndGet();
+	}
+
+	protected void recordPause() {
+		pauses.incrementAndGet();
+	}
+
+	protected void updateLag(
+			final TopicPartition partition,
+			final long lag ) {
+		partitionLag.put(
+				partition,
+				lag);
+	}
+
+	protected void removeLag(
+			final TopicPartition partition ) {
+		partitionLag.remove(partition);
+	}
+
+	public long getRecordsConsumed() {
+		return recordsConsumed.get();
+	}
+
+	public long getBytesConsumed() {
+		return bytesConsumed.get();
+	}
+
+	/**
+	 * @return the number of records that have been flushed to GeoWave and had
+	 *         their offsets committed
+	 */
+	public long getRecordsWritten() {
+		return recordsWritten.get();
+	}
+
+	public long getCommits() {
+		return commits.get();
+	}
+
+	/**
+	 * @return the number of times consumption was paused because writing to
+	 *         GeoWave fell behind
+	 */
+	public long getPauses() {
+		return pauses.get();
+	}
+
+	public Map<TopicPartition, Long> getPartitionLag() {
+		return partitionLag;
+	}
+
+	public long getTotalLag() {
+		long lag = 0;
+		for (final Long partition : partitionLag.values()) {
+			lag += partition;
+		}
+		return lag;
+	}
+
+	/**
+	 * @return records written per second since the consumers were started
+	 */
+	public double getThroughput() {
+		final long elapsed = System.currentTimeMillis() - startMillis;
+		if (elapsed <= 0) {
+			return 0;
+		}
+		return (recordsWritten.get() * 1000.0) / elapsed;
+	}
+
+	@Override
+	public String toString() {
+		return String
+				.format(
+						"[%s] consumed %d records (%d bytes), wrote %d records in %d commits (%.1f records/s), lag %d, paused %d times",
+						topic,
+						getRecordsConsumed(),
+						getBytesConsumed(),
+						getRecordsWritten(),
+						getCommits(),
+						getThroughput(),
+						getTotalLag(),
+						getPauses());
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.ingest.local;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe throughput counters for one stage of the pipelined local ingest.
+ * Busy time is summed across all threads of the stage while throughput is
+ * reported against the wall-clock time since the stage was created.
+ */
+public class IngestStageStatistics
+{
+	private final String stageName;
+	private final int threads;
+	private final long startNanos;
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong busyNanos = new AtomicLong();
+	private volatile long endNanos = -1;
+
+	public IngestStageStatistics(
+			final String stageName,
+			final int threads ) {
+		this.stageName = stageName;
+		this.threads = threads;
+		startNanos = System.nanoTime();
+	}
+
+	public void record(
+			final long items,
+			final long nanos ) {
+		count.addAndGet(items);
+		busyNanos.addAndGet(nanos);
+	}
+
+	public void finish() {
+		if (endNanos < 0) {
+			endNanos = System.nanoTime();
+		}
+	}
+
+	public String getStageName() {
+		return stageName;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getBusyMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(busyNanos.get());
+	}
+
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis((endNanos < 0 ? System.nanoTime() : endNanos) - startNanos);
+	}
+
+	/**
+	 * @return items per second of wall-clock time
+	 */
+	public double getThroughput() {
+		final long elapsed = getElapsedMillis();
+		if (elapsed <= 0) {
+			return count.get();
+		}
+		return (count.get() * 1000.0) / elapsed;
+	}
+
+	/**
+	 * @return the fraction of the stage's thread time spent doing work
+	 */
+	public double getUtilization() {
+		final long elapsed = getElapsedMillis();
+		if ((elapsed <= 0) || (threads <= 0)) {
+			return 0;
+		}
+		return Math.min(
+				1.0,
+				getBusyMillis() / ((double) elapsed * threads));
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"%s stage: %d items in %d ms on %d thread(s) (%.1f items/s, %.0f%% busy)",
+				stageName,
+				getCount(),
+				getElapsedMillis(),
+				threads,
+				getThroughput(),
+				getUtilization() * 100);
+	}
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.ingest.local;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import org.locationtech.geowave.core.store.CloseableIterator;
+
+/**
+ * Iterates the lines of a file that start within a LocalFileSplit. A line
+ * belongs to the split containing its first byte, so the union of the lines of
+ * all adjacent splits of a file is exactly the lines of the file, each read
+ * once. Lines are terminated by '\n' and a trailing '\r' is dropped.
+ */
+public class LineRangeIterator implements
+		CloseableIterator<String>
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private final InputStream in;
+	private final long end;
+	private final Charset charset;
+	private final long firstLine;
+	private final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream();
+	private long position;
+	private long nextLineStart;
+	private long lineStart = -1;
+	private long linesRead = 0;
+	private String nextLine;
+
+	public LineRangeIterator(
+			final LocalFileSplit split )
+			throws IOException {
+		this(
+				split,
+				StandardCharsets.UTF_8);
+	}
+
+	public LineRangeIterator(
+			final LocalFileSplit split,
+			final Charset charset )
+			throws IOException {
+		this.end = split.getEnd();
+		this.charset = charset;
+		firstLine = split.getFirstLine();
+		in = new BufferedInputStream(
+				split.getFile().openStream(),
+				BUFFER_SIZE);
+		if (split.getStart() > 0) {
+			// start from the byte before the split so a line starting exactly
+			// at the split boundary is not mistaken for a partial line
+			skipFully(split.getStart() - 1);
+			position = split.getStart() - 1;
+			// the remainder of this line belongs to the previous split
+			readLine();
+		}
+		nextLineStart = position;
+		nextLine = position < end ? readLine() : null;
+	}
+
+	private void skipFully(
+			final long bytes )
+			throws IOException {
+		long remaining = bytes;
+		while (remaining > 0) {
+			final long skipped = in.skip(remaining);
+			if (skipped <= 0) {
+				if (in.read() < 0) {
+					throw new IOException(
+							"Split starts beyond the end of the file");
+				}
+				remaining--;
+			}
+			else {
+				remaining -= skipped;
+			}
+		}
+	}
+
+	private String readLine()
+			throws IOException {
+		lineBuffer.reset();
+		int b;
+		boolean read = false;
+		while ((b = in.read()) >= 0) {
+			position++;
+			read = true;
+			if (b == '\n') {
+				break;
+			}
+			lineBuffer.write(b);
+		}
+		if (!read) {
+			return null;
+		}
+		final byte[] bytes = lineBuffer.toByteArray();
+		int length = bytes.length;
+		if ((length > 0) && (bytes[length - 1] == '\r')) {
+			length--;
+		}
+		return new String(
+				bytes,
+				0,
+				length,
+				charset);
+	}
+
+	@Override
+	public boolean hasNext() {
+		return nextLine != null;
+	}
+
+	@Override
+	public String next() {
+		if (nextLine == null) {
+			throw new NoSuchElementException();
+		}
+		final String line = nextLine;
+		lineStart = nextLineStart;
+		linesRead++;
+		nextLineStart = position;
+		try {
+			nextLine = position < end ? readLine() : null;
+		}
+		catch (final IOException e) {
+			throw new RuntimeException(
+					"Unable to read line from split",
+					e);
+		}
+		return line;
+	}
+
+	/**
+	 * @return the byte offset within the file of the line most recently
+	 *         returned by next(), which is unique to the line and increases
+	 *         with the line's position in the file, or -1 before the first line
+	 */
+	public long getLineStart() {
+		return lineStart;
+	}
+
+	/**
+	 * @return the zero-based number within the file of the line most recently
+	 *         returned by next(), or -1 before the first line or if the split
+	 *         was created without counting the lines of the file
+	 */
+	public long getLineNumber() {
+		if ((firstLine < 0) || (linesRead == 0)) {
+			return -1;
+		}
+		return (firstLine + linesRead) - 1;
+	}
+
+	@Override
+	public void close()
+			throws IOException {
+		in.close();
+	}
+}
@@ -177,18 +177,7 @@ public class LocalFileIngestDriver extends
 		// This loads up the primary indexes that are specified on the command
 		// line.
 		// Usually spatial or spatial-temporal
-		final Map<ByteArrayId, PrimaryIndex> specifiedPrimaryIndexes = new HashMap<ByteArrayId, PrimaryIndex>();
-		for (final IndexPluginOptions dimensionType : indexOptions) {
-			final PrimaryIndex primaryIndex = dimensionType.createPrimaryIndex();
-			if (primaryIndex == null) {
-				LOGGER.error("Could not get index instance, getIndex() returned null;");
-				throw new IOException(
-						"Could not get index instance, getIndex() returned null");
-			}
-			specifiedPrimaryIndexes.put(
-					primaryIndex.getId(),
-					primaryIndex);
-		}
+		final Map<ByteArrayId, PrimaryIndex> specifiedPrimaryIndexes = getSpecifiedPrimaryIndexes();
 
 		// This gets the list of required indexes from the Plugin.
 		// If for some reason a GeoWaveData specifies an index that isn't
@@ -198,15 +187,7 @@ public class LocalFileIngestDriver extends
 		// if the Plugin supports it. If it does, then we allow the creation of
 		// the
 		// index.
-		final Map<ByteArrayId, PrimaryIndex> requiredIndexMap = new HashMap<ByteArrayId, PrimaryIndex>();
-		final PrimaryIndex[] requiredIndices = plugin.getRequiredIndices();
-		if ((requiredIndices != null) && (requiredIndices.length > 0)) {
-			for (final PrimaryIndex requiredIndex : requiredIndices) {
-				requiredIndexMap.put(
-						requiredIndex.getId(),
-						requiredIndex);
-			}
-		}
+		final Map<ByteArrayId, PrimaryIndex> requiredIndexMap = getRequiredIndexMap(plugin);
 
 		if (threads == 1) {
 
@@ -235,6 +216,37 @@ public class LocalFileIngestDriver extends
 				file.getFile()));
 	}
 
+	protected Map<ByteArrayId, PrimaryIndex> getSpecifiedPrimaryIndexes()
+			throws IOException {
+		final Map<ByteArrayId, PrimaryIndex> specifiedPrimaryIndexes = new HashMap<ByteArrayId, PrimaryIndex>();
+		for (final IndexPluginOptions dimensionType : indexOptions) {
+			final PrimaryIndex primaryIndex = dimensionType.createPrimaryIndex();
+			if (primaryIndex == null) {
+				LOGGER.error("Could not get index instance, getIndex() returned null;");
+				throw new IOException(
+						"Could not get index instance, getIndex() returned null");
+			}
+			specifiedPrimaryIndexes.put(
+					primaryIndex.getId(),
+					primaryIndex);
+		}
+		return specifiedPrimaryIndexes;
+	}
+
+	protected static Map<ByteArrayId, PrimaryIndex> getRequiredIndexMap(
+			final LocalFileIngestPlugin<?> plugin ) {
+		final Map<ByteArrayId, PrimaryIndex> requiredIndexMap = new HashMap<ByteArrayId, PrimaryIndex>();
+		final PrimaryIndex[] requiredIndices = plugin.getRequiredIndices();
+		if ((requiredIndices != null) && (requiredIndices.length > 0)) {
+			for (final PrimaryIndex requiredIndex : requiredIndices) {
+				requiredIndexMap.put(
+						requiredIndex.getId(),
+						requiredIndex);
+			}
+		}
+		return requiredIndexMap;
+	}
+
 	public void processFileSingleThreaded(
 			final URL file,
 			final String typeName,
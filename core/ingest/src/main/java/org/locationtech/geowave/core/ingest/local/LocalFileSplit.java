@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.ingest.local;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A contiguous byte range of a local file. An entry belongs to the split that
+ * contains the first byte of the entry, so a plugin reading a split may read
+ * past the end offset to finish its last entry but must skip any partial entry
+ * at the start offset.
+ */
+public class LocalFileSplit
+{
+	private final URL file;
+	private final long start;
+	private final long end;
+	private final long firstLine;
+
+	public LocalFileSplit(
+			final URL file,
+			final long start,
+			final long end ) {
+		this(
+				file,
+				start,
+				end,
+				-1);
+	}
+
+	public LocalFileSplit(
+			final URL file,
+			final long start,
+			final long end,
+			final long firstLine ) {
+		this.file = file;
+		this.start = start;
+		this.end = end;
+		this.firstLine = firstLine;
+	}
+
+	/**
+	 * Divide a file into adjacent byte ranges of at most splitSize bytes.
+	 *
+	 * @param length
+	 *            the length of the file in bytes
+	 * @return the splits covering the whole file, a single split if the file is
+	 *         not larger than the split size
+	 */
+	public static List<LocalFileSplit> getSplits(
+			final URL file,
+			final long length,
+			final long splitSize ) {
+		final List<LocalFileSplit> splits = new ArrayList<LocalFileSplit>();
+		if ((length <= splitSize) || (splitSize <= 0)) {
+			splits.add(new LocalFileSplit(
+					file,
+					0,
+					Math.max(
+							length,
+							0)));
+			return splits;
+		}
+		for (long start = 0; start < length; start += splitSize) {
+			splits.add(new LocalFileSplit(
+					file,
+					start,
+					Math.min(
+							start + splitSize,
+							length)));
+		}
+		return splits;
+	}
+
+	/**
+	 * Divide a file of '\n' terminated lines into adjacent byte ranges of at
+	 * most splitSize bytes, reading the file once to number the first line of
+	 * each split so that lines can be numbered the same way no matter how the
+	 * file is split.
+	 *
+	 * @param length
+	 *            the length of the file in bytes
+	 * @return the splits covering the whole file, a single split if the file is
+	 *         not larger than the split size
+	 * @throws IOException
+	 *             if the file can not be read
+	 */
+	public static List<LocalFileSplit> getLineSplits(
+			final URL file,
+			final long length,
+			final long splitSize )
+			throws IOException {
+		final List<LocalFileSplit> byteSplits = getSplits(
+				file,
+				length,
+				splitSize);
+		final List<LocalFileSplit> splits = new ArrayList<LocalFileSplit>(
+				byteSplits.size());
+		try (InputStream in = new BufferedInputStream(
+				file.openStream(),
+				64 * 1024)) {
+			// the number of lines starting before the current position
+			long lines = 0;
+			long position = 0;
+			boolean lineStarted = false;
+			for (final LocalFileSplit split : byteSplits) {
+				while (position < split.getStart()) {
+					final int b = in.read();
+					if (b < 0) {
+						throw new IOException(
+								"Unexpected end of file [" + file + "] at byte " + position);
+					}
+					if (!lineStarted) {
+						lines++;
+						lineStarted = true;
+					}
+					if (b == '\n') {
+						lineStarted = false;
+					}
+					position++;
+				}
+				// a line in progress at the start offset belongs to the
+				// previous split
+				splits.add(new LocalFileSplit(
+						file,
+						split.getStart(),
+						split.getEnd(),
+						lines));
+			}
+		}
+		return splits;
+	}
+
+	public URL getFile() {
+		return file;
+	}
+
+	/**
+	 * @return the inclusive byte offset at which this split starts
+	 */
+	public long getStart() {
+		return start;
+	}
+
+	/**
+	 * @return the exclusive byte offset at which this split ends
+	 */
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * @return the zero-based number within the file of the first line starting
+	 *         in this split, or -1 if the lines of the file were not counted
+	 */
+	public long getFirstLine() {
+		return firstLine;
+	}
+
+	public long getLength() {
+		return end - start;
+	}
+
+	@Override
+	public String toString() {
+		return file.getPath() + ":" + start + "+" + getLength();
+	}
+}
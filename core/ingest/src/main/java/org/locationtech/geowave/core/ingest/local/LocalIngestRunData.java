@@ -106,6 +106,10 @@ public class LocalIngestRunData implements
 		adapterStore.addAdapter(adapter);
 	}
 
+	public DataStore getDataStore() {
+		return dataStore;
+	}
+
 	/**
 	 * Return an index writer from the pool. The pool will create a new one The
 	 * pool will not be cleaned up until the end. (No items will be cleaned up
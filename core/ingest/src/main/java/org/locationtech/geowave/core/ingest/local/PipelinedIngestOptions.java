@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.ingest.local;
+
+import java.io.Serializable;
+
+import com.beust.jcommander.Parameter;
+
+/**
+ * Options for the pipelined local ingest, in which large files are split into
+ * byte ranges, the ranges are parsed on a work-stealing pool and the results
+ * are written by dedicated writer threads for each index. Each stage is sized
+ * independently.
+ */
+public class PipelinedIngestOptions implements
+		Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	@Parameter(names = "--pipelined", description = "Ingest through separate split, parse and per-index write stages so that large files can be parsed in parallel (optional)")
+	private boolean pipelined = false;
+
+	@Parameter(names = "--parseThreads", description = "number of threads parsing file splits when pipelined, defaults to the number of ingest threads (optional)")
+	private int parseThreads = 0;
+
+	@Parameter(names = "--writeThreads", description = "number of writer threads per index when pipelined, default to 1 (optional)")
+	private int writeThreadsPerIndex = 1;
+
+	@Parameter(names = "--splitSizeMB", description = "target size in megabytes of the byte ranges that splittable files are divided into when pipelined, default to 64 (optional)")
+	private int splitSizeMB = 64;
+
+	@Parameter(names = "--batchSize", description = "number of entries handed from the parse stage to the write stage at a time when pipelined, default to 1000 (optional)")
+	private int batchSize = 1000;
+
+	public boolean isPipelined() {
+		return pipelined;
+	}
+
+	public void setPipelined(
+			final boolean pipelined ) {
+		this.pipelined = pipelined;
+	}
+
+	public int getParseThreads() {
+		return parseThreads;
+	}
+
+	public void setParseThreads(
+			final int parseThreads ) {
+		this.parseThreads = parseThreads;
+	}
+
+	public int getWriteThreadsPerIndex() {
+		return writeThreadsPerIndex;
+	}
+
+	public void setWriteThreadsPerIndex(
+			final int writeThreadsPerIndex ) {
+		this.writeThreadsPerIndex = writeThreadsPerIndex;
+	}
+
+	public int getSplitSizeMB() {
+		return splitSizeMB;
+	}
+
+	public void setSplitSizeMB(
+			final int splitSizeMB ) {
+		this.splitSizeMB = splitSizeMB;
+	}
+
+	public long getSplitSizeBytes() {
+		return splitSizeMB * 1024L * 1024L;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(
+			final int batchSize ) {
+		this.batchSize = batchSize;
+	}
+}
@@ -0,0 +1,593 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.ingest.local;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.FilenameUtils;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.ingest.GeoWaveData;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.IndexWriter;
+import org.locationtech.geowave.core.store.adapter.WritableDataAdapter;
+import org.locationtech.geowave.core.store.cli.remote.options.DataStorePluginOptions;
+import org.locationtech.geowave.core.store.cli.remote.options.IndexPluginOptions;
+import org.locationtech.geowave.core.store.cli.remote.options.VisibilityOptions;
+import org.locationtech.geowave.core.store.index.PrimaryIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This local file ingest driver runs ingest as a pipeline of three
+ * independently sized stages. Files supported by a
+ * SplittableLocalFileIngestPlugin are divided into byte ranges, every range (or
+ * whole file for other plugins) is parsed on a work-stealing pool, and the
+ * parsed entries are handed off in batches to dedicated writer threads for each
+ * index. Unlike the file-per-thread approach of the parent driver, a few very
+ * large files can therefore keep all of the parse threads busy.
+ */
+public class PipelinedLocalFileIngestDriver extends
+		LocalFileIngestDriver
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(PipelinedLocalFileIngestDriver.class);
+	// compared by identity to signal writer threads that no more batches
+	// will arrive
+	private static final List<GeoWaveData<?>> END_OF_STREAM = new ArrayList<GeoWaveData<?>>();
+
+	private final PipelinedIngestOptions pipelineOptions;
+	private final Map<ByteArrayId, IndexWriteStage> writeStages = new ConcurrentHashMap<ByteArrayId, IndexWriteStage>();
+	private final Queue<ForkJoinTask<?>> parseTasks = new ConcurrentLinkedQueue<ForkJoinTask<?>>();
+	private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+	private ForkJoinPool parsePool;
+	private ExecutorService writeExecutor;
+	private IngestStageStatistics splitStatistics;
+	private IngestStageStatistics parseStatistics;
+
+	public PipelinedLocalFileIngestDriver(
+			final DataStorePluginOptions storeOptions,
+			final List<IndexPluginOptions> indexOptions,
+			final Map<String, LocalFileIngestPlugin<?>> ingestPlugins,
+			final VisibilityOptions ingestOptions,
+			final LocalInputCommandLineOptions inputOptions,
+			final int threads,
+			final PipelinedIngestOptions pipelineOptions ) {
+		super(
+				storeOptions,
+				indexOptions,
+				ingestPlugins,
+				ingestOptions,
+				inputOptions,
+				threads);
+		this.pipelineOptions = pipelineOptions;
+	}
+
+	private int getParseThreads() {
+		if (pipelineOptions.getParseThreads() > 0) {
+			return pipelineOptions.getParseThreads();
+		}
+		return Math.max(
+				1,
+				threads);
+	}
+
+	/**
+	 * Create the work-stealing parse pool and the pool that per-index writer
+	 * threads are started on as indices are first encountered.
+	 */
+	@Override
+	public void startExecutor() {
+		failure.set(null);
+		writeStages.clear();
+		parseTasks.clear();
+		splitStatistics = new IngestStageStatistics(
+				"split",
+				1);
+		parseStatistics = new IngestStageStatistics(
+				"parse",
+				getParseThreads());
+		parsePool = new ForkJoinPool(
+				getParseThreads());
+		writeExecutor = Executors.newCachedThreadPool();
+	}
+
+	/**
+	 * Wait for all submitted splits to be parsed, then drain and close the
+	 * writer threads of every index and log the throughput of each stage.
+	 */
+	@Override
+	public void shutdownExecutor() {
+		if (parsePool == null) {
+			return;
+		}
+		try {
+			ForkJoinTask<?> task;
+			while ((task = parseTasks.poll()) != null) {
+				try {
+					task.join();
+				}
+				catch (final RuntimeException e) {
+					fail(e);
+				}
+			}
+			parseStatistics.finish();
+			for (final IndexWriteStage stage : writeStages.values()) {
+				stage.finish();
+			}
+			writeExecutor.shutdown();
+			while (!writeExecutor.awaitTermination(
+					10,
+					TimeUnit.SECONDS)) {
+				LOGGER.debug("Waiting for index writer threads to terminate");
+			}
+			for (final IngestStageStatistics statistics : getStageStatistics()) {
+				statistics.finish();
+				LOGGER.info(statistics.toString());
+			}
+		}
+		catch (final InterruptedException e) {
+			LOGGER.error("Failed to terminate ingest pipeline");
+			fail(e);
+		}
+		finally {
+			parsePool.shutdownNow();
+			writeExecutor.shutdownNow();
+			parsePool = null;
+			writeExecutor = null;
+		}
+		final Throwable t = failure.get();
+		if (t != null) {
+			throw new RuntimeException(
+					"Pipelined ingest failed",
+					t);
+		}
+	}
+
+	/**
+	 * @return the statistics of the split and parse stages followed by the
+	 *         write stage of each index
+	 */
+	public List<IngestStageStatistics> getStageStatistics() {
+		final List<IngestStageStatistics> statistics = new ArrayList<IngestStageStatistics>();
+		if (splitStatistics != null) {
+			statistics.add(splitStatistics);
+			statistics.add(parseStatistics);
+		}
+		for (final IndexWriteStage stage : writeStages.values()) {
+			statistics.add(stage.statistics);
+		}
+		return statistics;
+	}
+
+	@Override
+	public void processFile(
+			final URL file,
+			final String typeName,
+			final LocalFileIngestPlugin<?> plugin,
+			final LocalIngestRunData ingestRunData )
+			throws IOException {
+		checkFailure();
+		final Map<ByteArrayId, PrimaryIndex> specifiedPrimaryIndexes = getSpecifiedPrimaryIndexes();
+		final Map<ByteArrayId, PrimaryIndex> requiredIndexMap = getRequiredIndexMap(plugin);
+
+		final long startNanos = System.nanoTime();
+		final List<LocalFileSplit> splits = getSplits(
+				file,
+				plugin);
+		splitStatistics.record(
+				Math.max(
+						1,
+						splits.size()),
+				System.nanoTime() - startNanos);
+
+		LOGGER.info(String.format(
+				"Beginning ingest for file: [%s] in %d split(s)",
+				FilenameUtils.getName(file.getPath()),
+				Math.max(
+						1,
+						splits.size())));
+		if (splits.isEmpty()) {
+			parseTasks.add(parsePool.submit(new ParseTask(
+					file,
+					null,
+					plugin,
+					ingestRunData,
+					specifiedPrimaryIndexes,
+					requiredIndexMap)));
+		}
+		else {
+			for (final LocalFileSplit split : splits) {
+				parseTasks.add(parsePool.submit(new ParseTask(
+						file,
+						split,
+						plugin,
+						ingestRunData,
+						specifiedPrimaryIndexes,
+						requiredIndexMap)));
+			}
+		}
+	}
+
+	/**
+	 * Divide a file into byte ranges of the configured split size, numbering
+	 * the first line of each range so that splittable plugins can identify
+	 * lines the same way whether or not the file is split.
+	 *
+	 * @return the splits of the file, or an empty list if the file should be
+	 *         parsed as a whole
+	 */
+	protected List<LocalFileSplit> getSplits(
+			final URL file,
+			final LocalFileIngestPlugin<?> plugin ) {
+		if (!(plugin instanceof SplittableLocalFileIngestPlugin)
+				|| !((SplittableLocalFileIngestPlugin<?>) plugin).isSplittable(file)) {
+			return Collections.emptyList();
+		}
+		final long length = getFileLength(file);
+		final long splitSize = pipelineOptions.getSplitSizeBytes();
+		if ((length <= splitSize) || (splitSize <= 0)) {
+			return Collections.emptyList();
+		}
+		try {
+			return LocalFileSplit.getLineSplits(
+					file,
+					length,
+					splitSize);
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Unable to count lines of file [" + file + "], it will not be split",
+					e);
+			return Collections.emptyList();
+		}
+	}
+
+	private static long getFileLength(
+			final URL file ) {
+		try {
+			return Files.size(Paths.get(file.toURI()));
+		}
+		catch (final IOException | URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+			LOGGER.debug(
+					"Unable to determine length of file [" + file + "], it will not be split",
+					e);
+			return -1;
+		}
+	}
+
+	private void fail(
+			final Throwable t ) {
+		failure.compareAndSet(
+				null,
+				t);
+	}
+
+	private void checkFailure() {
+		final Throwable t = failure.get();
+		if (t != null) {
+			throw new RuntimeException(
+					"Datastore error, ingest pipeline has failed! Aborting...",
+					t);
+		}
+	}
+
+	private IndexWriteStage getWriteStage(
+			final PrimaryIndex index,
+			final LocalIngestRunData runData ) {
+		IndexWriteStage stage = writeStages.get(index.getId());
+		if (stage == null) {
+			synchronized (writeStages) {
+				stage = writeStages.get(index.getId());
+				if (stage == null) {
+					stage = new IndexWriteStage(
+							index,
+							runData);
+					writeStages.put(
+							index.getId(),
+							stage);
+				}
+			}
+		}
+		return stage;
+	}
+
+	/**
+	 * Parses a split (or a whole file) and hands the entries to the write stage
+	 * of each of their indices in batches.
+	 */
+	private class ParseTask implements
+			Runnable
+	{
+		private final URL file;
+		private final LocalFileSplit split;
+		private final LocalFileIngestPlugin<?> plugin;
+		private final LocalIngestRunData runData;
+		private final Map<ByteArrayId, PrimaryIndex> specifiedPrimaryIndexes;
+		private final Map<ByteArrayId, PrimaryIndex> requiredIndexMap;
+
+		public ParseTask(
+				final URL file,
+				final LocalFileSplit split,
+				final LocalFileIngestPlugin<?> plugin,
+				final LocalIngestRunData runData,
+				final Map<ByteArrayId, PrimaryIndex> specifiedPrimaryIndexes,
+				final Map<ByteArrayId, PrimaryIndex> requiredIndexMap ) {
+			this.file = file;
+			this.split = split;
+			this.plugin = plugin;
+			this.runData = runData;
+			this.specifiedPrimaryIndexes = specifiedPrimaryIndexes;
+			this.requiredIndexMap = requiredIndexMap;
+		}
+
+		@Override
+		public void run() {
+			final long startNanos = System.nanoTime();
+			long handoffNanos = 0;
+			long count = 0;
+			final Map<ByteArrayId, List<GeoWaveData<?>>> batches = new HashMap<ByteArrayId, List<GeoWaveData<?>>>();
+			final Map<ByteArrayId, PrimaryIndex> indices = new HashMap<ByteArrayId, PrimaryIndex>();
+			final Set<ByteArrayId> registeredAdapters = new HashSet<ByteArrayId>();
+			try (CloseableIterator<?> geowaveDataIt = createIterator()) {
+				while (geowaveDataIt.hasNext()) {
+					if (failure.get() != null) {
+						return;
+					}
+					final GeoWaveData<?> geowaveData = (GeoWaveData<?>) geowaveDataIt.next();
+					final WritableDataAdapter<?> adapter = runData.getDataAdapter(geowaveData);
+					if (adapter == null) {
+						LOGGER.warn(String.format(
+								"Adapter not found for [%s] file [%s]",
+								geowaveData.getValue(),
+								FilenameUtils.getName(file.getPath())));
+						continue;
+					}
+					if (registeredAdapters.add(adapter.getAdapterId())) {
+						runData.addAdapter(adapter);
+					}
+					for (final ByteArrayId indexId : geowaveData.getIndexIds()) {
+						PrimaryIndex index = specifiedPrimaryIndexes.get(indexId);
+						if (index == null) {
+							index = requiredIndexMap.get(indexId);
+							if (index == null) {
+								LOGGER.warn(String.format(
+										"Index '%s' not found for %s",
+										indexId.getString(),
+										geowaveData.getValue()));
+								continue;
+							}
+						}
+						List<GeoWaveData<?>> batch = batches.get(indexId);
+						if (batch == null) {
+							batch = new ArrayList<GeoWaveData<?>>(
+									pipelineOptions.getBatchSize());
+							batches.put(
+									indexId,
+									batch);
+							indices.put(
+									indexId,
+									index);
+						}
+						batch.add(geowaveData);
+						if (batch.size() >= pipelineOptions.getBatchSize()) {
+							final long handoffStart = System.nanoTime();
+							getWriteStage(
+									index,
+									runData).enqueue(
+									batch);
+							handoffNanos += System.nanoTime() - handoffStart;
+							batches.remove(indexId);
+						}
+					}
+					count++;
+				}
+				for (final Entry<ByteArrayId, List<GeoWaveData<?>>> batch : batches.entrySet()) {
+					final long handoffStart = System.nanoTime();
+					getWriteStage(
+							indices.get(batch.getKey()),
+							runData).enqueue(
+							batch.getValue());
+					handoffNanos += System.nanoTime() - handoffStart;
+				}
+				LOGGER.debug(String.format(
+						"Finished parsing [%s]; Parsed %d items",
+						split == null ? file.getPath() : split.toString(),
+						count));
+			}
+			catch (final RuntimeException | IOException | InterruptedException e) {
+				LOGGER.error(
+						"Fatal error occured while trying to parse "
+								+ (split == null ? file.getPath() : split.toString()),
+						e);
+				fail(e);
+			}
+			finally {
+				// time blocked on the write stage is not parse time
+				parseStatistics.record(
+						count,
+						System.nanoTime() - startNanos - handoffNanos);
+			}
+		}
+
+		private CloseableIterator<?> createIterator() {
+			if (split == null) {
+				return plugin.toGeoWaveData(
+						file,
+						specifiedPrimaryIndexes.keySet(),
+						ingestOptions.getVisibility());
+			}
+			return ((SplittableLocalFileIngestPlugin<?>) plugin).toGeoWaveData(
+					split,
+					specifiedPrimaryIndexes.keySet(),
+					ingestOptions.getVisibility());
+		}
+	}
+
+	/**
+	 * The write stage for a single index, a bounded queue of batches drained by
+	 * a fixed number of writer threads which each hold their own index writer
+	 * per adapter.
+	 */
+	private class IndexWriteStage
+	{
+		private final PrimaryIndex index;
+		private final LocalIngestRunData runData;
+		private final BlockingQueue<List<GeoWaveData<?>>> queue;
+		private final IngestStageStatistics statistics;
+		private final int writerThreads;
+
+		public IndexWriteStage(
+				final PrimaryIndex index,
+				final LocalIngestRunData runData ) {
+			this.index = index;
+			this.runData = runData;
+			writerThreads = Math.max(
+					1,
+					pipelineOptions.getWriteThreadsPerIndex());
+			// bound the entries buffered per index similarly to the
+			// multi-threaded driver
+			queue = new LinkedBlockingQueue<List<GeoWaveData<?>>>(
+					Math.max(
+							writerThreads,
+							INGEST_BATCH_SIZE / Math.max(
+									1,
+									pipelineOptions.getBatchSize())));
+			statistics = new IngestStageStatistics(
+					"write [" + index.getId().getString() + "]",
+					writerThreads);
+			LOGGER.debug(String.format(
+					"Creating [%d] writer threads for index [%s]",
+					writerThreads,
+					index.getId().getString()));
+			for (int i = 0; i < writerThreads; i++) {
+				writeExecutor.submit(new WriteTask());
+			}
+		}
+
+		public void enqueue(
+				final List<GeoWaveData<?>> batch )
+				throws InterruptedException {
+			while (!queue.offer(
+					batch,
+					100,
+					TimeUnit.MILLISECONDS)) {
+				checkFailure();
+			}
+		}
+
+		public void finish()
+				throws InterruptedException {
+			for (int i = 0; i < writerThreads; i++) {
+				while (!queue.offer(
+						END_OF_STREAM,
+						100,
+						TimeUnit.MILLISECONDS)) {
+					if (failure.get() != null) {
+						// the writers may be gone, make room for the end
+						// markers
+						queue.clear();
+					}
+				}
+			}
+		}
+
+		private class WriteTask implements
+				Runnable
+		{
+			@SuppressWarnings({
+				"unchecked",
+				"rawtypes"
+			})
+			@Override
+			public void run() {
+				final Map<ByteArrayId, IndexWriter> indexWriters = new HashMap<ByteArrayId, IndexWriter>();
+				try {
+					while (true) {
+						final List<GeoWaveData<?>> batch = queue.take();
+						if (batch == END_OF_STREAM) {
+							break;
+						}
+						if (failure.get() != null) {
+							continue;
+						}
+						final long startNanos = System.nanoTime();
+						for (final GeoWaveData<?> geowaveData : batch) {
+							final WritableDataAdapter adapter = runData.getDataAdapter(geowaveData);
+							IndexWriter writer = indexWriters.get(adapter.getAdapterId());
+							if (writer == null) {
+								writer = runData.getDataStore().createWriter(
+										adapter,
+										index);
+								indexWriters.put(
+										adapter.getAdapterId(),
+										writer);
+							}
+							writer.write(geowaveData.getValue());
+						}
+						statistics.record(
+								batch.size(),
+								System.nanoTime() - startNanos);
+					}
+				}
+				catch (final Exception e) {
+					LOGGER.error(
+							"Fatal error occured while trying write to index [" + index.getId().getString() + "]",
+							e);
+					fail(e);
+				}
+				finally {
+					final long startNanos = System.nanoTime();
+					for (final Entry<ByteArrayId, IndexWriter> writerEntry : indexWriters.entrySet()) {
+						try {
+							writerEntry.getValue().close();
+						}
+						catch (final Exception e) {
+							// closing flushes buffered writes, so a failure
+							// here means entries were lost
+							LOGGER.error(
+									String.format(
+											"Could not close index writer: [%s]",
+											writerEntry.getKey()),
+									e);
+							fail(e);
+						}
+					}
+					statistics.record(
+							0,
+							System.nanoTime() - startNanos);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.ingest.local;
+
+import java.net.URL;
+import java.util.Collection;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.ingest.GeoWaveData;
+import org.locationtech.geowave.core.store.CloseableIterator;
+
+/**
+ * A local file ingest plugin that is able to parse a byte range of a file
+ * independently of the rest of the file, which allows the pipelined local
+ * ingest to parse a single large file on many threads. Line-oriented formats
+ * can use LineRangeIterator to read the lines belonging to a split.
+ *
+ * @param <O>
+ *            The type of data to write to GeoWave
+ */
+public interface SplittableLocalFileIngestPlugin<O> extends
+		LocalFileIngestPlugin<O>
+{
+	/**
+	 * @param file
+	 *            a file supported by this plugin
+	 * @return whether the file can be read as independent byte ranges
+	 *         (compressed files, for example, typically can not)
+	 */
+	public boolean isSplittable(
+			URL file );
+
+	/**
+	 * Convert the entries starting within the split's byte range to a data
+	 * format that can be directly ingested into GeoWave
+	 *
+	 * @param split
+	 *            The byte range of the file to convert
+	 * @param primaryIndexIds
+	 *            The set of index IDs specified via a commandline argument
+	 * @param globalVisibility
+	 *            The global visibility specified on the command line, if any
+	 * @return The objects that can be directly ingested into GeoWave
+	 */
+	public CloseableIterator<GeoWaveData<O>> toGeoWaveData(
+			LocalFileSplit split,
+			Collection<ByteArrayId> primaryIndexIds,
+			String globalVisibility );
+}
@@ -22,6 +22,7 @@ import org.locationtech.geowave.core.cli.operations.config.options.ConfigOptions
 import org.locationtech.geowave.core.ingest.avro.AvroFormatPlugin;
 import org.locationtech.geowave.core.ingest.kafka.IngestFromKafkaDriver;
 import org.locationtech.geowave.core.ingest.kafka.KafkaConsumerCommandLineOptions;
+import org.locationtech.geowave.core.ingest.kafka.KafkaConsumerIngestDriver;
 import org.locationtech.geowave.core.ingest.local.LocalInputCommandLineOptions;
 import org.locationtech.geowave.core.ingest.operations.options.IngestFormatPluginOptions;
 import org.locationtech.geowave.core.store.cli.remote.options.DataStorePluginOptions;
@@ -191,12 +192,22 @@ public class KafkaToGeowaveCommand extends
 		final Map<String, AvroFormatPlugin<?, ?>> ingestPlugins = pluginFormats.createAvroPlugins();
 
 		// Driver
-		driver = new IngestFromKafkaDriver(
-				inputStoreOptions,
-				inputIndexOptions,
-				ingestPlugins,
-				kafkaOptions,
-				ingestOptions);
+		if (kafkaOptions.getBootstrapServers() != null) {
+			driver = new KafkaConsumerIngestDriver(
+					inputStoreOptions,
+					inputIndexOptions,
+					ingestPlugins,
+					kafkaOptions,
+					ingestOptions);
+		}
+		else {
+			driver = new IngestFromKafkaDriver(
+					inputStoreOptions,
+					inputIndexOptions,
+					ingestPlugins,
+					kafkaOptions,
+					ingestOptions);
+		}
 
 		// Execute
 		if (!driver.runOperation()) {
@@ -22,6 +22,8 @@ import org.locationtech.geowave.core.cli.operations.config.options.ConfigOptions
 import org.locationtech.geowave.core.ingest.local.LocalFileIngestDriver;
 import org.locationtech.geowave.core.ingest.local.LocalFileIngestPlugin;
 import org.locationtech.geowave.core.ingest.local.LocalInputCommandLineOptions;
+import org.locationtech.geowave.core.ingest.local.PipelinedIngestOptions;
+import org.locationtech.geowave.core.ingest.local.PipelinedLocalFileIngestDriver;
 import org.locationtech.geowave.core.ingest.operations.options.IngestFormatPluginOptions;
 import org.locationtech.geowave.core.store.cli.remote.options.DataStorePluginOptions;
 import org.locationtech.geowave.core.store.cli.remote.options.IndexLoader;
@@ -60,6 +62,9 @@ public class LocalToGeowaveCommand extends
 	}, description = "number of threads to use for ingest, default to 1 (optional)")
 	private int threads = 1;
 
+	@ParametersDelegate
+	private PipelinedIngestOptions pipelineOptions = new PipelinedIngestOptions();
+
 	private DataStorePluginOptions inputStoreOptions = null;
 
 	private List<IndexPluginOptions> inputIndexOptions = null;
@@ -138,6 +143,15 @@ public class LocalToGeowaveCommand extends
 		this.threads = threads;
 	}
 
+	public PipelinedIngestOptions getPipelineOptions() {
+		return pipelineOptions;
+	}
+
+	public void setPipelineOptions(
+			final PipelinedIngestOptions pipelineOptions ) {
+		this.pipelineOptions = pipelineOptions;
+	}
+
 	public DataStorePluginOptions getInputStoreOptions() {
 		return inputStoreOptions;
 	}
@@ -182,13 +196,26 @@ public class LocalToGeowaveCommand extends
 		final Map<String, LocalFileIngestPlugin<?>> ingestPlugins = pluginFormats.createLocalIngestPlugins();
 
 		// Driver
-		final LocalFileIngestDriver driver = new LocalFileIngestDriver(
-				inputStoreOptions,
-				inputIndexOptions,
-				ingestPlugins,
-				ingestOptions,
-				localInputOptions,
-				threads);
+		final LocalFileIngestDriver driver;
+		if (pipelineOptions.isPipelined()) {
+			driver = new PipelinedLocalFileIngestDriver(
+					inputStoreOptions,
+					inputIndexOptions,
+					ingestPlugins,
+					ingestOptions,
+					localInputOptions,
+					threads,
+					pipelineOptions);
+		}
+		else {
+			driver = new LocalFileIngestDriver(
+					inputStoreOptions,
+					inputIndexOptions,
+					ingestPlugins,
+					ingestOptions,
+					localInputOptions,
+					threads);
+		}
 
 		// Execute
 		if (!driver.runOperation(
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.ingest.local;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LineRangeIteratorTest
+{
+	private static List<String> readAllSplits(
+			final File file,
+			final long splitSize )
+			throws IOException {
+		final List<String> lines = new ArrayList<String>();
+		long previousLineStart = -1;
+		for (final LocalFileSplit split : LocalFileSplit.getLineSplits(
+				file.toURI().toURL(),
+				file.length(),
+				splitSize)) {
+			try (LineRangeIterator it = new LineRangeIterator(
+					split)) {
+				while (it.hasNext()) {
+					lines.add(it.next());
+					// line offsets are unique and ordered across splits
+					Assert.assertTrue(it.getLineStart() > previousLineStart);
+					Assert.assertTrue(it.getLineStart() >= split.getStart());
+					Assert.assertTrue(it.getLineStart() < split.getEnd());
+					previousLineStart = it.getLineStart();
+					// lines are numbered the same way however the file is
+					// split
+					Assert.assertEquals(
+							lines.size() - 1,
+							it.getLineNumber());
+				}
+			}
+		}
+		return lines;
+	}
+
+	@Test
+	public void testEveryLineReadOnceForAllSplitSizes()
+			throws IOException {
+		final List<String> expected = Arrays.asList(
+				"first",
+				"",
+				"third line",
+				"a",
+				"windows\r",
+				"last without newline");
+		final File file = File.createTempFile(
+				"lines",
+				".txt");
+		file.deleteOnExit();
+		final StringBuilder content = new StringBuilder();
+		for (int i = 0; i < expected.size(); i++) {
+			content.append(expected.get(i));
+			if (i < (expected.size() - 1)) {
+				content.append('\n');
+			}
+		}
+		Files.write(
+				file.toPath(),
+				content.toString().getBytes(
+						StandardCharsets.UTF_8));
+
+		final List<String> expectedLines = new ArrayList<String>(
+				expected);
+		// a trailing carriage return is dropped
+		expectedLines.set(
+				4,
+				"windows");
+		for (long splitSize = 1; splitSize <= (file.length() + 1); splitSize++) {
+			Assert.assertEquals(
+					"split size " + splitSize,
+					expectedLines,
+					readAllSplits(
+							file,
+							splitSize));
+		}
+	}
+
+	@Test
+	public void testLargeFileIsSplit()
+			throws IOException {
+		final URL file = new URL(
+				"file:/lines.txt");
+		final long splitSize = 4L * 1024 * 1024;
+		final List<LocalFileSplit> splits = LocalFileSplit.getSplits(
+				file,
+				10L * 1024 * 1024,
+				splitSize);
+		Assert.assertEquals(
+				3,
+				splits.size());
+		long expectedStart = 0;
+		for (final LocalFileSplit split : splits) {
+			Assert.assertEquals(
+					expectedStart,
+					split.getStart());
+			Assert.assertTrue(split.getLength() <= splitSize);
+			expectedStart = split.getEnd();
+		}
+		Assert.assertEquals(
+				10L * 1024 * 1024,
+				expectedStart);
+		// a file no larger than the split size is read as a whole
+		Assert.assertEquals(
+				1,
+				LocalFileSplit.getSplits(
+						file,
+						splitSize,
+						splitSize).size());
+	}
+}
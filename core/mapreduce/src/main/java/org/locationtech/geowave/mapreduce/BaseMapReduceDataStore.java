@@ -30,6 +30,8 @@ import org.locationtech.geowave.core.store.index.IndexStore;
 import org.locationtech.geowave.core.store.index.SecondaryIndexDataStore;
 import org.locationtech.geowave.core.store.query.DistributableQuery;
 import org.locationtech.geowave.core.store.query.QueryOptions;
+import org.locationtech.geowave.mapreduce.input.GeoWaveInputConfigurator;
+import org.locationtech.geowave.mapreduce.input.GeoWaveInputFormat;
 import org.locationtech.geowave.mapreduce.input.GeoWaveInputKey;
 import org.locationtech.geowave.mapreduce.output.GeoWaveOutputKey;
 import org.locationtech.geowave.mapreduce.output.GeoWaveOutputFormat.GeoWaveRecordWriter;
@@ -133,6 +135,9 @@ public class BaseMapReduceDataStore extends
 				indexStore,
 				indexMappingStore,
 				minSplits,
-				maxSplits);
+				maxSplits,
+				context == null ? null : GeoWaveInputConfigurator.getTargetSplitSizeBytes(
+						GeoWaveInputFormat.class,
+						context));
 	}
 }
@@ -33,6 +33,8 @@ public class GeoWaveInputConfigurator extends
 		QUERY_OPTIONS,
 		MIN_SPLITS,
 		MAX_SPLITS,
+		TARGET_SPLIT_SIZE_BYTES,
+		DEDUPLICATE_ENTRIES,
 		OUTPUT_WRITABLE, // used to inform the input format to output a Writable
 							// from the HadoopDataAdapter
 		AUTHORIZATION
@@ -218,4 +220,59 @@ public class GeoWaveInputConfigurator extends
 					InputConfig.MAX_SPLITS));
 		}
 	}
+
+	public static Long getTargetSplitSizeBytes(
+			final Class<?> implementingClass,
+			final JobContext context ) {
+		final String str = getConfiguration(
+				context).get(
+				enumToConfKey(
+						implementingClass,
+						InputConfig.TARGET_SPLIT_SIZE_BYTES),
+				"");
+		if ((str != null) && !str.isEmpty()) {
+			return Long.parseLong(str);
+		}
+		return null;
+	}
+
+	public static void setTargetSplitSizeBytes(
+			final Class<?> implementingClass,
+			final Configuration config,
+			final Long targetSplitSizeBytes ) {
+		if (targetSplitSizeBytes != null) {
+			config.set(
+					enumToConfKey(
+							implementingClass,
+							InputConfig.TARGET_SPLIT_SIZE_BYTES),
+					targetSplitSizeBytes.toString());
+		}
+		else {
+			config.unset(enumToConfKey(
+					implementingClass,
+					InputConfig.TARGET_SPLIT_SIZE_BYTES));
+		}
+	}
+
+	public static boolean isDeduplicateEntries(
+			final Class<?> implementingClass,
+			final JobContext context ) {
+		return getConfiguration(
+				context).getBoolean(
+				enumToConfKey(
+						implementingClass,
+						InputConfig.DEDUPLICATE_ENTRIES),
+				true);
+	}
+
+	public static void setDeduplicateEntries(
+			final Class<?> implementingClass,
+			final Configuration config,
+			final boolean deduplicateEntries ) {
+		config.setBoolean(
+				enumToConfKey(
+						implementingClass,
+						InputConfig.DEDUPLICATE_ENTRIES),
+				deduplicateEntries);
+	}
 }
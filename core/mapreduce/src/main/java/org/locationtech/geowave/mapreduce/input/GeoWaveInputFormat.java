@@ -132,6 +132,35 @@ public class GeoWaveInputFormat<T> extends
 				maxSplits);
 	}
 
+	/**
+	 * Plan splits so that each reads roughly this many bytes, based on the
+	 * partition size and row range histogram statistics. Large ranges are split
+	 * and small adjacent ranges on the same host are merged. The minimum and
+	 * maximum split counts are still honored.
+	 */
+	public static void setTargetSplitSizeBytes(
+			final Configuration config,
+			final Long targetSplitSizeBytes ) {
+		GeoWaveInputConfigurator.setTargetSplitSizeBytes(
+				CLASS,
+				config,
+				targetSplitSizeBytes);
+	}
+
+	/**
+	 * Entries stored under more than one insertion ID are emitted once, by the
+	 * split that reads the entry's primary insertion ID, rather than once per
+	 * duplicate row. This is enabled by default.
+	 */
+	public static void setDeduplicateEntries(
+			final Configuration config,
+			final boolean deduplicateEntries ) {
+		GeoWaveInputConfigurator.setDeduplicateEntries(
+				CLASS,
+				config,
+				deduplicateEntries);
+	}
+
 	public static void setIsOutputWritable(
 			final Configuration config,
 			final Boolean isOutputWritable ) {
@@ -231,6 +260,20 @@ public class GeoWaveInputFormat<T> extends
 				context);
 	}
 
+	protected static Long getTargetSplitSizeBytes(
+			final JobContext context ) {
+		return GeoWaveInputConfigurator.getTargetSplitSizeBytes(
+				CLASS,
+				context);
+	}
+
+	protected static boolean isDeduplicateEntries(
+			final JobContext context ) {
+		return GeoWaveInputConfigurator.isDeduplicateEntries(
+				CLASS,
+				context);
+	}
+
 	protected static Integer getMaximumSplitCount(
 			final JobContext context ) {
 		return GeoWaveInputConfigurator.getMaximumSplitCount(
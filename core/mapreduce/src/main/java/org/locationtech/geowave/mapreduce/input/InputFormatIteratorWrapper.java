@@ -47,6 +47,7 @@ public class InputFormatIteratorWrapper<T> implements
 	private final boolean isOutputWritable;
 	private Entry<GeoWaveInputKey, T> nextEntry;
 	private final PrimaryIndex index;
+	private final PrimaryInsertionIdFilter dedupeFilter;
 
 	public InputFormatIteratorWrapper(
 			final Reader<GeoWaveRow> reader,
@@ -55,9 +56,33 @@ public class InputFormatIteratorWrapper<T> implements
 			final InternalAdapterStore internalAdapterStore,
 			final PrimaryIndex index,
 			final boolean isOutputWritable ) {
+		this(
+				reader,
+				queryFilter,
+				adapterStore,
+				internalAdapterStore,
+				index,
+				isOutputWritable,
+				null);
+	}
+
+	/**
+	 * @param dedupeFilter
+	 *            if non-null, rows that are not the primary insertion of an
+	 *            entry with duplicates are skipped
+	 */
+	public InputFormatIteratorWrapper(
+			final Reader<GeoWaveRow> reader,
+			final QueryFilter queryFilter,
+			final TransientAdapterStore adapterStore,
+			final InternalAdapterStore internalAdapterStore,
+			final PrimaryIndex index,
+			final boolean isOutputWritable,
+			final PrimaryInsertionIdFilter dedupeFilter ) {
 		this.reader = reader;
 		this.queryFilter = queryFilter;
 		this.index = index;
+		this.dedupeFilter = dedupeFilter;
 		this.serializationTool = new HadoopWritableSerializationTool(
 				adapterStore,
 				internalAdapterStore);
@@ -105,6 +130,12 @@ public class InputFormatIteratorWrapper<T> implements
 		if (value == null) {
 			return null;
 		}
+		if ((dedupeFilter != null) && !dedupeFilter.accept(
+				row,
+				(T) value,
+				adapter)) {
+			return null;
+		}
 		final short adapterId = row.getInternalAdapterId();
 		final T result = (T) (isOutputWritable ? serializationTool.getHadoopWritableSerializerForAdapter(
 				adapterId).toWritable(
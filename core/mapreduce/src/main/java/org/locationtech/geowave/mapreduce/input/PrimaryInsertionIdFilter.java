@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.mapreduce.input;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.index.InsertionIds;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionInsertionIds;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.index.PrimaryIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deduplicates entries that are stored under multiple insertion IDs without a
+ * shuffle. Every duplicate of an entry can recompute the full set of insertion
+ * IDs from the decoded entry, so all of them agree on a single "primary"
+ * insertion ID, the smallest one within the query ranges read by the splits.
+ * Only the row stored under that ID is kept. Because input splits never overlap
+ * and together read every row within the query ranges, exactly one split reads
+ * the primary row.
+ *
+ * If the primary cannot be determined (for example the partition key was
+ * assigned round robin and can't be recomputed) the row is kept, so the worst
+ * case is the duplicate that would have been emitted without this filter.
+ */
+public class PrimaryInsertionIdFilter
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(PrimaryInsertionIdFilter.class);
+	private static final byte[] EMPTY = new byte[0];
+
+	private final PrimaryIndex index;
+	// sorted, non-overlapping and with exclusive ends, null if the whole index
+	// is read
+	private final List<ByteArrayRange> ranges;
+
+	/**
+	 * @param index
+	 *            the index the rows are read from
+	 * @param queryRanges
+	 *            the ranges of the index read by all of the splits together,
+	 *            null if the whole index is read
+	 */
+	public PrimaryInsertionIdFilter(
+			final PrimaryIndex index,
+			final QueryRanges queryRanges ) {
+		this.index = index;
+		ranges = toExclusiveRanges(queryRanges);
+	}
+
+	/**
+	 * @return true if the row should be emitted, which is always the case for
+	 *         rows without duplicates
+	 */
+	public <T> boolean accept(
+			final GeoWaveRow row,
+			final T entry,
+			final InternalDataAdapter<T> adapter ) {
+		if (row.getNumberOfDuplicates() <= 0) {
+			return true;
+		}
+		final InsertionIds insertionIds;
+		try {
+			insertionIds = adapter.encode(
+					entry,
+					index.getIndexModel()).getInsertionIds(
+					index);
+		}
+		catch (final Exception e) {
+			LOGGER.debug(
+					"Unable to recompute insertion IDs, keeping row",
+					e);
+			return true;
+		}
+		return accept(
+				row,
+				insertionIds);
+	}
+
+	/**
+	 * @param insertionIds
+	 *            all of the insertion IDs of the row's entry
+	 * @return true if the row should be emitted
+	 */
+	protected boolean accept(
+			final GeoWaveRow row,
+			final InsertionIds insertionIds ) {
+		final ByteArrayId rowId = new ByteArrayId(
+				ByteArrayUtils.combineArrays(
+						nullToEmpty(row.getPartitionKey()),
+						nullToEmpty(row.getSortKey())));
+		boolean rowFound = false;
+		ByteArrayId primary = null;
+		for (final SinglePartitionInsertionIds partition : insertionIds.getPartitionKeys()) {
+			for (final ByteArrayId id : partition.getCompositeInsertionIds()) {
+				if (id == null) {
+					continue;
+				}
+				if (!rowFound && id.equals(rowId)) {
+					rowFound = true;
+				}
+				if (((primary == null) || (id.compareTo(primary) < 0)) && isRead(id)) {
+					primary = id;
+				}
+			}
+		}
+		if (!rowFound || (primary == null)) {
+			return true;
+		}
+		return primary.equals(rowId);
+	}
+
+	private boolean isRead(
+			final ByteArrayId id ) {
+		if (ranges == null) {
+			return true;
+		}
+		// the last range starting at or before the ID is the only one that can
+		// contain it
+		int low = 0;
+		int high = ranges.size() - 1;
+		int candidate = -1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			if (ranges.get(
+					mid).getStart().compareTo(
+					id) <= 0) {
+				candidate = mid;
+				low = mid + 1;
+			}
+			else {
+				high = mid - 1;
+			}
+		}
+		return (candidate >= 0) && (id.compareTo(ranges.get(
+				candidate).getEnd()) < 0);
+	}
+
+	/**
+	 * Converts query ranges, whose ends are inclusive prefixes, to sorted and
+	 * merged ranges with exclusive ends
+	 */
+	private static List<ByteArrayRange> toExclusiveRanges(
+			final QueryRanges queryRanges ) {
+		if (queryRanges == null) {
+			return null;
+		}
+		final List<ByteArrayRange> compositeRanges = queryRanges.getCompositeQueryRanges();
+		if (compositeRanges == null) {
+			return null;
+		}
+		final List<ByteArrayRange> exclusiveRanges = new ArrayList<ByteArrayRange>();
+		for (final ByteArrayRange range : compositeRanges) {
+			exclusiveRanges.add(new ByteArrayRange(
+					range.getStart(),
+					range.getEndAsNextPrefix(),
+					false));
+		}
+		Collections.sort(
+				exclusiveRanges,
+				new Comparator<ByteArrayRange>() {
+					@Override
+					public int compare(
+							final ByteArrayRange o1,
+							final ByteArrayRange o2 ) {
+						return o1.getStart().compareTo(
+								o2.getStart());
+					}
+				});
+		final List<ByteArrayRange> merged = new ArrayList<ByteArrayRange>();
+		ByteArrayRange current = null;
+		for (final ByteArrayRange range : exclusiveRanges) {
+			if ((current != null) && (range.getStart().compareTo(
+					current.getEnd()) <= 0)) {
+				if (range.getEnd().compareTo(
+						current.getEnd()) > 0) {
+					current = new ByteArrayRange(
+							current.getStart(),
+							range.getEnd(),
+							false);
+				}
+			}
+			else {
+				if (current != null) {
+					merged.add(current);
+				}
+				current = range;
+			}
+		}
+		if (current != null) {
+			merged.add(current);
+		}
+		return merged;
+	}
+
+	private static byte[] nullToEmpty(
+			final byte[] bytes ) {
+		return bytes == null ? EMPTY : bytes;
+	}
+}
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.mapreduce.splits;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeSet;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.store.adapter.statistics.PartitionSizeStatistics;
+import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
+import org.locationtech.geowave.core.store.index.PrimaryIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Re-plans a set of intermediate splits so that each split reads roughly a
+ * target number of bytes. The bytes within a range are estimated from the row
+ * range histogram cardinality and the average row size of the partition. Ranges
+ * larger than the target are split using the histograms and small ranges are
+ * packed together with their neighbors on the same host.
+ */
+public class ByteSizeSplitPlanner
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(ByteSizeSplitPlanner.class);
+	/**
+	 * never split a single range into more than this many pieces
+	 */
+	private static final int MAX_PIECES_PER_RANGE = 1024;
+
+	private final long targetBytesPerSplit;
+	private final SplitsProvider splitsProvider;
+	private final Map<Pair<PrimaryIndex, ByteArrayId>, RowRangeHistogramStatistics<?>> statsCache;
+	private final Map<ByteArrayId, PartitionSizeStatistics<?>> sizeStatsPerIndex;
+
+	public ByteSizeSplitPlanner(
+			final long targetBytesPerSplit,
+			final SplitsProvider splitsProvider,
+			final Map<Pair<PrimaryIndex, ByteArrayId>, RowRangeHistogramStatistics<?>> statsCache,
+			final Map<ByteArrayId, PartitionSizeStatistics<?>> sizeStatsPerIndex ) {
+		this.targetBytesPerSplit = targetBytesPerSplit;
+		this.splitsProvider = splitsProvider;
+		this.statsCache = statsCache;
+		this.sizeStatsPerIndex = sizeStatsPerIndex;
+	}
+
+	/**
+	 * @return the re-planned splits, or the original splits if there aren't
+	 *         statistics to estimate sizes from
+	 */
+	public TreeSet<IntermediateSplitInfo> plan(
+			final TreeSet<IntermediateSplitInfo> splits ) {
+		if ((targetBytesPerSplit <= 0) || sizeStatsPerIndex.isEmpty()) {
+			return splits;
+		}
+		final List<SizedRange> sized = new ArrayList<>();
+		final List<SizedRange> unknown = new ArrayList<>();
+		for (final IntermediateSplitInfo split : splits) {
+			for (final SplitInfo si : split.getSplitInfo().values()) {
+				for (final RangeLocationPair pair : si.getRangeLocationPairs()) {
+					final SizedRange range = new SizedRange(
+							si.getIndex(),
+							pair);
+					if (range.bytes < 0) {
+						unknown.add(range);
+					}
+					else {
+						sized.addAll(splitLargeRange(range));
+					}
+				}
+			}
+		}
+		final TreeSet<IntermediateSplitInfo> retVal = new TreeSet<>();
+		packAdjacentRanges(
+				sized,
+				retVal);
+		// without statistics there is no basis to merge these so they keep a
+		// split each
+		for (final SizedRange range : unknown) {
+			retVal.add(toSplit(Collections.singletonList(range)));
+		}
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Planned " + retVal.size() + " splits of ~" + targetBytesPerSplit + " bytes from "
+					+ splits.size() + " initial splits");
+		}
+		return retVal;
+	}
+
+	private List<SizedRange> splitLargeRange(
+			final SizedRange range ) {
+		final List<SizedRange> pieces = new ArrayList<>();
+		final Deque<SizedRange> toSplit = new ArrayDeque<>();
+		toSplit.push(range);
+		while (!toSplit.isEmpty()) {
+			final SizedRange next = toSplit.pop();
+			if ((next.bytes <= targetBytesPerSplit) || ((pieces.size() + toSplit.size()) >= MAX_PIECES_PER_RANGE)) {
+				pieces.add(next);
+				continue;
+			}
+			final IntermediateSplitInfo single = toSplit(Collections.singletonList(next));
+			final IntermediateSplitInfo other = single.split(statsCache);
+			if (other == null) {
+				// the histogram can't resolve anything finer
+				pieces.add(next);
+				continue;
+			}
+			for (final IntermediateSplitInfo half : new IntermediateSplitInfo[] {
+				other,
+				single
+			}) {
+				for (final SplitInfo si : half.getSplitInfo().values()) {
+					for (final RangeLocationPair pair : si.getRangeLocationPairs()) {
+						final SizedRange piece = new SizedRange(
+								si.getIndex(),
+								pair);
+						if (piece.bytes >= next.bytes) {
+							// no progress was made
+							pieces.add(piece);
+						}
+						else {
+							toSplit.push(piece);
+						}
+					}
+				}
+			}
+		}
+		return pieces;
+	}
+
+	private void packAdjacentRanges(
+			final List<SizedRange> ranges,
+			final TreeSet<IntermediateSplitInfo> splits ) {
+		final Map<String, List<SizedRange>> rangesPerLocation = new HashMap<>();
+		for (final SizedRange range : ranges) {
+			final String location = range.pair.getLocation() == null ? "" : range.pair.getLocation();
+			List<SizedRange> locationRanges = rangesPerLocation.get(location);
+			if (locationRanges == null) {
+				locationRanges = new ArrayList<>();
+				rangesPerLocation.put(
+						location,
+						locationRanges);
+			}
+			locationRanges.add(range);
+		}
+		for (final Entry<String, List<SizedRange>> e : rangesPerLocation.entrySet()) {
+			final List<SizedRange> locationRanges = e.getValue();
+			Collections.sort(
+					locationRanges,
+					RANGE_ORDER);
+			List<SizedRange> current = new ArrayList<>();
+			double currentBytes = 0;
+			for (final SizedRange range : locationRanges) {
+				if (!current.isEmpty() && ((currentBytes + range.bytes) > targetBytesPerSplit)) {
+					splits.add(toSplit(current));
+					current = new ArrayList<>();
+					currentBytes = 0;
+				}
+				current.add(range);
+				currentBytes += range.bytes;
+			}
+			if (!current.isEmpty()) {
+				splits.add(toSplit(current));
+			}
+		}
+	}
+
+	private IntermediateSplitInfo toSplit(
+			final List<SizedRange> ranges ) {
+		final Map<ByteArrayId, SplitInfo> splitInfo = new HashMap<>();
+		for (final SizedRange range : ranges) {
+			SplitInfo si = splitInfo.get(range.index.getId());
+			if (si == null) {
+				si = new SplitInfo(
+						range.index);
+				splitInfo.put(
+						range.index.getId(),
+						si);
+			}
+			si.getRangeLocationPairs().add(
+					range.pair);
+		}
+		return new IntermediateSplitInfo(
+				splitInfo,
+				splitsProvider);
+	}
+
+	private static final Comparator<SizedRange> RANGE_ORDER = new Comparator<SizedRange>() {
+		@Override
+		public int compare(
+				final SizedRange o1,
+				final SizedRange o2 ) {
+			int result = o1.index.getId().compareTo(
+					o2.index.getId());
+			if (result != 0) {
+				return result;
+			}
+			result = compareKeys(
+					o1.pair.getRange().getPartitionKey(),
+					o2.pair.getRange().getPartitionKey());
+			if (result != 0) {
+				return result;
+			}
+			return compareKeys(
+					o1.pair.getRange().getStartSortKey(),
+					o2.pair.getRange().getStartSortKey());
+		}
+
+		private int compareKeys(
+				final byte[] k1,
+				final byte[] k2 ) {
+			if (k1 == null) {
+				return k2 == null ? 0 : -1;
+			}
+			if (k2 == null) {
+				return 1;
+			}
+			return new ByteArrayId(
+					k1).compareTo(new ByteArrayId(
+					k2));
+		}
+	};
+
+	private class SizedRange
+	{
+		private final PrimaryIndex index;
+		private final RangeLocationPair pair;
+		/**
+		 * estimated bytes in the range, negative when unknown
+		 */
+		private final double bytes;
+
+		public SizedRange(
+				final PrimaryIndex index,
+				final RangeLocationPair pair ) {
+			this.index = index;
+			this.pair = pair;
+			bytes = estimateBytes(
+					index,
+					pair);
+		}
+	}
+
+	private double estimateBytes(
+			final PrimaryIndex index,
+			final RangeLocationPair pair ) {
+		final ByteArrayId partitionKey = new ByteArrayId(
+				pair.getRange().getPartitionKey());
+		if (!statsCache.containsKey(Pair.of(
+				index,
+				partitionKey))) {
+			return -1;
+		}
+		final PartitionSizeStatistics<?> sizeStats = sizeStatsPerIndex.get(index.getId());
+		if (sizeStats == null) {
+			return -1;
+		}
+		final double averageRowBytes = sizeStats.getAverageRowBytes(partitionKey);
+		if (averageRowBytes < 0) {
+			return -1;
+		}
+		return pair.getCardinality() * averageRowBytes;
+	}
+}
@@ -15,7 +15,10 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -24,6 +27,7 @@ import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Set;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hadoop.mapreduce.InputSplit;
 import org.apache.hadoop.mapreduce.RecordReader;
 import org.apache.hadoop.mapreduce.TaskAttemptContext;
@@ -47,11 +51,15 @@ import org.locationtech.geowave.core.store.operations.ReaderClosableWrapper;
 import org.locationtech.geowave.core.store.query.DistributableQuery;
 import org.locationtech.geowave.core.store.query.QueryOptions;
 import org.locationtech.geowave.mapreduce.MapReduceDataStoreOperations;
+import org.locationtech.geowave.mapreduce.input.GeoWaveInputConfigurator;
+import org.locationtech.geowave.mapreduce.input.GeoWaveInputFormat;
 import org.locationtech.geowave.mapreduce.input.GeoWaveInputKey;
 import org.locationtech.geowave.mapreduce.input.InputFormatIteratorWrapper;
+import org.locationtech.geowave.mapreduce.input.PrimaryInsertionIdFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
 
@@ -141,11 +149,19 @@ public class GeoWaveRecordReader<T> extends
 
 		numKeysRead = 0;
 
-		final Map<RangeLocationPair, CloseableIterator<Entry<GeoWaveInputKey, T>>> iteratorsPerRange = new LinkedHashMap<RangeLocationPair, CloseableIterator<Entry<GeoWaveInputKey, T>>>();
+		final Map<RangeLocationPair, Pair<SplitInfo, List<QueryFilter>>> rangesToQuery = new LinkedHashMap<RangeLocationPair, Pair<SplitInfo, List<QueryFilter>>>();
 
 		final Set<ByteArrayId> indices = split.getIndexIds();
 		BigDecimal sum = BigDecimal.ZERO;
 
+		final boolean deduplicateEntries = GeoWaveInputConfigurator.isDeduplicateEntries(
+				GeoWaveInputFormat.class,
+				attempt);
+		final Map<ByteArrayId, PrimaryInsertionIdFilter> dedupeFilters = new HashMap<ByteArrayId, PrimaryInsertionIdFilter>();
+		final Integer maxSplits = GeoWaveInputConfigurator.getMaximumSplitCount(
+				GeoWaveInputFormat.class,
+				attempt);
+
 		final Map<RangeLocationPair, BigDecimal> incrementalRangeSums = new LinkedHashMap<RangeLocationPair, BigDecimal>();
 
 		for (final ByteArrayId i : indices) {
@@ -154,15 +170,25 @@ public class GeoWaveRecordReader<T> extends
 			if (query != null) {
 				queryFilters = query.createFilters(splitInfo.getIndex());
 			}
+			if (deduplicateEntries) {
+				dedupeFilters.put(
+						i,
+						new PrimaryInsertionIdFilter(
+								splitInfo.getIndex(),
+								SplitsProvider.getQueryRanges(
+										splitInfo.getIndex(),
+										query,
+										maxSplits)));
+			}
 			for (final RangeLocationPair r : splitInfo.getRangeLocationPairs()) {
-				iteratorsPerRange.put(
+				// ranges are queried on demand as the previous range is
+				// exhausted so that a split packed with many ranges doesn't
+				// hold a reader open for each of them
+				rangesToQuery.put(
 						r,
-						queryRange(
-								splitInfo.getIndex(),
-								r.getRange(),
-								queryFilters,
-								splitInfo.isMixedVisibility(),
-								splitInfo.isAuthorizationsLimiting()));
+						Pair.of(
+								splitInfo,
+								queryFilters));
 				incrementalRangeSums.put(
 						r,
 						sum);
@@ -204,19 +230,40 @@ public class GeoWaveRecordReader<T> extends
 						e);
 			}
 		}
-		// concatenate iterators
+		// concatenate iterators, opening each range as it is reached and
+		// closing the previous one
+		final List<CloseableIterator<?>> openIterators = new ArrayList<CloseableIterator<?>>();
 		iterator = new CloseableIteratorWrapper<Entry<GeoWaveInputKey, T>>(
 				new Closeable() {
 					@Override
 					public void close()
 							throws IOException {
-						for (final CloseableIterator<?> it : iteratorsPerRange.values()) {
-							it.close();
-						}
+						closeAll(openIterators);
 					}
 				},
 				concatenateWithCallback(
-						iteratorsPerRange.entrySet().iterator(),
+						Iterators
+								.transform(
+										rangesToQuery.entrySet().iterator(),
+										new Function<Entry<RangeLocationPair, Pair<SplitInfo, List<QueryFilter>>>, Entry<RangeLocationPair, CloseableIterator<Entry<GeoWaveInputKey, T>>>>() {
+											@Override
+											public Entry<RangeLocationPair, CloseableIterator<Entry<GeoWaveInputKey, T>>> apply(
+													final Entry<RangeLocationPair, Pair<SplitInfo, List<QueryFilter>>> input ) {
+												closeAll(openIterators);
+												final SplitInfo splitInfo = input.getValue().getLeft();
+												final CloseableIterator<Entry<GeoWaveInputKey, T>> it = queryRange(
+														splitInfo.getIndex(),
+														input.getKey().getRange(),
+														input.getValue().getRight(),
+														splitInfo.isMixedVisibility(),
+														splitInfo.isAuthorizationsLimiting(),
+														dedupeFilters.get(splitInfo.getIndex().getId()));
+												openIterators.add(it);
+												return new AbstractMap.SimpleImmutableEntry<RangeLocationPair, CloseableIterator<Entry<GeoWaveInputKey, T>>>(
+														input.getKey(),
+														it);
+											}
+										}),
 						new NextRangeCallback() {
 
 							@Override
@@ -228,12 +275,28 @@ public class GeoWaveRecordReader<T> extends
 
 	}
 
+	private static void closeAll(
+			final List<CloseableIterator<?>> iterators ) {
+		for (final CloseableIterator<?> it : iterators) {
+			try {
+				it.close();
+			}
+			catch (final IOException e) {
+				LOGGER.warn(
+						"Unable to close range iterator",
+						e);
+			}
+		}
+		iterators.clear();
+	}
+
 	protected CloseableIterator<Entry<GeoWaveInputKey, T>> queryRange(
 			final PrimaryIndex index,
 			final GeoWaveRowRange range,
 			final List<QueryFilter> queryFilters,
 			final boolean mixedVisibility,
-			boolean authorizationsLimiting ) {
+			final boolean authorizationsLimiting,
+			final PrimaryInsertionIdFilter dedupeFilter ) {
 
 		final QueryFilter singleFilter = ((queryFilters == null) || queryFilters.isEmpty()) ? null : queryFilters
 				.size() == 1 ? queryFilters.get(0) : new FilterList<QueryFilter>(
@@ -263,7 +326,8 @@ public class GeoWaveRecordReader<T> extends
 						adapterStore,
 						internalAdapterStore,
 						index,
-						isOutputWritable));
+						isOutputWritable,
+						dedupeFilter));
 	}
 
 	@Override
@@ -201,6 +201,10 @@ public class IntermediateSplitInfo implements
 		this.splitsProvider = splitsProvider;
 	}
 
+	synchronized Map<ByteArrayId, SplitInfo> getSplitInfo() {
+		return splitInfo;
+	}
+
 	synchronized void merge(
 			final IntermediateSplitInfo split ) {
 		for (final Entry<ByteArrayId, SplitInfo> e : split.splitInfo.entrySet()) {
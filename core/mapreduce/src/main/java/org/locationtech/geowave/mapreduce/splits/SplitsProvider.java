@@ -26,7 +26,7 @@ import org.apache.hadoop.mapreduce.InputSplit;
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.ByteArrayRange;
 import org.locationtech.geowave.core.index.NumericIndexStrategy;
-import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.QueryRanges;
 import org.locationtech.geowave.core.store.adapter.AdapterIndexMappingStore;
 import org.locationtech.geowave.core.store.adapter.AdapterStore;
 import org.locationtech.geowave.core.store.adapter.DataAdapter;
@@ -35,6 +35,7 @@ import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
 import org.locationtech.geowave.core.store.adapter.PersistentAdapterStore;
 import org.locationtech.geowave.core.store.adapter.TransientAdapterStore;
 import org.locationtech.geowave.core.store.adapter.statistics.DataStatisticsStore;
+import org.locationtech.geowave.core.store.adapter.statistics.PartitionSizeStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.PartitionStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
 import org.locationtech.geowave.core.store.base.BaseDataStoreUtils;
@@ -72,12 +73,46 @@ public class SplitsProvider
 			final Integer maxSplits )
 			throws IOException,
 			InterruptedException {
+		return getSplits(
+				operations,
+				query,
+				queryOptions,
+				adapterStore,
+				statsStore,
+				internalAdapterStore,
+				indexStore,
+				adapterIndexMappingStore,
+				minSplits,
+				maxSplits,
+				null);
+	}
+
+	/**
+	 * Read the metadata table to get tablets and match up ranges to them. If a
+	 * target split size is given the splits are planned by their estimated size
+	 * in bytes before the minimum and maximum split counts are applied.
+	 */
+	public List<InputSplit> getSplits(
+			final DataStoreOperations operations,
+			final DistributableQuery query,
+			final QueryOptions queryOptions,
+			final TransientAdapterStore adapterStore,
+			final DataStatisticsStore statsStore,
+			final InternalAdapterStore internalAdapterStore,
+			final IndexStore indexStore,
+			final AdapterIndexMappingStore adapterIndexMappingStore,
+			final Integer minSplits,
+			final Integer maxSplits,
+			final Long targetSplitSizeBytes )
+			throws IOException,
+			InterruptedException {
 
 		final Map<Pair<PrimaryIndex, ByteArrayId>, RowRangeHistogramStatistics<?>> statsCache = new HashMap<Pair<PrimaryIndex, ByteArrayId>, RowRangeHistogramStatistics<?>>();
 
 		final List<InputSplit> retVal = new ArrayList<InputSplit>();
-		final TreeSet<IntermediateSplitInfo> splits = new TreeSet<IntermediateSplitInfo>();
+		final TreeSet<IntermediateSplitInfo> initialSplits = new TreeSet<IntermediateSplitInfo>();
 		final Map<ByteArrayId, List<Short>> indexIdToAdaptersMap = new HashMap<>();
+		final Map<ByteArrayId, PartitionSizeStatistics<?>> sizeStatsPerIndex = new HashMap<>();
 		for (final Pair<PrimaryIndex, List<Short>> indexAdapterIdPair : BaseDataStoreUtils
 				.getAdaptersWithMinimalSetOfIndices(
 						queryOptions,
@@ -89,7 +124,7 @@ public class SplitsProvider
 					indexAdapterIdPair.getKey().getId(),
 					indexAdapterIdPair.getValue());
 			populateIntermediateSplits(
-					splits,
+					initialSplits,
 					operations,
 					indexAdapterIdPair.getLeft(),
 					indexAdapterIdPair.getValue(),
@@ -99,6 +134,31 @@ public class SplitsProvider
 					maxSplits,
 					query,
 					queryOptions.getAuthorizations());
+			if ((targetSplitSizeBytes != null) && (targetSplitSizeBytes > 0)) {
+				final PartitionSizeStatistics<?> sizeStats = getPartitionSizeStats(
+						indexAdapterIdPair.getLeft(),
+						indexAdapterIdPair.getValue(),
+						statsStore,
+						queryOptions.getAuthorizations());
+				if (sizeStats != null) {
+					sizeStatsPerIndex.put(
+							indexAdapterIdPair.getKey().getId(),
+							sizeStats);
+				}
+			}
+		}
+		TreeSet<IntermediateSplitInfo> splits = initialSplits;
+		if ((targetSplitSizeBytes != null) && (targetSplitSizeBytes > 0)) {
+			if (sizeStatsPerIndex.isEmpty()) {
+				LOGGER.warn("Partition size statistics are unavailable, splits will not be planned by size");
+			}
+			else {
+				splits = new ByteSizeSplitPlanner(
+						targetSplitSizeBytes,
+						this,
+						statsCache,
+						sizeStatsPerIndex).plan(initialSplits);
+			}
 		}
 
 		// this is an incremental algorithm, it may be better use the target
@@ -162,6 +222,26 @@ public class SplitsProvider
 		return retVal;
 	}
 
+	/**
+	 * The ranges of the index that the splits of a query read. Record readers
+	 * use the same ranges to deduplicate entries, so all splits providers
+	 * should decompose the query with this method.
+	 *
+	 * @return the ranges, or null if there is no query
+	 */
+	public static QueryRanges getQueryRanges(
+			final PrimaryIndex index,
+			final DistributableQuery query,
+			final Integer maxSplits ) {
+		if (query == null) {
+			return null;
+		}
+		return DataStoreUtils.constraintsToQueryRanges(
+				query.getIndexConstraints(index),
+				index.getIndexStrategy(),
+				((maxSplits != null) && (maxSplits > 0)) ? maxSplits : -1);
+	}
+
 	protected TreeSet<IntermediateSplitInfo> populateIntermediateSplits(
 			final TreeSet<IntermediateSplitInfo> splits,
 			final DataStoreOperations operations,
@@ -180,20 +260,12 @@ public class SplitsProvider
 
 		// Build list of row ranges from query
 		List<ByteArrayRange> ranges = null;
-		if (query != null) {
-			final List<MultiDimensionalNumericData> indexConstraints = query.getIndexConstraints(index);
-			if ((maxSplits != null) && (maxSplits > 0)) {
-				ranges = DataStoreUtils.constraintsToQueryRanges(
-						indexConstraints,
-						indexStrategy,
-						maxSplits).getCompositeQueryRanges();
-			}
-			else {
-				ranges = DataStoreUtils.constraintsToQueryRanges(
-						indexConstraints,
-						indexStrategy,
-						-1).getCompositeQueryRanges();
-			}
+		final QueryRanges queryRanges = getQueryRanges(
+				index,
+				query,
+				maxSplits);
+		if (queryRanges != null) {
+			ranges = queryRanges.getCompositeQueryRanges();
 		}
 		final List<RangeLocationPair> rangeList = new ArrayList<RangeLocationPair>();
 		if (ranges == null) {
@@ -406,6 +478,28 @@ public class SplitsProvider
 		return singleStats;
 	}
 
+	protected PartitionSizeStatistics<?> getPartitionSizeStats(
+			final PrimaryIndex index,
+			final List<Short> adapterIds,
+			final DataStatisticsStore store,
+			final String[] authorizations ) {
+		PartitionSizeStatistics<?> singleStats = null;
+		for (final Short adapterId : adapterIds) {
+			final PartitionSizeStatistics<?> sizeStat = (PartitionSizeStatistics<?>) store.getDataStatistics(
+					adapterId,
+					PartitionSizeStatistics.composeId(index.getId()),
+					authorizations);
+			if (singleStats == null) {
+				singleStats = sizeStat;
+			}
+			else {
+				singleStats.merge(sizeStat);
+			}
+		}
+
+		return singleStats;
+	}
+
 	protected static BigInteger getRange(
 			final GeoWaveRowRange range,
 			final int cardinality ) {
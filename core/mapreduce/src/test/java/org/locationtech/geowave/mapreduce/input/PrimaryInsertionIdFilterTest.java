@@ -0,0 +1,422 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.mapreduce.input;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.index.InsertionIds;
+import org.locationtech.geowave.core.index.NumericIndexStrategy;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.dimension.BasicDimensionDefinition;
+import org.locationtech.geowave.core.index.dimension.NumericDimensionDefinition;
+import org.locationtech.geowave.core.index.dimension.UnboundedDimensionDefinition;
+import org.locationtech.geowave.core.index.dimension.bin.BasicBinningStrategy;
+import org.locationtech.geowave.core.index.sfc.SFCFactory.SFCType;
+import org.locationtech.geowave.core.index.sfc.data.BasicNumericDataset;
+import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericRange;
+import org.locationtech.geowave.core.index.sfc.tiered.TieredSFCIndexFactory;
+import org.locationtech.geowave.core.index.sfc.xz.XZHierarchicalIndexFactory;
+import org.locationtech.geowave.core.store.entities.GeoWaveKey;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.util.DataStoreUtils;
+
+public class PrimaryInsertionIdFilterTest
+{
+	private static final short ADAPTER_ID = 1;
+	private static final int MAX_RANGES = 64;
+	private static final int[] SPLIT_COUNTS = new int[] {
+		1,
+		2,
+		5,
+		17
+	};
+
+	@Test
+	public void testTieredEntriesEmittedOnce() {
+		final NumericIndexStrategy strategy = TieredSFCIndexFactory.createFullIncrementalTieredStrategy(
+				new NumericDimensionDefinition[] {
+					new BasicDimensionDefinition(
+							0,
+							100),
+					new UnboundedDimensionDefinition(
+							new BasicBinningStrategy(
+									10))
+				},
+				new int[] {
+					8,
+					8
+				},
+				SFCType.HILBERT);
+		assertEmittedOnce(
+				strategy,
+				randomEntries(
+						new Random(
+								1),
+						200,
+						2.0),
+				true);
+	}
+
+	@Test
+	public void testXZEntriesEmittedOnce() {
+		// the binned dimension gives entries that cross a bin one insertion ID
+		// per bin
+		final NumericIndexStrategy strategy = XZHierarchicalIndexFactory.createFullIncrementalTieredStrategy(
+				new NumericDimensionDefinition[] {
+					new BasicDimensionDefinition(
+							0,
+							100),
+					new UnboundedDimensionDefinition(
+							new BasicBinningStrategy(
+									10))
+				},
+				new int[] {
+					8,
+					8
+				},
+				SFCType.HILBERT);
+		assertEmittedOnce(
+				strategy,
+				randomEntries(
+						new Random(
+								2),
+						200,
+						2.0),
+				true);
+	}
+
+	@Test
+	public void testCellBoundaryEntriesEmittedOnce() {
+		// one unit cells, so integer coordinates are exactly on cell (and
+		// query) boundaries
+		final NumericIndexStrategy strategy = TieredSFCIndexFactory.createSingleTierStrategy(
+				new NumericDimensionDefinition[] {
+					new BasicDimensionDefinition(
+							0,
+							16),
+					new BasicDimensionDefinition(
+							0,
+							16)
+				},
+				new int[] {
+					4,
+					4
+				},
+				SFCType.HILBERT);
+		final List<MultiDimensionalNumericData> entries = new ArrayList<>();
+		for (int x = 0; x < 16; x += 3) {
+			for (int y = 0; y < 16; y += 5) {
+				entries.add(box(
+						x,
+						Math.min(
+								x + 1,
+								16),
+						y,
+						Math.min(
+								y + 1,
+								16)));
+			}
+		}
+		for (final MultiDimensionalNumericData query : new MultiDimensionalNumericData[] {
+			box(
+					0,
+					16,
+					0,
+					16),
+			box(
+					3,
+					9,
+					5,
+					10),
+			box(
+					4,
+					4,
+					0,
+					16)
+		}) {
+			assertEmittedOnce(
+					strategy,
+					query,
+					entries);
+		}
+	}
+
+	@Test
+	public void testUnconstrained() {
+		final NumericIndexStrategy strategy = TieredSFCIndexFactory.createSingleTierStrategy(
+				new NumericDimensionDefinition[] {
+					new BasicDimensionDefinition(
+							0,
+							16),
+					new BasicDimensionDefinition(
+							0,
+							16)
+				},
+				new int[] {
+					4,
+					4
+				},
+				SFCType.HILBERT);
+		final InsertionIds insertionIds = strategy.getInsertionIds(box(
+				2,
+				5,
+				2,
+				5));
+		final GeoWaveKey[] keys = createKeys(insertionIds);
+		Assert.assertTrue(keys.length > 1);
+		ByteArrayId smallest = null;
+		for (final GeoWaveKey key : keys) {
+			final ByteArrayId id = getId(key);
+			if ((smallest == null) || (id.compareTo(smallest) < 0)) {
+				smallest = id;
+			}
+		}
+		for (final PrimaryInsertionIdFilter filter : new PrimaryInsertionIdFilter[] {
+			new PrimaryInsertionIdFilter(
+					null,
+					null),
+			new PrimaryInsertionIdFilter(
+					null,
+					new QueryRanges()),
+			new PrimaryInsertionIdFilter(
+					null,
+					DataStoreUtils.constraintsToQueryRanges(
+							null,
+							strategy,
+							MAX_RANGES))
+		}) {
+			int accepted = 0;
+			for (final GeoWaveKey key : keys) {
+				if (filter.accept(
+						toRow(key),
+						insertionIds)) {
+					accepted++;
+					Assert.assertEquals(
+							smallest,
+							getId(key));
+				}
+			}
+			Assert.assertEquals(
+					1,
+					accepted);
+		}
+	}
+
+	@Test
+	public void testRowsKept() {
+		final PrimaryInsertionIdFilter filter = new PrimaryInsertionIdFilter(
+				null,
+				null);
+		// rows without duplicates are kept without decoding the entry
+		Assert.assertTrue(filter.accept(
+				toRow(new GeoWaveKeyImpl(
+						new byte[] {
+							1
+						},
+						ADAPTER_ID,
+						new byte[0],
+						new byte[] {
+							5
+						},
+						0)),
+				null,
+				null));
+
+		// a row that isn't among the recomputed insertion IDs can't be
+		// deduplicated, so it is kept
+		final InsertionIds insertionIds = new InsertionIds(
+				new ByteArrayId(
+						new byte[] {
+							1
+						}));
+		Assert.assertTrue(filter.accept(
+				toRow(new GeoWaveKeyImpl(
+						new byte[] {
+							1
+						},
+						ADAPTER_ID,
+						new byte[] {
+							2
+						},
+						null,
+						1)),
+				insertionIds));
+	}
+
+	private static void assertEmittedOnce(
+			final NumericIndexStrategy strategy,
+			final List<MultiDimensionalNumericData> entries,
+			final boolean expectDuplicates ) {
+		final MultiDimensionalNumericData[] queries = new MultiDimensionalNumericData[] {
+			box(
+					0,
+					100,
+					0,
+					100),
+			box(
+					12.3,
+					57.9,
+					8.5,
+					43.2),
+			box(
+					40,
+					60,
+					20,
+					30)
+		};
+		boolean duplicatesRead = false;
+		for (final MultiDimensionalNumericData query : queries) {
+			duplicatesRead |= assertEmittedOnce(
+					strategy,
+					query,
+					entries);
+		}
+		Assert.assertEquals(
+				expectDuplicates,
+				duplicatesRead);
+	}
+
+	/**
+	 * @return true if any entry with more than one insertion ID was read
+	 */
+	private static boolean assertEmittedOnce(
+			final NumericIndexStrategy strategy,
+			final MultiDimensionalNumericData query,
+			final List<MultiDimensionalNumericData> entries ) {
+		final QueryRanges queryRanges = DataStoreUtils.constraintsToQueryRanges(
+				Collections.singletonList(query),
+				strategy,
+				MAX_RANGES);
+		final PrimaryInsertionIdFilter filter = new PrimaryInsertionIdFilter(
+				null,
+				queryRanges);
+		boolean duplicatesRead = false;
+		for (final int splitCount : SPLIT_COUNTS) {
+			final List<QueryRanges> splits = DataStoreUtils.splitQueryRanges(
+					queryRanges,
+					splitCount);
+			for (final MultiDimensionalNumericData entry : entries) {
+				final InsertionIds insertionIds = strategy.getInsertionIds(entry);
+				final GeoWaveKey[] keys = createKeys(insertionIds);
+				int read = 0;
+				int emitted = 0;
+				for (final QueryRanges split : splits) {
+					for (final GeoWaveKey key : keys) {
+						if (isRead(
+								split,
+								getId(key))) {
+							read++;
+							if (filter.accept(
+									toRow(key),
+									insertionIds)) {
+								emitted++;
+							}
+						}
+					}
+				}
+				Assert.assertEquals(
+						"entry " + entry + " read " + read + " times with " + splitCount + " splits",
+						read > 0 ? 1 : 0,
+						emitted);
+				duplicatesRead |= (read > 1);
+			}
+		}
+		return duplicatesRead;
+	}
+
+	private static boolean isRead(
+			final QueryRanges split,
+			final ByteArrayId id ) {
+		final List<ByteArrayRange> ranges = split.getCompositeQueryRanges();
+		if (ranges == null) {
+			return true;
+		}
+		for (final ByteArrayRange range : ranges) {
+			if ((range.getStart().compareTo(
+					id) <= 0) && (id.compareTo(range.getEndAsNextPrefix()) < 0)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<MultiDimensionalNumericData> randomEntries(
+			final Random random,
+			final int count,
+			final double maxSize ) {
+		final List<MultiDimensionalNumericData> entries = new ArrayList<>(
+				count);
+		for (int i = 0; i < count; i++) {
+			final double x = random.nextDouble() * (100 - maxSize);
+			final double y = random.nextDouble() * (100 - maxSize);
+			entries.add(box(
+					x,
+					x + (random.nextDouble() * maxSize),
+					y,
+					y + (random.nextDouble() * maxSize)));
+		}
+		return entries;
+	}
+
+	private static MultiDimensionalNumericData box(
+			final double minX,
+			final double maxX,
+			final double minY,
+			final double maxY ) {
+		return new BasicNumericDataset(
+				new NumericData[] {
+					new NumericRange(
+							minX,
+							maxX),
+					new NumericRange(
+							minY,
+							maxY)
+				});
+	}
+
+	private static GeoWaveKey[] createKeys(
+			final InsertionIds insertionIds ) {
+		return GeoWaveKeyImpl.createKeys(
+				insertionIds,
+				new byte[] {
+					1
+				},
+				ADAPTER_ID);
+	}
+
+	private static ByteArrayId getId(
+			final GeoWaveKey key ) {
+		return new ByteArrayId(
+				ByteArrayUtils.combineArrays(
+						key.getPartitionKey() == null ? new byte[0] : key.getPartitionKey(),
+						key.getSortKey() == null ? new byte[0] : key.getSortKey()));
+	}
+
+	private static GeoWaveRow toRow(
+			final GeoWaveKey key ) {
+		return new GeoWaveRowImpl(
+				key,
+				new GeoWaveValue[0]);
+	}
+}
@@ -44,6 +44,9 @@ public class BaseDataStoreOptions implements
 	@Parameter(names = "--aggregationMaxRangeDecomposition", arity = 1)
 	protected int configuredAggregationMaxRangeDecomposition = Integer.MIN_VALUE;
 
+	@Parameter(names = "--aggregationParallelism", arity = 1)
+	protected int configuredAggregationParallelism = Integer.MIN_VALUE;
+
 	@Override
 	public boolean isPersistDataStatistics() {
 		return persistDataStatistics;
@@ -143,4 +146,20 @@ public class BaseDataStoreOptions implements
 			final int aggregationMaxRangeDecomposition ) {
 		this.configuredAggregationMaxRangeDecomposition = aggregationMaxRangeDecomposition;
 	}
+
+	@Override
+	public int getAggregationParallelism() {
+		return configuredAggregationParallelism == Integer.MIN_VALUE ? defaultAggregationParallelism()
+				: configuredAggregationParallelism;
+	}
+
+	protected int defaultAggregationParallelism() {
+		// client-side aggregations are read sequentially unless configured
+		return 1;
+	}
+
+	public void setAggregationParallelism(
+			final int aggregationParallelism ) {
+		this.configuredAggregationParallelism = aggregationParallelism;
+	}
 }
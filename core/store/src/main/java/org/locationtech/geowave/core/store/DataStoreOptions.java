@@ -29,4 +29,6 @@ public interface DataStoreOptions
 	public int getMaxRangeDecomposition();
 
 	public int getAggregationMaxRangeDecomposition();
+
+	public int getAggregationParallelism();
 }
@@ -18,6 +18,7 @@ import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
 import org.locationtech.geowave.core.store.adapter.statistics.DataStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.DuplicateEntryCount;
 import org.locationtech.geowave.core.store.adapter.statistics.EmptyStatisticVisibility;
+import org.locationtech.geowave.core.store.adapter.statistics.PartitionSizeStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.PartitionStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramStatisticsSet;
@@ -58,13 +59,14 @@ public class DataStoreStatisticsProvider<T> implements
 
 		final ByteArrayId[] newSet = Arrays.copyOf(
 				idsFromAdapter,
-				idsFromAdapter.length + 6);
+				idsFromAdapter.length + 7);
 		newSet[idsFromAdapter.length] = RowRangeHistogramStatistics.STATS_TYPE;
 		newSet[idsFromAdapter.length + 1] = IndexMetaDataSet.STATS_TYPE;
 		newSet[idsFromAdapter.length + 2] = DifferingFieldVisibilityEntryCount.STATS_TYPE;
 		newSet[idsFromAdapter.length + 3] = FieldVisibilityCount.STATS_TYPE;
 		newSet[idsFromAdapter.length + 4] = DuplicateEntryCount.STATS_TYPE;
 		newSet[idsFromAdapter.length + 5] = PartitionStatistics.STATS_TYPE;
+		newSet[idsFromAdapter.length + 6] = PartitionSizeStatistics.STATS_TYPE;
 		return newSet;
 	}
 
@@ -81,6 +83,11 @@ public class DataStoreStatisticsProvider<T> implements
 					adapter.getInternalAdapterId(),
 					index.getId());
 		}
+		if (statisticsType.equals(PartitionSizeStatistics.STATS_TYPE)) {
+			return new PartitionSizeStatistics(
+					adapter.getInternalAdapterId(),
+					index.getId());
+		}
 		if (statisticsType.equals(IndexMetaDataSet.STATS_TYPE)) {
 			return new IndexMetaDataSet(
 					adapter.getInternalAdapterId(),
@@ -14,6 +14,7 @@ import org.locationtech.geowave.core.index.persist.PersistableRegistrySpi;
 import org.locationtech.geowave.core.store.adapter.statistics.CountDataStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.DuplicateEntryCount;
 import org.locationtech.geowave.core.store.adapter.statistics.MaxDuplicatesStatistics;
+import org.locationtech.geowave.core.store.adapter.statistics.PartitionSizeStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.PartitionStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
 import org.locationtech.geowave.core.store.data.visibility.DifferingFieldVisibilityEntryCount;
@@ -35,8 +36,10 @@ import org.locationtech.geowave.core.store.index.numeric.NumberRangeFilter;
 import org.locationtech.geowave.core.store.index.numeric.NumericFieldIndexStrategy;
 import org.locationtech.geowave.core.store.index.temporal.DateRangeFilter;
 import org.locationtech.geowave.core.store.index.temporal.TemporalIndexStrategy;
+import org.locationtech.geowave.core.store.index.text.NGramTextIndexStrategy;
 import org.locationtech.geowave.core.store.index.text.TextExactMatchFilter;
 import org.locationtech.geowave.core.store.index.text.TextIndexStrategy;
+import org.locationtech.geowave.core.store.index.text.TextLikeFilter;
 import org.locationtech.geowave.core.store.query.BasicQuery;
 import org.locationtech.geowave.core.store.query.CoordinateRangeQuery;
 import org.locationtech.geowave.core.store.query.CoordinateRangeQueryFilter;
@@ -44,6 +47,11 @@ import org.locationtech.geowave.core.store.query.QueryOptions;
 import org.locationtech.geowave.core.store.query.aggregate.CountAggregation;
 import org.locationtech.geowave.core.store.query.aggregate.CountResult;
 import org.locationtech.geowave.core.store.query.aggregate.DataStatisticsAggregation;
+import org.locationtech.geowave.core.store.query.aggregate.GroupByParameters;
+import org.locationtech.geowave.core.store.query.aggregate.GroupByResult;
+import org.locationtech.geowave.core.store.query.aggregate.NumericStatsResult;
+import org.locationtech.geowave.core.store.query.aggregate.TopKParameters;
+import org.locationtech.geowave.core.store.query.aggregate.TopKResult;
 
 public class StorePersistableRegistry implements
 		PersistableRegistrySpi
@@ -153,7 +161,31 @@ public class StorePersistableRegistry implements
 					InsertionIdQueryFilter::new),
 			new PersistableIdAndConstructor(
 					(short) 236,
-					PartitionStatistics::new)
+					PartitionStatistics::new),
+			new PersistableIdAndConstructor(
+					(short) 237,
+					PartitionSizeStatistics::new),
+			new PersistableIdAndConstructor(
+					(short) 238,
+					NumericStatsResult::new),
+			new PersistableIdAndConstructor(
+					(short) 239,
+					GroupByParameters::new),
+			new PersistableIdAndConstructor(
+					(short) 240,
+					GroupByResult::new),
+			new PersistableIdAndConstructor(
+					(short) 241,
+					TopKParameters::new),
+			new PersistableIdAndConstructor(
+					(short) 242,
+					TopKResult::new),
+			new PersistableIdAndConstructor(
+					(short) 243,
+					TextLikeFilter::new),
+			new PersistableIdAndConstructor(
+					(short) 244,
+					NGramTextIndexStrategy::new)
 		};
 	}
 }
@@ -65,4 +65,23 @@ public abstract class AbstractAdapterPersistenceEncoding extends
 	abstract public void convertUnknownValues(
 			final DataAdapter<?> adapter,
 			final CommonIndexModel model );
+
+	/**
+	 * Process unknownData given adapter and model to convert to adapter
+	 * extended values, skipping fields that are not within the field subset.
+	 * Implementations that can't skip fields convert all of them.
+	 *
+	 * @param adapter
+	 * @param model
+	 * @param fieldSubsetBitmask
+	 *            the positions of the fields to convert, null for all fields
+	 */
+	public void convertUnknownValues(
+			final DataAdapter<?> adapter,
+			final CommonIndexModel model,
+			final byte[] fieldSubsetBitmask ) {
+		convertUnknownValues(
+				adapter,
+				model);
+	}
 }
@@ -0,0 +1,332 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.adapter.statistics;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.store.adapter.InternalAdapterStore;
+import org.locationtech.geowave.core.store.callback.DeleteCallback;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+
+/**
+ * This class is responsible for maintaining the number of rows and the number
+ * of bytes written to each partition of an index. Together with the row range
+ * histograms this gives an estimate of the number of bytes within any range of
+ * the index.
+ *
+ * @param <T>
+ *            The type of the row to keep statistics on
+ */
+public class PartitionSizeStatistics<T> extends
+		AbstractDataStatistics<T> implements
+		DeleteCallback<T, GeoWaveRow>
+{
+	public static final ByteArrayId STATS_TYPE = new ByteArrayId(
+			"PARTITION_SIZE");
+	private static final ByteArrayId NO_PARTITION = new ByteArrayId(
+			new byte[0]);
+
+	private Map<ByteArrayId, PartitionSize> sizes = new HashMap<>();
+
+	public PartitionSizeStatistics() {
+		super();
+	}
+
+	public PartitionSizeStatistics(
+			final Short internalDataAdapterId,
+			final ByteArrayId indexId ) {
+		super(
+				internalDataAdapterId,
+				composeId(indexId));
+	}
+
+	public static ByteArrayId composeId(
+			final ByteArrayId indexId ) {
+		return composeId(
+				STATS_TYPE.getString(),
+				indexId.getString());
+	}
+
+	@Override
+	public DataStatistics<T> duplicate() {
+		return new PartitionSizeStatistics<T>(
+				internalDataAdapterId,
+				decomposeIndexIdFromId(statisticsId));
+	}
+
+	public static ByteArrayId decomposeIndexIdFromId(
+			final ByteArrayId statisticsId ) {
+		// Need to account for length of type and of the separator
+		final int lengthOfNonId = STATS_TYPE.getBytes().length + STATS_ID_SEPARATOR.length();
+		final int idLength = statisticsId.getBytes().length - lengthOfNonId;
+		final byte[] idBytes = new byte[idLength];
+		System.arraycopy(
+				statisticsId.getBytes(),
+				lengthOfNonId,
+				idBytes,
+				0,
+				idLength);
+		return new ByteArrayId(
+				idBytes);
+	}
+
+	/**
+	 * @return the total number of bytes written to the partition
+	 */
+	public long getTotalBytes(
+			final ByteArrayId partitionKey ) {
+		final PartitionSize size = sizes.get(getKey(partitionKey));
+		return size == null ? 0 : size.getBytes();
+	}
+
+	/**
+	 * @return the total number of rows written to the partition
+	 */
+	public long getTotalRows(
+			final ByteArrayId partitionKey ) {
+		final PartitionSize size = sizes.get(getKey(partitionKey));
+		return size == null ? 0 : size.getRows();
+	}
+
+	/**
+	 * @return the average size of a row in the partition, or the average over
+	 *         all partitions if the partition is unknown, or -1 if nothing has
+	 *         been written
+	 */
+	public double getAverageRowBytes(
+			final ByteArrayId partitionKey ) {
+		final PartitionSize size = sizes.get(getKey(partitionKey));
+		if ((size != null) && (size.getRows() > 0)) {
+			return (double) size.getBytes() / size.getRows();
+		}
+		long rows = 0;
+		long bytes = 0;
+		for (final PartitionSize s : sizes.values()) {
+			rows += s.getRows();
+			bytes += s.getBytes();
+		}
+		return rows > 0 ? (double) bytes / rows : -1;
+	}
+
+	@Override
+	public void merge(
+			final Mergeable mergeable ) {
+		if (mergeable instanceof PartitionSizeStatistics) {
+			for (final Entry<ByteArrayId, PartitionSize> e : ((PartitionSizeStatistics<?>) mergeable).sizes.entrySet()) {
+				add(
+						e.getKey(),
+						e.getValue().rows,
+						e.getValue().bytes);
+			}
+		}
+	}
+
+	@Override
+	public byte[] toBinary() {
+		int size = 4;
+		for (final ByteArrayId partition : sizes.keySet()) {
+			size += 4 + partition.getBytes().length + 16;
+		}
+		final ByteBuffer buffer = super.binaryBuffer(size);
+		buffer.putInt(sizes.size());
+		for (final Entry<ByteArrayId, PartitionSize> e : sizes.entrySet()) {
+			buffer.putInt(e.getKey().getBytes().length);
+			buffer.put(e.getKey().getBytes());
+			buffer.putLong(e.getValue().rows);
+			buffer.putLong(e.getValue().bytes);
+		}
+		return buffer.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buffer = super.binaryBuffer(bytes);
+		sizes = new HashMap<>();
+		if (buffer.remaining() > 0) {
+			final int numPartitions = buffer.getInt();
+			for (int i = 0; i < numPartitions; i++) {
+				final byte[] partition = new byte[buffer.getInt()];
+				buffer.get(partition);
+				sizes.put(
+						new ByteArrayId(
+								partition),
+						new PartitionSize(
+								buffer.getLong(),
+								buffer.getLong()));
+			}
+		}
+	}
+
+	@Override
+	public void entryIngested(
+			final T entry,
+			final GeoWaveRow... kvs ) {
+		for (final GeoWaveRow kv : kvs) {
+			add(
+					getKey(kv.getPartitionKey()),
+					1,
+					getRowBytes(kv));
+		}
+	}
+
+	@Override
+	public void entryDeleted(
+			final T entry,
+			final GeoWaveRow... kvs ) {
+		for (final GeoWaveRow kv : kvs) {
+			add(
+					getKey(kv.getPartitionKey()),
+					-1,
+					-getRowBytes(kv));
+		}
+	}
+
+	protected static long getRowBytes(
+			final GeoWaveRow kv ) {
+		long bytes = length(kv.getPartitionKey()) + length(kv.getSortKey()) + length(kv.getDataId());
+		if (kv.getFieldValues() != null) {
+			for (final GeoWaveValue value : kv.getFieldValues()) {
+				bytes += length(value.getFieldMask()) + length(value.getVisibility()) + length(value.getValue());
+			}
+		}
+		return bytes;
+	}
+
+	private static int length(
+			final byte[] bytes ) {
+		return bytes == null ? 0 : bytes.length;
+	}
+
+	private static ByteArrayId getKey(
+			final byte[] partitionKey ) {
+		return ((partitionKey == null) || (partitionKey.length == 0)) ? NO_PARTITION : new ByteArrayId(
+				partitionKey);
+	}
+
+	private static ByteArrayId getKey(
+			final ByteArrayId partitionKey ) {
+		return partitionKey == null ? NO_PARTITION : getKey(partitionKey.getBytes());
+	}
+
+	// sizes are signed so that a delta of deletes reduces the sizes it is
+	// merged into, they are only clamped when read
+	private void add(
+			final ByteArrayId partition,
+			final long rows,
+			final long bytes ) {
+		final PartitionSize size = sizes.get(partition);
+		if (size == null) {
+			sizes.put(
+					partition,
+					new PartitionSize(
+							rows,
+							bytes));
+		}
+		else {
+			size.rows += rows;
+			size.bytes += bytes;
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuffer buffer = new StringBuffer(
+				statisticsId.getString()).append("=");
+		if (!sizes.isEmpty()) {
+			for (final Entry<ByteArrayId, PartitionSize> e : sizes.entrySet()) {
+				buffer.append(
+						e.getKey().getBytes().length == 0 ? "null" : e.getKey().getHexString()).append(
+						"[rows=").append(
+						e.getValue().rows).append(
+						", bytes=").append(
+						e.getValue().bytes).append(
+						"],");
+			}
+			buffer.deleteCharAt(buffer.length() - 1);
+		}
+		else {
+			buffer.append("none");
+		}
+		return buffer.toString();
+	}
+
+	/**
+	 * Convert Partition Size statistics to a JSON object
+	 */
+
+	@Override
+	public JSONObject toJSONObject(
+			final InternalAdapterStore store )
+			throws JSONException {
+		final JSONObject jo = new JSONObject();
+		jo.put(
+				"type",
+				STATS_TYPE.getString());
+
+		jo.put(
+				"statisticsID",
+				statisticsId.getString());
+		final JSONArray partitionsArray = new JSONArray();
+		for (final Entry<ByteArrayId, PartitionSize> e : sizes.entrySet()) {
+			final JSONObject partition = new JSONObject();
+			partition.put(
+					"partition",
+					e.getKey().getBytes().length == 0 ? "null" : e.getKey().getHexString());
+			partition.put(
+					"rows",
+					e.getValue().rows);
+			partition.put(
+					"bytes",
+					e.getValue().bytes);
+			partitionsArray.add(partition);
+		}
+		jo.put(
+				"partitions",
+				partitionsArray);
+		return jo;
+	}
+
+	private static class PartitionSize
+	{
+		private long rows;
+		private long bytes;
+
+		public PartitionSize(
+				final long rows,
+				final long bytes ) {
+			this.rows = rows;
+			this.bytes = bytes;
+		}
+
+		private long getRows() {
+			return Math.max(
+					0,
+					rows);
+		}
+
+		private long getBytes() {
+			return Math.max(
+					0,
+					bytes);
+		}
+	}
+}
@@ -12,6 +12,7 @@ package org.locationtech.geowave.core.store.base;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.log4j.Logger;
@@ -47,7 +48,7 @@ import org.locationtech.geowave.core.store.query.CoordinateRangeQueryFilter;
 import org.locationtech.geowave.core.store.query.Query;
 import org.locationtech.geowave.core.store.query.aggregate.Aggregation;
 import org.locationtech.geowave.core.store.query.aggregate.CommonIndexAggregation;
-import org.locationtech.geowave.core.store.util.DataStoreUtils;
+import org.locationtech.geowave.core.store.query.plan.QueryRangesCache;
 
 import com.google.common.collect.Iterators;
 
@@ -175,6 +176,28 @@ public class BaseConstraintsQuery extends
 		if (isAggregation()) {
 			if ((options == null) || !options.isServerSideLibraryEnabled()) {
 				// Aggregate client-side
+				if ((options != null) && (options.getAggregationParallelism() > 1) && ((limit == null) || (limit <= 0))
+						&& ((scanCallback == null) || (scanCallback == BaseQueryOptions.DEFAULT_CALLBACK))) {
+					// read independent groups of ranges in parallel, the scan
+					// callback may not be thread-safe and a limit can't be
+					// applied across groups so neither is supported
+					final List<Supplier<CloseableIterator<Object>>> groups = queryInRangeGroups(
+							datastoreOperations,
+							options,
+							adapterStore,
+							maxResolutionSubsamplingPerDimension,
+							queryMaxRangeDecomposition,
+							options.getAggregationParallelism());
+					if (groups != null) {
+						final CloseableIterator<Object> result = BaseDataStoreUtils.aggregateInParallel(
+								groups,
+								(Aggregation<?, ?, Object>) aggregation.getValue(),
+								options.getAggregationParallelism());
+						if (result != null) {
+							return result;
+						}
+					}
+				}
 				final CloseableIterator<Object> it = (CloseableIterator<Object>) super.query(
 						datastoreOperations,
 						options,
@@ -321,7 +344,7 @@ public class BaseConstraintsQuery extends
 	@Override
 	protected QueryRanges getRanges(
 			int maxRangeDecomposition ) {
-		return DataStoreUtils.constraintsToQueryRanges(
+		return QueryRangesCache.getQueryRanges(
 				constraints,
 				index.getIndexStrategy(),
 				maxRangeDecomposition,
@@ -59,6 +59,7 @@ import org.locationtech.geowave.core.store.query.AdapterQuery;
 import org.locationtech.geowave.core.store.query.EverythingQuery;
 import org.locationtech.geowave.core.store.query.InsertionIdQuery;
 import org.locationtech.geowave.core.store.query.PrefixIdQuery;
+import org.locationtech.geowave.core.store.query.PrefixIdsQuery;
 import org.locationtech.geowave.core.store.query.Query;
 import org.locationtech.geowave.core.store.query.QueryOptions;
 import org.slf4j.Logger;
@@ -320,6 +321,18 @@ public class BaseDataStore implements
 								delete));
 						continue;
 					}
+					else if (sanitizedQuery instanceof PrefixIdsQuery) {
+						final PrefixIdsQuery prefixIdsQuery = (PrefixIdsQuery) sanitizedQuery;
+						results.add(queryRowPrefix(
+								indexAdapterPair.getLeft(),
+								prefixIdsQuery.getPartitionKey(),
+								prefixIdsQuery.getSortKeyPrefixes(),
+								sanitizedQueryOptions,
+								tempAdapterStore,
+								adapterIdsToQuery,
+								delete));
+						continue;
+					}
 					adapterIdsToQuery.add(adapter.getInternalAdapterId());
 				}
 				// supports querying multiple adapters in a single index
@@ -498,6 +511,16 @@ public class BaseDataStore implements
 								adapterIds,
 								true);
 					}
+					else if (query instanceof PrefixIdsQuery) {
+						dataIt = queryRowPrefix(
+								index,
+								((PrefixIdsQuery) query).getPartitionKey(),
+								((PrefixIdsQuery) query).getSortKeyPrefixes(),
+								sanitizedQueryOptions,
+								adapterStore,
+								adapterIds,
+								true);
+					}
 					else {
 						dataIt = queryConstraints(
 								adapterIds,
@@ -664,10 +687,28 @@ public class BaseDataStore implements
 			final PersistentAdapterStore tempAdapterStore,
 			final List<Short> adapterIdsToQuery,
 			final boolean delete ) {
+		return queryRowPrefix(
+				index,
+				partitionKey,
+				Collections.singletonList(sortPrefix),
+				sanitizedQueryOptions,
+				tempAdapterStore,
+				adapterIdsToQuery,
+				delete);
+	}
+
+	protected CloseableIterator<Object> queryRowPrefix(
+			final PrimaryIndex index,
+			final ByteArrayId partitionKey,
+			final List<ByteArrayId> sortPrefixes,
+			final BaseQueryOptions sanitizedQueryOptions,
+			final PersistentAdapterStore tempAdapterStore,
+			final List<Short> adapterIdsToQuery,
+			final boolean delete ) {
 		final BaseRowPrefixQuery<Object> prefixQuery = new BaseRowPrefixQuery<Object>(
 				index,
 				partitionKey,
-				sortPrefix,
+				sortPrefixes,
 				(ScanCallback<Object, ?>) sanitizedQueryOptions.getScanCallback(),
 				DifferingFieldVisibilityEntryCount.getVisibilityCounts(
 						index,
@@ -25,11 +25,21 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.InsertionIds;
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.index.persist.Persistable;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
 import org.locationtech.geowave.core.store.AdapterToIndexMapping;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.CloseableIterator.Wrapper;
@@ -71,11 +81,15 @@ import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.collect.Lists;
 
 public class BaseDataStoreUtils
 {
 	private final static Logger LOGGER = LoggerFactory.getLogger(BaseDataStoreUtils.class);
+	// shared by all parallel aggregations, idle threads are reclaimed
+	private final static ExecutorService AGGREGATION_THREADS = MoreExecutors
+			.getExitingExecutorService((ThreadPoolExecutor) Executors.newCachedThreadPool());
 
 	public static <T> GeoWaveRow[] getGeoWaveRows(
 			final T entry,
@@ -199,6 +213,110 @@ public class BaseDataStoreUtils
 		return new CloseableIterator.Empty();
 	}
 
+	/**
+	 * Aggregate the groups of entries on at most parallelism threads of a
+	 * shared pool, using a copy of the aggregation per thread, and merge the
+	 * partial results. The groups must not share entries.
+	 *
+	 * @return the merged result, or null if the aggregation could not be copied
+	 *         in which case the caller should aggregate sequentially
+	 */
+	@SuppressWarnings({
+		"unchecked",
+		"rawtypes"
+	})
+	public static CloseableIterator<Object> aggregateInParallel(
+			final List<Supplier<CloseableIterator<Object>>> groups,
+			final Aggregation<?, ?, Object> aggregationFunction,
+			final int parallelism ) {
+		final int numThreads = Math.max(
+				1,
+				Math.min(
+						parallelism,
+						groups.size()));
+		final List<Aggregation<Persistable, Mergeable, Object>> copies = new ArrayList<>(
+				numThreads);
+		try {
+			final byte[] aggregationBinary = PersistenceUtils.toBinary(aggregationFunction);
+			for (int i = 0; i < numThreads; i++) {
+				final Aggregation<Persistable, Mergeable, Object> copy = (Aggregation) PersistenceUtils
+						.fromBinary(aggregationBinary);
+				if (copy == null) {
+					return null;
+				}
+				copy.setParameters(aggregationFunction.getParameters());
+				copies.add(copy);
+			}
+		}
+		catch (final Exception e) {
+			LOGGER.debug(
+					"Unable to copy aggregation, aggregating sequentially",
+					e);
+			return null;
+		}
+		final List<Future<Mergeable>> futures = new ArrayList<>(
+				numThreads);
+		try {
+			for (int i = 0; i < numThreads; i++) {
+				final int firstGroup = i;
+				final Aggregation<Persistable, Mergeable, Object> aggregation = copies.get(i);
+				futures.add(AGGREGATION_THREADS.submit(new Callable<Mergeable>() {
+					@Override
+					public Mergeable call()
+							throws Exception {
+						for (int g = firstGroup; g < groups.size(); g += numThreads) {
+							try (CloseableIterator<Object> it = groups.get(
+									g).get()) {
+								while (it.hasNext()) {
+									final Object input = it.next();
+									if (input != null) {
+										aggregation.aggregate(input);
+									}
+								}
+							}
+						}
+						return aggregation.getResult();
+					}
+				}));
+			}
+			Mergeable mergedResult = null;
+			for (final Future<Mergeable> future : futures) {
+				final Mergeable result = future.get();
+				if (result == null) {
+					continue;
+				}
+				if (mergedResult == null) {
+					mergedResult = result;
+				}
+				else {
+					mergedResult.merge(result);
+				}
+			}
+			if (mergedResult == null) {
+				return new CloseableIterator.Empty();
+			}
+			return new Wrapper(
+					Iterators.singletonIterator(mergedResult));
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(
+					"Interrupted while aggregating",
+					e);
+		}
+		catch (final ExecutionException e) {
+			throw new RuntimeException(
+					"Unable to aggregate range group",
+					e.getCause());
+		}
+		finally {
+			// stop any groups still being read if the aggregation failed
+			for (final Future<Mergeable> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
 	/**
 	 * build a persistence encoding object first, pass it through the client
 	 * filters and if its accepted, use the data adapter to decode the
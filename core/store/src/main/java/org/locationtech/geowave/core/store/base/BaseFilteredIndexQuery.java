@@ -11,16 +11,19 @@
 package org.locationtech.geowave.core.store.base;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.log4j.Logger;
 import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.QueryRanges;
 import org.locationtech.geowave.core.index.StringUtils;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.CloseableIteratorWrapper;
@@ -41,6 +44,7 @@ import org.locationtech.geowave.core.store.index.PrimaryIndex;
 import org.locationtech.geowave.core.store.operations.DataStoreOperations;
 import org.locationtech.geowave.core.store.operations.Reader;
 import org.locationtech.geowave.core.store.operations.ReaderClosableWrapper;
+import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.locationtech.geowave.core.store.util.MergingEntryIterator;
 import org.locationtech.geowave.core.store.util.NativeEntryIteratorWrapper;
 
@@ -113,6 +117,79 @@ abstract class BaseFilteredIndexQuery extends
 				it);
 	}
 
+	/**
+	 * Split the ranges of this query into groups that can be read
+	 * independently. The reader for each group is only created when its
+	 * supplier is called so that groups can be read on separate threads.
+	 *
+	 * @return the group suppliers, or null if the ranges can't be split
+	 */
+	@SuppressWarnings({
+		"unchecked",
+		"rawtypes"
+	})
+	protected List<Supplier<CloseableIterator<Object>>> queryInRangeGroups(
+			final DataStoreOperations datastoreOperations,
+			final DataStoreOptions options,
+			final PersistentAdapterStore adapterStore,
+			final double[] maxResolutionSubsamplingPerDimension,
+			final Integer queryMaxRangeDecomposition,
+			final int maxGroups ) {
+		final int maxRangeDecomposition = getMaxRangeDecomposition(
+				options,
+				queryMaxRangeDecomposition);
+		final List<QueryRanges> rangeGroups = DataStoreUtils.splitQueryRanges(
+				getRanges(maxRangeDecomposition),
+				maxGroups);
+		if (rangeGroups.size() <= 1) {
+			return null;
+		}
+		try {
+			if (!datastoreOperations.indexExists(index.getId())) {
+				return null;
+			}
+		}
+		catch (final IOException e) {
+			LOGGER.error(
+					"Table does not exist",
+					e);
+			return null;
+		}
+		// the transformer, and therefore the client filters, are shared by
+		// every group
+		final GeoWaveRowIteratorTransformer<Object> rowTransformer = getRowTransformer(
+				options,
+				adapterStore,
+				maxResolutionSubsamplingPerDimension,
+				!isCommonIndexAggregation());
+		final List<Supplier<CloseableIterator<Object>>> groups = new ArrayList<>(
+				rangeGroups.size());
+		for (final QueryRanges ranges : rangeGroups) {
+			groups.add(new Supplier<CloseableIterator<Object>>() {
+				@Override
+				public CloseableIterator<Object> get() {
+					final Reader<Object> reader = getReader(
+							datastoreOperations,
+							options,
+							adapterStore,
+							maxResolutionSubsamplingPerDimension,
+							null,
+							maxRangeDecomposition,
+							rowTransformer,
+							ranges);
+					if (reader == null) {
+						return new CloseableIterator.Empty();
+					}
+					return new CloseableIteratorWrapper(
+							new ReaderClosableWrapper(
+									reader),
+							reader);
+				}
+			});
+		}
+		return groups;
+	}
+
 	@Override
 	protected <C> Reader<C> getReader(
 			final DataStoreOperations datastoreOperations,
@@ -91,14 +91,32 @@ abstract class BaseQuery
 			final Integer limit,
 			final Integer queryMaxRangeDecomposition,
 			final GeoWaveRowIteratorTransformer<C> rowTransformer ) {
-		final int maxRangeDecomposition;
-		if (queryMaxRangeDecomposition != null) {
-			maxRangeDecomposition = queryMaxRangeDecomposition;
-		}
-		else {
-			maxRangeDecomposition = isAggregation() ? options.getAggregationMaxRangeDecomposition() : options
-					.getMaxRangeDecomposition();
-		}
+		final int maxRangeDecomposition = getMaxRangeDecomposition(
+				options,
+				queryMaxRangeDecomposition);
+		return getReader(
+				operations,
+				options,
+				adapterStore,
+				maxResolutionSubsamplingPerDimension,
+				limit,
+				maxRangeDecomposition,
+				rowTransformer,
+				getRanges(maxRangeDecomposition));
+	}
+
+	/**
+	 * Create a reader for a subset of this query's ranges
+	 */
+	protected <C> Reader<C> getReader(
+			final DataStoreOperations operations,
+			final DataStoreOptions options,
+			final PersistentAdapterStore adapterStore,
+			final double[] maxResolutionSubsamplingPerDimension,
+			final Integer limit,
+			final int maxRangeDecomposition,
+			final GeoWaveRowIteratorTransformer<C> rowTransformer,
+			final QueryRanges ranges ) {
 		return operations.createReader(new ReaderParams<C>(
 				index,
 				adapterStore,
@@ -110,7 +128,7 @@ abstract class BaseQuery
 				isAuthorizationsLimiting(),
 				isServerSideAggregation(options),
 				isRowMerging(adapterStore),
-				getRanges(maxRangeDecomposition),
+				ranges,
 				getServerFilter(options),
 				limit,
 				maxRangeDecomposition,
@@ -120,6 +138,15 @@ abstract class BaseQuery
 				getAdditionalAuthorizations()));
 	}
 
+	protected int getMaxRangeDecomposition(
+			final DataStoreOptions options,
+			final Integer queryMaxRangeDecomposition ) {
+		if (queryMaxRangeDecomposition != null) {
+			return queryMaxRangeDecomposition;
+		}
+		return isAggregation() ? options.getAggregationMaxRangeDecomposition() : options.getMaxRangeDecomposition();
+	}
+
 	public boolean isRowMerging(
 			PersistentAdapterStore adapterStore ) {
 		if (adapterIds != null) {
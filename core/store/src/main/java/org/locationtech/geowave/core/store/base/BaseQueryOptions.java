@@ -47,7 +47,9 @@ import com.google.common.collect.Lists;
 public class BaseQueryOptions
 {
 	private static Logger LOGGER = LoggerFactory.getLogger(BaseQueryOptions.class);
-	private static ScanCallback<Object, GeoWaveRow> DEFAULT_CALLBACK = new ScanCallback<Object, GeoWaveRow>() {
+	// the no-op callback used when none is set, which is safe to share
+	// between threads
+	static final ScanCallback<Object, GeoWaveRow> DEFAULT_CALLBACK = new ScanCallback<Object, GeoWaveRow>() {
 		@Override
 		public void entryScanned(
 				final Object entry,
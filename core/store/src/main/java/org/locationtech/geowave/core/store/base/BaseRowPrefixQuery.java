@@ -42,6 +42,24 @@ class BaseRowPrefixQuery<T> extends
 			final DifferingFieldVisibilityEntryCount differingVisibilityCounts,
 			final FieldVisibilityCount visibilityCounts,
 			final String[] authorizations ) {
+		this(
+				index,
+				partitionKey,
+				Collections.singletonList(sortKeyPrefix),
+				scanCallback,
+				differingVisibilityCounts,
+				visibilityCounts,
+				authorizations);
+	}
+
+	public BaseRowPrefixQuery(
+			final PrimaryIndex index,
+			final ByteArrayId partitionKey,
+			final List<ByteArrayId> sortKeyPrefixes,
+			final ScanCallback<T, ?> scanCallback,
+			final DifferingFieldVisibilityEntryCount differingVisibilityCounts,
+			final FieldVisibilityCount visibilityCounts,
+			final String[] authorizations ) {
 		super(
 				index,
 				authorizations,
@@ -49,12 +67,15 @@ class BaseRowPrefixQuery<T> extends
 				differingVisibilityCounts,
 				visibilityCounts);
 
-		final ByteArrayRange sortKeyPrefixRange = new ByteArrayRange(
-				sortKeyPrefix,
-				sortKeyPrefix,
-				false);
+		final Collection<ByteArrayRange> sortKeys = new ArrayList<ByteArrayRange>(
+				sortKeyPrefixes.size());
+		for (final ByteArrayId sortKeyPrefix : sortKeyPrefixes) {
+			sortKeys.add(new ByteArrayRange(
+					sortKeyPrefix,
+					sortKeyPrefix,
+					false));
+		}
 		final List<SinglePartitionQueryRanges> ranges = new ArrayList<SinglePartitionQueryRanges>();
-		final Collection<ByteArrayRange> sortKeys = Collections.singleton(sortKeyPrefixRange);
 		ranges.add(new SinglePartitionQueryRanges(
 				partitionKey,
 				sortKeys));
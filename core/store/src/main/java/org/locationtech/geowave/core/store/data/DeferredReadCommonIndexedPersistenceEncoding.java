@@ -18,6 +18,7 @@ import org.locationtech.geowave.core.store.adapter.DataAdapter;
 import org.locationtech.geowave.core.store.data.PersistentDataset;
 import org.locationtech.geowave.core.store.data.PersistentValue;
 import org.locationtech.geowave.core.store.data.field.FieldReader;
+import org.locationtech.geowave.core.store.flatten.BitmaskUtils;
 import org.locationtech.geowave.core.store.flatten.FlattenedFieldInfo;
 import org.locationtech.geowave.core.store.flatten.FlattenedUnreadData;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
@@ -60,9 +61,26 @@ public class DeferredReadCommonIndexedPersistenceEncoding extends
 	public void convertUnknownValues(
 			final DataAdapter<?> adapter,
 			final CommonIndexModel model ) {
+		convertUnknownValues(
+				adapter,
+				model,
+				null);
+	}
+
+	@Override
+	public void convertUnknownValues(
+			final DataAdapter<?> adapter,
+			final CommonIndexModel model,
+			final byte[] fieldSubsetBitmask ) {
 		if (unreadData != null) {
 			final List<FlattenedFieldInfo> fields = unreadData.finishRead();
 			for (final FlattenedFieldInfo field : fields) {
+				if ((fieldSubsetBitmask != null) && !BitmaskUtils.isFieldPositionSet(
+						fieldSubsetBitmask,
+						field.getFieldPosition())) {
+					// the value is never read so skip deserializing it
+					continue;
+				}
 				ByteArrayId fieldId = adapter.getFieldIdForPosition(
 						model,
 						field.getFieldPosition());
@@ -31,12 +31,16 @@ import org.locationtech.geowave.core.store.util.VisibilityExpression;
 
 import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.google.common.collect.Sets;
 
 public class FieldVisibilityCount<T> extends
 		AbstractDataStatistics<T> implements
 		DeleteCallback<T, GeoWaveRow>
 {
+	private final static Logger LOGGER = LoggerFactory.getLogger(FieldVisibilityCount.class);
 	public static final ByteArrayId STATS_TYPE = new ByteArrayId(
 			"FIELD_VISIBILITY_COUNT");
 	private final Map<ByteArrayId, Long> countsPerVisibility;
@@ -169,11 +173,22 @@ public class FieldVisibilityCount<T> extends
 			String... authorizations ) {
 		Set<String> set = Sets.newHashSet(authorizations);
 		for (Entry<ByteArrayId, Long> vis : countsPerVisibility.entrySet()) {
-			if (vis.getValue() > 0 && vis.getKey() != null && vis.getKey().getBytes().length > 0
-					&& !VisibilityExpression.evaluate(
+			if (vis.getValue() > 0 && vis.getKey() != null && vis.getKey().getBytes().length > 0) {
+				try {
+					if (!VisibilityExpression.evaluate(
 							vis.getKey().getString(),
 							set)) {
-				return true;
+						return true;
+					}
+				}
+				catch (final RuntimeException e) {
+					// rows with an expression that can't be parsed are never
+					// visible, so they limit what the authorizations can see
+					LOGGER.warn(
+							"Unable to parse visibility expression '" + vis.getKey().getString() + "'",
+							e);
+					return true;
+				}
 			}
 		}
 		return false;
@@ -12,10 +12,9 @@ package org.locationtech.geowave.core.store.filter;
 
 import java.util.Set;
 
-import org.locationtech.geowave.core.index.StringUtils;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.entities.GeoWaveValue;
-import org.locationtech.geowave.core.store.util.VisibilityExpression;
+import org.locationtech.geowave.core.store.util.VisibilityEvaluator;
 
 import com.google.common.base.Predicate;
 
@@ -27,24 +26,22 @@ import com.google.common.base.Predicate;
 public class ClientVisibilityFilter implements
 		Predicate<GeoWaveRow>
 {
-	private final Set<String> auths;
+	private final VisibilityEvaluator evaluator;
 
 	public ClientVisibilityFilter(
 			Set<String> auths ) {
-		this.auths = auths;
+		evaluator = new VisibilityEvaluator(
+				auths);
 	}
 
 	@Override
 	public boolean apply(
 			GeoWaveRow input ) {
-		String visibility = "";
 		GeoWaveValue[] fieldValues = input.getFieldValues();
-		if (fieldValues.length > 0 && fieldValues[0].getVisibility() != null) {
-			visibility = StringUtils.stringFromBinary(input.getFieldValues()[0].getVisibility());
+		if (fieldValues.length == 0) {
+			return true;
 		}
-		return VisibilityExpression.evaluate(
-				visibility,
-				auths);
+		return evaluator.isAuthorized(fieldValues[0].getVisibility());
 	}
 
 }
@@ -59,6 +59,23 @@ public class BitmaskUtils
 		return false;
 	}
 
+	/**
+	 * @param bitmask
+	 *            the composite bitmask
+	 * @param fieldPosition
+	 *            the field position to check
+	 * @return true if the bit for the field position is set
+	 */
+	public static boolean isFieldPositionSet(
+			final byte[] bitmask,
+			final int fieldPosition ) {
+		final int bytePosition = fieldPosition / 8;
+		if ((fieldPosition < 0) || (bytePosition >= bitmask.length)) {
+			return false;
+		}
+		return ((bitmask[bytePosition] >>> (fieldPosition % 8)) & 0x1) == 1;
+	}
+
 	/**
 	 * Generates a composite bitmask given a list of field positions. The
 	 * composite bitmask represents a true bit for every positive field position
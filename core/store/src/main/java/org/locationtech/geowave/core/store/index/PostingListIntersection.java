@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+
+/**
+ * Intersects the posting lists of an inverted index, such as the grams of an
+ * {@link org.locationtech.geowave.core.store.index.text.NGramTextIndexStrategy}
+ * . The first list is materialized and every following list only retains what
+ * it has in common with the result so far, so the lists should be ordered from
+ * the smallest (most selective) to the largest. Reading stops as soon as the
+ * intersection is empty, without reading the remaining lists.
+ */
+public class PostingListIntersection
+{
+	private PostingListIntersection() {}
+
+	/**
+	 * @param postingLists
+	 *            the IDs (for example data IDs) of each posting list, ordered
+	 *            from smallest to largest, the IDs within a list don't need to
+	 *            be sorted and may repeat
+	 * @return the IDs present in every posting list, in the order of the first
+	 *         list
+	 */
+	public static Set<ByteArrayId> intersect(
+			final List<? extends Iterator<ByteArrayId>> postingLists ) {
+		return intersect(
+				postingLists,
+				postingList -> postingList);
+	}
+
+	/**
+	 * Orders the posting lists by their estimated size before intersecting
+	 * them, only opening a posting list once it is needed.
+	 *
+	 * @param postingLists
+	 *            the keys of the posting lists, such as one range per gram
+	 * @param estimatedSize
+	 *            an estimate of the number of IDs in a posting list, lists with
+	 *            equal estimates keep their order
+	 * @param reader
+	 *            opens the IDs of a posting list
+	 * @return the IDs present in every posting list, in the order of the
+	 *         smallest list
+	 */
+	public static <P> Set<ByteArrayId> intersect(
+			final List<P> postingLists,
+			final ToLongFunction<P> estimatedSize,
+			final Function<P, Iterator<ByteArrayId>> reader ) {
+		final List<P> ordered = new ArrayList<>(
+				postingLists);
+		ordered.sort(Comparator.comparingLong(estimatedSize));
+		return intersect(
+				ordered,
+				reader);
+	}
+
+	private static <P> Set<ByteArrayId> intersect(
+			final List<P> postingLists,
+			final Function<P, ? extends Iterator<ByteArrayId>> reader ) {
+		final Set<ByteArrayId> result = new LinkedHashSet<>();
+		if (postingLists.isEmpty()) {
+			return result;
+		}
+		final Iterator<ByteArrayId> first = reader.apply(postingLists.get(0));
+		while (first.hasNext()) {
+			result.add(first.next());
+		}
+		for (int i = 1; (i < postingLists.size()) && !result.isEmpty(); i++) {
+			final Set<ByteArrayId> found = new HashSet<>();
+			final Iterator<ByteArrayId> postingList = reader.apply(postingLists.get(i));
+			while (postingList.hasNext() && (found.size() < result.size())) {
+				final ByteArrayId id = postingList.next();
+				if (result.contains(id)) {
+					found.add(id);
+				}
+			}
+			result.retainAll(found);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.index;
+
+import org.locationtech.geowave.core.index.ByteArrayRange;
+
+/**
+ * Implemented by statistics of a secondary index that can estimate how many
+ * entries a range of the index holds, so a query can read the most selective
+ * ranges first, or skip a query that can't match anything.
+ */
+public interface SecondaryIndexCardinalityEstimator
+{
+	/**
+	 * @param range
+	 *            a range of secondary index keys
+	 * @return the estimated number of entries within the range, or
+	 *         Long.MAX_VALUE if it can't be estimated
+	 */
+	public long estimateCardinality(
+			ByteArrayRange range );
+}
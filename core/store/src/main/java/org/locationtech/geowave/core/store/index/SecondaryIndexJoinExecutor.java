@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Joins the hits of a 'JOIN' secondary index to their primary rows. Rather than
+ * fetching the primary rows one at a time, hits are buffered into batches and
+ * the row IDs of each batch are sorted and coalesced per primary index so that
+ * each batch is fetched with a single multi-range read per primary index. Hits
+ * of a primary row that was already queued in one of the last
+ * {@link #MAX_SEEN_ROW_IDS} distinct hits are dropped, so a row referenced from
+ * more than one batch is normally fetched only once; beyond that window it may
+ * be fetched again.
+ *
+ * The secondary index is scanned on a background thread while the previous
+ * batch is fetched, up to {@link #QUEUED_BATCHES} batches ahead.
+ *
+ * @param <T>
+ *            the type of the joined entries
+ */
+public class SecondaryIndexJoinExecutor<T> implements
+		CloseableIterator<T>
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(SecondaryIndexJoinExecutor.class);
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	private static final int QUEUED_BATCHES = 2;
+	// bounds the memory used to skip row IDs already queued by an earlier batch
+	private static final int MAX_SEEN_ROW_IDS = 100 * DEFAULT_BATCH_SIZE;
+	// marks the end of the secondary index scan
+	private static final Batch END = new Batch(
+			Collections.<ByteArrayId, List<ByteArrayId>> emptyMap());
+
+	/**
+	 * Fetches the primary rows for a batch of row IDs in a single read
+	 */
+	public static interface PrimaryRowFetcher<T>
+	{
+		/**
+		 * @param primaryIndexId
+		 *            the primary index the rows are stored in
+		 * @param rowIds
+		 *            the sorted row IDs, none of which is a prefix of another
+		 */
+		public CloseableIterator<T> fetch(
+				ByteArrayId primaryIndexId,
+				List<ByteArrayId> rowIds );
+	}
+
+	private final BlockingQueue<Batch> batches = new ArrayBlockingQueue<>(
+			QUEUED_BATCHES);
+	private final PrimaryRowFetcher<T> fetcher;
+	private final Thread scanThread;
+	private volatile Throwable scanError = null;
+	private Iterator<Entry<ByteArrayId, List<ByteArrayId>>> currentBatch = Collections.emptyIterator();
+	private CloseableIterator<T> currentResults = null;
+	private boolean finished = false;
+
+	/**
+	 * @param secondaryHits
+	 *            the primary index ID and primary row ID of each secondary
+	 *            index hit, closed when the scan finishes
+	 * @param fetcher
+	 *            reads the primary rows of a batch
+	 * @param batchSize
+	 *            the number of hits to buffer before fetching
+	 */
+	public SecondaryIndexJoinExecutor(
+			final CloseableIterator<Pair<ByteArrayId, ByteArrayId>> secondaryHits,
+			final PrimaryRowFetcher<T> fetcher,
+			final int batchSize ) {
+		this.fetcher = fetcher;
+		final int size = Math.max(
+				1,
+				batchSize);
+		scanThread = new Thread(
+				new Runnable() {
+					@Override
+					public void run() {
+						try {
+							final Set<Pair<ByteArrayId, ByteArrayId>> seen = Collections.newSetFromMap(new RecentRowIds());
+							Map<ByteArrayId, List<ByteArrayId>> rowIds = new LinkedHashMap<>();
+							int count = 0;
+							while (secondaryHits.hasNext()) {
+								final Pair<ByteArrayId, ByteArrayId> hit = secondaryHits.next();
+								if (!seen.add(hit)) {
+									// queued earlier
+									continue;
+								}
+								List<ByteArrayId> indexRowIds = rowIds.get(hit.getLeft());
+								if (indexRowIds == null) {
+									indexRowIds = new ArrayList<>();
+									rowIds.put(
+											hit.getLeft(),
+											indexRowIds);
+								}
+								indexRowIds.add(hit.getRight());
+								if (++count >= size) {
+									batches.put(new Batch(
+											rowIds));
+									rowIds = new LinkedHashMap<>();
+									count = 0;
+								}
+							}
+							if (count > 0) {
+								batches.put(new Batch(
+										rowIds));
+							}
+						}
+						catch (final InterruptedException e) {
+							// the consumer was closed
+							return;
+						}
+						catch (final Throwable t) {
+							scanError = t;
+						}
+						finally {
+							try {
+								secondaryHits.close();
+							}
+							catch (final IOException e) {
+								LOGGER.warn(
+										"Unable to close secondary index scan",
+										e);
+							}
+						}
+						try {
+							batches.put(END);
+						}
+						catch (final InterruptedException e) {
+							// the consumer was closed
+						}
+					}
+				},
+				"secondary-index-join");
+		scanThread.setDaemon(true);
+		scanThread.start();
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (!finished) {
+			if ((currentResults != null) && currentResults.hasNext()) {
+				return true;
+			}
+			closeCurrentResults();
+			if (currentBatch.hasNext()) {
+				final Entry<ByteArrayId, List<ByteArrayId>> next = currentBatch.next();
+				currentResults = fetcher.fetch(
+						next.getKey(),
+						next.getValue());
+				continue;
+			}
+			final Batch batch;
+			try {
+				batch = batches.take();
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(
+						"Interrupted waiting for secondary index hits",
+						e);
+			}
+			if (batch == END) {
+				finished = true;
+				if (scanError != null) {
+					throw new RuntimeException(
+							"Unable to scan secondary index",
+							scanError);
+				}
+			}
+			else {
+				currentBatch = batch.rowIds.entrySet().iterator();
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return currentResults.next();
+	}
+
+	@Override
+	public void close()
+			throws IOException {
+		finished = true;
+		if (scanThread.isAlive()) {
+			scanThread.interrupt();
+		}
+		closeCurrentResults();
+	}
+
+	private void closeCurrentResults() {
+		if (currentResults != null) {
+			try {
+				currentResults.close();
+			}
+			catch (final IOException e) {
+				LOGGER.warn(
+						"Unable to close primary row fetch",
+						e);
+			}
+			currentResults = null;
+		}
+	}
+
+	/**
+	 * Sorts row IDs and removes duplicates and any ID that has another of the
+	 * IDs as a prefix, as rows are fetched by prefix and it would be read twice
+	 *
+	 * @return the coalesced row IDs in sorted order
+	 */
+	public static List<ByteArrayId> coalesce(
+			final Collection<ByteArrayId> rowIds ) {
+		final List<ByteArrayId> sorted = new ArrayList<>(
+				rowIds);
+		Collections.sort(sorted);
+		final List<ByteArrayId> coalesced = new ArrayList<>(
+				sorted.size());
+		ByteArrayId previous = null;
+		for (final ByteArrayId rowId : sorted) {
+			// a prefix sorts immediately before every ID it is a prefix of
+			if ((previous != null) && isPrefix(
+					previous.getBytes(),
+					rowId.getBytes())) {
+				continue;
+			}
+			coalesced.add(rowId);
+			previous = rowId;
+		}
+		return coalesced;
+	}
+
+	private static boolean isPrefix(
+			final byte[] prefix,
+			final byte[] bytes ) {
+		if (prefix.length > bytes.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (prefix[i] != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static class RecentRowIds extends
+			LinkedHashMap<Pair<ByteArrayId, ByteArrayId>, Boolean>
+	{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				final Entry<Pair<ByteArrayId, ByteArrayId>, Boolean> eldest ) {
+			return size() > MAX_SEEN_ROW_IDS;
+		}
+	}
+
+	private static class Batch
+	{
+		private final Map<ByteArrayId, List<ByteArrayId>> rowIds;
+
+		private Batch(
+				final Map<ByteArrayId, List<ByteArrayId>> rowIds ) {
+			this.rowIds = new LinkedHashMap<>();
+			for (final Entry<ByteArrayId, List<ByteArrayId>> entry : rowIds.entrySet()) {
+				this.rowIds.put(
+						entry.getKey(),
+						coalesce(entry.getValue()));
+			}
+		}
+	}
+}
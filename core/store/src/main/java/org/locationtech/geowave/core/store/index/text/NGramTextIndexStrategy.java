@@ -0,0 +1,285 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.index.text;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.IndexMetaData;
+import org.locationtech.geowave.core.index.InsertionIds;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
+import org.locationtech.geowave.core.store.index.FieldIndexStrategy;
+
+/**
+ * Indexes every n-gram of a text value so that substring and LIKE queries can
+ * be answered from the index rather than a full scan. Each gram is stored as
+ * its own key, so the entries under a gram form that gram's posting list. The
+ * suffixes shorter than n are indexed too, which lets a query fragment shorter
+ * than n be answered with a prefix range over the grams.
+ *
+ * A query produces one range per posting list and a value can only match if it
+ * appears in every one of them, see
+ * {@link org.locationtech.geowave.core.store.index.PostingListIntersection}.
+ * Matches must still be verified with the constraint's filter because grams
+ * don't preserve order.
+ *
+ * When the strategy is case-insensitive, values and queries are lower-cased
+ * before they are split into grams.
+ */
+public class NGramTextIndexStrategy implements
+		FieldIndexStrategy<TextQueryConstraint, String>
+{
+	private static final String ID = "TEXT_NGRAM";
+	public static final int DEFAULT_GRAM_LENGTH = 3;
+
+	private int gramLength;
+	private boolean caseSensitive;
+
+	public NGramTextIndexStrategy() {
+		this(
+				DEFAULT_GRAM_LENGTH,
+				false);
+	}
+
+	public NGramTextIndexStrategy(
+			final int gramLength,
+			final boolean caseSensitive ) {
+		super();
+		if (gramLength < 1) {
+			throw new IllegalArgumentException(
+					"Gram length must be at least 1");
+		}
+		this.gramLength = gramLength;
+		this.caseSensitive = caseSensitive;
+	}
+
+	public int getGramLength() {
+		return gramLength;
+	}
+
+	public boolean isCaseSensitive() {
+		return caseSensitive;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final ByteBuffer buf = ByteBuffer.allocate(5);
+		buf.putInt(gramLength);
+		buf.put(caseSensitive ? (byte) 1 : (byte) 0);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		gramLength = buf.getInt();
+		caseSensitive = buf.get() == 1;
+	}
+
+	@Override
+	public String getId() {
+		return ID + "_" + gramLength + (caseSensitive ? "" : "_CI");
+	}
+
+	@Override
+	public List<IndexMetaData> createMetaData() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public QueryRanges getQueryRanges(
+			final TextQueryConstraint indexedRange,
+			final IndexMetaData... hints ) {
+		final List<ByteArrayId> grams = getQueryGrams(indexedRange);
+		if (grams == null) {
+			// the index can't narrow this query
+			return new QueryRanges();
+		}
+		final List<ByteArrayRange> ranges = new ArrayList<>(
+				grams.size());
+		for (final ByteArrayId gram : grams) {
+			ranges.add(new ByteArrayRange(
+					gram,
+					gram));
+		}
+		return new QueryRanges(
+				Collections.singletonList(new SinglePartitionQueryRanges(
+						ranges)));
+	}
+
+	@Override
+	public QueryRanges getQueryRanges(
+			final TextQueryConstraint indexedRange,
+			final int maxEstimatedRangeDecomposition,
+			final IndexMetaData... hints ) {
+		return getQueryRanges(
+				indexedRange,
+				hints);
+	}
+
+	@Override
+	public InsertionIds getInsertionIds(
+			final String indexedData ) {
+		if (indexedData == null) {
+			return new InsertionIds();
+		}
+		final int[] codePoints = normalize(
+				indexedData).codePoints().toArray();
+		final Set<ByteArrayId> grams = new LinkedHashSet<>();
+		for (int i = 0; i < codePoints.length; i++) {
+			grams.add(new ByteArrayId(
+					new String(
+							codePoints,
+							i,
+							Math.min(
+									gramLength,
+									codePoints.length - i))));
+		}
+		return new InsertionIds(
+				new ArrayList<>(
+						grams));
+	}
+
+	@Override
+	public InsertionIds getInsertionIds(
+			final String indexedData,
+			final int maxEstimatedDuplicateIds ) {
+		return getInsertionIds(indexedData);
+	}
+
+	@Override
+	public String getRangeForId(
+			final ByteArrayId partitionKey,
+			final ByteArrayId sortKey ) {
+		return sortKey.getString();
+	}
+
+	/**
+	 * @return the keys of the posting lists that every match appears in, or
+	 *         null if this index can't be used for the constraint (for example
+	 *         the pattern has no literal text, or the query is case-insensitive
+	 *         and this index is not)
+	 */
+	public List<ByteArrayId> getQueryGrams(
+			final TextQueryConstraint constraint ) {
+		if (caseSensitive && !constraint.isCaseSensitive()) {
+			return null;
+		}
+		final List<String> fragments;
+		if (constraint instanceof TextLikeConstraint) {
+			fragments = ((TextLikeConstraint) constraint).getLiteralFragments();
+		}
+		else {
+			fragments = Collections.singletonList(constraint.getMatchValue());
+		}
+		final Set<ByteArrayId> grams = new LinkedHashSet<>();
+		for (final String fragment : fragments) {
+			final int[] codePoints = normalize(
+					fragment).codePoints().toArray();
+			if (codePoints.length <= gramLength) {
+				// a prefix of the indexed grams and suffixes
+				grams.add(new ByteArrayId(
+						new String(
+								codePoints,
+								0,
+								codePoints.length)));
+				continue;
+			}
+			for (int i = 0; (i + gramLength) <= codePoints.length; i++) {
+				grams.add(new ByteArrayId(
+						new String(
+								codePoints,
+								i,
+								gramLength)));
+			}
+		}
+		if (grams.isEmpty()) {
+			return null;
+		}
+		return new ArrayList<>(
+				grams);
+	}
+
+	/**
+	 * Estimates the number of entries matching the constraint from the
+	 * frequency of each of its grams. Because every match appears in every
+	 * posting list, the least frequent gram is an upper bound.
+	 *
+	 * @param gramFrequency
+	 *            an estimate of the number of entries containing a gram
+	 * @return the estimated number of matches, or Long.MAX_VALUE if this index
+	 *         can't be used for the constraint
+	 */
+	public long estimateCardinality(
+			final TextQueryConstraint constraint,
+			final ToLongFunction<ByteArrayId> gramFrequency ) {
+		final List<ByteArrayId> grams = getQueryGrams(constraint);
+		if (grams == null) {
+			return Long.MAX_VALUE;
+		}
+		return estimateCardinality(
+				grams,
+				gramFrequency);
+	}
+
+	/**
+	 * Estimates the number of entries found in every one of the posting lists
+	 * of the grams. A gram shorter than the gram length is looked up as a
+	 * prefix of longer grams, so its own frequency says nothing about its
+	 * posting list and it is left out of the estimate.
+	 *
+	 * @param gramFrequency
+	 *            an estimate of the number of entries containing a gram
+	 * @return the estimated number of entries, or Long.MAX_VALUE if none of the
+	 *         grams can be estimated
+	 */
+	public long estimateCardinality(
+			final List<ByteArrayId> grams,
+			final ToLongFunction<ByteArrayId> gramFrequency ) {
+		long min = Long.MAX_VALUE;
+		for (final ByteArrayId gram : grams) {
+			final String value = gram.getString();
+			if (value.codePointCount(
+					0,
+					value.length()) < gramLength) {
+				continue;
+			}
+			min = Math.min(
+					min,
+					gramFrequency.applyAsLong(gram));
+		}
+		return min;
+	}
+
+	/**
+	 * @return the grams of a value, for keeping gram frequency statistics
+	 */
+	public List<ByteArrayId> getGrams(
+			final String value ) {
+		return getInsertionIds(
+				value).getCompositeInsertionIds();
+	}
+
+	private String normalize(
+			final String value ) {
+		return caseSensitive ? value : value.toLowerCase(Locale.ROOT);
+	}
+}
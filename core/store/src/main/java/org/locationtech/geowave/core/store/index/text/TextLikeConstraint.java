@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.index.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.store.filter.DistributableQueryFilter;
+
+/**
+ * A text constraint for a LIKE pattern, where '%' matches any sequence of
+ * characters, '_' matches a single character and '\' escapes the next
+ * character. The match value of this constraint is the pattern.
+ */
+public class TextLikeConstraint extends
+		TextQueryConstraint
+{
+	public static final char MULTI_WILDCARD = '%';
+	public static final char SINGLE_WILDCARD = '_';
+	public static final char ESCAPE = '\\';
+
+	public TextLikeConstraint(
+			final ByteArrayId fieldId,
+			final String pattern,
+			final boolean caseSensitive ) {
+		super(
+				fieldId,
+				pattern,
+				caseSensitive);
+	}
+
+	/**
+	 * @return the literal runs of the pattern between wildcards, every match
+	 *         contains all of them
+	 */
+	public List<String> getLiteralFragments() {
+		return getLiteralFragments(getMatchValue());
+	}
+
+	/**
+	 * @return the literal text before the first wildcard, which every match
+	 *         starts with
+	 */
+	public String getLiteralPrefix() {
+		final String pattern = getMatchValue();
+		final StringBuilder prefix = new StringBuilder();
+		for (int i = 0; i < pattern.length(); i++) {
+			final char c = pattern.charAt(i);
+			if ((c == MULTI_WILDCARD) || (c == SINGLE_WILDCARD)) {
+				break;
+			}
+			if ((c == ESCAPE) && ((i + 1) < pattern.length())) {
+				prefix.append(pattern.charAt(++i));
+			}
+			else {
+				prefix.append(c);
+			}
+		}
+		return prefix.toString();
+	}
+
+	@Override
+	public DistributableQueryFilter getFilter() {
+		return new TextLikeFilter(
+				getFieldId(),
+				getMatchValue(),
+				isCaseSensitive());
+	}
+
+	/**
+	 * The whole value is indexed as a single key, so only the literal prefix
+	 * can be used to narrow the scan
+	 */
+	@Override
+	public QueryRanges getQueryRanges() {
+		final String prefix = getLiteralPrefix();
+		if (prefix.isEmpty() || !isCaseSensitive()) {
+			return new QueryRanges();
+		}
+		return new QueryRanges(
+				new ByteArrayRange(
+						new ByteArrayId(
+								prefix),
+						new ByteArrayId(
+								prefix)));
+	}
+
+	public static List<String> getLiteralFragments(
+			final String pattern ) {
+		final List<String> fragments = new ArrayList<>();
+		StringBuilder fragment = new StringBuilder();
+		for (int i = 0; i < pattern.length(); i++) {
+			final char c = pattern.charAt(i);
+			if ((c == MULTI_WILDCARD) || (c == SINGLE_WILDCARD)) {
+				if (fragment.length() > 0) {
+					fragments.add(fragment.toString());
+					fragment = new StringBuilder();
+				}
+			}
+			else if ((c == ESCAPE) && ((i + 1) < pattern.length())) {
+				fragment.append(pattern.charAt(++i));
+			}
+			else {
+				fragment.append(c);
+			}
+		}
+		if (fragment.length() > 0) {
+			fragments.add(fragment.toString());
+		}
+		return fragments;
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.index.text;
+
+import java.nio.ByteBuffer;
+import java.util.regex.Pattern;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.store.data.IndexedPersistenceEncoding;
+import org.locationtech.geowave.core.store.filter.DistributableQueryFilter;
+import org.locationtech.geowave.core.store.index.CommonIndexModel;
+
+/**
+ * Matches a text field against a LIKE pattern, see {@link TextLikeConstraint}
+ * for the pattern syntax
+ */
+public class TextLikeFilter implements
+		DistributableQueryFilter
+{
+	private ByteArrayId fieldId;
+	private String pattern;
+	private boolean caseSensitive;
+	private transient Pattern regex;
+
+	public TextLikeFilter() {
+		super();
+	}
+
+	public TextLikeFilter(
+			final ByteArrayId fieldId,
+			final String pattern,
+			final boolean caseSensitive ) {
+		super();
+		this.fieldId = fieldId;
+		this.pattern = pattern;
+		this.caseSensitive = caseSensitive;
+	}
+
+	public ByteArrayId getFieldId() {
+		return fieldId;
+	}
+
+	public String getPattern() {
+		return pattern;
+	}
+
+	public boolean isCaseSensitive() {
+		return caseSensitive;
+	}
+
+	public boolean matches(
+			final String value ) {
+		if (regex == null) {
+			regex = toRegex(
+					pattern,
+					caseSensitive);
+		}
+		return regex.matcher(
+				value).matches();
+	}
+
+	@Override
+	public boolean accept(
+			final CommonIndexModel indexModel,
+			final IndexedPersistenceEncoding<?> persistenceEncoding ) {
+		final ByteArrayId stringBytes = (ByteArrayId) persistenceEncoding.getCommonData().getValue(
+				fieldId);
+		if (stringBytes != null) {
+			return matches(stringBytes.getString());
+		}
+		return false;
+	}
+
+	protected static Pattern toRegex(
+			final String pattern,
+			final boolean caseSensitive ) {
+		final StringBuilder regex = new StringBuilder();
+		final StringBuilder literal = new StringBuilder();
+		for (int i = 0; i < pattern.length(); i++) {
+			final char c = pattern.charAt(i);
+			if ((c == TextLikeConstraint.MULTI_WILDCARD) || (c == TextLikeConstraint.SINGLE_WILDCARD)) {
+				if (literal.length() > 0) {
+					regex.append(Pattern.quote(literal.toString()));
+					literal.setLength(0);
+				}
+				regex.append(c == TextLikeConstraint.MULTI_WILDCARD ? ".*" : ".");
+			}
+			else if ((c == TextLikeConstraint.ESCAPE) && ((i + 1) < pattern.length())) {
+				literal.append(pattern.charAt(++i));
+			}
+			else {
+				literal.append(c);
+			}
+		}
+		if (literal.length() > 0) {
+			regex.append(Pattern.quote(literal.toString()));
+		}
+		return Pattern.compile(
+				regex.toString(),
+				caseSensitive ? Pattern.DOTALL : (Pattern.DOTALL | Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final byte[] fieldIdBytes = fieldId.getBytes();
+		final byte[] patternBytes = StringUtils.stringToBinary(pattern);
+		final ByteBuffer bb = ByteBuffer.allocate(4 + fieldIdBytes.length + 4 + patternBytes.length + 4);
+		bb.putInt(fieldIdBytes.length);
+		bb.put(fieldIdBytes);
+		bb.putInt(patternBytes.length);
+		bb.put(patternBytes);
+		bb.putInt(caseSensitive ? 1 : 0);
+		return bb.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer bb = ByteBuffer.wrap(bytes);
+		final byte[] fieldIdBytes = new byte[bb.getInt()];
+		bb.get(fieldIdBytes);
+		fieldId = new ByteArrayId(
+				fieldIdBytes);
+		final byte[] patternBytes = new byte[bb.getInt()];
+		bb.get(patternBytes);
+		pattern = StringUtils.stringFromBinary(patternBytes);
+		caseSensitive = bb.getInt() == 1;
+		regex = null;
+	}
+}
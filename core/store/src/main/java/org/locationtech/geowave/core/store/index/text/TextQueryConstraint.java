@@ -53,6 +53,14 @@ public class TextQueryConstraint implements
 		return fieldId;
 	}
 
+	public String getMatchValue() {
+		return matchValue;
+	}
+
+	public boolean isCaseSensitive() {
+		return caseSensitive;
+	}
+
 	@Override
 	public DistributableQueryFilter getFilter() {
 		return new TextExactMatchFilter(
@@ -65,6 +65,7 @@ import org.locationtech.geowave.core.store.operations.Reader;
 import org.locationtech.geowave.core.store.operations.ReaderParams;
 import org.locationtech.geowave.core.store.operations.Writer;
 import org.locationtech.geowave.core.store.util.DataStoreUtils;
+import org.locationtech.geowave.core.store.util.VisibilityEvaluator;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
@@ -160,6 +161,8 @@ public class MemoryDataStoreOperations implements
 		final SortedSet<MemoryStoreEntry> internalData = storeData.get(readerParams.getIndex().getId());
 		int counter = 0;
 		List<MemoryStoreEntry> retVal = new ArrayList<>();
+		final VisibilityEvaluator evaluator = new VisibilityEvaluator(
+				readerParams.getAdditionalAuthorizations());
 		final Collection<SinglePartitionQueryRanges> partitionRanges = readerParams
 				.getQueryRanges()
 				.getPartitionQueryRanges();
@@ -170,7 +173,7 @@ public class MemoryDataStoreOperations implements
 			while (it.hasNext()) {
 				if (!isAuthorized(
 						it.next(),
-						readerParams.getAdditionalAuthorizations())) {
+						evaluator)) {
 					it.remove();
 				}
 			}
@@ -209,7 +212,7 @@ public class MemoryDataStoreOperations implements
 					while (it.hasNext()) {
 						if (!isAuthorized(
 								it.next(),
-								readerParams.getAdditionalAuthorizations())) {
+								evaluator)) {
 							it.remove();
 						}
 					}
@@ -276,11 +279,11 @@ public class MemoryDataStoreOperations implements
 
 	private boolean isAuthorized(
 			final MemoryStoreEntry row,
-			final String... authorizations ) {
+			final VisibilityEvaluator evaluator ) {
 		for (final GeoWaveValue value : row.getRow().getFieldValues()) {
 			if (!MemoryStoreUtils.isAuthorized(
 					value.getVisibility(),
-					authorizations)) {
+					evaluator)) {
 				return false;
 			}
 		}
@@ -375,13 +378,14 @@ public class MemoryDataStoreOperations implements
 			Deleter
 	{
 		private final ByteArrayId indexId;
-		private final String[] authorizations;
+		private final VisibilityEvaluator evaluator;
 
 		public MyIndexDeleter(
 				final ByteArrayId indexId,
 				final String... authorizations ) {
 			this.indexId = indexId;
-			this.authorizations = authorizations;
+			evaluator = new VisibilityEvaluator(
+					authorizations);
 		}
 
 		@Override
@@ -396,7 +400,7 @@ public class MemoryDataStoreOperations implements
 					row);
 			if (isAuthorized(
 					entry,
-					authorizations)) {
+					evaluator)) {
 				final SortedSet<MemoryStoreEntry> rowTreeSet = storeData.get(indexId);
 				if (rowTreeSet != null) {
 					if (!rowTreeSet.remove(entry)) {
@@ -576,6 +580,8 @@ public class MemoryDataStoreOperations implements
 							}));
 			Iterator<MemoryMetadataEntry> it = set.iterator();
 			if ((query.getAuthorizations() != null) && (query.getAuthorizations().length > 0)) {
+				final VisibilityEvaluator evaluator = new VisibilityEvaluator(
+						query.getAuthorizations());
 				it = Iterators.filter(
 						it,
 						new Predicate<MemoryMetadataEntry>() {
@@ -584,7 +590,7 @@ public class MemoryDataStoreOperations implements
 									final MemoryMetadataEntry input ) {
 								return MemoryStoreUtils.isAuthorized(
 										input.getMetadata().getVisibility(),
-										query.getAuthorizations());
+										evaluator);
 							}
 						});
 			}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.store.filter.DistributableFilterList;
+import org.locationtech.geowave.core.store.filter.DistributableQueryFilter;
+import org.locationtech.geowave.core.store.filter.PrefixIdQueryFilter;
+import org.locationtech.geowave.core.store.filter.QueryFilter;
+import org.locationtech.geowave.core.store.index.PrimaryIndex;
+
+/**
+ * Matches rows with any of several sort key prefixes within a partition, read
+ * with a single multi-range scan rather than one scan per prefix.
+ */
+public class PrefixIdsQuery implements
+		Query
+{
+	private final List<ByteArrayId> sortKeyPrefixes;
+	private final ByteArrayId partitionKey;
+
+	public PrefixIdsQuery(
+			final ByteArrayId partitionKey,
+			final List<ByteArrayId> sortKeyPrefixes ) {
+		this.partitionKey = partitionKey;
+		this.sortKeyPrefixes = sortKeyPrefixes;
+	}
+
+	public ByteArrayId getPartitionKey() {
+		return partitionKey;
+	}
+
+	public List<ByteArrayId> getSortKeyPrefixes() {
+		return sortKeyPrefixes;
+	}
+
+	@Override
+	public List<QueryFilter> createFilters(
+			final PrimaryIndex index ) {
+		final List<DistributableQueryFilter> prefixFilters = new ArrayList<>(
+				sortKeyPrefixes.size());
+		for (final ByteArrayId sortKeyPrefix : sortKeyPrefixes) {
+			prefixFilters.add(new PrefixIdQueryFilter(
+					partitionKey,
+					sortKeyPrefix));
+		}
+		final List<QueryFilter> filters = new ArrayList<>();
+		filters.add(new DistributableFilterList(
+				false,
+				prefixFilters));
+		return filters;
+	}
+
+	@Override
+	public List<MultiDimensionalNumericData> getIndexConstraints(
+			final PrimaryIndex index ) {
+		return Collections.emptyList();
+	}
+
+}
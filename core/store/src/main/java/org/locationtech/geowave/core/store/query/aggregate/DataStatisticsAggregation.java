@@ -10,11 +10,16 @@
  ******************************************************************************/
 package org.locationtech.geowave.core.store.query.aggregate;
 
+import java.util.Collections;
+import java.util.List;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.persist.PersistenceUtils;
 import org.locationtech.geowave.core.store.adapter.statistics.DataStatistics;
+import org.locationtech.geowave.core.store.adapter.statistics.FieldStatistic;
 
 public class DataStatisticsAggregation<T> implements
-		Aggregation<DataStatistics<T>, DataStatistics<T>, T>
+		FieldSubsetAggregation<DataStatistics<T>, DataStatistics<T>, T>
 {
 	private DataStatistics<T> statisticsParam;
 
@@ -45,6 +50,20 @@ public class DataStatisticsAggregation<T> implements
 	public void setParameters(
 			final DataStatistics<T> parameters ) {
 		this.statisticsParam = parameters;
+		if ((statisticsResult == null) && (parameters != null)) {
+			// a copy restored from binary aggregates into its own statistic
+			defaultResultBinary = PersistenceUtils.toBinary(parameters);
+			clearResult();
+		}
+	}
+
+	@Override
+	public List<ByteArrayId> getFieldIds() {
+		if (statisticsParam instanceof FieldStatistic) {
+			return Collections.singletonList(new ByteArrayId(
+					((FieldStatistic) statisticsParam).getFieldName()));
+		}
+		return null;
 	}
 
 	@Override
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.util.List;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.index.persist.Persistable;
+
+/**
+ * An aggregation that only reads a subset of the adapter's fields. Entries
+ * passed to {@link #aggregate(Object)} are decoded with only these fields and
+ * the common index fields populated, all other fields are left unset.
+ */
+public interface FieldSubsetAggregation<P extends Persistable, R extends Mergeable, T> extends
+		Aggregation<P, R, T>
+{
+	/**
+	 * This is called after the parameters are set.
+	 *
+	 * @return the IDs of the adapter fields this aggregation reads in addition
+	 *         to the common index fields, an empty list if only the common
+	 *         index fields are read, or null if any field may be read
+	 */
+	public List<ByteArrayId> getFieldIds();
+}
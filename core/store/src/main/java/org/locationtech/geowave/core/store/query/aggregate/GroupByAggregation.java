@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+
+/**
+ * Summarizes entries by the value of a low cardinality field and/or by fixed
+ * width time buckets, computing the count and the sum, min, max and mean of an
+ * optional numeric field per group. Without a group by field or time field this
+ * is a single sum/min/max/mean over all entries.
+ *
+ * Implementations provide access to the fields of their native entry type.
+ *
+ * @param <T>
+ *            the native entry type
+ */
+public abstract class GroupByAggregation<T> implements
+		FieldSubsetAggregation<GroupByParameters, GroupByResult, T>
+{
+	private GroupByParameters parameters;
+	private GroupByResult result = null;
+
+	public GroupByAggregation() {
+		this(
+				new GroupByParameters());
+	}
+
+	public GroupByAggregation(
+			final GroupByParameters parameters ) {
+		this.parameters = parameters;
+	}
+
+	/**
+	 * @return the value of the field for the entry, or null if it is not set
+	 */
+	abstract protected Object getFieldValue(
+			T entry,
+			String fieldName );
+
+	@Override
+	public void aggregate(
+			final T entry ) {
+		if (result == null) {
+			result = new GroupByResult(
+					parameters.getMaxGroups());
+		}
+		String group = null;
+		if (parameters.getGroupByFieldName() != null) {
+			final Object groupValue = getFieldValue(
+					entry,
+					parameters.getGroupByFieldName());
+			if (groupValue != null) {
+				group = groupValue.toString();
+			}
+		}
+		Long timeBucket = null;
+		if (parameters.getTimeFieldName() != null) {
+			final Long time = toMillis(getFieldValue(
+					entry,
+					parameters.getTimeFieldName()));
+			if (time != null) {
+				final long width = parameters.getTimeBucketMillis();
+				if (width > 0) {
+					timeBucket = Math.floorDiv(
+							time.longValue(),
+							width) * width;
+				}
+				else {
+					timeBucket = time;
+				}
+			}
+		}
+		Double value = null;
+		if (parameters.getValueFieldName() != null) {
+			final Object fieldValue = getFieldValue(
+					entry,
+					parameters.getValueFieldName());
+			if (fieldValue instanceof Number) {
+				value = ((Number) fieldValue).doubleValue();
+			}
+		}
+		result.entryAggregated(
+				group,
+				timeBucket,
+				value);
+	}
+
+	private static Long toMillis(
+			final Object time ) {
+		if (time instanceof Date) {
+			return ((Date) time).getTime();
+		}
+		if (time instanceof Calendar) {
+			return ((Calendar) time).getTimeInMillis();
+		}
+		if (time instanceof Number) {
+			return ((Number) time).longValue();
+		}
+		return null;
+	}
+
+	@Override
+	public List<ByteArrayId> getFieldIds() {
+		final List<ByteArrayId> fieldIds = new ArrayList<>();
+		for (final String fieldName : new String[] {
+			parameters.getValueFieldName(),
+			parameters.getGroupByFieldName(),
+			parameters.getTimeFieldName()
+		}) {
+			if (fieldName != null) {
+				fieldIds.add(new ByteArrayId(
+						fieldName));
+			}
+		}
+		return fieldIds;
+	}
+
+	@Override
+	public GroupByParameters getParameters() {
+		return parameters;
+	}
+
+	@Override
+	public void setParameters(
+			final GroupByParameters parameters ) {
+		this.parameters = parameters;
+	}
+
+	@Override
+	public GroupByResult getResult() {
+		return result;
+	}
+
+	@Override
+	public void clearResult() {
+		result = null;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		return new byte[] {};
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+
+/**
+ * Parameters of a {@link GroupByAggregation}. Every field is optional, without
+ * a group by field and time field a single group summarizes all entries.
+ */
+public class GroupByParameters implements
+		Persistable
+{
+	public static final int DEFAULT_MAX_GROUPS = 10000;
+
+	private String valueFieldName;
+	private String groupByFieldName;
+	private String timeFieldName;
+	private long timeBucketMillis;
+	private int maxGroups = DEFAULT_MAX_GROUPS;
+
+	public GroupByParameters() {}
+
+	/**
+	 * @param valueFieldName
+	 *            the numeric field to compute the sum, min, max and mean of, or
+	 *            null to only count entries
+	 * @param groupByFieldName
+	 *            the low cardinality field to group entries by, or null
+	 * @param timeFieldName
+	 *            the time field to bucket entries by, or null
+	 * @param timeBucketMillis
+	 *            the width of each time bucket
+	 * @param maxGroups
+	 *            the maximum number of groups to keep, entries beyond that are
+	 *            summarized in a single overflow group
+	 */
+	public GroupByParameters(
+			final String valueFieldName,
+			final String groupByFieldName,
+			final String timeFieldName,
+			final long timeBucketMillis,
+			final int maxGroups ) {
+		this.valueFieldName = valueFieldName;
+		this.groupByFieldName = groupByFieldName;
+		this.timeFieldName = timeFieldName;
+		this.timeBucketMillis = timeBucketMillis;
+		this.maxGroups = maxGroups;
+	}
+
+	public String getValueFieldName() {
+		return valueFieldName;
+	}
+
+	public String getGroupByFieldName() {
+		return groupByFieldName;
+	}
+
+	public String getTimeFieldName() {
+		return timeFieldName;
+	}
+
+	public long getTimeBucketMillis() {
+		return timeBucketMillis;
+	}
+
+	public int getMaxGroups() {
+		return maxGroups;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final byte[] valueBytes = toBinary(valueFieldName);
+		final byte[] groupByBytes = toBinary(groupByFieldName);
+		final byte[] timeBytes = toBinary(timeFieldName);
+		final ByteBuffer buf = ByteBuffer.allocate(24 + valueBytes.length + groupByBytes.length + timeBytes.length);
+		putString(
+				buf,
+				valueBytes,
+				valueFieldName);
+		putString(
+				buf,
+				groupByBytes,
+				groupByFieldName);
+		putString(
+				buf,
+				timeBytes,
+				timeFieldName);
+		buf.putLong(timeBucketMillis);
+		buf.putInt(maxGroups);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		valueFieldName = getString(buf);
+		groupByFieldName = getString(buf);
+		timeFieldName = getString(buf);
+		timeBucketMillis = buf.getLong();
+		maxGroups = buf.getInt();
+	}
+
+	private static byte[] toBinary(
+			final String str ) {
+		return str == null ? new byte[0] : StringUtils.stringToBinary(str);
+	}
+
+	private static void putString(
+			final ByteBuffer buf,
+			final byte[] bytes,
+			final String str ) {
+		buf.putInt(str == null ? -1 : bytes.length);
+		buf.put(bytes);
+	}
+
+	private static String getString(
+			final ByteBuffer buf ) {
+		final int length = buf.getInt();
+		if (length < 0) {
+			return null;
+		}
+		final byte[] bytes = new byte[length];
+		buf.get(bytes);
+		return StringUtils.stringFromBinary(bytes);
+	}
+}
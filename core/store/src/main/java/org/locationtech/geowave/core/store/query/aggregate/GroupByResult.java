@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.index.StringUtils;
+
+/**
+ * The result of a {@link GroupByAggregation}, a summary of the entries within
+ * each group and time bucket. Once the maximum number of groups is reached,
+ * entries of new groups are summarized in a single overflow group.
+ */
+public class GroupByResult implements
+		Mergeable
+{
+	private int maxGroups;
+	private Map<GroupKey, NumericStatsResult> groups = new TreeMap<>();
+	private NumericStatsResult overflow = new NumericStatsResult();
+
+	public GroupByResult() {
+		this(
+				GroupByParameters.DEFAULT_MAX_GROUPS);
+	}
+
+	public GroupByResult(
+			final int maxGroups ) {
+		this.maxGroups = maxGroups;
+	}
+
+	public void entryAggregated(
+			final String group,
+			final Long timeBucket,
+			final Double value ) {
+		getStats(
+				new GroupKey(
+						group,
+						timeBucket)).entryAggregated(
+				value);
+	}
+
+	private NumericStatsResult getStats(
+			final GroupKey key ) {
+		NumericStatsResult stats = groups.get(key);
+		if (stats == null) {
+			if (groups.size() >= maxGroups) {
+				return overflow;
+			}
+			stats = new NumericStatsResult();
+			groups.put(
+					key,
+					stats);
+		}
+		return stats;
+	}
+
+	/**
+	 * @return the summary of each group, ordered by group and then time bucket
+	 */
+	public Map<GroupKey, NumericStatsResult> getGroups() {
+		return Collections.unmodifiableMap(groups);
+	}
+
+	/**
+	 * @return the summary of entries that did not fit within the maximum number
+	 *         of groups
+	 */
+	public NumericStatsResult getOverflow() {
+		return overflow;
+	}
+
+	/**
+	 * @return the summary of all entries regardless of group
+	 */
+	public NumericStatsResult getTotal() {
+		final NumericStatsResult total = new NumericStatsResult();
+		for (final NumericStatsResult stats : groups.values()) {
+			total.merge(stats);
+		}
+		total.merge(overflow);
+		return total;
+	}
+
+	@Override
+	public void merge(
+			final Mergeable merge ) {
+		if ((merge != null) && (merge instanceof GroupByResult)) {
+			final GroupByResult other = (GroupByResult) merge;
+			for (final Entry<GroupKey, NumericStatsResult> entry : other.groups.entrySet()) {
+				getStats(
+						entry.getKey()).merge(
+						entry.getValue());
+			}
+			overflow.merge(other.overflow);
+		}
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final List<byte[]> groupBytes = new ArrayList<>(
+				groups.size());
+		int byteLength = 8;
+		for (final Entry<GroupKey, NumericStatsResult> entry : groups.entrySet()) {
+			final byte[] keyBytes = entry.getKey().toBinary();
+			final byte[] statsBytes = entry.getValue().toBinary();
+			groupBytes.add(keyBytes);
+			groupBytes.add(statsBytes);
+			byteLength += 8 + keyBytes.length + statsBytes.length;
+		}
+		final byte[] overflowBytes = overflow.toBinary();
+		byteLength += overflowBytes.length;
+		final ByteBuffer buf = ByteBuffer.allocate(byteLength);
+		buf.putInt(maxGroups);
+		buf.putInt(groups.size());
+		for (final byte[] bytes : groupBytes) {
+			buf.putInt(bytes.length);
+			buf.put(bytes);
+		}
+		buf.put(overflowBytes);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		maxGroups = buf.getInt();
+		final int size = buf.getInt();
+		groups = new TreeMap<>();
+		for (int i = 0; i < size; i++) {
+			final byte[] keyBytes = new byte[buf.getInt()];
+			buf.get(keyBytes);
+			final byte[] statsBytes = new byte[buf.getInt()];
+			buf.get(statsBytes);
+			final NumericStatsResult stats = new NumericStatsResult();
+			stats.fromBinary(statsBytes);
+			groups.put(
+					GroupKey.fromBinary(keyBytes),
+					stats);
+		}
+		final byte[] overflowBytes = new byte[buf.remaining()];
+		buf.get(overflowBytes);
+		overflow = new NumericStatsResult();
+		overflow.fromBinary(overflowBytes);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuffer buffer = new StringBuffer();
+		buffer.append("groupBy[");
+		for (final Entry<GroupKey, NumericStatsResult> entry : groups.entrySet()) {
+			buffer.append(
+					entry.getKey()).append(
+					"=").append(
+					entry.getValue()).append(
+					", ");
+		}
+		buffer.append(
+				"overflow=").append(
+				overflow);
+		buffer.append("]");
+		return buffer.toString();
+	}
+
+	/**
+	 * Identifies a group by its group value and time bucket, either of which
+	 * may be null if the aggregation does not group by it
+	 */
+	public static class GroupKey implements
+			Comparable<GroupKey>
+	{
+		private final String group;
+		private final Long timeBucket;
+
+		public GroupKey(
+				final String group,
+				final Long timeBucket ) {
+			this.group = group;
+			this.timeBucket = timeBucket;
+		}
+
+		public String getGroup() {
+			return group;
+		}
+
+		/**
+		 * @return the start of the time bucket in epoch milliseconds
+		 */
+		public Long getTimeBucket() {
+			return timeBucket;
+		}
+
+		private byte[] toBinary() {
+			final byte[] groupBytes = group == null ? new byte[0] : StringUtils.stringToBinary(group);
+			final ByteBuffer buf = ByteBuffer.allocate(13 + groupBytes.length);
+			buf.putInt(group == null ? -1 : groupBytes.length);
+			buf.put(groupBytes);
+			buf.put((byte) (timeBucket == null ? 0 : 1));
+			buf.putLong(timeBucket == null ? 0 : timeBucket);
+			return buf.array();
+		}
+
+		private static GroupKey fromBinary(
+				final byte[] bytes ) {
+			final ByteBuffer buf = ByteBuffer.wrap(bytes);
+			final int groupLength = buf.getInt();
+			String group = null;
+			if (groupLength >= 0) {
+				final byte[] groupBytes = new byte[groupLength];
+				buf.get(groupBytes);
+				group = StringUtils.stringFromBinary(groupBytes);
+			}
+			final boolean hasTimeBucket = buf.get() > 0;
+			final long timeBucket = buf.getLong();
+			return new GroupKey(
+					group,
+					hasTimeBucket ? timeBucket : null);
+		}
+
+		@Override
+		public int compareTo(
+				final GroupKey o ) {
+			final int groupCompare = compare(
+					group,
+					o.group);
+			if (groupCompare != 0) {
+				return groupCompare;
+			}
+			return compare(
+					timeBucket,
+					o.timeBucket);
+		}
+
+		private static <C extends Comparable<C>> int compare(
+				final C c1,
+				final C c2 ) {
+			if (c1 == null) {
+				return c2 == null ? 0 : -1;
+			}
+			if (c2 == null) {
+				return 1;
+			}
+			return c1.compareTo(c2);
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + ((group == null) ? 0 : group.hashCode());
+			result = (prime * result) + ((timeBucket == null) ? 0 : timeBucket.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(
+				final Object obj ) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			return compareTo((GroupKey) obj) == 0;
+		}
+
+		@Override
+		public String toString() {
+			return "(" + group + ", " + timeBucket + ")";
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+
+import org.locationtech.geowave.core.index.Mergeable;
+
+/**
+ * The count of entries along with the count, sum, min and max of their numeric
+ * values.
+ */
+public class NumericStatsResult implements
+		Mergeable
+{
+	private long count = 0;
+	private long valueCount = 0;
+	private double sum = 0;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	public NumericStatsResult() {}
+
+	/**
+	 * @param value
+	 *            the numeric value of the entry, or null if it only contributes
+	 *            to the entry count
+	 */
+	public void entryAggregated(
+			final Double value ) {
+		count++;
+		if ((value != null) && !value.isNaN()) {
+			valueCount++;
+			sum += value;
+			min = Math.min(
+					min,
+					value);
+			max = Math.max(
+					max,
+					value);
+		}
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getValueCount() {
+		return valueCount;
+	}
+
+	public double getSum() {
+		return sum;
+	}
+
+	/**
+	 * @return the minimum value or NaN if there were no values
+	 */
+	public double getMin() {
+		return valueCount == 0 ? Double.NaN : min;
+	}
+
+	/**
+	 * @return the maximum value or NaN if there were no values
+	 */
+	public double getMax() {
+		return valueCount == 0 ? Double.NaN : max;
+	}
+
+	/**
+	 * @return the mean value or NaN if there were no values
+	 */
+	public double getMean() {
+		return valueCount == 0 ? Double.NaN : sum / valueCount;
+	}
+
+	@Override
+	public void merge(
+			final Mergeable merge ) {
+		if ((merge != null) && (merge instanceof NumericStatsResult)) {
+			final NumericStatsResult other = (NumericStatsResult) merge;
+			count += other.count;
+			valueCount += other.valueCount;
+			sum += other.sum;
+			min = Math.min(
+					min,
+					other.min);
+			max = Math.max(
+					max,
+					other.max);
+		}
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final ByteBuffer buffer = ByteBuffer.allocate(40);
+		buffer.putLong(count);
+		buffer.putLong(valueCount);
+		buffer.putDouble(sum);
+		buffer.putDouble(min);
+		buffer.putDouble(max);
+		return buffer.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		count = buffer.getLong();
+		valueCount = buffer.getLong();
+		sum = buffer.getDouble();
+		min = buffer.getDouble();
+		max = buffer.getDouble();
+	}
+
+	@Override
+	public String toString() {
+		final StringBuffer buffer = new StringBuffer();
+		buffer.append(
+				"stats[count=").append(
+				count);
+		buffer.append(
+				", sum=").append(
+				sum);
+		buffer.append(
+				", min=").append(
+				getMin());
+		buffer.append(
+				", max=").append(
+				getMax());
+		buffer.append(
+				", mean=").append(
+				getMean());
+		buffer.append("]");
+		return buffer.toString();
+	}
+}
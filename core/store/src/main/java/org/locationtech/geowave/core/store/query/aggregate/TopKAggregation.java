@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+
+/**
+ * Finds the most frequent values of a field using a space-saving sketch.
+ *
+ * Implementations provide access to the fields of their native entry type.
+ *
+ * @param <T>
+ *            the native entry type
+ */
+public abstract class TopKAggregation<T> implements
+		FieldSubsetAggregation<TopKParameters, TopKResult, T>
+{
+	private TopKParameters parameters;
+	private TopKResult result = null;
+
+	public TopKAggregation() {
+		this(
+				new TopKParameters());
+	}
+
+	public TopKAggregation(
+			final TopKParameters parameters ) {
+		this.parameters = parameters;
+	}
+
+	/**
+	 * @return the value of the field for the entry, or null if it is not set
+	 */
+	abstract protected Object getFieldValue(
+			T entry,
+			String fieldName );
+
+	@Override
+	public void aggregate(
+			final T entry ) {
+		if (result == null) {
+			result = new TopKResult(
+					parameters.getK(),
+					parameters.getCapacity());
+		}
+		final Object value = getFieldValue(
+				entry,
+				parameters.getFieldName());
+		if (value != null) {
+			result.entryAggregated(value.toString());
+		}
+	}
+
+	@Override
+	public List<ByteArrayId> getFieldIds() {
+		return Collections.singletonList(new ByteArrayId(
+				parameters.getFieldName()));
+	}
+
+	@Override
+	public TopKParameters getParameters() {
+		return parameters;
+	}
+
+	@Override
+	public void setParameters(
+			final TopKParameters parameters ) {
+		this.parameters = parameters;
+	}
+
+	@Override
+	public TopKResult getResult() {
+		return result;
+	}
+
+	@Override
+	public void clearResult() {
+		result = null;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		return new byte[] {};
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {}
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+
+/**
+ * Parameters of a {@link TopKAggregation}
+ */
+public class TopKParameters implements
+		Persistable
+{
+	private String fieldName;
+	private int k;
+	private int capacity;
+
+	public TopKParameters() {}
+
+	/**
+	 * Uses a sketch capacity of ten times k, which keeps the counts of the top
+	 * k values exact for most skewed distributions
+	 */
+	public TopKParameters(
+			final String fieldName,
+			final int k ) {
+		this(
+				fieldName,
+				k,
+				Math.max(
+						k * 10,
+						100));
+	}
+
+	/**
+	 * @param fieldName
+	 *            the field to count the values of
+	 * @param k
+	 *            the number of most frequent values to report
+	 * @param capacity
+	 *            the number of values tracked by the sketch, a larger capacity
+	 *            gives more accurate counts at the cost of memory
+	 */
+	public TopKParameters(
+			final String fieldName,
+			final int k,
+			final int capacity ) {
+		this.fieldName = fieldName;
+		this.k = k;
+		this.capacity = Math.max(
+				k,
+				capacity);
+	}
+
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	public int getK() {
+		return k;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final byte[] fieldNameBytes = StringUtils.stringToBinary(fieldName);
+		final ByteBuffer buf = ByteBuffer.allocate(8 + fieldNameBytes.length);
+		buf.putInt(k);
+		buf.putInt(capacity);
+		buf.put(fieldNameBytes);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		k = buf.getInt();
+		capacity = buf.getInt();
+		final byte[] fieldNameBytes = new byte[buf.remaining()];
+		buf.get(fieldNameBytes);
+		fieldName = StringUtils.stringFromBinary(fieldNameBytes);
+	}
+}
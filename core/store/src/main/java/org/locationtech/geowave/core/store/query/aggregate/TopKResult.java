@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.index.StringUtils;
+
+/**
+ * A space-saving sketch of the most frequent values. It tracks at most capacity
+ * values; when a new value arrives and the sketch is full, the value with the
+ * smallest count is replaced and the new value inherits its count as the error
+ * bound. Sketches are merged as described in "Mergeable Summaries" (Agarwal et
+ * al.), so the result of merging partial results computed on different servers
+ * has the same error guarantees.
+ */
+public class TopKResult implements
+		Mergeable
+{
+	private int k;
+	private int capacity;
+	private Map<String, Counter> counters = new HashMap<>();
+
+	public TopKResult() {}
+
+	public TopKResult(
+			final int k,
+			final int capacity ) {
+		this.k = k;
+		this.capacity = capacity;
+	}
+
+	public void entryAggregated(
+			final String value ) {
+		if (value == null) {
+			return;
+		}
+		final Counter counter = counters.get(value);
+		if (counter != null) {
+			counter.count++;
+		}
+		else if (counters.size() < capacity) {
+			counters.put(
+					value,
+					new Counter(
+							value,
+							1,
+							0));
+		}
+		else {
+			final Counter min = Collections.min(
+					counters.values(),
+					COUNT_COMPARATOR);
+			counters.remove(min.value);
+			counters.put(
+					value,
+					new Counter(
+							value,
+							min.count + 1,
+							min.count));
+		}
+	}
+
+	/**
+	 * @return the k most frequent values, most frequent first
+	 */
+	public List<Counter> getTopK() {
+		final List<Counter> sorted = new ArrayList<>(
+				counters.values());
+		Collections.sort(
+				sorted,
+				Collections.reverseOrder(COUNT_COMPARATOR));
+		return sorted.subList(
+				0,
+				Math.min(
+						k,
+						sorted.size()));
+	}
+
+	private long getMinCount() {
+		if (counters.size() < capacity) {
+			// values that are not tracked have never been seen
+			return 0;
+		}
+		return Collections.min(
+				counters.values(),
+				COUNT_COMPARATOR).count;
+	}
+
+	@Override
+	public void merge(
+			final Mergeable merge ) {
+		if ((merge != null) && (merge instanceof TopKResult)) {
+			final TopKResult other = (TopKResult) merge;
+			final long min = getMinCount();
+			final long otherMin = other.getMinCount();
+			final Set<String> values = new HashSet<>(
+					counters.keySet());
+			values.addAll(other.counters.keySet());
+			final List<Counter> merged = new ArrayList<>(
+					values.size());
+			for (final String value : values) {
+				final Counter c1 = counters.get(value);
+				final Counter c2 = other.counters.get(value);
+				merged.add(new Counter(
+						value,
+						(c1 == null ? min : c1.count) + (c2 == null ? otherMin : c2.count),
+						(c1 == null ? min : c1.error) + (c2 == null ? otherMin : c2.error)));
+			}
+			capacity = Math.max(
+					capacity,
+					other.capacity);
+			k = Math.max(
+					k,
+					other.k);
+			Collections.sort(
+					merged,
+					Collections.reverseOrder(COUNT_COMPARATOR));
+			counters = new HashMap<>();
+			for (final Counter counter : merged.subList(
+					0,
+					Math.min(
+							capacity,
+							merged.size()))) {
+				counters.put(
+						counter.value,
+						counter);
+			}
+		}
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final List<byte[]> valueBytes = new ArrayList<>(
+				counters.size());
+		int byteLength = 12;
+		for (final Counter counter : counters.values()) {
+			final byte[] bytes = StringUtils.stringToBinary(counter.value);
+			valueBytes.add(bytes);
+			byteLength += 20 + bytes.length;
+		}
+		final ByteBuffer buf = ByteBuffer.allocate(byteLength);
+		buf.putInt(k);
+		buf.putInt(capacity);
+		buf.putInt(counters.size());
+		int i = 0;
+		for (final Counter counter : counters.values()) {
+			final byte[] bytes = valueBytes.get(i++);
+			buf.putInt(bytes.length);
+			buf.put(bytes);
+			buf.putLong(counter.count);
+			buf.putLong(counter.error);
+		}
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		k = buf.getInt();
+		capacity = buf.getInt();
+		final int size = buf.getInt();
+		counters = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			final byte[] valueBytes = new byte[buf.getInt()];
+			buf.get(valueBytes);
+			final String value = StringUtils.stringFromBinary(valueBytes);
+			counters.put(
+					value,
+					new Counter(
+							value,
+							buf.getLong(),
+							buf.getLong()));
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuffer buffer = new StringBuffer();
+		buffer.append(
+				"topK[k=").append(
+				k);
+		for (final Counter counter : getTopK()) {
+			buffer.append(
+					", ").append(
+					counter);
+		}
+		buffer.append("]");
+		return buffer.toString();
+	}
+
+	private static final Comparator<Counter> COUNT_COMPARATOR = new Comparator<Counter>() {
+		@Override
+		public int compare(
+				final Counter o1,
+				final Counter o2 ) {
+			final int countCompare = Long.compare(
+					o1.count,
+					o2.count);
+			if (countCompare != 0) {
+				return countCompare;
+			}
+			// break ties consistently so results don't depend on hash order
+			return o2.value.compareTo(o1.value);
+		}
+	};
+
+	public static class Counter
+	{
+		private final String value;
+		private long count;
+		private final long error;
+
+		private Counter(
+				final String value,
+				final long count,
+				final long error ) {
+			this.value = value;
+			this.count = count;
+			this.error = error;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		/**
+		 * @return an upper bound of the number of occurrences of the value
+		 */
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the maximum amount the count overestimates the number of
+		 *         occurrences, the count is exact if this is 0
+		 */
+		public long getError() {
+			return error;
+		}
+
+		@Override
+		public String toString() {
+			return value + "=" + count + (error > 0 ? "(+/-" + error + ")" : "");
+		}
+	}
+}
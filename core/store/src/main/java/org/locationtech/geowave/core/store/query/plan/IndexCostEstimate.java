@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.plan;
+
+import java.util.Comparator;
+
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.store.index.PrimaryIndex;
+
+/**
+ * The estimated cost of answering a query using a single index.
+ */
+public class IndexCostEstimate
+{
+	/**
+	 * Orders estimates from the cheapest to the most expensive
+	 */
+	public static final Comparator<IndexCostEstimate> COST_ORDER = new Comparator<IndexCostEstimate>() {
+		@Override
+		public int compare(
+				final IndexCostEstimate o1,
+				final IndexCostEstimate o2 ) {
+			// a full table scan is only preferred when nothing else is
+			// available
+			if (o1.isFullTableScan() != o2.isFullTableScan()) {
+				return o1.isFullTableScan() ? 1 : -1;
+			}
+			final int rowCompare = Long.compare(
+					o1.estimatedRows,
+					o2.estimatedRows);
+			if (rowCompare != 0) {
+				return rowCompare;
+			}
+			// fewer ranges means fewer seeks for the same number of rows
+			if ((o1.rangeCount >= 0) && (o2.rangeCount >= 0)) {
+				return Integer.compare(
+						o1.rangeCount,
+						o2.rangeCount);
+			}
+			return 0;
+		}
+	};
+
+	/**
+	 * Describes which statistics produced the row estimate
+	 */
+	public static enum EstimateSource {
+		/**
+		 * the query does not constrain any dimension of the index
+		 */
+		FULL_TABLE_SCAN,
+		/**
+		 * derived from the row count and the extents of the indexed dimensions
+		 */
+		EXTENT_SELECTIVITY,
+		/**
+		 * derived from row range histograms over the decomposed query ranges
+		 */
+		ROW_RANGE_HISTOGRAM,
+		/**
+		 * no usable statistics were available
+		 */
+		UNKNOWN
+	}
+
+	private final PrimaryIndex index;
+	private final EstimateSource source;
+	private final long estimatedRows;
+	private final int rangeCount;
+	private final long planningNanos;
+	private final QueryRanges queryRanges;
+
+	public IndexCostEstimate(
+			final PrimaryIndex index,
+			final EstimateSource source,
+			final long estimatedRows,
+			final QueryRanges queryRanges,
+			final long planningNanos ) {
+		this.index = index;
+		this.source = source;
+		this.estimatedRows = estimatedRows;
+		this.queryRanges = queryRanges;
+		this.planningNanos = planningNanos;
+		if ((queryRanges != null) && (queryRanges.getCompositeQueryRanges() != null)) {
+			rangeCount = queryRanges.getCompositeQueryRanges().size();
+		}
+		else {
+			rangeCount = -1;
+		}
+	}
+
+	public PrimaryIndex getIndex() {
+		return index;
+	}
+
+	public EstimateSource getSource() {
+		return source;
+	}
+
+	/**
+	 * @return the estimated number of rows scanned, or Long.MAX_VALUE when
+	 *         unknown
+	 */
+	public long getEstimatedRows() {
+		return estimatedRows;
+	}
+
+	/**
+	 * @return the number of ranges the query decomposed into, or -1 if the
+	 *         query was not decomposed for this index
+	 */
+	public int getRangeCount() {
+		return rangeCount;
+	}
+
+	/**
+	 * @return the estimated fraction of the rows read that are outside of the
+	 *         query, or -1 if it is unknown
+	 */
+	public double getEstimatedOverRead() {
+		return queryRanges == null ? -1 : queryRanges.getEstimatedOverRead();
+	}
+
+	public long getPlanningNanos() {
+		return planningNanos;
+	}
+
+	/**
+	 * @return the decomposed ranges, or null if the query was not decomposed
+	 *         for this index
+	 */
+	public QueryRanges getQueryRanges() {
+		return queryRanges;
+	}
+
+	public boolean isFullTableScan() {
+		return EstimateSource.FULL_TABLE_SCAN.equals(source);
+	}
+
+	@Override
+	public String toString() {
+		return "IndexCostEstimate [index=" + index.getId().getString() + ", source=" + source + ", estimatedRows="
+				+ estimatedRows + ", rangeCount=" + rangeCount + ", estimatedOverRead=" + getEstimatedOverRead()
+				+ ", planningNanos=" + planningNanos + "]";
+	}
+}
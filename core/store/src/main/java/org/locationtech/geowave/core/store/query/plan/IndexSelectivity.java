@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.plan;
+
+import java.util.List;
+
+import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericData;
+
+/**
+ * Estimates the fraction of rows an index will scan for a set of constraints,
+ * assuming rows are uniformly distributed within the known extent of each
+ * indexed dimension.
+ */
+public class IndexSelectivity
+{
+	private IndexSelectivity() {}
+
+	/**
+	 * @param constraints
+	 *            the query constraints in the index's dimension order
+	 * @param dataExtents
+	 *            the known extent of the data for each dimension of the index,
+	 *            a null entry means the extent of that dimension is unknown
+	 * @return the estimated fraction of rows within the constraints, between 0
+	 *         and 1
+	 */
+	public static double estimate(
+			final List<MultiDimensionalNumericData> constraints,
+			final NumericData[] dataExtents ) {
+		if ((constraints == null) || constraints.isEmpty()) {
+			return 1.0;
+		}
+		double selectivity = 0;
+		for (final MultiDimensionalNumericData constraint : constraints) {
+			selectivity += estimate(
+					constraint,
+					dataExtents);
+			if (selectivity >= 1.0) {
+				return 1.0;
+			}
+		}
+		return selectivity;
+	}
+
+	public static double estimate(
+			final MultiDimensionalNumericData constraint,
+			final NumericData[] dataExtents ) {
+		final NumericData[] queryRanges = constraint.getDataPerDimension();
+		double selectivity = 1.0;
+		for (int d = 0; (d < queryRanges.length) && (d < dataExtents.length); d++) {
+			if ((dataExtents[d] == null) || (queryRanges[d] == null)) {
+				continue;
+			}
+			selectivity *= overlap(
+					queryRanges[d],
+					dataExtents[d]);
+			if (selectivity == 0) {
+				return 0;
+			}
+		}
+		return selectivity;
+	}
+
+	private static double overlap(
+			final NumericData query,
+			final NumericData extent ) {
+		final double min = Math.max(
+				query.getMin(),
+				extent.getMin());
+		final double max = Math.min(
+				query.getMax(),
+				extent.getMax());
+		if (max < min) {
+			return 0;
+		}
+		final double extentWidth = extent.getMax() - extent.getMin();
+		if (extentWidth <= 0) {
+			// all the data shares a single value and it is within the query
+			return 1.0;
+		}
+		return Math.min(
+				1.0,
+				(max - min) / extentWidth);
+	}
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.plan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.geowave.core.store.index.PrimaryIndex;
+
+/**
+ * The result of planning a query against a set of candidate indices. This is
+ * what an EXPLAIN of a query reports: the estimate for each candidate index,
+ * the index that was chosen and the total time spent planning.
+ */
+public class QueryPlan
+{
+	private final List<IndexCostEstimate> estimates;
+	private final IndexCostEstimate chosen;
+	private final long planningNanos;
+
+	public QueryPlan(
+			final List<IndexCostEstimate> estimates,
+			final long planningNanos ) {
+		this(
+				estimates,
+				estimates.isEmpty() ? null : Collections.min(
+						estimates,
+						IndexCostEstimate.COST_ORDER),
+				planningNanos);
+	}
+
+	public QueryPlan(
+			final List<IndexCostEstimate> estimates,
+			final IndexCostEstimate chosen,
+			final long planningNanos ) {
+		this.estimates = new ArrayList<>(
+				estimates);
+		this.chosen = chosen;
+		this.planningNanos = planningNanos;
+	}
+
+	/**
+	 * @return the estimates in the order the candidate indices were evaluated
+	 */
+	public List<IndexCostEstimate> getEstimates() {
+		return Collections.unmodifiableList(estimates);
+	}
+
+	/**
+	 * @return the estimate for the chosen index, or null if there were no
+	 *         candidates
+	 */
+	public IndexCostEstimate getChosenEstimate() {
+		return chosen;
+	}
+
+	public PrimaryIndex getChosenIndex() {
+		return chosen == null ? null : chosen.getIndex();
+	}
+
+	public long getPlanningNanos() {
+		return planningNanos;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(String.format(
+				"%-40s %-20s %15s %10s %10s %12s%n",
+				"index",
+				"source",
+				"estimatedRows",
+				"ranges",
+				"overRead",
+				"planningMs"));
+		for (final IndexCostEstimate estimate : estimates) {
+			sb.append(String.format(
+					"%-40s %-20s %15s %10s %10s %12.3f%n",
+					(estimate == chosen ? "* " : "  ") + estimate.getIndex().getId().getString(),
+					estimate.getSource(),
+					estimate.getEstimatedRows() == Long.MAX_VALUE ? "?" : Long.toString(estimate.getEstimatedRows()),
+					estimate.getRangeCount() < 0 ? "-" : Integer.toString(estimate.getRangeCount()),
+					estimate.getEstimatedOverRead() < 0 ? "-" : String.format(
+							"%.3f",
+							estimate.getEstimatedOverRead()),
+					estimate.getPlanningNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+		}
+		sb.append(String.format(
+				"total planning time: %.3f ms",
+				planningNanos / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+		return sb.toString();
+	}
+}
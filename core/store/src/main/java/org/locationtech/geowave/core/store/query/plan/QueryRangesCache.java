@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.plan;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.locationtech.geowave.core.index.IndexMetaData;
+import org.locationtech.geowave.core.index.NumericIndexStrategy;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.store.util.DataStoreUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Caches range decompositions so that the decomposition computed while choosing
+ * an index is reused when that index is queried. Entries are keyed by the index
+ * strategy, the constraints, the maximum number of ranges and the serialized
+ * index metadata, so a change in any of them results in a fresh decomposition.
+ * Decompositions weighted by statistics depend on more than the key and are not
+ * cached.
+ */
+public class QueryRangesCache
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(QueryRangesCache.class);
+	private static final int MAX_ENTRIES = 500;
+	private static final long EXPIRE_AFTER_ACCESS_MILLIS = 60000L;
+
+	private static final Cache<CacheKey, QueryRanges> CACHE = CacheBuilder.newBuilder().maximumSize(
+			MAX_ENTRIES).expireAfterAccess(
+			EXPIRE_AFTER_ACCESS_MILLIS,
+			TimeUnit.MILLISECONDS).<CacheKey, QueryRanges> build();
+
+	private QueryRangesCache() {}
+
+	/**
+	 * Equivalent to
+	 * {@link DataStoreUtils#constraintsToQueryRanges(List, NumericIndexStrategy, int, IndexMetaData...)}
+	 * but returns a previously computed decomposition when one exists.
+	 */
+	public static QueryRanges getQueryRanges(
+			final List<MultiDimensionalNumericData> constraints,
+			final NumericIndexStrategy indexStrategy,
+			final int maxRanges,
+			final IndexMetaData... hints ) {
+		if ((constraints == null) || constraints.isEmpty()) {
+			return new QueryRanges();
+		}
+		final CacheKey key = new CacheKey(
+				indexStrategy.getId(),
+				constraints,
+				maxRanges,
+				hints);
+		try {
+			return CACHE.get(
+					key,
+					new Callable<QueryRanges>() {
+						@Override
+						public QueryRanges call()
+								throws Exception {
+							return DataStoreUtils.constraintsToQueryRanges(
+									constraints,
+									indexStrategy,
+									maxRanges,
+									hints);
+						}
+					});
+		}
+		catch (final ExecutionException e) {
+			LOGGER.warn(
+					"Unable to cache query ranges",
+					e.getCause());
+			return DataStoreUtils.constraintsToQueryRanges(
+					constraints,
+					indexStrategy,
+					maxRanges,
+					hints);
+		}
+	}
+
+	/**
+	 * @return true if a decomposition for these parameters is currently cached
+	 */
+	public static boolean isCached(
+			final List<MultiDimensionalNumericData> constraints,
+			final NumericIndexStrategy indexStrategy,
+			final int maxRanges,
+			final IndexMetaData... hints ) {
+		if ((constraints == null) || constraints.isEmpty()) {
+			return false;
+		}
+		return CACHE.getIfPresent(new CacheKey(
+				indexStrategy.getId(),
+				constraints,
+				maxRanges,
+				hints)) != null;
+	}
+
+	public static void invalidateAll() {
+		CACHE.invalidateAll();
+	}
+
+	private static class CacheKey
+	{
+		private final String indexStrategyId;
+		private final List<MultiDimensionalNumericData> constraints;
+		private final int maxRanges;
+		private final byte[] metaData;
+		private final int hashCode;
+
+		public CacheKey(
+				final String indexStrategyId,
+				final List<MultiDimensionalNumericData> constraints,
+				final int maxRanges,
+				final IndexMetaData[] hints ) {
+			this.indexStrategyId = indexStrategyId;
+			// copy so that later changes to the caller's list can't corrupt
+			// the key
+			this.constraints = new ArrayList<>(
+					constraints);
+			this.maxRanges = maxRanges;
+			if ((hints == null) || (hints.length == 0)) {
+				metaData = new byte[0];
+			}
+			else {
+				metaData = PersistenceUtils.toBinary(Arrays.asList(hints));
+			}
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + ((indexStrategyId == null) ? 0 : indexStrategyId.hashCode());
+			result = (prime * result) + this.constraints.hashCode();
+			result = (prime * result) + maxRanges;
+			result = (prime * result) + Arrays.hashCode(metaData);
+			hashCode = result;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(
+				final Object obj ) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final CacheKey other = (CacheKey) obj;
+			if (indexStrategyId == null) {
+				if (other.indexStrategyId != null) {
+					return false;
+				}
+			}
+			else if (!indexStrategyId.equals(other.indexStrategyId)) {
+				return false;
+			}
+			return (maxRanges == other.maxRanges) && Arrays.equals(
+					metaData,
+					other.metaData) && constraints.equals(other.constraints);
+		}
+	}
+}
@@ -14,8 +14,11 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +26,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 
+import org.apache.commons.lang3.tuple.Pair;
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.ByteArrayRange;
 import org.locationtech.geowave.core.index.IndexMetaData;
@@ -32,7 +36,10 @@ import org.locationtech.geowave.core.index.QueryRanges;
 import org.locationtech.geowave.core.index.SinglePartitionInsertionIds;
 import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
 import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.sfc.RangeCardinality;
 import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.sfc.xz.XZHierarchicalIndexStrategy;
+import org.locationtech.geowave.core.index.sfc.xz.XZOrderSFC;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.adapter.AdapterIndexMappingStore;
 import org.locationtech.geowave.core.store.adapter.DataAdapter;
@@ -170,6 +177,33 @@ public class DataStoreUtils
 		return count;
 	}
 
+	/**
+	 * @return the row counts of the row range histograms of the index as a
+	 *         cardinality for range decomposition, partitions without a
+	 *         histogram have no rows
+	 */
+	public static <T> RangeCardinality rowRangeCardinality(
+			final PrimaryIndex index,
+			final Map<ByteArrayId, DataStatistics<T>> stats ) {
+		return new RangeCardinality() {
+			@Override
+			public double cardinality(
+					final ByteArrayId partitionKey,
+					final ByteArrayRange sortKeyRange ) {
+				final RowRangeHistogramStatistics rangeStats = (RowRangeHistogramStatistics) stats
+						.get(RowRangeHistogramStatistics.composeId(
+								index.getId(),
+								partitionKey != null ? partitionKey : new ByteArrayId()));
+				if (rangeStats == null) {
+					return 0;
+				}
+				return rangeStats.cardinality(
+						sortKeyRange.getStart().getBytes(),
+						sortKeyRange.getEnd().getBytes());
+			}
+		};
+	}
+
 	public static InsertionIds keysToInsertionIds(
 			final GeoWaveKey... geoWaveKeys ) {
 		final Map<ByteArrayId, List<ByteArrayId>> sortKeysPerPartition = new HashMap<>();
@@ -301,6 +335,31 @@ public class DataStoreUtils
 			final NumericIndexStrategy indexStrategy,
 			final int maxRanges,
 			final IndexMetaData... hints ) {
+		return constraintsToQueryRanges(
+				constraints,
+				indexStrategy,
+				maxRanges,
+				XZOrderSFC.DEFAULT_MAX_OVER_READ,
+				null,
+				hints);
+	}
+
+	/**
+	 * @param maxOverRead
+	 *            the estimated over-read at which a best-first decomposition
+	 *            stops refining
+	 * @param cardinality
+	 *            estimates the rows within a range so that index strategies
+	 *            that support it decompose best-first, refining their ranges
+	 *            where the data is, null to decompose breadth-first
+	 */
+	public static QueryRanges constraintsToQueryRanges(
+			final List<MultiDimensionalNumericData> constraints,
+			final NumericIndexStrategy indexStrategy,
+			final int maxRanges,
+			final double maxOverRead,
+			final RangeCardinality cardinality,
+			final IndexMetaData... hints ) {
 		if ((constraints == null) || constraints.isEmpty()) {
 			return new QueryRanges(); // implies in negative and
 			// positive infinity
@@ -309,16 +368,101 @@ public class DataStoreUtils
 			final List<QueryRanges> ranges = new ArrayList<>(
 					constraints.size());
 			for (final MultiDimensionalNumericData nd : constraints) {
-				ranges.add(indexStrategy.getQueryRanges(
-						nd,
-						maxRanges,
-						hints));
+				if ((cardinality != null) && (indexStrategy instanceof XZHierarchicalIndexStrategy)) {
+					ranges.add(((XZHierarchicalIndexStrategy) indexStrategy).getQueryRanges(
+							nd,
+							maxRanges,
+							maxOverRead,
+							cardinality,
+							hints));
+				}
+				else {
+					ranges.add(indexStrategy.getQueryRanges(
+							nd,
+							maxRanges,
+							hints));
+				}
 			}
 			return ranges.size() > 1 ? new QueryRanges(
 					ranges) : ranges.get(0);
 		}
 	}
 
+	/**
+	 * Split query ranges into at most the given number of groups of contiguous
+	 * ranges so that each group can be read independently. Groups have roughly
+	 * the same number of ranges.
+	 *
+	 * @return the groups, or a single group containing the original ranges if
+	 *         the ranges can't be split (for example an unbounded full scan)
+	 */
+	public static List<QueryRanges> splitQueryRanges(
+			final QueryRanges ranges,
+			final int maxGroups ) {
+		final Collection<SinglePartitionQueryRanges> partitionRanges = ranges == null ? null : ranges
+				.getPartitionQueryRanges();
+		if ((maxGroups <= 1) || (partitionRanges == null)) {
+			return Collections.singletonList(ranges);
+		}
+		final List<Pair<ByteArrayId, ByteArrayRange>> flattened = new ArrayList<>();
+		for (final SinglePartitionQueryRanges partition : partitionRanges) {
+			if ((partition.getSortKeyRanges() == null) || partition.getSortKeyRanges().isEmpty()) {
+				// the whole partition
+				flattened.add(Pair.of(
+						partition.getPartitionKey(),
+						(ByteArrayRange) null));
+			}
+			else {
+				for (final ByteArrayRange range : partition.getSortKeyRanges()) {
+					flattened.add(Pair.of(
+							partition.getPartitionKey(),
+							range));
+				}
+			}
+		}
+		final int groups = Math.min(
+				maxGroups,
+				flattened.size());
+		if (groups <= 1) {
+			return Collections.singletonList(ranges);
+		}
+		final List<QueryRanges> split = new ArrayList<>(
+				groups);
+		int start = 0;
+		for (int g = 0; g < groups; g++) {
+			final int end = (int) (((long) flattened.size() * (g + 1)) / groups);
+			// keep insertion order so that ranges within a partition stay
+			// sorted
+			final Map<ByteArrayId, List<ByteArrayRange>> groupRanges = new LinkedHashMap<>();
+			for (final Pair<ByteArrayId, ByteArrayRange> range : flattened.subList(
+					start,
+					end)) {
+				List<ByteArrayRange> sortRanges = groupRanges.get(range.getLeft());
+				if (sortRanges == null) {
+					sortRanges = new ArrayList<>();
+					groupRanges.put(
+							range.getLeft(),
+							sortRanges);
+				}
+				if (range.getRight() != null) {
+					sortRanges.add(range.getRight());
+				}
+			}
+			final List<SinglePartitionQueryRanges> groupPartitionRanges = new ArrayList<>(
+					groupRanges.size());
+			for (final Entry<ByteArrayId, List<ByteArrayRange>> e : groupRanges.entrySet()) {
+				groupPartitionRanges.add(e.getValue().isEmpty() ? new SinglePartitionQueryRanges(
+						e.getKey()) : new SinglePartitionQueryRanges(
+						e.getKey(),
+						e.getValue()));
+			}
+			split.add(new QueryRanges(
+					groupPartitionRanges));
+			start = end;
+		}
+		return split;
+	}
+
 	public static String getQualifiedTableName(
 			final String tableNamespace,
 			final String unqualifiedTableName ) {
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates serialized visibility expressions against a fixed set of
+ * authorizations. Expressions are compiled once per distinct byte content and
+ * shared by all evaluators, and the result for each distinct visibility is
+ * remembered by this evaluator. An evaluator should therefore be created per
+ * query and used for every row of the query. It is safe to use from multiple
+ * threads. An expression that can't be parsed is not visible.
+ */
+public class VisibilityEvaluator
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(VisibilityEvaluator.class);
+	private static final int MAX_REMEMBERED_VISIBILITIES = 1000;
+
+	private final Set<String> auths = new HashSet<>();
+	private final ConcurrentHashMap<ByteArrayId, Boolean> results = new ConcurrentHashMap<>();
+	// rows are commonly grouped by visibility, so the last result is checked
+	// before looking up the remembered results
+	private volatile Result lastResult;
+
+	public VisibilityEvaluator(
+			final String... authorizations ) {
+		this(
+				authorizations == null ? null : Arrays.asList(authorizations));
+	}
+
+	public VisibilityEvaluator(
+			final Collection<String> authorizations ) {
+		if (authorizations != null) {
+			for (final String auth : authorizations) {
+				if (auth != null) {
+					auths.add(auth);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param visibility
+	 *            the serialized visibility expression, null or empty is visible
+	 *            to everyone
+	 * @return true if the authorizations satisfy the expression
+	 */
+	public boolean isAuthorized(
+			final byte[] visibility ) {
+		if ((visibility == null) || (visibility.length == 0)) {
+			return true;
+		}
+		final Result last = lastResult;
+		if ((last != null) && Arrays.equals(
+				last.visibility,
+				visibility)) {
+			return last.authorized;
+		}
+		final ByteArrayId key = new ByteArrayId(
+				visibility);
+		Boolean authorized = results.get(key);
+		if (authorized == null) {
+			authorized = evaluate(visibility);
+			if (results.size() < MAX_REMEMBERED_VISIBILITIES) {
+				final Boolean existing = results.putIfAbsent(
+						key,
+						authorized);
+				if (existing != null) {
+					authorized = existing;
+				}
+			}
+		}
+		lastResult = new Result(
+				visibility,
+				authorized);
+		return authorized;
+	}
+
+	private boolean evaluate(
+			final byte[] visibility ) {
+		try {
+			return VisibilityExpression.compile(
+					visibility).evaluate(
+					auths);
+		}
+		catch (final RuntimeException e) {
+			LOGGER.warn(
+					"Unable to parse visibility expression '" + StringUtils.stringFromBinary(visibility)
+							+ "', row is not visible",
+					e);
+			return false;
+		}
+	}
+
+	private static class Result
+	{
+		private final byte[] visibility;
+		private final boolean authorized;
+
+		public Result(
+				final byte[] visibility,
+				final boolean authorized ) {
+			this.visibility = visibility;
+			this.authorized = authorized;
+		}
+	}
+}
@@ -11,9 +11,15 @@
 package org.locationtech.geowave.core.store.util;
 
 import java.text.ParseException;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.StringUtils;
+
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -47,10 +53,32 @@ public class VisibilityExpression
 		TOKEN_SPLIT = sb.toString();
 	}
 
-	private static LoadingCache<String, VisibilityNode> expressionCache = CacheBuilder.newBuilder().maximumSize(
+	private static LoadingCache<String, CompiledVisibility> expressionCache = CacheBuilder.newBuilder().maximumSize(
 			50).build(
 			new VisibilityCacheLoader());
 
+	// compiled expressions keyed by their serialized bytes so that rows can be
+	// evaluated without first decoding the visibility to a string
+	private static LoadingCache<ByteArrayId, CompiledVisibility> compiledCache = CacheBuilder.newBuilder().maximumSize(
+			10000).build(
+			new CompiledVisibilityCacheLoader());
+
+	/**
+	 * @return the expression compiled to evaluate against a bitset of its
+	 *         terms, compiled expressions are shared by equal byte content
+	 */
+	static CompiledVisibility compile(
+			final byte[] expression ) {
+		try {
+			return compiledCache.get(new ByteArrayId(
+					expression));
+		}
+		catch (final ExecutionException e) {
+			throw new RuntimeException(
+					e.getCause());
+		}
+	}
+
 	public static boolean evaluate(
 			String expression,
 			Set<String> auths ) {
@@ -58,9 +86,7 @@ public class VisibilityExpression
 				"\\s+",
 				"");
 		try {
-			return expressionCache.get(
-					trimmed).evalutate(
-					auths);
+			return expressionCache.get(trimmed).root.evalutate(auths);
 		}
 		catch (ExecutionException e) {
 			throw new RuntimeException(
@@ -69,32 +95,66 @@ public class VisibilityExpression
 	}
 
 	private static class VisibilityCacheLoader extends
-			CacheLoader<String, VisibilityNode>
+			CacheLoader<String, CompiledVisibility>
 	{
 
 		@Override
-		public VisibilityNode load(
+		public CompiledVisibility load(
 				String key )
 				throws Exception {
 			String[] tokens = key.split(TOKEN_SPLIT);
+			final Map<String, Integer> termIndices = new LinkedHashMap<>();
+			final VisibilityNode root;
 			if (tokens.length == 0 || (tokens.length == 1 && tokens[0].length() == 0)) {
-				return new NoAuthNode();
+				root = new NoAuthNode();
 			}
-			return parseTokens(
-					0,
-					tokens.length - 1,
-					tokens);
+			else {
+				root = parseTokens(
+						0,
+						tokens.length - 1,
+						tokens,
+						termIndices);
+			}
+			return new CompiledVisibility(
+					root,
+					termIndices.keySet().toArray(
+							new String[termIndices.size()]));
 		}
 
 	}
 
+	private static class CompiledVisibilityCacheLoader extends
+			CacheLoader<ByteArrayId, CompiledVisibility>
+	{
+		private final VisibilityCacheLoader parser = new VisibilityCacheLoader();
+
+		@Override
+		public CompiledVisibility load(
+				final ByteArrayId key )
+				throws Exception {
+			return parser.load(StringUtils.stringFromBinary(
+					key.getBytes()).replaceAll(
+					"\\s+",
+					""));
+		}
+	}
+
+	/**
+	 * @param termIndices
+	 *            the index of each term within the whole expression, terms not
+	 *            yet seen are added
+	 */
 	private static VisibilityNode parseTokens(
 			int startIndex,
 			int endIndex,
-			String[] tokens )
+			String[] tokens,
+			Map<String, Integer> termIndices )
 			throws ParseException {
 		VisibilityNode left = null;
 		String operator = null;
+		// like Accumulo's column visibility, '&' and '|' can't be mixed
+		// without parentheses
+		String levelOperator = null;
 		for (int i = startIndex; i <= endIndex; i++) {
 			VisibilityNode newNode = null;
 			if (tokens[i].equals("(")) {
@@ -109,7 +169,8 @@ public class VisibilityExpression
 				newNode = parseTokens(
 						i + 1,
 						matchingParen - 1,
-						tokens);
+						tokens,
+						termIndices);
 				i = matchingParen;
 			}
 			else if (tokens[i].equals(")")) {
@@ -128,13 +189,27 @@ public class VisibilityExpression
 							"Multiple sequential operators.",
 							i);
 				}
+				else if ((levelOperator != null) && !levelOperator.equals(tokens[i])) {
+					throw new ParseException(
+							"Mixed operators without parentheses.",
+							i);
+				}
 				else {
 					operator = tokens[i];
+					levelOperator = operator;
 				}
 			}
 			else {
+				Integer termIndex = termIndices.get(tokens[i]);
+				if (termIndex == null) {
+					termIndex = termIndices.size();
+					termIndices.put(
+							tokens[i],
+							termIndex);
+				}
 				newNode = new ValueNode(
-						tokens[i]);
+						tokens[i],
+						termIndex);
 			}
 			if (newNode != null) {
 				if (left == null) {
@@ -190,10 +265,43 @@ public class VisibilityExpression
 		return match;
 	}
 
-	private abstract static class VisibilityNode
+	/**
+	 * A parsed expression and its distinct terms. An evaluator marks the terms
+	 * it is authorized for in a bitset indexed like the terms and evaluates the
+	 * expression against that bitset.
+	 */
+	static class CompiledVisibility
+	{
+		private final VisibilityNode root;
+		private final String[] terms;
+
+		private CompiledVisibility(
+				final VisibilityNode root,
+				final String[] terms ) {
+			this.root = root;
+			this.terms = terms;
+		}
+
+		public boolean evaluate(
+				final Set<String> auths ) {
+			final BitSet authorizedTerms = new BitSet(
+					terms.length);
+			for (int i = 0; i < terms.length; i++) {
+				if (auths.contains(terms[i])) {
+					authorizedTerms.set(i);
+				}
+			}
+			return root.evaluate(authorizedTerms);
+		}
+	}
+
+	abstract static class VisibilityNode
 	{
 		public abstract boolean evalutate(
 				Set<String> auths );
+
+		public abstract boolean evaluate(
+				BitSet authorizedTerms );
 	}
 
 	private static class NoAuthNode extends
@@ -206,16 +314,25 @@ public class VisibilityExpression
 			return true;
 		}
 
+		@Override
+		public boolean evaluate(
+				BitSet authorizedTerms ) {
+			return true;
+		}
+
 	}
 
 	private static class ValueNode extends
 			VisibilityNode
 	{
 		private final String value;
+		private final int termIndex;
 
 		public ValueNode(
-				String value ) {
+				String value,
+				int termIndex ) {
 			this.value = value;
+			this.termIndex = termIndex;
 		}
 
 		@Override
@@ -224,6 +341,12 @@ public class VisibilityExpression
 			return auths.contains(value);
 		}
 
+		@Override
+		public boolean evaluate(
+				BitSet authorizedTerms ) {
+			return authorizedTerms.get(termIndex);
+		}
+
 	}
 
 	private static class AndNode extends
@@ -244,6 +367,12 @@ public class VisibilityExpression
 				Set<String> auths ) {
 			return left.evalutate(auths) && right.evalutate(auths);
 		}
+
+		@Override
+		public boolean evaluate(
+				BitSet authorizedTerms ) {
+			return left.evaluate(authorizedTerms) && right.evaluate(authorizedTerms);
+		}
 	}
 
 	private static class OrNode extends
@@ -264,5 +393,11 @@ public class VisibilityExpression
 				Set<String> auths ) {
 			return left.evalutate(auths) || right.evalutate(auths);
 		}
+
+		@Override
+		public boolean evaluate(
+				BitSet authorizedTerms ) {
+			return left.evaluate(authorizedTerms) || right.evaluate(authorizedTerms);
+		}
 	}
 }
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.adapter.statistics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.InsertionIds;
+import org.locationtech.geowave.core.store.entities.GeoWaveKey;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+
+public class PartitionSizeStatisticsTest
+{
+	private GeoWaveRow genRow(
+			final byte partition,
+			final int valueLength ) {
+		final InsertionIds insertionIds = new InsertionIds(
+				new ByteArrayId(
+						new byte[] {
+							partition
+						}),
+				Arrays.asList(new ByteArrayId(
+						new byte[] {
+							1,
+							2,
+							3
+						})));
+		final GeoWaveKey key = GeoWaveKeyImpl.createKeys(
+				insertionIds,
+				new byte[] {
+					4
+				},
+				(short) 0)[0];
+		return new GeoWaveRowImpl(
+				key,
+				new GeoWaveValue[] {
+					new GeoWaveValueImpl(
+							new byte[] {
+								1
+							},
+							new byte[] {},
+							new byte[valueLength])
+				});
+	}
+
+	@Test
+	public void testIngestAndDelete() {
+		final PartitionSizeStatistics<Integer> stats = new PartitionSizeStatistics<Integer>(
+				(short) 20030,
+				new ByteArrayId(
+						"20030"));
+		// each row is 1 partition + 3 sort key + 1 data id + 1 mask bytes plus
+		// the value
+		for (int i = 0; i < 100; i++) {
+			stats.entryIngested(
+					1,
+					genRow(
+							(byte) 0,
+							10));
+			stats.entryIngested(
+					1,
+					genRow(
+							(byte) 1,
+							94));
+		}
+		final ByteArrayId p0 = new ByteArrayId(
+				new byte[] {
+					0
+				});
+		final ByteArrayId p1 = new ByteArrayId(
+				new byte[] {
+					1
+				});
+		assertEquals(
+				100,
+				stats.getTotalRows(p0));
+		assertEquals(
+				1600,
+				stats.getTotalBytes(p0));
+		assertEquals(
+				100.0,
+				stats.getAverageRowBytes(p1),
+				0.0);
+		// an unknown partition falls back to the overall average
+		assertEquals(
+				58.0,
+				stats.getAverageRowBytes(new ByteArrayId(
+						new byte[] {
+							2
+						})),
+				0.0);
+
+		stats.entryDeleted(
+				1,
+				genRow(
+						(byte) 0,
+						10));
+		assertEquals(
+				99,
+				stats.getTotalRows(p0));
+
+		final PartitionSizeStatistics<Integer> copy = new PartitionSizeStatistics<Integer>();
+		copy.fromBinary(stats.toBinary());
+		assertEquals(
+				stats.getStatisticsId(),
+				copy.getStatisticsId());
+		assertEquals(
+				1584,
+				copy.getTotalBytes(p0));
+		copy.merge(stats);
+		assertEquals(
+				200,
+				copy.getTotalRows(p1));
+	}
+
+	@Test
+	public void testMergeDeleteDelta() {
+		final PartitionSizeStatistics<Integer> stored = new PartitionSizeStatistics<Integer>(
+				(short) 20030,
+				new ByteArrayId(
+						"20030"));
+		for (int i = 0; i < 10; i++) {
+			stored.entryIngested(
+					1,
+					genRow(
+							(byte) 0,
+							10));
+		}
+		// deletes are tracked on a fresh statistic and merged into the stored
+		// one, like a statistics store does
+		final PartitionSizeStatistics<Integer> delta = (PartitionSizeStatistics<Integer>) stored.duplicate();
+		for (int i = 0; i < 3; i++) {
+			delta.entryDeleted(
+					1,
+					genRow(
+							(byte) 0,
+							10));
+		}
+		final PartitionSizeStatistics<Integer> persistedDelta = new PartitionSizeStatistics<Integer>();
+		persistedDelta.fromBinary(delta.toBinary());
+		stored.merge(persistedDelta);
+
+		final ByteArrayId p0 = new ByteArrayId(
+				new byte[] {
+					0
+				});
+		assertEquals(
+				7,
+				stored.getTotalRows(p0));
+		assertEquals(
+				112,
+				stored.getTotalBytes(p0));
+
+		// a delta can't reduce the sizes below zero when read
+		final PartitionSizeStatistics<Integer> largeDelta = (PartitionSizeStatistics<Integer>) stored.duplicate();
+		for (int i = 0; i < 10; i++) {
+			largeDelta.entryDeleted(
+					1,
+					genRow(
+							(byte) 0,
+							10));
+		}
+		stored.merge(largeDelta);
+		assertEquals(
+				0,
+				stored.getTotalRows(p0));
+		assertEquals(
+				0,
+				stored.getTotalBytes(p0));
+	}
+}
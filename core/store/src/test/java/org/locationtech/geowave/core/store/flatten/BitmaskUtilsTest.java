@@ -62,6 +62,30 @@ public class BitmaskUtilsTest
 				BitmaskUtils.generateCompositeBitmask(8)));
 	}
 
+	@Test
+	public void testFieldPositionSet() {
+		final byte[] bitmask = BitmaskUtils.generateCompositeBitmask(new TreeSet<Integer>(
+				Arrays.asList(
+						1,
+						9)));
+		Assert.assertTrue(BitmaskUtils.isFieldPositionSet(
+				bitmask,
+				1));
+		Assert.assertTrue(BitmaskUtils.isFieldPositionSet(
+				bitmask,
+				9));
+		Assert.assertFalse(BitmaskUtils.isFieldPositionSet(
+				bitmask,
+				0));
+		Assert.assertFalse(BitmaskUtils.isFieldPositionSet(
+				bitmask,
+				8));
+		// positions beyond the bitmask are not set
+		Assert.assertFalse(BitmaskUtils.isFieldPositionSet(
+				bitmask,
+				17));
+	}
+
 	@Test
 	public void testByteSize() {
 
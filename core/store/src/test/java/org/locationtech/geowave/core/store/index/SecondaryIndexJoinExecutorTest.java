@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.index;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.store.CloseableIterator;
+
+public class SecondaryIndexJoinExecutorTest
+{
+	private static final ByteArrayId INDEX_A = new ByteArrayId(
+			"a");
+	private static final ByteArrayId INDEX_B = new ByteArrayId(
+			"b");
+
+	@Test
+	public void testCoalesce() {
+		Assert.assertEquals(
+				Arrays.asList(
+						new ByteArrayId(
+								"r1"),
+						new ByteArrayId(
+								"r2"),
+						new ByteArrayId(
+								"s")),
+				SecondaryIndexJoinExecutor.coalesce(Arrays.asList(
+						new ByteArrayId(
+								"s"),
+						new ByteArrayId(
+								"r2"),
+						new ByteArrayId(
+								"r1"),
+						new ByteArrayId(
+								"r2"),
+						new ByteArrayId(
+								"r1x"))));
+	}
+
+	@Test
+	public void testBatchedJoin()
+			throws IOException {
+		final List<Pair<ByteArrayId, ByteArrayId>> hits = new ArrayList<>();
+		for (int i = 9; i >= 0; i--) {
+			hits.add(Pair.of(
+					(i % 2) == 0 ? INDEX_A : INDEX_B,
+					new ByteArrayId(
+							"row" + i)));
+		}
+		final List<List<ByteArrayId>> fetches = new ArrayList<>();
+		final Set<String> results = new HashSet<>();
+		final boolean[] closed = new boolean[1];
+		try (SecondaryIndexJoinExecutor<String> executor = new SecondaryIndexJoinExecutor<>(
+				new CloseableIterator.Wrapper<Pair<ByteArrayId, ByteArrayId>>(
+						hits.iterator()) {
+					@Override
+					public void close() {
+						closed[0] = true;
+					}
+				},
+				(primaryIndexId, rowIds) -> {
+					fetches.add(rowIds);
+					final List<String> rows = new ArrayList<>();
+					for (final ByteArrayId rowId : rowIds) {
+						rows.add(primaryIndexId.getString() + ":" + rowId.getString());
+					}
+					return new CloseableIterator.Wrapper<>(
+							rows.iterator());
+				},
+				4)) {
+			while (executor.hasNext()) {
+				results.add(executor.next());
+			}
+		}
+		Assert.assertEquals(
+				10,
+				results.size());
+		Assert.assertTrue(results.contains("a:row0"));
+		Assert.assertTrue(results.contains("b:row9"));
+		// batches of 4, 4 and 2 hits, each fetched once per primary index
+		Assert.assertEquals(
+				6,
+				fetches.size());
+		Assert.assertEquals(
+				Arrays.asList(
+						new ByteArrayId(
+								"row7"),
+						new ByteArrayId(
+								"row9")),
+				fetches.get(0));
+		Assert.assertTrue(closed[0]);
+	}
+
+	@Test
+	public void testRowFetchedOnceAcrossBatches()
+			throws IOException {
+		// row1 is hit in the first and the last batch of 2 hits
+		final List<Pair<ByteArrayId, ByteArrayId>> hits = Arrays.asList(
+				Pair.of(
+						INDEX_A,
+						new ByteArrayId(
+								"row1")),
+				Pair.of(
+						INDEX_A,
+						new ByteArrayId(
+								"row2")),
+				Pair.of(
+						INDEX_A,
+						new ByteArrayId(
+								"row3")),
+				Pair.of(
+						INDEX_B,
+						new ByteArrayId(
+								"row1")),
+				Pair.of(
+						INDEX_A,
+						new ByteArrayId(
+								"row1")));
+		final List<String> results = new ArrayList<>();
+		try (SecondaryIndexJoinExecutor<String> executor = new SecondaryIndexJoinExecutor<>(
+				new CloseableIterator.Wrapper<>(
+						hits.iterator()),
+				(primaryIndexId, rowIds) -> {
+					final List<String> rows = new ArrayList<>();
+					for (final ByteArrayId rowId : rowIds) {
+						rows.add(primaryIndexId.getString() + ":" + rowId.getString());
+					}
+					return new CloseableIterator.Wrapper<>(
+							rows.iterator());
+				},
+				2)) {
+			while (executor.hasNext()) {
+				results.add(executor.next());
+			}
+		}
+		// the same row ID in another primary index is a different row
+		Assert.assertEquals(
+				Arrays.asList(
+						"a:row1",
+						"a:row2",
+						"a:row3",
+						"b:row1"),
+				results);
+	}
+}
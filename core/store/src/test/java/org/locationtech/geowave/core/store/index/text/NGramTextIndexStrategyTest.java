@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.index.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.store.index.PostingListIntersection;
+
+public class NGramTextIndexStrategyTest
+{
+	private final NGramTextIndexStrategy strategy = new NGramTextIndexStrategy(
+			3,
+			false);
+	private final ByteArrayId fieldId = new ByteArrayId(
+			"fieldId");
+
+	@Test
+	public void testInsertions() {
+		final List<ByteArrayId> ids = strategy.getInsertionIds(
+				"Queen Mary").getCompositeInsertionIds();
+		Assert.assertTrue(ids.contains(new ByteArrayId(
+				"que")));
+		Assert.assertTrue(ids.contains(new ByteArrayId(
+				"n m")));
+		Assert.assertTrue(ids.contains(new ByteArrayId(
+				"ary")));
+		// trailing suffixes shorter than the gram length
+		Assert.assertTrue(ids.contains(new ByteArrayId(
+				"ry")));
+		Assert.assertTrue(ids.contains(new ByteArrayId(
+				"y")));
+		Assert.assertFalse(ids.contains(new ByteArrayId(
+				"Que")));
+		Assert.assertEquals(
+				10,
+				ids.size());
+		Assert.assertTrue(strategy.getInsertionIds(
+				null).getCompositeInsertionIds().isEmpty());
+	}
+
+	@Test
+	public void testQueryGrams() {
+		final List<ByteArrayId> grams = strategy.getQueryGrams(new TextLikeConstraint(
+				fieldId,
+				"%EEN_m%",
+				false));
+		Assert.assertEquals(
+				Arrays.asList(
+						new ByteArrayId(
+								"een"),
+						new ByteArrayId(
+								"m")),
+				grams);
+		final List<ByteArrayRange> ranges = strategy.getQueryRanges(
+				new TextLikeConstraint(
+						fieldId,
+						"%mary%",
+						false)).getCompositeQueryRanges();
+		Assert.assertEquals(
+				2,
+				ranges.size());
+		// no literal text to look up
+		Assert.assertNull(strategy.getQueryGrams(new TextLikeConstraint(
+				fieldId,
+				"%_%",
+				false)));
+		// a case-sensitive index can't answer a case-insensitive query
+		Assert.assertNull(new NGramTextIndexStrategy(
+				3,
+				true).getQueryGrams(new TextQueryConstraint(
+				fieldId,
+				"mary",
+				false)));
+	}
+
+	@Test
+	public void testShortFragmentMatchesSuffix() {
+		// every occurrence of a short fragment is the prefix of some key
+		final List<ByteArrayId> ids = strategy.getInsertionIds(
+				"abcd").getCompositeInsertionIds();
+		for (final ByteArrayId gram : strategy.getQueryGrams(new TextLikeConstraint(
+				fieldId,
+				"%cd",
+				false))) {
+			boolean found = false;
+			for (final ByteArrayId id : ids) {
+				if (id.getString().startsWith(
+						gram.getString())) {
+					found = true;
+				}
+			}
+			Assert.assertTrue(found);
+		}
+	}
+
+	@Test
+	public void testIntersection() {
+		final Map<ByteArrayId, List<ByteArrayId>> postings = getPostings(
+				"QUEEN MARY",
+				"MARY ROSE",
+				"QUEEN ELIZABETH",
+				"ROSEMARY");
+		final TextLikeConstraint constraint = new TextLikeConstraint(
+				fieldId,
+				"%mary%",
+				false);
+		final List<Iterator<ByteArrayId>> lists = new ArrayList<>();
+		for (final ByteArrayId gram : strategy.getQueryGrams(constraint)) {
+			lists.add(postings.get(
+					gram).iterator());
+		}
+		final Set<ByteArrayId> matches = PostingListIntersection.intersect(lists);
+		Assert.assertEquals(
+				3,
+				matches.size());
+		Assert.assertFalse(matches.contains(new ByteArrayId(
+				"QUEEN ELIZABETH")));
+		Assert.assertEquals(
+				3,
+				strategy.estimateCardinality(
+						constraint,
+						gram -> postings.get(
+								gram).size()));
+	}
+
+	@Test
+	public void testOrderedIntersection() {
+		final Map<ByteArrayId, List<ByteArrayId>> postings = getPostings(
+				"QUEEN MARY",
+				"MARY ROSE",
+				"QUEEN ELIZABETH",
+				"ROSEMARY",
+				"MARY QUEEN");
+		final TextLikeConstraint constraint = new TextLikeConstraint(
+				fieldId,
+				"%queen%mary%",
+				false);
+		final List<ByteArrayId> grams = strategy.getQueryGrams(constraint);
+		Assert.assertEquals(
+				5,
+				grams.size());
+		final List<ByteArrayId> opened = new ArrayList<>();
+		final Set<ByteArrayId> matches = PostingListIntersection.intersect(
+				grams,
+				gram -> strategy.estimateCardinality(
+						Collections.singletonList(gram),
+						g -> postings.get(
+								g).size()),
+				gram -> {
+					opened.add(gram);
+					return postings.get(
+							gram).iterator();
+				});
+		// grams don't preserve order, the filter rejects "MARY QUEEN"
+		Assert.assertEquals(
+				2,
+				matches.size());
+		Assert.assertTrue(matches.contains(new ByteArrayId(
+				"QUEEN MARY")));
+		Assert.assertTrue(matches.contains(new ByteArrayId(
+				"MARY QUEEN")));
+		// "que" is in 3 values, "mar" in 4, the smallest list is read first
+		Assert.assertEquals(
+				new ByteArrayId(
+						"que"),
+				opened.get(0));
+		Assert.assertEquals(
+				5,
+				opened.size());
+
+		// an empty posting list stops the intersection
+		opened.clear();
+		postings.put(
+				new ByteArrayId(
+						"zzz"),
+				Collections.<ByteArrayId> emptyList());
+		final List<ByteArrayId> noMatchGrams = strategy.getQueryGrams(new TextLikeConstraint(
+				fieldId,
+				"%mary%zzz%",
+				false));
+		Assert.assertTrue(PostingListIntersection.intersect(
+				noMatchGrams,
+				gram -> postings.get(
+						gram).size(),
+				gram -> {
+					opened.add(gram);
+					return postings.get(
+							gram).iterator();
+				}).isEmpty());
+		Assert.assertEquals(
+				Collections.singletonList(new ByteArrayId(
+						"zzz")),
+				opened);
+	}
+
+	@Test
+	public void testShortGramEstimate() {
+		// a short gram is a prefix of longer grams, its own count is no bound
+		Assert.assertEquals(
+				Long.MAX_VALUE,
+				strategy.estimateCardinality(
+						Collections.singletonList(new ByteArrayId(
+								"ry")),
+						gram -> 1L));
+		Assert.assertEquals(
+				4,
+				strategy.estimateCardinality(
+						Arrays.asList(
+								new ByteArrayId(
+										"ry"),
+								new ByteArrayId(
+										"mar")),
+						gram -> gram.getString().length() + 1L));
+	}
+
+	private Map<ByteArrayId, List<ByteArrayId>> getPostings(
+			final String... values ) {
+		final Map<ByteArrayId, List<ByteArrayId>> postings = new HashMap<>();
+		for (final String value : values) {
+			for (final ByteArrayId gram : strategy.getInsertionIds(
+					value).getCompositeInsertionIds()) {
+				List<ByteArrayId> posting = postings.get(gram);
+				if (posting == null) {
+					posting = new ArrayList<>();
+					postings.put(
+							gram,
+							posting);
+				}
+				posting.add(new ByteArrayId(
+						value));
+			}
+		}
+		return postings;
+	}
+
+	@Test
+	public void testLikeFilter() {
+		final TextLikeFilter filter = (TextLikeFilter) PersistenceUtils.fromBinary(PersistenceUtils
+				.toBinary(new TextLikeConstraint(
+						fieldId,
+						"%queen_m%",
+						false).getFilter()));
+		Assert.assertTrue(filter.matches("QUEEN MARY"));
+		Assert.assertFalse(filter.matches("QUEEN ELIZABETH"));
+		final TextLikeFilter escaped = new TextLikeFilter(
+				fieldId,
+				"100\\%",
+				true);
+		Assert.assertTrue(escaped.matches("100%"));
+		Assert.assertFalse(escaped.matches("1000"));
+	}
+
+	@Test
+	public void testPersistence() {
+		final NGramTextIndexStrategy copy = (NGramTextIndexStrategy) PersistenceUtils.fromBinary(PersistenceUtils
+				.toBinary(new NGramTextIndexStrategy(
+						4,
+						true)));
+		Assert.assertEquals(
+				4,
+				copy.getGramLength());
+		Assert.assertTrue(copy.isCaseSensitive());
+	}
+}
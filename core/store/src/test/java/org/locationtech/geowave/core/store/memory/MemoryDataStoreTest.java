@@ -15,6 +15,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
@@ -22,10 +23,15 @@ import java.util.List;
 
 import org.junit.Test;
 import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.IndexMetaData;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
 import org.locationtech.geowave.core.index.sfc.data.BasicNumericDataset;
 import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
 import org.locationtech.geowave.core.index.sfc.data.NumericData;
 import org.locationtech.geowave.core.index.sfc.data.NumericRange;
+import org.locationtech.geowave.core.store.BaseDataStoreOptions;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.DataStore;
 import org.locationtech.geowave.core.store.IndexWriter;
@@ -52,6 +58,10 @@ import org.locationtech.geowave.core.store.memory.MemoryStoreFactoryFamily;
 import org.locationtech.geowave.core.store.query.DataIdQuery;
 import org.locationtech.geowave.core.store.query.Query;
 import org.locationtech.geowave.core.store.query.QueryOptions;
+import org.locationtech.geowave.core.store.query.aggregate.Aggregation;
+import org.locationtech.geowave.core.store.query.aggregate.CountAggregation;
+import org.locationtech.geowave.core.store.query.aggregate.CountResult;
+import org.locationtech.geowave.core.store.query.aggregate.DataStatisticsAggregation;
 
 public class MemoryDataStoreTest
 {
@@ -465,6 +475,146 @@ public class MemoryDataStoreTest
 		return true;
 	}
 
+	@Test
+	public void testParallelAggregation()
+			throws IOException,
+			MismatchedIndexToAdapterMapping {
+		final PrimaryIndex index = new PrimaryIndex(
+				new RangePerValueIndexStrategy(),
+				new MockComponents.TestIndexModel(
+						"tm3"));
+		final String namespace = "test3_" + getClass().getName();
+		final StoreFactoryFamilySpi storeFamily = new MemoryStoreFactoryFamily();
+		final MemoryRequiredOptions opts = new MemoryRequiredOptions();
+		opts.setGeowaveNamespace(namespace);
+		final DataStore dataStore = storeFamily.getDataStoreFactory().createStore(
+				opts);
+		final WritableDataAdapter<Integer> adapter = new MockComponents.MockAbstractDataAdapter();
+		try (final IndexWriter indexWriter = dataStore.createWriter(
+				adapter,
+				index)) {
+			for (int i = 0; i < 100; i++) {
+				indexWriter.write(new Integer(
+						i));
+			}
+		}
+
+		final BaseDataStoreOptions storeOptions = (BaseDataStoreOptions) opts.getStoreOptions();
+		// parallel aggregation is opt-in
+		assertEquals(
+				1,
+				storeOptions.getAggregationParallelism());
+		final CountResult sequentialCount = (CountResult) aggregate(
+				dataStore,
+				adapter,
+				index,
+				new CountAggregation());
+		final IntegerRangeDataStatistics sequentialRange = (IntegerRangeDataStatistics) aggregate(
+				dataStore,
+				adapter,
+				index,
+				new DataStatisticsAggregation<Integer>(
+						rangeStatistics()));
+
+		storeOptions.setAggregationParallelism(4);
+		final CountResult parallelCount = (CountResult) aggregate(
+				dataStore,
+				adapter,
+				index,
+				new CountAggregation());
+		final IntegerRangeDataStatistics parallelRange = (IntegerRangeDataStatistics) aggregate(
+				dataStore,
+				adapter,
+				index,
+				new DataStatisticsAggregation<Integer>(
+						rangeStatistics()));
+
+		assertEquals(
+				80,
+				sequentialCount.getCount());
+		assertEquals(
+				sequentialCount.getCount(),
+				parallelCount.getCount());
+		assertEquals(
+				10,
+				sequentialRange.getMin(),
+				0);
+		assertEquals(
+				89,
+				sequentialRange.getMax(),
+				0);
+		assertEquals(
+				sequentialRange.getMin(),
+				parallelRange.getMin(),
+				0);
+		assertEquals(
+				sequentialRange.getMax(),
+				parallelRange.getMax(),
+				0);
+	}
+
+	private static IntegerRangeDataStatistics rangeStatistics() {
+		final IntegerRangeDataStatistics statistics = new IntegerRangeDataStatistics(
+				new ByteArrayId(
+						"range"));
+		statistics.setInternalDataAdapterId((short) 0);
+		return statistics;
+	}
+
+	private Object aggregate(
+			final DataStore dataStore,
+			final WritableDataAdapter<Integer> adapter,
+			final PrimaryIndex index,
+			final Aggregation<?, ?, ?> aggregation )
+			throws IOException {
+		final QueryOptions queryOptions = new QueryOptions(
+				adapter,
+				index);
+		queryOptions.setAggregation(
+				aggregation,
+				adapter);
+		try (CloseableIterator<?> it = dataStore.query(
+				queryOptions,
+				new TestQuery(
+						10,
+						90))) {
+			assertTrue(it.hasNext());
+			final Object result = it.next();
+			assertFalse(it.hasNext());
+			return result;
+		}
+	}
+
+	/**
+	 * Decomposes a query into one range per integer value so that the ranges
+	 * can be read in parallel groups.
+	 */
+	private static class RangePerValueIndexStrategy extends
+			MockComponents.MockIndexStrategy
+	{
+		@Override
+		public QueryRanges getQueryRanges(
+				final MultiDimensionalNumericData indexedRange,
+				final int maxEstimatedRangeDecomposition,
+				final IndexMetaData... hints ) {
+			final NumericData range = indexedRange.getDataPerDimension()[0];
+			final List<ByteArrayRange> ranges = new ArrayList<ByteArrayRange>();
+			for (int i = (int) Math.ceil(range.getMin()); i <= range.getMax(); i++) {
+				final ByteArrayId id = new ByteArrayId(
+						Double.toString(
+								i).getBytes());
+				ranges.add(new ByteArrayRange(
+						id,
+						id));
+			}
+			return new QueryRanges(
+					Collections.singletonList(new SinglePartitionQueryRanges(
+							new ByteArrayId(
+									new byte[0]),
+							ranges)));
+		}
+	}
+
 	private class TestQueryFilter implements
 			QueryFilter
 	{
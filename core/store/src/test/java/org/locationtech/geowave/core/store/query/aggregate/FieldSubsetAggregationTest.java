@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.store.adapter.AbstractDataAdapter;
+import org.locationtech.geowave.core.store.adapter.IndexFieldHandler;
+import org.locationtech.geowave.core.store.adapter.IndexedAdapterPersistenceEncoding;
+import org.locationtech.geowave.core.store.adapter.InternalDataAdapterWrapper;
+import org.locationtech.geowave.core.store.adapter.MockComponents;
+import org.locationtech.geowave.core.store.adapter.MockComponents.TestIndexFieldType;
+import org.locationtech.geowave.core.store.adapter.NativeFieldHandler;
+import org.locationtech.geowave.core.store.adapter.NativeFieldHandler.RowBuilder;
+import org.locationtech.geowave.core.store.base.BaseDataStoreUtils;
+import org.locationtech.geowave.core.store.data.DeferredReadCommonIndexedPersistenceEncoding;
+import org.locationtech.geowave.core.store.data.PersistentDataset;
+import org.locationtech.geowave.core.store.data.PersistentValue;
+import org.locationtech.geowave.core.store.data.UnreadFieldDataList;
+import org.locationtech.geowave.core.store.data.visibility.GlobalVisibilityHandler;
+import org.locationtech.geowave.core.store.data.visibility.UniformVisibilityWriter;
+import org.locationtech.geowave.core.store.data.field.FieldReader;
+import org.locationtech.geowave.core.store.data.field.FieldUtils;
+import org.locationtech.geowave.core.store.data.field.FieldWriter;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.flatten.BitmaskUtils;
+import org.locationtech.geowave.core.store.flatten.FlattenedUnreadData;
+import org.locationtech.geowave.core.store.index.CommonIndexModel;
+import org.locationtech.geowave.core.store.index.CommonIndexValue;
+import org.locationtech.geowave.core.store.index.PrimaryIndex;
+import org.locationtech.geowave.core.store.util.DataStoreUtils;
+
+/**
+ * Decodes stored rows the way the server-side aggregation iterators do, with
+ * and without the field subset of a FieldSubsetAggregation, and checks that the
+ * projection changes what is deserialized but not the aggregation result.
+ */
+public class FieldSubsetAggregationTest
+{
+	private static final PrimaryIndex INDEX = new PrimaryIndex(
+			new MockComponents.MockIndexStrategy(),
+			new MockComponents.TestIndexModel());
+
+	private static class MapGroupByAggregation extends
+			GroupByAggregation<Map<String, Object>>
+	{
+		public MapGroupByAggregation(
+				final GroupByParameters parameters ) {
+			super(
+					parameters);
+		}
+
+		@Override
+		protected Object getFieldValue(
+				final Map<String, Object> entry,
+				final String fieldName ) {
+			return entry.get(fieldName);
+		}
+	}
+
+	@Test
+	public void testProjectedDecodeMatchesFullDecode() {
+		final MapAdapter adapter = new MapAdapter();
+		final InternalDataAdapterWrapper<Map<String, Object>> internalAdapter = new InternalDataAdapterWrapper<>(
+				adapter,
+				(short) 1);
+		final MapGroupByAggregation projected = new MapGroupByAggregation(
+				new GroupByParameters(
+						"value",
+						"type",
+						"time",
+						100,
+						10));
+		final MapGroupByAggregation full = new MapGroupByAggregation(
+				projected.getParameters());
+		final byte[] fieldSubsetBitmask = BitmaskUtils.generateFieldSubsetBitmask(
+				INDEX.getIndexModel(),
+				projected.getFieldIds(),
+				adapter);
+
+		for (int i = 0; i < 50; i++) {
+			final Map<String, Object> entry = new HashMap<>();
+			entry.put(
+					"id",
+					i);
+			entry.put(
+					"type",
+					(i % 3) == 0 ? "a" : "b");
+			entry.put(
+					"time",
+					(long) i * 7);
+			entry.put(
+					"value",
+					i * 1.5);
+			entry.put(
+					"comment",
+					"entry " + i);
+			for (final GeoWaveRow row : BaseDataStoreUtils.getGeoWaveRows(
+					entry,
+					internalAdapter,
+					INDEX,
+					// a shared visibility flattens all of the fields into one
+					// value
+					new UniformVisibilityWriter<Map<String, Object>>(
+							new GlobalVisibilityHandler<Map<String, Object>, Object>(
+									"a")))) {
+				final Map<String, Object> projectedEntry = decode(
+						row,
+						adapter,
+						fieldSubsetBitmask);
+				final Map<String, Object> fullEntry = decode(
+						row,
+						adapter,
+						null);
+				// the fields outside of the subset are never deserialized
+				assertFalse(projectedEntry.containsKey("comment"));
+				assertFalse(projectedEntry.containsKey("id"));
+				assertEquals(
+						entry,
+						fullEntry);
+				for (final String fieldName : new String[] {
+					"type",
+					"time",
+					"value"
+				}) {
+					assertEquals(
+							fullEntry.get(fieldName),
+							projectedEntry.get(fieldName));
+				}
+				projected.aggregate(projectedEntry);
+				full.aggregate(fullEntry);
+			}
+		}
+		assertTrue(full.getResult().getGroups().size() > 1);
+		assertArrayEquals(
+				PersistenceUtils.toBinary(full.getResult()),
+				PersistenceUtils.toBinary(projected.getResult()));
+	}
+
+	private static Map<String, Object> decode(
+			final GeoWaveRow row,
+			final MapAdapter adapter,
+			final byte[] fieldSubsetBitmask ) {
+		final CommonIndexModel model = INDEX.getIndexModel();
+		final PersistentDataset<CommonIndexValue> commonData = new PersistentDataset<>();
+		final List<FlattenedUnreadData> unreadData = new ArrayList<>();
+		for (final GeoWaveValue value : row.getFieldValues()) {
+			final FlattenedUnreadData unread = DataStoreUtils.aggregateFieldData(
+					row,
+					value,
+					commonData,
+					model,
+					DataStoreUtils.getUniqueDimensionFields(model));
+			if (unread != null) {
+				unreadData.add(unread);
+			}
+		}
+		final DeferredReadCommonIndexedPersistenceEncoding encoding = new DeferredReadCommonIndexedPersistenceEncoding(
+				row.getInternalAdapterId(),
+				new ByteArrayId(
+						row.getDataId()),
+				new ByteArrayId(
+						row.getPartitionKey()),
+				new ByteArrayId(
+						row.getSortKey()),
+				row.getNumberOfDuplicates(),
+				commonData,
+				unreadData.isEmpty() ? null : new UnreadFieldDataList(
+						unreadData));
+		encoding.convertUnknownValues(
+				adapter,
+				model,
+				fieldSubsetBitmask);
+		return adapter.decode(
+				new IndexedAdapterPersistenceEncoding(
+						encoding.getInternalAdapterId(),
+						encoding.getDataId(),
+						encoding.getInsertionPartitionKey(),
+						encoding.getInsertionSortKey(),
+						encoding.getDuplicateCount(),
+						encoding.getCommonData(),
+						new PersistentDataset<byte[]>(),
+						encoding.getAdapterExtendedData()),
+				INDEX);
+	}
+
+	/**
+	 * An adapter of maps with an integer "id" field (which is also the common
+	 * index value) and several extended fields.
+	 */
+	private static class MapAdapter extends
+			AbstractDataAdapter<Map<String, Object>>
+	{
+		private static final String[] FIELDS = new String[] {
+			"id",
+			"type",
+			"time",
+			"value",
+			"comment"
+		};
+		private static final Class<?>[] FIELD_CLASSES = new Class<?>[] {
+			Integer.class,
+			String.class,
+			Long.class,
+			Double.class,
+			String.class
+		};
+
+		public MapAdapter() {
+			super(
+					new ArrayList<>(),
+					new ArrayList<>());
+			for (final String fieldName : FIELDS) {
+				nativeFieldHandlers.add(new NativeFieldHandler<Map<String, Object>, Object>() {
+					@Override
+					public ByteArrayId getFieldId() {
+						return new ByteArrayId(
+								fieldName);
+					}
+
+					@Override
+					public Object getFieldValue(
+							final Map<String, Object> row ) {
+						return row.get(fieldName);
+					}
+				});
+			}
+			final List<IndexFieldHandler<Map<String, Object>, TestIndexFieldType, Object>> handlers = new ArrayList<>();
+			handlers.add(new IndexFieldHandler<Map<String, Object>, TestIndexFieldType, Object>() {
+				@Override
+				public ByteArrayId[] getNativeFieldIds() {
+					// the id is also stored as an extended field
+					return new ByteArrayId[0];
+				}
+
+				@Override
+				public TestIndexFieldType toIndexValue(
+						final Map<String, Object> row ) {
+					return new TestIndexFieldType(
+							(Integer) row.get("id"));
+				}
+
+				@SuppressWarnings("unchecked")
+				@Override
+				public PersistentValue<Object>[] toNativeValues(
+						final TestIndexFieldType indexValue ) {
+					return new PersistentValue[0];
+				}
+			});
+			init(
+					handlers,
+					null);
+		}
+
+		@Override
+		public ByteArrayId getAdapterId() {
+			return new ByteArrayId(
+					"MapAdapter");
+		}
+
+		@Override
+		public boolean isSupported(
+				final Map<String, Object> entry ) {
+			return true;
+		}
+
+		@Override
+		public ByteArrayId getDataId(
+				final Map<String, Object> entry ) {
+			return new ByteArrayId(
+					"id" + entry.get("id"));
+		}
+
+		private static int getFieldIndex(
+				final ByteArrayId fieldId ) {
+			for (int i = 0; i < FIELDS.length; i++) {
+				if (FIELDS[i].equals(fieldId.getString())) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		@SuppressWarnings({
+			"unchecked",
+			"rawtypes"
+		})
+		@Override
+		public FieldReader getReader(
+				final ByteArrayId fieldId ) {
+			final int i = getFieldIndex(fieldId);
+			return i < 0 ? null : FieldUtils.getDefaultReaderForClass(FIELD_CLASSES[i]);
+		}
+
+		@SuppressWarnings({
+			"unchecked",
+			"rawtypes"
+		})
+		@Override
+		public FieldWriter getWriter(
+				final ByteArrayId fieldId ) {
+			final int i = getFieldIndex(fieldId);
+			return i < 0 ? null : FieldUtils.getDefaultWriterForClass(FIELD_CLASSES[i]);
+		}
+
+		@Override
+		public int getPositionOfOrderedField(
+				final CommonIndexModel model,
+				final ByteArrayId fieldId ) {
+			for (int i = 0; i < model.getDimensions().length; i++) {
+				if (fieldId.equals(model.getDimensions()[i].getFieldId())) {
+					return i;
+				}
+			}
+			final int i = getFieldIndex(fieldId);
+			return i < 0 ? -1 : model.getDimensions().length + i;
+		}
+
+		@Override
+		public ByteArrayId getFieldIdForPosition(
+				final CommonIndexModel model,
+				final int position ) {
+			if (position < model.getDimensions().length) {
+				return model.getDimensions()[position].getFieldId();
+			}
+			final int i = position - model.getDimensions().length;
+			return i < FIELDS.length ? new ByteArrayId(
+					FIELDS[i]) : null;
+		}
+
+		@Override
+		public void init(
+				final PrimaryIndex... indices ) {}
+
+		@Override
+		protected RowBuilder<Map<String, Object>, Object> newBuilder() {
+			return new RowBuilder<Map<String, Object>, Object>() {
+				private final Map<String, Object> row = new HashMap<>();
+
+				@Override
+				public void setField(
+						final ByteArrayId id,
+						final Object fieldValue ) {
+					row.put(
+							id.getString(),
+							fieldValue);
+				}
+
+				@Override
+				public void setFields(
+						final Map<ByteArrayId, Object> values ) {
+					for (final Entry<ByteArrayId, Object> value : values.entrySet()) {
+						setField(
+								value.getKey(),
+								value.getValue());
+					}
+				}
+
+				@Override
+				public Map<String, Object> buildRow(
+						final ByteArrayId dataId ) {
+					return row;
+				}
+			};
+		}
+	}
+}
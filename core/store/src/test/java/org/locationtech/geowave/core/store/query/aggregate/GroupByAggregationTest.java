@@ -0,0 +1,268 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.aggregate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.store.query.aggregate.GroupByResult.GroupKey;
+
+public class GroupByAggregationTest
+{
+	private static class MapGroupByAggregation extends
+			GroupByAggregation<Map<String, Object>>
+	{
+		public MapGroupByAggregation(
+				final GroupByParameters parameters ) {
+			super(
+					parameters);
+		}
+
+		@Override
+		protected Object getFieldValue(
+				final Map<String, Object> entry,
+				final String fieldName ) {
+			return entry.get(fieldName);
+		}
+	}
+
+	private static class MapTopKAggregation extends
+			TopKAggregation<Map<String, Object>>
+	{
+		public MapTopKAggregation(
+				final TopKParameters parameters ) {
+			super(
+					parameters);
+		}
+
+		@Override
+		protected Object getFieldValue(
+				final Map<String, Object> entry,
+				final String fieldName ) {
+			return entry.get(fieldName);
+		}
+	}
+
+	private static Map<String, Object> entry(
+			final String type,
+			final long time,
+			final Double value ) {
+		final Map<String, Object> entry = new HashMap<>();
+		entry.put(
+				"type",
+				type);
+		entry.put(
+				"time",
+				time);
+		entry.put(
+				"value",
+				value);
+		return entry;
+	}
+
+	@Test
+	public void testGroupByTimeBucket() {
+		final MapGroupByAggregation aggregation = new MapGroupByAggregation(
+				new GroupByParameters(
+						"value",
+						"type",
+						"time",
+						100,
+						10));
+		assertNull(aggregation.getResult());
+		aggregation.aggregate(entry(
+				"a",
+				10,
+				1.0));
+		aggregation.aggregate(entry(
+				"a",
+				90,
+				3.0));
+		aggregation.aggregate(entry(
+				"a",
+				150,
+				5.0));
+		aggregation.aggregate(entry(
+				"b",
+				20,
+				null));
+		final Map<GroupKey, NumericStatsResult> groups = aggregation.getResult().getGroups();
+		assertEquals(
+				3,
+				groups.size());
+		final NumericStatsResult a0 = groups.get(new GroupKey(
+				"a",
+				0L));
+		assertEquals(
+				2,
+				a0.getCount());
+		assertEquals(
+				4.0,
+				a0.getSum(),
+				0.0);
+		assertEquals(
+				1.0,
+				a0.getMin(),
+				0.0);
+		assertEquals(
+				3.0,
+				a0.getMax(),
+				0.0);
+		assertEquals(
+				2.0,
+				a0.getMean(),
+				0.0);
+		assertEquals(
+				1,
+				groups.get(
+						new GroupKey(
+								"a",
+								100L)).getCount());
+		final NumericStatsResult b0 = groups.get(new GroupKey(
+				"b",
+				0L));
+		assertEquals(
+				1,
+				b0.getCount());
+		assertEquals(
+				0,
+				b0.getValueCount());
+		assertEquals(
+				3,
+				aggregation.getFieldIds().size());
+	}
+
+	@Test
+	public void testGroupByMergeAndSerialization() {
+		final GroupByParameters parameters = new GroupByParameters(
+				"value",
+				"type",
+				null,
+				0,
+				2);
+		final MapGroupByAggregation first = new MapGroupByAggregation(
+				parameters);
+		first.aggregate(entry(
+				"a",
+				0,
+				1.0));
+		first.aggregate(entry(
+				"b",
+				0,
+				2.0));
+		final MapGroupByAggregation second = new MapGroupByAggregation(
+				(GroupByParameters) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(parameters)));
+		second.aggregate(entry(
+				"b",
+				0,
+				4.0));
+		second.aggregate(entry(
+				"c",
+				0,
+				8.0));
+		final GroupByResult result = first.getResult();
+		result.merge((Mergeable) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(second.getResult())));
+		// only two groups are kept, "c" goes into the overflow
+		assertEquals(
+				2,
+				result.getGroups().size());
+		assertEquals(
+				6.0,
+				result.getGroups().get(
+						new GroupKey(
+								"b",
+								null)).getSum(),
+				0.0);
+		assertEquals(
+				1,
+				result.getOverflow().getCount());
+		assertEquals(
+				8.0,
+				result.getOverflow().getMax(),
+				0.0);
+		final GroupByResult copy = (GroupByResult) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(result));
+		assertEquals(
+				result.getGroups().toString(),
+				copy.getGroups().toString());
+		assertEquals(
+				4,
+				copy.getTotal().getCount());
+		assertEquals(
+				15.0,
+				copy.getTotal().getSum(),
+				0.0);
+	}
+
+	@Test
+	public void testTopK() {
+		final TopKParameters parameters = new TopKParameters(
+				"type",
+				2,
+				3);
+		final MapTopKAggregation first = new MapTopKAggregation(
+				parameters);
+		final MapTopKAggregation second = new MapTopKAggregation(
+				parameters);
+		// "a" is most frequent and "b" second, the remaining values are noise
+		for (int i = 0; i < 50; i++) {
+			first.aggregate(entry(
+					"a",
+					0,
+					null));
+			second.aggregate(entry(
+					i % 2 == 0 ? "a" : "b",
+					0,
+					null));
+			if ((i % 5) == 0) {
+				first.aggregate(entry(
+						"b",
+						0,
+						null));
+			}
+			first.aggregate(entry(
+					"noise" + i,
+					0,
+					null));
+		}
+		final TopKResult result = first.getResult();
+		result.merge((Mergeable) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(second.getResult())));
+		final List<TopKResult.Counter> topK = result.getTopK();
+		assertEquals(
+				2,
+				topK.size());
+		assertEquals(
+				"a",
+				topK.get(
+						0).getValue());
+		assertEquals(
+				"b",
+				topK.get(
+						1).getValue());
+		// counts are upper bounds within the reported error
+		final TopKResult.Counter a = topK.get(0);
+		assertEquals(
+				75,
+				a.getCount() - a.getError(),
+				a.getError());
+		final TopKResult.Counter b = topK.get(1);
+		assertEquals(
+				35,
+				b.getCount() - b.getError(),
+				b.getError());
+	}
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.query.plan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.NumericIndexStrategy;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.dimension.BasicDimensionDefinition;
+import org.locationtech.geowave.core.index.sfc.SFCDimensionDefinition;
+import org.locationtech.geowave.core.index.sfc.SFCFactory.SFCType;
+import org.locationtech.geowave.core.index.sfc.data.BasicNumericDataset;
+import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericRange;
+import org.locationtech.geowave.core.index.sfc.tiered.TieredSFCIndexFactory;
+import org.locationtech.geowave.core.store.index.CustomIdIndex;
+import org.locationtech.geowave.core.store.index.BasicIndexModel;
+import org.locationtech.geowave.core.store.index.PrimaryIndex;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimate.EstimateSource;
+
+public class QueryPlanTest
+{
+	private static final NumericIndexStrategy STRATEGY = TieredSFCIndexFactory.createSingleTierStrategy(
+			new SFCDimensionDefinition[] {
+				new SFCDimensionDefinition(
+						new BasicDimensionDefinition(
+								0,
+								100),
+						10),
+				new SFCDimensionDefinition(
+						new BasicDimensionDefinition(
+								0,
+								100),
+						10)
+			},
+			SFCType.HILBERT);
+
+	private static List<MultiDimensionalNumericData> constraints(
+			final double min,
+			final double max ) {
+		return Collections.<MultiDimensionalNumericData> singletonList(new BasicNumericDataset(
+				new NumericData[] {
+					new NumericRange(
+							min,
+							max),
+					new NumericRange(
+							min,
+							max)
+				}));
+	}
+
+	@Test
+	public void testRangesAreCached() {
+		QueryRangesCache.invalidateAll();
+		assertFalse(QueryRangesCache.isCached(
+				constraints(
+						10,
+						20),
+				STRATEGY,
+				100));
+		final QueryRanges first = QueryRangesCache.getQueryRanges(
+				constraints(
+						10,
+						20),
+				STRATEGY,
+				100);
+		assertTrue(QueryRangesCache.isCached(
+				constraints(
+						10,
+						20),
+				STRATEGY,
+				100));
+		// equal constraints return the same decomposition
+		assertSame(
+				first,
+				QueryRangesCache.getQueryRanges(
+						constraints(
+								10,
+								20),
+						STRATEGY,
+						100));
+		// a different max range decomposition is a different entry
+		assertFalse(QueryRangesCache.isCached(
+				constraints(
+						10,
+						20),
+				STRATEGY,
+				10));
+		assertFalse(QueryRangesCache.isCached(
+				constraints(
+						10,
+						30),
+				STRATEGY,
+				100));
+	}
+
+	@Test
+	public void testSelectivity() {
+		final NumericData[] extents = new NumericData[] {
+			new NumericRange(
+					0,
+					100),
+			null
+		};
+		// only the first dimension's extent is known
+		assertEquals(
+				0.1,
+				IndexSelectivity.estimate(
+						constraints(
+								10,
+								20),
+						extents),
+				1e-9);
+		assertEquals(
+				0.0,
+				IndexSelectivity.estimate(
+						constraints(
+								200,
+								300),
+						extents),
+				1e-9);
+		assertEquals(
+				1.0,
+				IndexSelectivity.estimate(
+						Arrays.asList(
+								constraints(
+										0,
+										60).get(
+										0),
+								constraints(
+										40,
+										100).get(
+										0)),
+						extents),
+				1e-9);
+	}
+
+	@Test
+	public void testPlanChoosesCheapest() {
+		final PrimaryIndex a = new CustomIdIndex(
+				STRATEGY,
+				new BasicIndexModel(),
+				new ByteArrayId(
+						"a"));
+		final PrimaryIndex b = new CustomIdIndex(
+				STRATEGY,
+				new BasicIndexModel(),
+				new ByteArrayId(
+						"b"));
+		final PrimaryIndex c = new CustomIdIndex(
+				STRATEGY,
+				new BasicIndexModel(),
+				new ByteArrayId(
+						"c"));
+		final IndexCostEstimate fullScan = new IndexCostEstimate(
+				a,
+				EstimateSource.FULL_TABLE_SCAN,
+				10,
+				null,
+				0);
+		final IndexCostEstimate expensive = new IndexCostEstimate(
+				b,
+				EstimateSource.EXTENT_SELECTIVITY,
+				500,
+				null,
+				0);
+		final IndexCostEstimate cheap = new IndexCostEstimate(
+				c,
+				EstimateSource.EXTENT_SELECTIVITY,
+				100,
+				null,
+				0);
+		final QueryPlan plan = new QueryPlan(
+				Arrays.asList(
+						fullScan,
+						expensive,
+						cheap),
+				0);
+		assertSame(
+				c,
+				plan.getChosenIndex());
+		assertEquals(
+				3,
+				plan.getEstimates().size());
+		assertTrue(plan.toString().contains(
+				"* c"));
+		// nothing was decomposed so the over-read is unknown
+		assertEquals(
+				-1,
+				cheap.getEstimatedOverRead(),
+				0);
+	}
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.core.store.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.SinglePartitionQueryRanges;
+
+public class DataStoreUtilsTest
+{
+	private static ByteArrayRange range(
+			final String start,
+			final String end ) {
+		return new ByteArrayRange(
+				new ByteArrayId(
+						start),
+				new ByteArrayId(
+						end));
+	}
+
+	@Test
+	public void testSplitQueryRanges() {
+		final QueryRanges ranges = new QueryRanges(
+				Arrays.asList(
+						new SinglePartitionQueryRanges(
+								new ByteArrayId(
+										"p1"),
+								Arrays.asList(
+										range(
+												"a",
+												"b"),
+										range(
+												"c",
+												"d"),
+										range(
+												"e",
+												"f"))),
+						new SinglePartitionQueryRanges(
+								new ByteArrayId(
+										"p2"),
+								Arrays.asList(
+										range(
+												"a",
+												"b"),
+										range(
+												"c",
+												"d")))));
+		final List<QueryRanges> split = DataStoreUtils.splitQueryRanges(
+				ranges,
+				2);
+		assertEquals(
+				2,
+				split.size());
+		// every range is in exactly one group
+		final List<ByteArrayRange> all = new ArrayList<>();
+		int partitions = 0;
+		for (final QueryRanges group : split) {
+			for (final SinglePartitionQueryRanges partition : group.getPartitionQueryRanges()) {
+				partitions++;
+				all.addAll(partition.getSortKeyRanges());
+			}
+		}
+		assertEquals(
+				5,
+				all.size());
+		// the first partition is split across both groups
+		assertEquals(
+				3,
+				partitions);
+
+		// more groups than ranges
+		assertEquals(
+				5,
+				DataStoreUtils.splitQueryRanges(
+						ranges,
+						10).size());
+
+		// a full scan can't be split
+		final QueryRanges fullScan = new QueryRanges();
+		assertSame(
+				fullScan,
+				DataStoreUtils.splitQueryRanges(
+						fullScan,
+						4).get(
+						0));
+	}
+}
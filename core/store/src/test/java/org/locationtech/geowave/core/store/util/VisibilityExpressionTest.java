@@ -18,6 +18,7 @@ import static org.junit.Assert.fail;
 import java.text.ParseException;
 
 import org.junit.Test;
+import org.locationtech.geowave.core.index.StringUtils;
 import org.locationtech.geowave.core.store.util.VisibilityExpression;
 
 import com.google.common.collect.Sets;
@@ -253,6 +254,8 @@ public class VisibilityExpressionTest
 		final String EXPRESSION5 = "&b";
 		// No right operand
 		final String EXPRESSION6 = "a&";
+		// Mixed operators without parentheses
+		final String EXPRESSION7 = "a&b|c";
 
 		try {
 			VisibilityExpression.evaluate(
@@ -337,6 +340,84 @@ public class VisibilityExpressionTest
 					"Operator found with no right operand.",
 					e.getCause().getMessage());
 		}
+
+		try {
+			VisibilityExpression.evaluate(
+					EXPRESSION7,
+					Sets.newHashSet(
+							"a",
+							"b",
+							"c"));
+			fail();
+		}
+		catch (Exception e) {
+			// Expected
+			assertTrue(e.getCause() instanceof ParseException);
+			assertEquals(
+					"Mixed operators without parentheses.",
+					e.getCause().getMessage());
+		}
+	}
+
+	@Test
+	public void testEvaluatorDeniesMixedOperators() {
+		final VisibilityEvaluator evaluator = new VisibilityEvaluator(
+				"a",
+				"b",
+				"c");
+		assertFalse(evaluator.isAuthorized(StringUtils.stringToBinary("a&b|c")));
+		assertFalse(evaluator.isAuthorized(StringUtils.stringToBinary("a|(b&c)&a|c")));
+		// remembered results are denied as well
+		assertFalse(evaluator.isAuthorized(StringUtils.stringToBinary("a&b|c")));
+		assertTrue(evaluator.isAuthorized(StringUtils.stringToBinary("(a&b)|c")));
+		assertTrue(evaluator.isAuthorized(StringUtils.stringToBinary("a&(b|c)")));
 	}
 
+	@Test
+	public void testEvaluatorMatchesExpressions() {
+		final String[] expressions = new String[] {
+			"(a&b)|c",
+			"((a & b) | c) & (d | e)",
+			"(a&b&c)|d|e",
+			"a",
+			" "
+		};
+		final String[][] authorizations = new String[][] {
+			{},
+			{
+				"a"
+			},
+			{
+				"a",
+				"b"
+			},
+			{
+				"c",
+				"e"
+			},
+			{
+				"a",
+				"b",
+				"d"
+			}
+		};
+		for (final String[] auths : authorizations) {
+			final VisibilityEvaluator evaluator = new VisibilityEvaluator(
+					auths);
+			// evaluate each expression twice so remembered results are
+			// checked as well
+			for (int i = 0; i < 2; i++) {
+				for (final String expression : expressions) {
+					assertEquals(
+							expression,
+							VisibilityExpression.evaluate(
+									expression,
+									Sets.newHashSet(auths)),
+							evaluator.isAuthorized(StringUtils.stringToBinary(expression)));
+				}
+			}
+			assertTrue(evaluator.isAuthorized(null));
+			assertTrue(evaluator.isAuthorized(new byte[0]));
+		}
+	}
 }
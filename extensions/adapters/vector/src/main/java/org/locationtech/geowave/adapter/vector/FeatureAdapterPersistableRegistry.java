@@ -10,6 +10,7 @@
  ******************************************************************************/
 package org.locationtech.geowave.adapter.vector;
 
+import org.locationtech.geowave.adapter.vector.index.NGramTextSecondaryIndexConfiguration;
 import org.locationtech.geowave.adapter.vector.index.NumericSecondaryIndexConfiguration;
 import org.locationtech.geowave.adapter.vector.index.SecondaryIndexManager;
 import org.locationtech.geowave.adapter.vector.index.SimpleFeaturePrimaryIndexConfiguration;
@@ -20,18 +21,29 @@ import org.locationtech.geowave.adapter.vector.ingest.DataSchemaOptionProvider;
 import org.locationtech.geowave.adapter.vector.ingest.FeatureSerializationOptionProvider;
 import org.locationtech.geowave.adapter.vector.ingest.TypeNameOptionProvider;
 import org.locationtech.geowave.adapter.vector.plugin.visibility.VisibilityConfiguration;
+import org.locationtech.geowave.adapter.vector.query.aggregation.VectorGroupByAggregation;
+import org.locationtech.geowave.adapter.vector.query.aggregation.VectorTopKAggregation;
 import org.locationtech.geowave.adapter.vector.query.cql.CQLQuery;
 import org.locationtech.geowave.adapter.vector.query.cql.CQLQueryFilter;
+import org.locationtech.geowave.adapter.vector.query.decimation.PixelDecimationFilter;
+import org.locationtech.geowave.adapter.vector.query.decimation.PixelDecimationQuery;
 import org.locationtech.geowave.adapter.vector.render.DistributedRenderAggregation;
 import org.locationtech.geowave.adapter.vector.render.DistributedRenderOptions;
 import org.locationtech.geowave.adapter.vector.render.DistributedRenderResult;
+import org.locationtech.geowave.adapter.vector.render.HeatmapAggregation;
+import org.locationtech.geowave.adapter.vector.render.HeatmapOptions;
+import org.locationtech.geowave.adapter.vector.render.HeatmapResult;
 import org.locationtech.geowave.adapter.vector.render.PersistableComposite;
 import org.locationtech.geowave.adapter.vector.render.PersistableRenderedImage;
+import org.locationtech.geowave.adapter.vector.render.VectorTileAggregation;
+import org.locationtech.geowave.adapter.vector.render.VectorTileOptions;
+import org.locationtech.geowave.adapter.vector.render.VectorTileResult;
 import org.locationtech.geowave.adapter.vector.render.DistributedRenderResult.CompositeGroupResult;
 import org.locationtech.geowave.adapter.vector.stats.FeatureBoundingBoxStatistics;
 import org.locationtech.geowave.adapter.vector.stats.FeatureCountMinSketchStatistics;
 import org.locationtech.geowave.adapter.vector.stats.FeatureFixedBinNumericStatistics;
 import org.locationtech.geowave.adapter.vector.stats.FeatureHyperLogLogStatistics;
+import org.locationtech.geowave.adapter.vector.stats.FeatureNGramStatistics;
 import org.locationtech.geowave.adapter.vector.stats.FeatureNumericHistogramStatistics;
 import org.locationtech.geowave.adapter.vector.stats.FeatureNumericRangeStatistics;
 import org.locationtech.geowave.adapter.vector.stats.FeatureTimeRangeStatistics;
@@ -160,7 +172,43 @@ public class FeatureAdapterPersistableRegistry implements
 					TemporalSecondaryIndexConfiguration::new),
 			new PersistableIdAndConstructor(
 					(short) 535,
-					TextSecondaryIndexConfiguration::new)
+					TextSecondaryIndexConfiguration::new),
+			new PersistableIdAndConstructor(
+					(short) 536,
+					VectorGroupByAggregation::new),
+			new PersistableIdAndConstructor(
+					(short) 537,
+					VectorTopKAggregation::new),
+			new PersistableIdAndConstructor(
+					(short) 538,
+					HeatmapOptions::new),
+			new PersistableIdAndConstructor(
+					(short) 539,
+					HeatmapResult::new),
+			new PersistableIdAndConstructor(
+					(short) 540,
+					HeatmapAggregation::new),
+			new PersistableIdAndConstructor(
+					(short) 541,
+					NGramTextSecondaryIndexConfiguration::new),
+			new PersistableIdAndConstructor(
+					(short) 542,
+					FeatureNGramStatistics::new),
+			new PersistableIdAndConstructor(
+					(short) 543,
+					VectorTileOptions::new),
+			new PersistableIdAndConstructor(
+					(short) 544,
+					VectorTileResult::new),
+			new PersistableIdAndConstructor(
+					(short) 545,
+					VectorTileAggregation::new),
+			new PersistableIdAndConstructor(
+					(short) 546,
+					PixelDecimationQuery::new),
+			new PersistableIdAndConstructor(
+					(short) 547,
+					PixelDecimationFilter::new)
 		};
 	}
 }
@@ -11,30 +11,62 @@
 package org.locationtech.geowave.adapter.vector.index;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import org.locationtech.geowave.core.geotime.index.dimension.LatitudeDefinition;
+import org.locationtech.geowave.core.geotime.index.dimension.LongitudeDefinition;
+import org.locationtech.geowave.core.geotime.index.dimension.TimeDefinition;
+import org.locationtech.geowave.core.geotime.store.statistics.BoundingBoxDataStatistics;
+import org.locationtech.geowave.core.geotime.store.statistics.TimeRangeDataStatistics;
 import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.IndexMetaData;
 import org.locationtech.geowave.core.index.IndexUtils;
 import org.locationtech.geowave.core.index.QueryRanges;
+import org.locationtech.geowave.core.index.dimension.NumericDimensionDefinition;
 import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericData;
+import org.locationtech.geowave.core.index.sfc.data.NumericRange;
 import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.adapter.statistics.CountDataStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.DataStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
 import org.locationtech.geowave.core.store.index.Index;
+import org.locationtech.geowave.core.store.index.IndexMetaDataSet;
 import org.locationtech.geowave.core.store.index.PrimaryIndex;
 import org.locationtech.geowave.core.store.query.BasicQuery;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimate;
+import org.locationtech.geowave.core.store.query.plan.IndexCostEstimate.EstimateSource;
+import org.locationtech.geowave.core.store.query.plan.IndexSelectivity;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan;
+import org.locationtech.geowave.core.store.query.plan.QueryRangesCache;
 import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.opengis.feature.simple.SimpleFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Chooses the index expected to scan the fewest rows. Every candidate is first
+ * costed from the row count and the bounding box and time range statistics,
+ * which is essentially free. Only the candidates whose estimates are too close
+ * to call are decomposed into ranges and costed with the row range histograms.
+ * Decompositions are cached so the chosen index's ranges are not computed a
+ * second time when the query is executed.
+ */
 public class ChooseBestMatchIndexQueryStrategy implements
 		IndexQueryStrategySPI
 {
 	public static final String NAME = "Best Match";
 	private final static Logger LOGGER = LoggerFactory.getLogger(ChooseBestMatchIndexQueryStrategy.class);
+	/**
+	 * candidates with an extent based estimate within this factor of the best
+	 * estimate are refined using the row range histograms
+	 */
+	private static final double REFINEMENT_RATIO = 2.0;
+	private static final int DEFAULT_MAX_RANGE_DECOMPOSITION = 2000;
 
 	@Override
 	public String toString() {
@@ -50,70 +82,21 @@ public class ChooseBestMatchIndexQueryStrategy implements
 		return new CloseableIterator<Index<?, ?>>() {
 			PrimaryIndex nextIdx = null;
 			boolean done = false;
-			int i = 0;
 
 			@Override
 			public boolean hasNext() {
-				long min = Long.MAX_VALUE;
-				PrimaryIndex bestIdx = null;
-
-				while (!done && (i < indices.length)) {
-					nextIdx = indices[i++];
-					if (nextIdx.getIndexStrategy().getOrderedDimensionDefinitions().length == 0) {
-						continue;
-					}
-					final List<MultiDimensionalNumericData> constraints = query.getIndexConstraints(nextIdx);
-					boolean containsRowRangeHistograms = false;
-					for (final ByteArrayId statsId : stats.keySet()) {
-						// find out if any partition histograms exist for this
-						// index ID by checking the prefix
-						if (statsId.getString().startsWith(
-								RowRangeHistogramStatistics.composeId(
-										nextIdx.getId(),
-										null).getString())) {
-							containsRowRangeHistograms = true;
-							break;
-						}
-					}
-					if (!containsRowRangeHistograms) {
-						LOGGER
-								.warn("Best Match Heuristic requires statistic RowRangeHistogramStatistics for each index to properly choose an index.");
-					}
-
-					if (IndexUtils.isFullTableScan(constraints)) {
-						// keep this is as a default in case all indices
-						// result in a full table scan
-						if (bestIdx == null) {
-							bestIdx = nextIdx;
-						}
-					}
-					else {
-						final int maxRangeDecomposition;
-						if (hints.containsKey(QueryHint.MAX_RANGE_DECOMPOSITION)) {
-							maxRangeDecomposition = (Integer) hints.get(QueryHint.MAX_RANGE_DECOMPOSITION);
-						}
-						else {
-							LOGGER
-									.warn("No max range decomposition hint was provided, this should be provided from the data store options");
-							maxRangeDecomposition = 2000;
-						}
-						final QueryRanges ranges = DataStoreUtils.constraintsToQueryRanges(
-								constraints,
-								nextIdx.getIndexStrategy(),
-								maxRangeDecomposition);
-						final long temp = DataStoreUtils.cardinality(
-								nextIdx,
-								stats,
-								ranges);
-						if (temp < min) {
-							bestIdx = nextIdx;
-							min = temp;
-						}
+				if (!done) {
+					final QueryPlan plan = explain(
+							stats,
+							query,
+							indices,
+							hints);
+					if (LOGGER.isDebugEnabled()) {
+						LOGGER.debug("Query plan:\n" + plan);
 					}
-
+					nextIdx = plan.getChosenIndex();
+					done = true;
 				}
-				nextIdx = bestIdx;
-				done = true;
 				return nextIdx != null;
 			}
 
@@ -136,4 +119,276 @@ public class ChooseBestMatchIndexQueryStrategy implements
 					throws IOException {}
 		};
 	}
+
+	/**
+	 * Cost each candidate index for the query without running it.
+	 *
+	 * @return the plan, including the per index estimates and the chosen index
+	 */
+	public QueryPlan explain(
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats,
+			final BasicQuery query,
+			final PrimaryIndex[] indices,
+			final Map<QueryHint, Object> hints ) {
+		final long planStart = System.nanoTime();
+		final int maxRangeDecomposition;
+		if (hints.containsKey(QueryHint.MAX_RANGE_DECOMPOSITION)) {
+			maxRangeDecomposition = (Integer) hints.get(QueryHint.MAX_RANGE_DECOMPOSITION);
+		}
+		else {
+			LOGGER
+					.warn("No max range decomposition hint was provided, this should be provided from the data store options");
+			maxRangeDecomposition = DEFAULT_MAX_RANGE_DECOMPOSITION;
+		}
+		final long count = getCount(stats);
+		final NumericData[] bbox = getBoundingBox(stats);
+		final NumericData timeRange = getTimeRange(stats);
+
+		final List<PrimaryIndex> candidates = new ArrayList<>();
+		final List<List<MultiDimensionalNumericData>> candidateConstraints = new ArrayList<>();
+		final List<IndexCostEstimate> estimates = new ArrayList<>();
+		long bestCheapEstimate = Long.MAX_VALUE;
+		for (final PrimaryIndex index : indices) {
+			if (index.getIndexStrategy().getOrderedDimensionDefinitions().length == 0) {
+				continue;
+			}
+			final long indexStart = System.nanoTime();
+			final List<MultiDimensionalNumericData> constraints = query.getIndexConstraints(index);
+			if (IndexUtils.isFullTableScan(constraints)) {
+				// keep this as a fallback in case all indices result in a full
+				// table scan
+				estimates.add(new IndexCostEstimate(
+						index,
+						EstimateSource.FULL_TABLE_SCAN,
+						count >= 0 ? count : Long.MAX_VALUE,
+						null,
+						System.nanoTime() - indexStart));
+				continue;
+			}
+			long estimate = Long.MAX_VALUE;
+			EstimateSource source = EstimateSource.UNKNOWN;
+			final NumericData[] extents = getDimensionExtents(
+					index,
+					bbox,
+					timeRange);
+			if ((count >= 0) && (extents != null)) {
+				estimate = Math.round(count * IndexSelectivity.estimate(
+						constraints,
+						extents));
+				source = EstimateSource.EXTENT_SELECTIVITY;
+				bestCheapEstimate = Math.min(
+						bestCheapEstimate,
+						estimate);
+			}
+			candidates.add(index);
+			candidateConstraints.add(constraints);
+			estimates.add(new IndexCostEstimate(
+					index,
+					source,
+					estimate,
+					null,
+					System.nanoTime() - indexStart));
+		}
+
+		// with a single constrained candidate there is nothing to compare so
+		// leave the decomposition for query execution
+		final List<IndexCostEstimate> refined = new ArrayList<>();
+		if (candidates.size() > 1) {
+			for (int i = 0; i < estimates.size(); i++) {
+				final IndexCostEstimate cheap = estimates.get(i);
+				if (cheap.isFullTableScan() || !isWorthRefining(
+						cheap,
+						bestCheapEstimate)) {
+					continue;
+				}
+				final PrimaryIndex index = cheap.getIndex();
+				if (!hasRowRangeHistograms(
+						index,
+						stats)) {
+					LOGGER
+							.warn("Best Match Heuristic requires statistic RowRangeHistogramStatistics for each index to properly choose an index.");
+					continue;
+				}
+				final long indexStart = System.nanoTime();
+				final QueryRanges ranges;
+				if (hints.containsKey(QueryHint.MAX_OVER_READ)) {
+					// weighting the decomposition by the histograms refines
+					// ranges where the data is, it depends on the statistics
+					// so it isn't cached
+					ranges = DataStoreUtils.constraintsToQueryRanges(
+							candidateConstraints.get(candidates.indexOf(index)),
+							index.getIndexStrategy(),
+							maxRangeDecomposition,
+							(Double) hints.get(QueryHint.MAX_OVER_READ),
+							DataStoreUtils.rowRangeCardinality(
+									index,
+									stats),
+							getIndexMetaData(
+									index,
+									stats));
+				}
+				else {
+					// the query reuses these cached ranges
+					ranges = QueryRangesCache.getQueryRanges(
+							candidateConstraints.get(candidates.indexOf(index)),
+							index.getIndexStrategy(),
+							maxRangeDecomposition,
+							getIndexMetaData(
+									index,
+									stats));
+				}
+				final IndexCostEstimate estimate = new IndexCostEstimate(
+						index,
+						EstimateSource.ROW_RANGE_HISTOGRAM,
+						DataStoreUtils.cardinality(
+								index,
+								stats,
+								ranges),
+						ranges,
+						cheap.getPlanningNanos() + (System.nanoTime() - indexStart));
+				estimates.set(
+						i,
+						estimate);
+				refined.add(estimate);
+			}
+		}
+		final IndexCostEstimate chosen;
+		if (!refined.isEmpty()) {
+			// estimates from different sources aren't comparable, the refined
+			// candidates were the closest so choose among them
+			chosen = Collections.min(
+					refined,
+					IndexCostEstimate.COST_ORDER);
+		}
+		else if (!estimates.isEmpty()) {
+			chosen = Collections.min(
+					estimates,
+					IndexCostEstimate.COST_ORDER);
+		}
+		else {
+			chosen = null;
+		}
+		return new QueryPlan(
+				estimates,
+				chosen,
+				System.nanoTime() - planStart);
+	}
+
+	private static boolean isWorthRefining(
+			final IndexCostEstimate estimate,
+			final long bestCheapEstimate ) {
+		if (!EstimateSource.EXTENT_SELECTIVITY.equals(estimate.getSource())
+				|| (bestCheapEstimate == Long.MAX_VALUE)) {
+			return true;
+		}
+		return estimate.getEstimatedRows() <= (Math.max(
+				bestCheapEstimate,
+				1L) * REFINEMENT_RATIO);
+	}
+
+	private static boolean hasRowRangeHistograms(
+			final PrimaryIndex index,
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats ) {
+		final String prefix = RowRangeHistogramStatistics.composeId(
+				index.getId(),
+				null).getString();
+		for (final ByteArrayId statsId : stats.keySet()) {
+			// find out if any partition histograms exist for this index ID by
+			// checking the prefix
+			if (statsId.getString().startsWith(
+					prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static IndexMetaData[] getIndexMetaData(
+			final PrimaryIndex index,
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats ) {
+		final DataStatistics<SimpleFeature> metaData = stats.get(IndexMetaDataSet.composeId(index.getId()));
+		if (metaData instanceof IndexMetaDataSet) {
+			return ((IndexMetaDataSet<SimpleFeature>) metaData).toArray();
+		}
+		return new IndexMetaData[] {};
+	}
+
+	private static long getCount(
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats ) {
+		for (final DataStatistics<SimpleFeature> stat : stats.values()) {
+			if ((stat instanceof CountDataStatistics) && ((CountDataStatistics<SimpleFeature>) stat).isSet()) {
+				return ((CountDataStatistics<SimpleFeature>) stat).getCount();
+			}
+		}
+		return -1;
+	}
+
+	private static NumericData[] getBoundingBox(
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats ) {
+		for (final DataStatistics<SimpleFeature> stat : stats.values()) {
+			if ((stat instanceof BoundingBoxDataStatistics) && ((BoundingBoxDataStatistics<SimpleFeature>) stat).isSet()) {
+				final BoundingBoxDataStatistics<SimpleFeature> bboxStats = (BoundingBoxDataStatistics<SimpleFeature>) stat;
+				return new NumericData[] {
+					new NumericRange(
+							bboxStats.getMinX(),
+							bboxStats.getMaxX()),
+					new NumericRange(
+							bboxStats.getMinY(),
+							bboxStats.getMaxY())
+				};
+			}
+		}
+		return null;
+	}
+
+	private static NumericData getTimeRange(
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats ) {
+		double min = Double.MAX_VALUE;
+		double max = -Double.MAX_VALUE;
+		// start and end time ranges each have their own statistic, take the
+		// union
+		for (final DataStatistics<SimpleFeature> stat : stats.values()) {
+			if ((stat instanceof TimeRangeDataStatistics) && ((TimeRangeDataStatistics<SimpleFeature>) stat).isSet()) {
+				final TimeRangeDataStatistics<SimpleFeature> timeStats = (TimeRangeDataStatistics<SimpleFeature>) stat;
+				min = Math.min(
+						min,
+						timeStats.getMin());
+				max = Math.max(
+						max,
+						timeStats.getMax());
+			}
+		}
+		if (min > max) {
+			return null;
+		}
+		return new NumericRange(
+				min,
+				max);
+	}
+
+	/**
+	 * @return the data extent for each dimension of the index or null if the
+	 *         extent of none of the dimensions is known
+	 */
+	private static NumericData[] getDimensionExtents(
+			final PrimaryIndex index,
+			final NumericData[] bbox,
+			final NumericData timeRange ) {
+		final NumericDimensionDefinition[] dimensions = index.getIndexStrategy().getOrderedDimensionDefinitions();
+		final NumericData[] extents = new NumericData[dimensions.length];
+		boolean anyKnown = false;
+		for (int d = 0; d < dimensions.length; d++) {
+			if ((bbox != null) && (dimensions[d] instanceof LongitudeDefinition)) {
+				extents[d] = bbox[0];
+			}
+			else if ((bbox != null) && (dimensions[d] instanceof LatitudeDefinition)) {
+				extents[d] = bbox[1];
+			}
+			else if ((timeRange != null) && (dimensions[d] instanceof TimeDefinition)) {
+				extents[d] = timeRange;
+			}
+			anyKnown |= (extents[d] != null);
+		}
+		return anyKnown ? extents : null;
+	}
 }
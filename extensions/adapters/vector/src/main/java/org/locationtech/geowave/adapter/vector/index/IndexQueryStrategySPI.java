@@ -23,7 +23,13 @@ import org.opengis.feature.simple.SimpleFeature;
 public interface IndexQueryStrategySPI
 {
 	public enum QueryHint {
-		MAX_RANGE_DECOMPOSITION
+		MAX_RANGE_DECOMPOSITION,
+		/**
+		 * a Double, when present index strategies that support it decompose
+		 * queries best-first until the estimated over-read is at most this
+		 * fraction of the rows read
+		 */
+		MAX_OVER_READ
 	}
 
 	public CloseableIterator<Index<?, ?>> getIndices(
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.index;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.locationtech.geowave.core.store.index.SecondaryIndexType;
+import org.locationtech.geowave.core.store.index.text.NGramTextIndexStrategy;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.AttributeDescriptor;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Configures an n-gram text secondary index, which can answer substring and
+ * LIKE '%foo%' queries that a {@link TextSecondaryIndexConfiguration} can only
+ * answer with a full scan. The gram length and case sensitivity are kept in the
+ * attribute's user data alongside the index type.
+ */
+public class NGramTextSecondaryIndexConfiguration extends
+		AbstractSecondaryIndexConfiguration<String>
+{
+
+	private static final long serialVersionUID = 3254870396723381561L;
+	public static final String INDEX_KEY = "2ND_IDX_TEXT_NGRAM";
+	public static final String GRAM_LENGTH_KEY = INDEX_KEY + "_LENGTH";
+	public static final String CASE_SENSITIVE_KEY = INDEX_KEY + "_CASE_SENSITIVE";
+
+	private int gramLength = NGramTextIndexStrategy.DEFAULT_GRAM_LENGTH;
+	private boolean caseSensitive = false;
+
+	public NGramTextSecondaryIndexConfiguration() {
+		super(
+				String.class,
+				Collections.<String> emptySet(),
+				SecondaryIndexType.JOIN);
+	}
+
+	public NGramTextSecondaryIndexConfiguration(
+			final String attribute,
+			final SecondaryIndexType secondaryIndexType ) {
+		super(
+				String.class,
+				attribute,
+				secondaryIndexType);
+	}
+
+	public NGramTextSecondaryIndexConfiguration(
+			final Set<String> attributes,
+			final SecondaryIndexType secondaryIndexType ) {
+		super(
+				String.class,
+				attributes,
+				secondaryIndexType);
+	}
+
+	public NGramTextSecondaryIndexConfiguration(
+			final Set<String> attributes,
+			final SecondaryIndexType secondaryIndexType,
+			final int gramLength,
+			final boolean caseSensitive ) {
+		super(
+				String.class,
+				attributes,
+				secondaryIndexType);
+		this.gramLength = gramLength;
+		this.caseSensitive = caseSensitive;
+	}
+
+	public NGramTextSecondaryIndexConfiguration(
+			final Set<String> attributes,
+			final SecondaryIndexType secondaryIndexType,
+			final List<String> fieldIds,
+			final int gramLength,
+			final boolean caseSensitive ) {
+		super(
+				String.class,
+				attributes,
+				secondaryIndexType,
+				fieldIds);
+		this.gramLength = gramLength;
+		this.caseSensitive = caseSensitive;
+	}
+
+	public int getGramLength() {
+		return gramLength;
+	}
+
+	public boolean isCaseSensitive() {
+		return caseSensitive;
+	}
+
+	@JsonIgnore
+	@Override
+	public String getIndexKey() {
+		return INDEX_KEY;
+	}
+
+	@Override
+	public void updateType(
+			final SimpleFeatureType type ) {
+		super.updateType(type);
+		for (final String attribute : getAttributes()) {
+			final AttributeDescriptor desc = type.getDescriptor(attribute);
+			if ((desc != null) && desc.getUserData().containsKey(
+					INDEX_KEY)) {
+				desc.getUserData().put(
+						GRAM_LENGTH_KEY,
+						Integer.toString(gramLength));
+				desc.getUserData().put(
+						CASE_SENSITIVE_KEY,
+						Boolean.toString(caseSensitive));
+			}
+		}
+	}
+
+	@Override
+	public void configureFromType(
+			final SimpleFeatureType type ) {
+		super.configureFromType(type);
+		for (final AttributeDescriptor desc : type.getAttributeDescriptors()) {
+			final Object length = desc.getUserData().get(
+					GRAM_LENGTH_KEY);
+			if (length != null) {
+				gramLength = Integer.parseInt(length.toString());
+				caseSensitive = Boolean.parseBoolean(String.valueOf(desc.getUserData().get(
+						CASE_SENSITIVE_KEY)));
+			}
+		}
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final byte[] superBytes = super.toBinary();
+		final ByteBuffer buf = ByteBuffer.allocate(5 + superBytes.length);
+		buf.putInt(gramLength);
+		buf.put(caseSensitive ? (byte) 1 : (byte) 0);
+		buf.put(superBytes);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		gramLength = buf.getInt();
+		caseSensitive = buf.get() == 1;
+		final byte[] superBytes = new byte[buf.remaining()];
+		buf.get(superBytes);
+		super.fromBinary(superBytes);
+	}
+}
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.locationtech.geowave.adapter.vector.stats.FeatureHyperLogLogStatistics;
+import org.locationtech.geowave.adapter.vector.stats.FeatureNGramStatistics;
 import org.locationtech.geowave.adapter.vector.stats.FeatureNumericHistogramStatistics;
 import org.locationtech.geowave.adapter.vector.stats.StatsManager;
 import org.locationtech.geowave.core.index.ByteArrayId;
@@ -26,6 +27,7 @@ import org.locationtech.geowave.core.store.index.SecondaryIndex;
 import org.locationtech.geowave.core.store.index.SecondaryIndexType;
 import org.locationtech.geowave.core.store.index.numeric.NumericFieldIndexStrategy;
 import org.locationtech.geowave.core.store.index.temporal.TemporalIndexStrategy;
+import org.locationtech.geowave.core.store.index.text.NGramTextIndexStrategy;
 import org.locationtech.geowave.core.store.index.text.TextIndexStrategy;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
@@ -85,6 +87,11 @@ public class SecondaryIndexManager implements
 				secondaryIndexType = SecondaryIndexType.valueOf((String) userData
 						.get(NumericSecondaryIndexConfiguration.INDEX_KEY));
 			}
+			else if (userData.containsKey(NGramTextSecondaryIndexConfiguration.INDEX_KEY)) {
+				secondaryIndex = NGramTextSecondaryIndexConfiguration.INDEX_KEY;
+				secondaryIndexType = SecondaryIndexType.valueOf((String) userData
+						.get(NGramTextSecondaryIndexConfiguration.INDEX_KEY));
+			}
 			else if (userData.containsKey(TextSecondaryIndexConfiguration.INDEX_KEY)) {
 				secondaryIndex = TextSecondaryIndexConfiguration.INDEX_KEY;
 				secondaryIndexType = SecondaryIndexType.valueOf((String) userData
@@ -116,7 +123,8 @@ public class SecondaryIndexManager implements
 						secondaryIndex,
 						fieldId,
 						secondaryIndexType,
-						fieldsForPartial);
+						fieldsForPartial,
+						userData);
 			}
 		}
 	}
@@ -132,13 +140,15 @@ public class SecondaryIndexManager implements
 	 * @param fieldId
 	 * @param secondaryIndexType
 	 * @param fieldsForPartial
+	 * @param userData
 	 */
 
 	private void addIndex(
 			final String secondaryIndexKey,
 			final ByteArrayId fieldId,
 			final SecondaryIndexType secondaryIndexType,
-			final List<ByteArrayId> fieldsForPartial ) {
+			final List<ByteArrayId> fieldsForPartial,
+			final Map<Object, Object> userData ) {
 
 		final List<DataStatistics<SimpleFeature>> statistics = new ArrayList<>();
 		DataStatistics<SimpleFeature> stat = null;
@@ -169,6 +179,25 @@ public class SecondaryIndexManager implements
 						fieldsForPartial));
 				break;
 
+			case NGramTextSecondaryIndexConfiguration.INDEX_KEY:
+				final Object gramLength = userData.get(NGramTextSecondaryIndexConfiguration.GRAM_LENGTH_KEY);
+				final NGramTextIndexStrategy nGramStrategy = new NGramTextIndexStrategy(
+						gramLength == null ? NGramTextIndexStrategy.DEFAULT_GRAM_LENGTH : Integer.parseInt(gramLength
+								.toString()),
+						Boolean.parseBoolean(String.valueOf(userData
+								.get(NGramTextSecondaryIndexConfiguration.CASE_SENSITIVE_KEY))));
+				stat = new FeatureNGramStatistics(
+						fieldId.getString(),
+						nGramStrategy);
+				statistics.add(stat);
+				supportedSecondaryIndices.add(new SecondaryIndex<SimpleFeature>(
+						nGramStrategy,
+						fieldId,
+						statistics,
+						secondaryIndexType,
+						fieldsForPartial));
+				break;
+
 			case TemporalSecondaryIndexConfiguration.INDEX_KEY:
 				stat = new FeatureNumericHistogramStatistics(
 						fieldId.getString());
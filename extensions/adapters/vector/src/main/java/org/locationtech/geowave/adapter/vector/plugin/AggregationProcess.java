@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.plugin;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.geotools.data.collection.ListFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.feature.simple.SimpleFeatureTypeBuilder;
+import org.geotools.process.ProcessException;
+import org.geotools.process.factory.DescribeParameter;
+import org.geotools.process.factory.DescribeProcess;
+import org.geotools.process.factory.DescribeResult;
+import org.locationtech.geowave.adapter.vector.query.aggregation.AggregationVisitor;
+import org.locationtech.geowave.adapter.vector.query.aggregation.VectorGroupByAggregation;
+import org.locationtech.geowave.adapter.vector.query.aggregation.VectorTopKAggregation;
+import org.locationtech.geowave.core.store.query.aggregate.GroupByParameters;
+import org.locationtech.geowave.core.store.query.aggregate.GroupByResult;
+import org.locationtech.geowave.core.store.query.aggregate.GroupByResult.GroupKey;
+import org.locationtech.geowave.core.store.query.aggregate.NumericStatsResult;
+import org.locationtech.geowave.core.store.query.aggregate.TopKParameters;
+import org.locationtech.geowave.core.store.query.aggregate.TopKResult;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+/**
+ * This class can be used as a GeoTools WPS process ('geowave:Aggregate') to
+ * compute grouped statistics or the most frequent values of an attribute. On a
+ * layer that uses the GeoWave Data Store the aggregation is computed within
+ * the data store, any other feature collection is aggregated by iterating its
+ * features.
+ *
+ * The result is a non-spatial feature collection with one feature per group,
+ * or one feature per value when topK is given.
+ */
+@DescribeProcess(title = "Aggregate", description = "This process computes the count, sum, min, max and mean of an attribute grouped by an attribute and/or time bucket, or the most frequent values of an attribute, within GeoWave when possible.")
+public class AggregationProcess
+{
+	public static final String PROCESS_NAME = "geowave:Aggregate";
+
+	@DescribeResult(name = "result", description = "A feature collection with one feature per group")
+	public SimpleFeatureCollection execute(
+			@DescribeParameter(name = "data", description = "Feature collection to aggregate")
+			final SimpleFeatureCollection features,
+			@DescribeParameter(name = "valueAttribute", description = "Numeric attribute to compute statistics of, if not given only counts are computed", min = 0)
+			final String valueAttribute,
+			@DescribeParameter(name = "groupByAttribute", description = "Attribute to group by, should have a low cardinality", min = 0)
+			final String groupByAttribute,
+			@DescribeParameter(name = "timeAttribute", description = "Time attribute to bucket by", min = 0)
+			final String timeAttribute,
+			@DescribeParameter(name = "timeBucketMillis", description = "Width of the time buckets in milliseconds", min = 0)
+			final Long timeBucketMillis,
+			@DescribeParameter(name = "maxGroups", description = "Maximum number of groups, the remaining features are aggregated in an overflow group", min = 0)
+			final Integer maxGroups,
+			@DescribeParameter(name = "topK", description = "Return the topK most frequent values of the groupByAttribute instead of grouped statistics", min = 0)
+			final Integer topK )
+			throws ProcessException {
+		try {
+			if (topK != null) {
+				if (groupByAttribute == null) {
+					throw new ProcessException(
+							"groupByAttribute is required for topK");
+				}
+				return topK(
+						features,
+						groupByAttribute,
+						topK);
+			}
+			return groupBy(
+					features,
+					new GroupByParameters(
+							valueAttribute,
+							groupByAttribute,
+							timeAttribute,
+							timeBucketMillis == null ? 0 : timeBucketMillis,
+							maxGroups == null ? GroupByParameters.DEFAULT_MAX_GROUPS : maxGroups));
+		}
+		catch (final IOException e) {
+			throw new ProcessException(
+					"Unable to aggregate features",
+					e);
+		}
+	}
+
+	private static SimpleFeatureCollection groupBy(
+			final SimpleFeatureCollection features,
+			final GroupByParameters parameters )
+			throws IOException {
+		final AggregationVisitor<GroupByResult> visitor = new AggregationVisitor<>(
+				new VectorGroupByAggregation(
+						parameters));
+		features.accepts(
+				visitor,
+				null);
+
+		final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+		typeBuilder.setName("aggregation");
+		typeBuilder.add(
+				"group",
+				String.class);
+		typeBuilder.add(
+				"timeBucket",
+				Date.class);
+		typeBuilder.add(
+				"count",
+				Long.class);
+		typeBuilder.add(
+				"sum",
+				Double.class);
+		typeBuilder.add(
+				"min",
+				Double.class);
+		typeBuilder.add(
+				"max",
+				Double.class);
+		typeBuilder.add(
+				"mean",
+				Double.class);
+		final SimpleFeatureType type = typeBuilder.buildFeatureType();
+		final List<SimpleFeature> rows = new ArrayList<>();
+		final GroupByResult result = visitor.getResult();
+		if (result != null) {
+			for (final Entry<GroupKey, NumericStatsResult> group : result.getGroups().entrySet()) {
+				rows.add(toFeature(
+						type,
+						group.getKey().getGroup(),
+						group.getKey().getTimeBucket(),
+						group.getValue(),
+						rows.size()));
+			}
+			if (result.getOverflow().getCount() > 0) {
+				rows.add(toFeature(
+						type,
+						null,
+						null,
+						result.getOverflow(),
+						rows.size()));
+			}
+		}
+		return new ListFeatureCollection(
+				type,
+				rows);
+	}
+
+	private static SimpleFeature toFeature(
+			final SimpleFeatureType type,
+			final String group,
+			final Long timeBucket,
+			final NumericStatsResult stats,
+			final int id ) {
+		return SimpleFeatureBuilder.build(
+				type,
+				new Object[] {
+					group,
+					timeBucket == null ? null : new Date(
+							timeBucket),
+					stats.getCount(),
+					stats.getSum(),
+					stats.getMin(),
+					stats.getMax(),
+					stats.getMean()
+				},
+				Integer.toString(id));
+	}
+
+	private static SimpleFeatureCollection topK(
+			final SimpleFeatureCollection features,
+			final String attribute,
+			final int k )
+			throws IOException {
+		final AggregationVisitor<TopKResult> visitor = new AggregationVisitor<>(
+				new VectorTopKAggregation(
+						new TopKParameters(
+								attribute,
+								k)));
+		features.accepts(
+				visitor,
+				null);
+
+		final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+		typeBuilder.setName("topK");
+		typeBuilder.add(
+				"value",
+				String.class);
+		typeBuilder.add(
+				"count",
+				Long.class);
+		typeBuilder.add(
+				"error",
+				Long.class);
+		final SimpleFeatureType type = typeBuilder.buildFeatureType();
+		final List<SimpleFeature> rows = new ArrayList<>();
+		final TopKResult result = visitor.getResult();
+		if (result != null) {
+			for (final TopKResult.Counter counter : result.getTopK()) {
+				rows.add(SimpleFeatureBuilder.build(
+						type,
+						new Object[] {
+							counter.getValue(),
+							counter.getCount(),
+							counter.getError()
+						},
+						Integer.toString(rows.size())));
+			}
+		}
+		return new ListFeatureCollection(
+				type,
+				rows);
+	}
+}
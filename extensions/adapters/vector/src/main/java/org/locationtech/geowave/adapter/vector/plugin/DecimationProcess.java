@@ -22,12 +22,14 @@ import org.geotools.process.gs.GSProcess;
 import org.opengis.coverage.grid.GridGeometry;
 
 /**
- * This class can be used as a GeoTools Render Transform ('nga:Decimation')
+ * This class can be used as a GeoTools Render Transform ('geowave:Decimation')
  * within an SLD on any layer that uses the GeoWave Data Store. An example SLD
- * is provided (example-slds/DecimatePoints.sld). The pixel-size allows you to
- * skip more than a single pixel. For example, a pixel size of 3 would skip an
- * estimated 3x3 pixel cell in GeoWave's row IDs. Note that rows are only
- * skipped when a feature successfully passes filters.
+ * is provided (example-slds/DecimatePoints.sld). Features that would be
+ * painted entirely within a pixel that another feature already painted are
+ * dropped by the data store, and the remaining geometries are simplified to the
+ * size of a pixel. The pixel-size allows you to use larger cells. For example, a
+ * pixel size of 3 would keep at most one feature per 3x3 pixel cell. Note that
+ * a cell is only occupied by a feature that successfully passes filters.
  * 
  */
 @SuppressWarnings("deprecation")
@@ -16,6 +16,8 @@ import java.util.Map;
 import java.util.Set;
 
 import org.locationtech.geowave.adapter.vector.GeotoolsFeatureDataAdapter;
+import org.locationtech.geowave.adapter.vector.index.ChooseBestMatchIndexQueryStrategy;
+import org.locationtech.geowave.adapter.vector.index.IndexQueryStrategySPI;
 import org.locationtech.geowave.adapter.vector.index.IndexQueryStrategySPI.QueryHint;
 import org.locationtech.geowave.adapter.vector.plugin.transaction.GeoWaveTransaction;
 import org.locationtech.geowave.adapter.vector.plugin.transaction.TransactionsAllocator;
@@ -36,8 +38,11 @@ import org.locationtech.geowave.core.store.index.IndexStore;
 import org.locationtech.geowave.core.store.index.PrimaryIndex;
 import org.locationtech.geowave.core.store.query.BasicQuery;
 import org.locationtech.geowave.core.store.query.DataIdQuery;
+import org.locationtech.geowave.core.store.query.Query;
 import org.locationtech.geowave.core.store.query.QueryOptions;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan;
 import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.filter.Filter;
 import org.spark_project.guava.collect.Maps;
 
 public class GeoWaveDataStoreComponents
@@ -108,15 +113,71 @@ public class GeoWaveDataStoreComponents
 			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats,
 			final BasicQuery query ) {
 		GeoWaveGTDataStore gtStore = getGTstore();
-		Map<QueryHint, Object> queryHints = Maps.newHashMap();
-		queryHints.put(
-				QueryHint.MAX_RANGE_DECOMPOSITION,
-				gtStore.getDataStoreOptions().getMaxRangeDecomposition());
 		return gtStore.getIndexQueryStrategy().getIndices(
 				stats,
 				query,
 				gtStore.getIndicesForAdapter(adapter),
-				queryHints);
+				getQueryHints());
+	}
+
+	/**
+	 * Report the estimated cost of the query for each index of this adapter
+	 * and the index that would be chosen, without running the query. Costs are
+	 * always computed by the best match strategy regardless of the configured
+	 * strategy.
+	 */
+	public QueryPlan explain(
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats,
+			final BasicQuery query ) {
+		GeoWaveGTDataStore gtStore = getGTstore();
+		final IndexQueryStrategySPI strategy = gtStore.getIndexQueryStrategy();
+		final ChooseBestMatchIndexQueryStrategy bestMatch = strategy instanceof ChooseBestMatchIndexQueryStrategy ? (ChooseBestMatchIndexQueryStrategy) strategy
+				: new ChooseBestMatchIndexQueryStrategy();
+		return bestMatch.explain(
+				stats,
+				query,
+				gtStore.getIndicesForAdapter(adapter),
+				getQueryHints());
+	}
+
+	/**
+	 * Query the features of this adapter, using the data store's query result
+	 * cache when one is configured.
+	 *
+	 * @param filter
+	 *            the filter the query was created from, used to answer
+	 *            bounding box queries from the cached results of larger boxes
+	 */
+	public CloseableIterator<SimpleFeature> query(
+			final QueryOptions options,
+			final Query query,
+			final Filter filter ) {
+		final QueryResultCache queryCache = gtStore.getQueryCache();
+		if (queryCache == null) {
+			return dataStore.query(
+					options,
+					query);
+		}
+		return queryCache.query(
+				dataStore,
+				options,
+				query,
+				filter);
+	}
+
+	private void invalidateQueryCache() {
+		final QueryResultCache queryCache = gtStore.getQueryCache();
+		if (queryCache != null) {
+			queryCache.invalidate(adapter.getAdapterId());
+		}
+	}
+
+	private Map<QueryHint, Object> getQueryHints() {
+		Map<QueryHint, Object> queryHints = Maps.newHashMap();
+		queryHints.put(
+				QueryHint.MAX_RANGE_DECOMPOSITION,
+				getGTstore().getDataStoreOptions().getMaxRangeDecomposition());
+		return queryHints;
 	}
 
 	public void remove(
@@ -132,6 +193,7 @@ public class GeoWaveDataStoreComponents
 				options,
 				new DataIdQuery(
 						adapter.getDataId(feature)));
+		invalidateQueryCache();
 	}
 
 	public void remove(
@@ -148,7 +210,7 @@ public class GeoWaveDataStoreComponents
 				new DataIdQuery(
 						new ByteArrayId(
 								StringUtils.stringToBinary(fid))));
-
+		invalidateQueryCache();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -172,7 +234,9 @@ public class GeoWaveDataStoreComponents
 						visibilityWriter);
 			}
 		}
-
+		finally {
+			invalidateQueryCache();
+		}
 	}
 
 	public void writeCommit(
@@ -191,7 +255,9 @@ public class GeoWaveDataStoreComponents
 					feature,
 					visibilityWriter);
 		}
-
+		finally {
+			invalidateQueryCache();
+		}
 	}
 
 	public String getTransaction()
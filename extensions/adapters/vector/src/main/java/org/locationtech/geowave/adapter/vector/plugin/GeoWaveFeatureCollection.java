@@ -27,8 +27,14 @@ import org.geotools.feature.visitor.MaxVisitor;
 import org.geotools.feature.visitor.MinVisitor;
 import org.geotools.filter.spatial.BBOXImpl;
 import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.locationtech.geowave.adapter.vector.query.aggregation.AggregationVisitor;
 import org.locationtech.geowave.adapter.vector.render.DistributedRenderOptions;
 import org.locationtech.geowave.adapter.vector.render.DistributedRenderResult;
+import org.locationtech.geowave.adapter.vector.render.HeatmapOptions;
+import org.locationtech.geowave.adapter.vector.render.HeatmapResult;
+import org.locationtech.geowave.adapter.vector.render.VectorTileMapOutputFormat;
+import org.locationtech.geowave.adapter.vector.render.VectorTileOptions;
+import org.locationtech.geowave.adapter.vector.render.VectorTileResult;
 import org.locationtech.geowave.adapter.vector.stats.FeatureBoundingBoxStatistics;
 import org.locationtech.geowave.adapter.vector.stats.FeatureNumericRangeStatistics;
 import org.locationtech.geowave.adapter.vector.stats.FeatureTimeRangeStatistics;
@@ -36,6 +42,7 @@ import org.locationtech.geowave.core.geotime.GeometryUtils;
 import org.locationtech.geowave.core.geotime.store.query.TemporalConstraintsSet;
 import org.locationtech.geowave.core.geotime.store.statistics.BoundingBoxDataStatistics;
 import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.Mergeable;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.adapter.statistics.CountDataStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.DataStatistics;
@@ -65,6 +72,8 @@ public class GeoWaveFeatureCollection extends
 	private CloseableIterator<SimpleFeature> featureCursor;
 	private final Query query;
 	private static SimpleFeatureType distributedRenderFeatureType;
+	private static SimpleFeatureType heatmapFeatureType;
+	private static SimpleFeatureType vectorTileFeatureType;
 
 	public GeoWaveFeatureCollection(
 			final GeoWaveFeatureReader reader,
@@ -187,9 +196,57 @@ public class GeoWaveFeatureCollection extends
 		if (isDistributedRenderQuery()) {
 			return getDistributedRenderFeatureType();
 		}
+		if (isHeatmapQuery(query)) {
+			return getHeatmapFeatureType();
+		}
+		if (isVectorTileQuery(query)) {
+			return getVectorTileFeatureType();
+		}
 		return reader.getFeatureType();
 	}
 
+	public static synchronized SimpleFeatureType getHeatmapFeatureType() {
+		if (heatmapFeatureType == null) {
+			final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+			typeBuilder.setName("heatmap");
+			typeBuilder.add(
+					"result",
+					HeatmapResult.class);
+			typeBuilder.add(
+					"options",
+					HeatmapOptions.class);
+			heatmapFeatureType = typeBuilder.buildFeatureType();
+		}
+		return heatmapFeatureType;
+	}
+
+	protected static final boolean isHeatmapQuery(
+			final Query query ) {
+		return query.getHints().containsKey(
+				HeatmapProcess.OPTIONS);
+	}
+
+	public static synchronized SimpleFeatureType getVectorTileFeatureType() {
+		if (vectorTileFeatureType == null) {
+			final SimpleFeatureTypeBuilder typeBuilder = new SimpleFeatureTypeBuilder();
+			typeBuilder.setName("vectortile");
+			typeBuilder.add(
+					"result",
+					VectorTileResult.class);
+			typeBuilder.add(
+					"options",
+					VectorTileOptions.class);
+			vectorTileFeatureType = typeBuilder.buildFeatureType();
+		}
+		return vectorTileFeatureType;
+	}
+
+	protected static final boolean isVectorTileQuery(
+			final Query query ) {
+		return query.getHints().containsKey(
+				VectorTileMapOutputFormat.OPTIONS);
+	}
+
 	public static synchronized SimpleFeatureType getDistributedRenderFeatureType() {
 		if (distributedRenderFeatureType == null) {
 			distributedRenderFeatureType = createDistributedRenderFeatureType();
@@ -225,6 +282,12 @@ public class GeoWaveFeatureCollection extends
 		if (GeoWaveFeatureCollection.isDistributedRenderQuery(query)) {
 			return getDistributedRenderFeatureType();
 		}
+		if (GeoWaveFeatureCollection.isHeatmapQuery(query)) {
+			return getHeatmapFeatureType();
+		}
+		if (GeoWaveFeatureCollection.isVectorTileQuery(query)) {
+			return getVectorTileFeatureType();
+		}
 		return reader.getComponents().getAdapter().getFeatureType();
 	}
 
@@ -235,9 +298,9 @@ public class GeoWaveFeatureCollection extends
 			final BBOXImpl bbox = ((BBOXImpl) filter);
 			final String propName = bbox.getPropertyName();
 			if ((propName == null) || propName.isEmpty()) {
-				bbox.setPropertyName(getSchema(
-						reader,
-						query).getGeometryDescriptor().getLocalName());
+				// the filter applies to the data, not to the schema of an
+				// aggregation result
+				bbox.setPropertyName(reader.getFeatureType().getGeometryDescriptor().getLocalName());
 			}
 		}
 		return filter;
@@ -294,6 +357,46 @@ public class GeoWaveFeatureCollection extends
 					(DistributedRenderOptions) query.getHints().get(
 							DistributedRenderProcess.OPTIONS));
 		}
+		else if (isHeatmapQuery(query)) {
+			featureCursor = reader.heatmapData(
+					contraints.jtsBounds,
+					contraints.timeBounds,
+					getFilter(query),
+					contraints.limit,
+					(HeatmapOptions) query.getHints().get(
+							HeatmapProcess.OPTIONS));
+		}
+		else if (isVectorTileQuery(query)) {
+			featureCursor = reader.vectorTileData(
+					contraints.jtsBounds,
+					contraints.timeBounds,
+					getFilter(query),
+					contraints.limit,
+					(VectorTileOptions) query.getHints().get(
+							VectorTileMapOutputFormat.OPTIONS));
+		}
+		else if (query.getHints().containsKey(
+				DecimationProcess.OUTPUT_WIDTH) && query.getHints().containsKey(
+				DecimationProcess.OUTPUT_HEIGHT) && query.getHints().containsKey(
+				DecimationProcess.OUTPUT_BBOX)) {
+			double pixelSize = 1;
+			if (query.getHints().containsKey(
+					DecimationProcess.PIXEL_SIZE)) {
+				pixelSize = (Double) query.getHints().get(
+						DecimationProcess.PIXEL_SIZE);
+			}
+			featureCursor = reader.getDecimatedData(
+					contraints.jtsBounds,
+					contraints.timeBounds,
+					(Integer) query.getHints().get(
+							DecimationProcess.OUTPUT_WIDTH),
+					(Integer) query.getHints().get(
+							DecimationProcess.OUTPUT_HEIGHT),
+					pixelSize,
+					getFilter(query),
+					contraints.referencedEnvelope,
+					contraints.limit);
+		}
 		else if (query.getHints().containsKey(
 				SubsampleProcess.OUTPUT_WIDTH) && query.getHints().containsKey(
 				SubsampleProcess.OUTPUT_HEIGHT) && query.getHints().containsKey(
@@ -339,6 +442,13 @@ public class GeoWaveFeatureCollection extends
 					GeometryUtils.getDefaultCRS(),
 					true);
 		}
+		if (query.getHints().containsKey(
+				DecimationProcess.OUTPUT_BBOX)) {
+			return ((ReferencedEnvelope) query.getHints().get(
+					DecimationProcess.OUTPUT_BBOX)).transform(
+					GeometryUtils.getDefaultCRS(),
+					true);
+		}
 		return null;
 	}
 
@@ -393,7 +503,29 @@ public class GeoWaveFeatureCollection extends
 			final org.opengis.util.ProgressListener progress )
 			throws IOException {
 
-		if ((visitor instanceof MinVisitor)) {
+		if (visitor instanceof AggregationVisitor) {
+			if (query.getFilter() == Filter.EXCLUDE) {
+				if (progress != null) {
+					progress.complete();
+				}
+				return;
+			}
+			try {
+				aggregate(
+						(AggregationVisitor<?>) visitor,
+						getQueryConstraints());
+				if (progress != null) {
+					progress.complete();
+				}
+				return;
+			}
+			catch (TransformException | FactoryException e) {
+				LOGGER.warn(
+						"Unable to transform geometry, aggregating client side",
+						e);
+			}
+		}
+		else if ((visitor instanceof MinVisitor)) {
 			final ExtractAttributesFilter filter = new ExtractAttributesFilter();
 
 			final MinVisitor minVisitor = (MinVisitor) visitor;
@@ -463,6 +595,17 @@ public class GeoWaveFeatureCollection extends
 				progress);
 	}
 
+	private <R extends Mergeable> void aggregate(
+			final AggregationVisitor<R> visitor,
+			final QueryConstraints constraints ) {
+		visitor.setResult(reader.aggregateInternal(
+				constraints.jtsBounds,
+				constraints.timeBounds,
+				getFilter(query),
+				constraints.limit,
+				visitor.getAggregation()));
+	}
+
 	/**
 	 * Return constraints that are indexed
 	 *
@@ -43,9 +43,17 @@ import org.geotools.referencing.operation.transform.ProjectiveTransform;
 import org.geotools.renderer.lite.RendererUtilities;
 import org.locationtech.geowave.adapter.vector.plugin.transaction.GeoWaveTransaction;
 import org.locationtech.geowave.adapter.vector.query.cql.CQLQuery;
+import org.locationtech.geowave.adapter.vector.query.decimation.PixelDecimationFilter;
+import org.locationtech.geowave.adapter.vector.query.decimation.PixelDecimationQuery;
 import org.locationtech.geowave.adapter.vector.render.DistributedRenderAggregation;
 import org.locationtech.geowave.adapter.vector.render.DistributedRenderOptions;
 import org.locationtech.geowave.adapter.vector.render.DistributedRenderResult;
+import org.locationtech.geowave.adapter.vector.render.HeatmapAggregation;
+import org.locationtech.geowave.adapter.vector.render.HeatmapOptions;
+import org.locationtech.geowave.adapter.vector.render.HeatmapResult;
+import org.locationtech.geowave.adapter.vector.render.VectorTileAggregation;
+import org.locationtech.geowave.adapter.vector.render.VectorTileOptions;
+import org.locationtech.geowave.adapter.vector.render.VectorTileResult;
 import org.locationtech.geowave.adapter.vector.stats.FeatureStatistic;
 import org.locationtech.geowave.adapter.vector.util.QueryIndexHelper;
 import org.locationtech.geowave.core.geotime.GeometryUtils.GeoConstraintsWrapper;
@@ -54,6 +62,7 @@ import org.locationtech.geowave.core.geotime.index.dimension.TimeDefinition;
 import org.locationtech.geowave.core.geotime.store.query.SpatialQuery;
 import org.locationtech.geowave.core.geotime.store.query.TemporalConstraintsSet;
 import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.Mergeable;
 import org.locationtech.geowave.core.index.dimension.NumericDimensionDefinition;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.CloseableIteratorWrapper;
@@ -62,10 +71,13 @@ import org.locationtech.geowave.core.store.index.Index;
 import org.locationtech.geowave.core.store.index.PrimaryIndex;
 import org.locationtech.geowave.core.store.query.BasicQuery;
 import org.locationtech.geowave.core.store.query.DataIdQuery;
+import org.locationtech.geowave.core.store.query.DistributableQuery;
 import org.locationtech.geowave.core.store.query.QueryOptions;
 import org.locationtech.geowave.core.store.query.BasicQuery.Constraints;
+import org.locationtech.geowave.core.store.query.aggregate.Aggregation;
 import org.locationtech.geowave.core.store.query.aggregate.CountAggregation;
 import org.locationtech.geowave.core.store.query.aggregate.CountResult;
+import org.locationtech.geowave.core.store.query.plan.QueryPlan;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.feature.type.AttributeDescriptor;
@@ -75,9 +87,12 @@ import org.opengis.referencing.FactoryException;
 import org.opengis.referencing.operation.MathTransform2D;
 import org.opengis.referencing.operation.TransformException;
 
+import com.google.common.base.Function;
 import com.google.common.collect.Iterators;
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Puntal;
+import com.vividsolutions.jts.simplify.TopologyPreservingSimplifier;
 
 /**
  * This class wraps a geotools data store as well as one for statistics (for
@@ -181,6 +196,30 @@ public class GeoWaveFeatureReader implements
 		return countIssuer.count;
 	}
 
+	/**
+	 * Run an aggregation over the features matching the constraints, the
+	 * aggregation is computed server side when the data store supports it
+	 *
+	 * @return the merged result across the queried indices, or null if no
+	 *         features matched
+	 */
+	protected <R extends Mergeable> R aggregateInternal(
+			final Geometry jtsBounds,
+			final TemporalConstraintsSet timeBounds,
+			final Filter filter,
+			final Integer limit,
+			final Aggregation<?, R, SimpleFeature> aggregation ) {
+		final AggregationQueryIssuer<R> aggregationIssuer = new AggregationQueryIssuer<>(
+				filter,
+				limit,
+				aggregation);
+		issueQuery(
+				jtsBounds,
+				timeBounds,
+				aggregationIssuer);
+		return aggregationIssuer.result;
+	}
+
 	private BasicQuery getQuery(
 			final Map<ByteArrayId, DataStatistics<SimpleFeature>> statsMap,
 			final Geometry jtsBounds,
@@ -208,6 +247,22 @@ public class GeoWaveFeatureReader implements
 		return query;
 	}
 
+	/**
+	 * Report the estimated cost of the query for each candidate index without
+	 * running it
+	 */
+	public QueryPlan explain(
+			final Geometry jtsBounds,
+			final TemporalConstraintsSet timeBounds ) {
+		final Map<ByteArrayId, DataStatistics<SimpleFeature>> statsMap = transaction.getDataStatistics();
+		return getComponents().explain(
+				statsMap,
+				getQuery(
+						statsMap,
+						jtsBounds,
+						timeBounds));
+	}
+
 	public CloseableIterator<SimpleFeature> issueQuery(
 			final Geometry jtsBounds,
 			final TemporalConstraintsSet timeBounds,
@@ -246,6 +301,8 @@ public class GeoWaveFeatureReader implements
 		return interweaveTransaction(
 				issuer.getLimit(),
 				issuer.getFilter(),
+				jtsBounds,
+				timeBounds,
 				new CloseableIteratorWrapper<SimpleFeature>(
 
 						new Closeable() {
@@ -324,13 +381,14 @@ public class GeoWaveFeatureReader implements
 						getSubset(),
 						components.getAdapter());
 			}
-			return components.getDataStore().query(
+			return components.query(
 					queryOptions,
 					CQLQuery.createOptimalQuery(
 							filter,
 							components.getAdapter(),
 							index,
-							query));
+							query),
+					filter);
 		}
 
 		@Override
@@ -485,6 +543,147 @@ public class GeoWaveFeatureReader implements
 		}
 	}
 
+	private class DecimationQueryIssuer extends
+			BaseIssuer implements
+			QueryIssuer
+	{
+		final ReferencedEnvelope envelope;
+		final int width;
+		final int height;
+		final double pixelSize;
+
+		public DecimationQueryIssuer(
+				final int width,
+				final int height,
+				final double pixelSize,
+				final Filter filter,
+				final Integer limit,
+				final ReferencedEnvelope envelope ) {
+			super(
+					filter,
+					limit);
+			this.width = width;
+			this.height = height;
+			this.pixelSize = pixelSize;
+			this.envelope = envelope;
+		}
+
+		@Override
+		public CloseableIterator<SimpleFeature> query(
+				final PrimaryIndex index,
+				final BasicQuery query ) {
+			final QueryOptions options = new QueryOptions(
+					components.getAdapter(),
+					index,
+					limit,
+					null,
+					transaction.composeAuthorizations());
+			if (subsetRequested()) {
+				options.setFieldIds(
+						getSubset(),
+						components.getAdapter());
+			}
+			// features that fit in a pixel that is already painted are dropped
+			// by the data store, the rest are simplified to the size of a
+			// single output pixel
+			final PixelDecimationFilter decimationFilter = new PixelDecimationFilter(
+					envelope,
+					(int) Math.ceil(width / pixelSize),
+					(int) Math.ceil(height / pixelSize));
+			final double tolerance = Math.min(
+					envelope.getWidth() / width,
+					envelope.getHeight() / height);
+			// the results are not cached, the cache could otherwise answer a
+			// query of a smaller box with decimated results
+			final CloseableIterator<SimpleFeature> it = components.getDataStore().query(
+					options,
+					new PixelDecimationQuery(
+							(DistributableQuery) CQLQuery.createOptimalQuery(
+									filter,
+									components.getAdapter(),
+									index,
+									query),
+							decimationFilter));
+			return new CloseableIteratorWrapper<SimpleFeature>(
+					it,
+					Iterators.transform(
+							it,
+							new Function<SimpleFeature, SimpleFeature>() {
+								@Override
+								public SimpleFeature apply(
+										final SimpleFeature feature ) {
+									final Object geometry = feature.getDefaultGeometry();
+									if ((geometry instanceof Geometry) && !(geometry instanceof Puntal)) {
+										feature.setDefaultGeometry(TopologyPreservingSimplifier.simplify(
+												(Geometry) geometry,
+												tolerance));
+									}
+									return feature;
+								}
+							}));
+		}
+	}
+
+	private class AggregationQueryIssuer<R extends Mergeable> extends
+			BaseIssuer implements
+			QueryIssuer
+	{
+		private final Aggregation<?, R, SimpleFeature> aggregation;
+		private R result = null;
+
+		public AggregationQueryIssuer(
+				final Filter filter,
+				final Integer limit,
+				final Aggregation<?, R, SimpleFeature> aggregation ) {
+			super(
+					filter,
+					limit);
+			this.aggregation = aggregation;
+		}
+
+		@Override
+		public CloseableIterator<SimpleFeature> query(
+				final PrimaryIndex index,
+				final BasicQuery query ) {
+			final QueryOptions queryOptions = new QueryOptions(
+					components.getAdapter(),
+					index,
+					limit,
+					null,
+					transaction.composeAuthorizations());
+			queryOptions.setAggregation(
+					aggregation,
+					components.getAdapter());
+
+			try (final CloseableIterator<R> resultIt = components.getDataStore().query(
+					queryOptions,
+					CQLQuery.createOptimalQuery(
+							filter,
+							components.getAdapter(),
+							index,
+							query))) {
+				while (resultIt.hasNext()) {
+					final R indexResult = resultIt.next();
+					if (indexResult == null) {
+						continue;
+					}
+					if (result == null) {
+						result = indexResult;
+					}
+					else {
+						result.merge(indexResult);
+					}
+				}
+			}
+			catch (final IOException e) {
+				LOGGER.warn(
+						"Unable to close aggregation iterator",
+						e);
+			}
+			return null;
+		}
+	}
+
 	private class RenderQueryIssuer extends
 			BaseIssuer implements
 			QueryIssuer
@@ -563,6 +762,76 @@ public class GeoWaveFeatureReader implements
 						renderOptions));
 	}
 
+	/**
+	 * Bin the features into a heatmap grid within the data store
+	 *
+	 * @return a single feature with the heatmap result and options, or no
+	 *         features if nothing falls within the grid
+	 */
+	public CloseableIterator<SimpleFeature> heatmapData(
+			final Geometry jtsBounds,
+			final TemporalConstraintsSet timeBounds,
+			final Filter filter,
+			final Integer limit,
+			final HeatmapOptions heatmapOptions ) {
+		final HeatmapOptions options = heatmapOptions.withGeometryAttribute(getFeatureType()
+				.getGeometryDescriptor()
+				.getLocalName());
+		final HeatmapResult result = aggregateInternal(
+				jtsBounds,
+				timeBounds,
+				filter,
+				limit,
+				new HeatmapAggregation(
+						options));
+		if (result == null) {
+			return getNoData();
+		}
+		return new CloseableIterator.Wrapper(
+				Iterators.singletonIterator(SimpleFeatureBuilder.build(
+						GeoWaveFeatureCollection.getHeatmapFeatureType(),
+						new Object[] {
+							result,
+							options
+						},
+						"heatmap")));
+	}
+
+	/**
+	 * Encode the features into a vector tile layer within the data store
+	 *
+	 * @return a single feature with the vector tile result and options, or no
+	 *         features if nothing falls within the tile
+	 */
+	public CloseableIterator<SimpleFeature> vectorTileData(
+			final Geometry jtsBounds,
+			final TemporalConstraintsSet timeBounds,
+			final Filter filter,
+			final Integer limit,
+			final VectorTileOptions vectorTileOptions ) {
+		final VectorTileOptions options = vectorTileOptions.withGeometryAttribute(getFeatureType()
+				.getGeometryDescriptor()
+				.getLocalName());
+		final VectorTileResult result = aggregateInternal(
+				jtsBounds,
+				timeBounds,
+				filter,
+				limit,
+				new VectorTileAggregation(
+						options));
+		if (result == null) {
+			return getNoData();
+		}
+		return new CloseableIterator.Wrapper(
+				Iterators.singletonIterator(SimpleFeatureBuilder.build(
+						GeoWaveFeatureCollection.getVectorTileFeatureType(),
+						new Object[] {
+							result,
+							options
+						},
+						"vectortile")));
+	}
+
 	public CloseableIterator<SimpleFeature> getData(
 			final Geometry jtsBounds,
 			final TemporalConstraintsSet timeBounds,
@@ -584,6 +853,32 @@ public class GeoWaveFeatureReader implements
 						envelope));
 	}
 
+	/**
+	 * Read the features to render into an image, dropping features that would
+	 * be painted within a pixel that is already painted and simplifying
+	 * geometries to the size of a pixel.
+	 */
+	public CloseableIterator<SimpleFeature> getDecimatedData(
+			final Geometry jtsBounds,
+			final TemporalConstraintsSet timeBounds,
+			final int width,
+			final int height,
+			final double pixelSize,
+			final Filter filter,
+			final ReferencedEnvelope envelope,
+			final Integer limit ) {
+		return issueQuery(
+				jtsBounds,
+				timeBounds,
+				new DecimationQueryIssuer(
+						width,
+						height,
+						pixelSize,
+						filter,
+						limit,
+						envelope));
+	}
+
 	public CloseableIterator<SimpleFeature> getData(
 			final Geometry jtsBounds,
 			final TemporalConstraintsSet timeBounds,
@@ -646,10 +941,14 @@ public class GeoWaveFeatureReader implements
 	private CloseableIterator<SimpleFeature> interweaveTransaction(
 			final Integer limit,
 			final Filter filter,
+			final Geometry jtsBounds,
+			final TemporalConstraintsSet timeBounds,
 			final CloseableIterator<SimpleFeature> it ) {
 		return transaction.interweaveTransaction(
 				limit,
 				filter,
+				jtsBounds,
+				timeBounds,
 				it);
 
 	}
@@ -16,11 +16,13 @@ import java.util.Map;
 import org.geotools.data.FeatureReader;
 import org.geotools.data.FeatureWriter;
 import org.geotools.data.Query;
+import org.geotools.data.Transaction;
 import org.geotools.data.store.ContentEntry;
 import org.geotools.data.store.ContentFeatureStore;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.locationtech.geowave.adapter.vector.GeotoolsFeatureDataAdapter;
 import org.locationtech.geowave.adapter.vector.plugin.transaction.GeoWaveEmptyTransaction;
+import org.locationtech.geowave.adapter.vector.query.aggregation.AggregationVisitor;
 import org.locationtech.geowave.adapter.vector.plugin.transaction.GeoWaveTransactionState;
 import org.locationtech.geowave.adapter.vector.plugin.transaction.TransactionsAllocator;
 import org.locationtech.geowave.adapter.vector.stats.FeatureBoundingBoxStatistics;
@@ -29,6 +31,7 @@ import org.locationtech.geowave.core.geotime.store.statistics.BoundingBoxDataSta
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.store.adapter.statistics.CountDataStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.DataStatistics;
+import org.opengis.feature.FeatureVisitor;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.feature.simple.SimpleFeatureType;
 import org.opengis.filter.Filter;
@@ -146,6 +149,28 @@ public class GeoWaveFeatureSource extends
 
 	}
 
+	@Override
+	protected boolean handleVisitor(
+			final Query query,
+			final FeatureVisitor visitor )
+			throws IOException {
+		// pending edits are not part of the aggregation query so only push
+		// the aggregation down when there is no open transaction
+		if ((visitor instanceof AggregationVisitor) && (transaction == Transaction.AUTO_COMMIT)) {
+			try (GeoWaveFeatureReader reader = new GeoWaveFeatureReader(
+					query,
+					new GeoWaveEmptyTransaction(
+							components),
+					components)) {
+				reader.getFeatureCollection().accepts(
+						visitor,
+						null);
+			}
+			return true;
+		}
+		return false;
+	}
+
 	public SimpleFeatureType getFeatureType() {
 		return components.getAdapter().getFeatureType();
 	}
@@ -28,7 +28,10 @@ public class GeoWaveGSProcessFactory extends
 				Text.text("GeoWave Process Factory"),
 				"geowave",
 				SubsampleProcess.class,
-				DistributedRenderProcess.class);
+				DecimationProcess.class,
+				DistributedRenderProcess.class,
+				AggregationProcess.class,
+				HeatmapProcess.class);
 	}
 
 }
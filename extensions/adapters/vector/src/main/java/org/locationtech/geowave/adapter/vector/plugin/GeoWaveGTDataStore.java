@@ -89,6 +89,7 @@ public class GeoWaveGTDataStore extends
 	private final URI featureNameSpaceURI;
 	private int transactionBufferSize = 10000;
 	private final TransactionsAllocator transactionsAllocator;
+	private final QueryResultCache queryCache;
 
 	public GeoWaveGTDataStore(
 			final GeoWavePluginConfig config )
@@ -103,6 +104,8 @@ public class GeoWaveGTDataStore extends
 		indexQueryStrategy = config.getIndexQueryStrategy();
 		transactionBufferSize = config.getTransactionBufferSize();
 		transactionsAllocator = new MemoryTransactionsAllocator();
+		queryCache = config.getQueryCacheSize() > 0 ? new QueryResultCache(
+				config.getQueryCacheSize() * 1024L * 1024L) : null;
 	}
 
 	private void init(
@@ -128,6 +131,13 @@ public class GeoWaveGTDataStore extends
 		return indexQueryStrategy;
 	}
 
+	/**
+	 * @return the cache of query results, null if caching is disabled
+	 */
+	public QueryResultCache getQueryCache() {
+		return queryCache;
+	}
+
 	public DataStore getDataStore() {
 		return dataStore;
 	}
@@ -31,6 +31,7 @@ import org.locationtech.geowave.adapter.auth.EmptyAuthorizationFactory;
 import org.locationtech.geowave.adapter.vector.index.ChooseHeuristicMatchIndexQueryStrategy;
 import org.locationtech.geowave.adapter.vector.index.IndexQueryStrategySPI;
 import org.locationtech.geowave.adapter.vector.plugin.lock.LockingManagementFactory;
+import org.locationtech.geowave.adapter.vector.plugin.lock.MemoryLockManagerFactory;
 import org.locationtech.geowave.core.index.SPIServiceRegistry;
 import org.locationtech.geowave.core.store.DataStore;
 import org.locationtech.geowave.core.store.DataStoreOptions;
@@ -71,6 +72,7 @@ public class GeoWavePluginConfig
 	protected static final String AUTH_MGT_KEY = "Authorization Management Provider";
 	protected static final String AUTH_URL_KEY = "Authorization Data URL";
 	protected static final String TRANSACTION_BUFFER_SIZE = "Transaction Buffer Size";
+	protected static final String QUERY_CACHE_SIZE = "Query Cache Size (MB)";
 	public static final String QUERY_INDEX_STRATEGY_KEY = "Query Index Strategy";
 	public static final String DEFAULT_QUERY_INDEX_STRATEGY = ChooseHeuristicMatchIndexQueryStrategy.NAME;
 
@@ -84,6 +86,11 @@ public class GeoWavePluginConfig
 			Integer.class,
 			"Number of buffered feature insertions before flushing to the datastore.",
 			false);
+	private static final Param QUERY_CACHE_SIZE_PARAM = new Param(
+			QUERY_CACHE_SIZE,
+			Integer.class,
+			"Memory used to cache the results of feature queries, 0 to disable the cache.",
+			false);
 
 	private static final Param FEATURE_NAMESPACE = new Param(
 			FEATURE_NAMESPACE_KEY,
@@ -129,6 +136,7 @@ public class GeoWavePluginConfig
 				AUTH_MGT,
 				AUTH_URL,
 				TRANSACTION_BUFFER_SIZE_PARAM,
+				QUERY_CACHE_SIZE_PARAM,
 				QUERY_INDEX_STRATEGY
 			});
 	public static final List<String> BASE_GEOWAVE_PLUGIN_PARAM_KEYS = Arrays.asList(
@@ -148,6 +156,7 @@ public class GeoWavePluginConfig
 	private final AuthorizationFactorySPI authorizationFactory;
 	private final URL authorizationURL;
 	private final Integer transactionBufferSize;
+	private final Integer queryCacheSize;
 	private final IndexQueryStrategySPI indexQueryStrategy;
 	private final AdapterIndexMappingStore adapterIndexMappingStore;
 
@@ -236,16 +245,37 @@ public class GeoWavePluginConfig
 		}
 		transactionBufferSize = bufferSizeFromParam;
 
+		param = params.get(
+				QUERY_CACHE_SIZE);
+		Integer cacheSizeFromParam = 0;
+		if (param != null) {
+			try {
+				cacheSizeFromParam = param instanceof Integer ? (Integer) param : Integer.parseInt(
+						param.toString());
+			}
+			catch (final Exception e) {
+				LOGGER.error(
+						"Malformed query cache size : " + param,
+						e);
+			}
+		}
+		queryCacheSize = cacheSizeFromParam;
+
 		param = params.get(
 				LOCK_MGT_KEY);
 
-		final Iterator<LockingManagementFactory> it = getLockManagementFactoryList();
-		LockingManagementFactory factory = null;
-		while (it.hasNext()) {
-			factory = it.next();
-			if ((param == null) || param.toString().equals(
-					factory.toString())) {
-				break;
+		// memory locking is the fallback for a missing or unknown option,
+		// regardless of the order in which the factories are registered
+		LockingManagementFactory factory = new MemoryLockManagerFactory();
+		if (param != null) {
+			final Iterator<LockingManagementFactory> it = getLockManagementFactoryList();
+			while (it.hasNext()) {
+				final LockingManagementFactory candidate = it.next();
+				if (param.toString().equals(
+						candidate.toString())) {
+					factory = candidate;
+					break;
+				}
 			}
 		}
 		final StoreFactoryOptions options = ConfigUtils.populateOptionsFromList(
@@ -392,6 +422,14 @@ public class GeoWavePluginConfig
 		return transactionBufferSize;
 	}
 
+	/**
+	 * @return the size of the query result cache in megabytes, 0 if results
+	 *         are not cached
+	 */
+	public Integer getQueryCacheSize() {
+		return queryCacheSize;
+	}
+
 	private static Map<String, List<String>> getLockMgtOptions() {
 		final List<String> options = new ArrayList<String>();
 		final Iterator<LockingManagementFactory> it = getLockManagementFactoryList();
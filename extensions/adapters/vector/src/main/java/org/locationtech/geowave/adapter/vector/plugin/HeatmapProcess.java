@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.plugin;
+
+import java.io.IOException;
+
+import org.geotools.coverage.grid.GridCoverage2D;
+import org.geotools.coverage.grid.GridCoverageFactory;
+import org.geotools.data.Query;
+import org.geotools.data.simple.SimpleFeatureCollection;
+import org.geotools.data.simple.SimpleFeatureIterator;
+import org.geotools.factory.Hints;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.process.ProcessException;
+import org.geotools.process.factory.DescribeParameter;
+import org.geotools.process.factory.DescribeProcess;
+import org.geotools.process.factory.DescribeResult;
+import org.locationtech.geowave.adapter.vector.query.aggregation.AggregationVisitor;
+import org.locationtech.geowave.adapter.vector.render.HeatmapAggregation;
+import org.locationtech.geowave.adapter.vector.render.HeatmapOptions;
+import org.locationtech.geowave.adapter.vector.render.HeatmapResult;
+import org.locationtech.geowave.core.geotime.GeometryUtils;
+import org.opengis.coverage.grid.GridGeometry;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.TransformException;
+
+/**
+ * This class can be used as a GeoTools Render Transform ('geowave:Heatmap')
+ * within an SLD on any layer that uses the GeoWave Data Store. The features are
+ * binned into a grid matching the output pixels (optionally coarsened by
+ * pixelsPerCell) within the data store, so only the grid is transferred rather
+ * than every feature. The optional radiusPixels smooths the grid with a box
+ * kernel. Other layers are binned by iterating the features.
+ */
+@DescribeProcess(title = "Heatmap", description = "This process bins features into a grid within GeoWave, optionally summing a weight attribute, and returns the grid as a coverage that can be styled as a heatmap.")
+public class HeatmapProcess
+{
+	public static final String PROCESS_NAME = "geowave:Heatmap";
+
+	public static final Hints.Key OPTIONS = new Hints.Key(
+			HeatmapOptions.class);
+
+	@DescribeResult(name = "result", description = "The binned weights as a coverage")
+	public GridCoverage2D execute(
+			@DescribeParameter(name = "data", description = "Feature collection containing the data")
+			final SimpleFeatureCollection features,
+			@DescribeParameter(name = "weightAttribute", description = "Numeric attribute to sum within each cell, features are counted if not given", min = 0)
+			final String weightAttribute,
+			@DescribeParameter(name = "pixelsPerCell", description = "The width and height of each cell in pixels", min = 0)
+			final Integer pixelsPerCell,
+			@DescribeParameter(name = "radiusPixels", description = "Radius of the smoothing kernel in pixels", min = 0)
+			final Integer radiusPixels,
+			@DescribeParameter(name = "outputBBOX", description = "Georeferenced bounding box of the output")
+			final ReferencedEnvelope argOutputEnv,
+			@DescribeParameter(name = "outputWidth", description = "Width of the output raster")
+			final Integer argOutputWidth,
+			@DescribeParameter(name = "outputHeight", description = "Height of the output raster")
+			final Integer argOutputHeight )
+			throws ProcessException {
+		HeatmapOptions options = null;
+		HeatmapResult result = null;
+		CoordinateReferenceSystem crs = GeometryUtils.getDefaultCRS();
+		try {
+			if (GeoWaveFeatureCollection.getHeatmapFeatureType().equals(
+					features.getSchema())) {
+				// the grid was computed within GeoWave
+				try (SimpleFeatureIterator it = features.features()) {
+					while (it.hasNext()) {
+						final SimpleFeature feature = it.next();
+						final HeatmapResult featureResult = (HeatmapResult) feature.getAttribute("result");
+						options = (HeatmapOptions) feature.getAttribute("options");
+						if (result == null) {
+							result = featureResult;
+						}
+						else {
+							result.merge(featureResult);
+						}
+					}
+				}
+			}
+			else {
+				if (features.getSchema().getCoordinateReferenceSystem() != null) {
+					crs = features.getSchema().getCoordinateReferenceSystem();
+				}
+				options = createOptions(
+						weightAttribute,
+						pixelsPerCell,
+						argOutputEnv,
+						argOutputWidth,
+						argOutputHeight,
+						crs);
+				final AggregationVisitor<HeatmapResult> visitor = new AggregationVisitor<>(
+						new HeatmapAggregation(
+								options));
+				features.accepts(
+						visitor,
+						null);
+				result = visitor.getResult();
+			}
+			if (options == null) {
+				options = createOptions(
+						weightAttribute,
+						pixelsPerCell,
+						argOutputEnv,
+						argOutputWidth,
+						argOutputHeight,
+						GeometryUtils.getDefaultCRS());
+			}
+		}
+		catch (IOException | TransformException | FactoryException e) {
+			throw new ProcessException(
+					"Unable to compute heatmap",
+					e);
+		}
+		if (result == null) {
+			result = new HeatmapResult(
+					options.getWidth(),
+					options.getHeight());
+		}
+		if ((radiusPixels != null) && (radiusPixels > 0)) {
+			smooth(
+					result,
+					(int) Math.ceil(radiusPixels / (double) getPixelsPerCell(pixelsPerCell)));
+		}
+		return toCoverage(
+				result,
+				options,
+				crs);
+	}
+
+	public Query invertQuery(
+			@DescribeParameter(name = "weightAttribute", description = "Numeric attribute to sum within each cell, features are counted if not given", min = 0)
+			final String weightAttribute,
+			@DescribeParameter(name = "pixelsPerCell", description = "The width and height of each cell in pixels", min = 0)
+			final Integer pixelsPerCell,
+			@DescribeParameter(name = "radiusPixels", description = "Radius of the smoothing kernel in pixels", min = 0)
+			final Integer radiusPixels,
+			@DescribeParameter(name = "outputBBOX", description = "Georeferenced bounding box of the output")
+			final ReferencedEnvelope argOutputEnv,
+			@DescribeParameter(name = "outputWidth", description = "Width of the output raster")
+			final Integer argOutputWidth,
+			@DescribeParameter(name = "outputHeight", description = "Height of the output raster")
+			final Integer argOutputHeight,
+			final Query targetQuery,
+			final GridGeometry targetGridGeometry )
+			throws ProcessException {
+		try {
+			// GeoWave features are in the default CRS
+			targetQuery.getHints().put(
+					OPTIONS,
+					createOptions(
+							weightAttribute,
+							pixelsPerCell,
+							argOutputEnv,
+							argOutputWidth,
+							argOutputHeight,
+							GeometryUtils.getDefaultCRS()));
+		}
+		catch (TransformException | FactoryException e) {
+			throw new ProcessException(
+					"Unable to transform heatmap bounding box",
+					e);
+		}
+		return targetQuery;
+	}
+
+	private static int getPixelsPerCell(
+			final Integer pixelsPerCell ) {
+		return (pixelsPerCell == null) || (pixelsPerCell < 1) ? 1 : pixelsPerCell;
+	}
+
+	private static HeatmapOptions createOptions(
+			final String weightAttribute,
+			final Integer pixelsPerCell,
+			final ReferencedEnvelope outputEnv,
+			final int outputWidth,
+			final int outputHeight,
+			final CoordinateReferenceSystem crs )
+			throws TransformException,
+			FactoryException {
+		final ReferencedEnvelope envelope = outputEnv.transform(
+				crs,
+				true);
+		final int cellSize = getPixelsPerCell(pixelsPerCell);
+		return new HeatmapOptions(
+				envelope.getMinX(),
+				envelope.getMinY(),
+				envelope.getMaxX(),
+				envelope.getMaxY(),
+				Math.max(
+						1,
+						(int) Math.ceil(outputWidth / (double) cellSize)),
+				Math.max(
+						1,
+						(int) Math.ceil(outputHeight / (double) cellSize)),
+				weightAttribute);
+	}
+
+	/**
+	 * Smooth the grid in place with a separable box kernel of the given radius
+	 * in cells
+	 */
+	private static void smooth(
+			final HeatmapResult result,
+			final int radius ) {
+		final int width = result.getWidth();
+		final int height = result.getHeight();
+		final double[] grid = result.getGrid();
+		final double[] rowBuffer = new double[width];
+		for (int y = 0; y < height; y++) {
+			boxFilter(
+					grid,
+					y * width,
+					1,
+					width,
+					radius,
+					rowBuffer);
+		}
+		final double[] columnBuffer = new double[height];
+		for (int x = 0; x < width; x++) {
+			boxFilter(
+					grid,
+					x,
+					width,
+					height,
+					radius,
+					columnBuffer);
+		}
+	}
+
+	private static void boxFilter(
+			final double[] grid,
+			final int offset,
+			final int stride,
+			final int length,
+			final int radius,
+			final double[] buffer ) {
+		for (int i = 0; i < length; i++) {
+			buffer[i] = grid[offset + (i * stride)];
+		}
+		// running sum over the window [i - radius, i + radius]
+		double sum = 0;
+		for (int i = 0; (i < radius) && (i < length); i++) {
+			sum += buffer[i];
+		}
+		final double size = (2 * radius) + 1;
+		for (int i = 0; i < length; i++) {
+			if ((i + radius) < length) {
+				sum += buffer[i + radius];
+			}
+			if ((i - radius - 1) >= 0) {
+				sum -= buffer[i - radius - 1];
+			}
+			grid[offset + (i * stride)] = sum / size;
+		}
+	}
+
+	private static GridCoverage2D toCoverage(
+			final HeatmapResult result,
+			final HeatmapOptions options,
+			final CoordinateReferenceSystem crs ) {
+		final int width = result.getWidth();
+		final int height = result.getHeight();
+		final float[][] matrix = new float[height][width];
+		for (int row = 0; row < height; row++) {
+			for (int column = 0; column < width; column++) {
+				// coverage rows start at the top (maximum y) of the grid
+				matrix[height - 1 - row][column] = (float) result.get(
+						column,
+						row);
+			}
+		}
+		return new GridCoverageFactory().create(
+				"heatmap",
+				matrix,
+				new ReferencedEnvelope(
+						options.getMinX(),
+						options.getMaxX(),
+						options.getMinY(),
+						options.getMaxY(),
+						crs));
+	}
+}
@@ -0,0 +1,516 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.plugin;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.geotools.referencing.CRS;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.DataStore;
+import org.locationtech.geowave.core.store.query.Query;
+import org.locationtech.geowave.core.store.query.QueryOptions;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.filter.Filter;
+import org.opengis.filter.spatial.BBOX;
+import org.opengis.geometry.BoundingBox;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Caches the features returned for feature queries, so that the identical
+ * queries GeoServer issues for overlapping map requests are served from memory.
+ * The cache is bounded by the estimated size of the cached features in bytes.
+ *
+ * Entries are keyed by the adapter, index, authorizations, attribute subset,
+ * limit and the serialized query, which includes the CQL filter. A query with
+ * only a bounding box filter can also be answered from a cached bounding box
+ * query of a larger area by evaluating the filter on the cached features.
+ *
+ * Writes made through the plugin invalidate the entries of their adapter. Writes
+ * made outside of this data store are not seen, so entries also expire after a
+ * fixed time.
+ */
+public class QueryResultCache
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(QueryResultCache.class);
+	private static final long EXPIRE_AFTER_WRITE_MINUTES = 5;
+	// rough per object overheads used to estimate the size of a feature
+	private static final int FEATURE_OVERHEAD_BYTES = 64;
+	private static final int ATTRIBUTE_OVERHEAD_BYTES = 16;
+	private static final int COORDINATE_BYTES = 40;
+
+	private final long maxSizeBytes;
+	private final Cache<CacheKey, CachedResult> cache;
+	// incremented by every write, so that a query that ran concurrently with a
+	// write is not cached
+	private final Map<ByteArrayId, AtomicLong> adapterVersions = new ConcurrentHashMap<ByteArrayId, AtomicLong>();
+
+	public QueryResultCache(
+			final long maxSizeBytes ) {
+		this.maxSizeBytes = maxSizeBytes;
+		cache = CacheBuilder.newBuilder().maximumWeight(
+				maxSizeBytes).weigher(
+				new Weigher<CacheKey, CachedResult>() {
+					@Override
+					public int weigh(
+							final CacheKey key,
+							final CachedResult value ) {
+						return (int) Math.min(
+								Integer.MAX_VALUE,
+								value.sizeBytes);
+					}
+				}).expireAfterWrite(
+				EXPIRE_AFTER_WRITE_MINUTES,
+				TimeUnit.MINUTES).<CacheKey, CachedResult> build();
+	}
+
+	/**
+	 * Query the data store, or the cache if it has the results of an
+	 * equivalent query.
+	 *
+	 * @param filter
+	 *            the feature filter the query was created from, null if there
+	 *            is none
+	 */
+	public CloseableIterator<SimpleFeature> query(
+			final DataStore dataStore,
+			final QueryOptions options,
+			final Query query,
+			final Filter filter ) {
+		final CacheKey key = CacheKey.create(
+				options,
+				query,
+				filter);
+		if (key == null) {
+			return dataStore.query(
+					options,
+					query);
+		}
+		final CachedResult cached = cache.getIfPresent(key);
+		if (cached != null) {
+			return new CachedResultIterator(
+					cached.features,
+					null,
+					null);
+		}
+		if (key.bounds != null) {
+			final CachedResult covering = findCovering(key);
+			if (covering != null) {
+				return new CachedResultIterator(
+						covering.features,
+						filter,
+						options.getLimit());
+			}
+		}
+		return new CachingIterator(
+				dataStore.query(
+						options,
+						query),
+				key,
+				getVersion(
+						key.adapterId).get());
+	}
+
+	/**
+	 * Drop every cached result of an adapter. Called for each write to the
+	 * adapter's features.
+	 */
+	public void invalidate(
+			final ByteArrayId adapterId ) {
+		getVersion(
+				adapterId).incrementAndGet();
+		final Iterator<CacheKey> it = cache.asMap().keySet().iterator();
+		while (it.hasNext()) {
+			if (it.next().adapterId.equals(
+					adapterId)) {
+				it.remove();
+			}
+		}
+	}
+
+	public void invalidateAll() {
+		for (final AtomicLong version : adapterVersions.values()) {
+			version.incrementAndGet();
+		}
+		cache.invalidateAll();
+	}
+
+	public long size() {
+		return cache.size();
+	}
+
+	private AtomicLong getVersion(
+			final ByteArrayId adapterId ) {
+		AtomicLong version = adapterVersions.get(adapterId);
+		if (version == null) {
+			version = new AtomicLong();
+			final AtomicLong existing = ((ConcurrentHashMap<ByteArrayId, AtomicLong>) adapterVersions).putIfAbsent(
+					adapterId,
+					version);
+			if (existing != null) {
+				return existing;
+			}
+		}
+		return version;
+	}
+
+	/**
+	 * @return a complete, unlimited result of a bounding box query with the
+	 *         same options whose box contains the requested one
+	 */
+	private CachedResult findCovering(
+			final CacheKey key ) {
+		for (final Map.Entry<CacheKey, CachedResult> entry : cache.asMap().entrySet()) {
+			final CacheKey cachedKey = entry.getKey();
+			if ((cachedKey.bounds != null) && (cachedKey.limit == null) && Arrays.equals(
+					cachedKey.optionsKey,
+					key.optionsKey) && cachedKey.covers(key)) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	static long estimateSize(
+			final SimpleFeature feature ) {
+		long size = FEATURE_OVERHEAD_BYTES + (2L * feature.getID().length());
+		for (final Object value : feature.getAttributes()) {
+			if (value instanceof Geometry) {
+				size += ATTRIBUTE_OVERHEAD_BYTES + (COORDINATE_BYTES * (long) ((Geometry) value).getNumPoints());
+			}
+			else if (value instanceof String) {
+				size += ATTRIBUTE_OVERHEAD_BYTES + (2L * ((String) value).length());
+			}
+			else {
+				size += ATTRIBUTE_OVERHEAD_BYTES;
+			}
+		}
+		return size;
+	}
+
+	private static class CacheKey
+	{
+		private final ByteArrayId adapterId;
+		// everything but the query and the limit
+		private final byte[] optionsKey;
+		private final byte[] queryKey;
+		private final Integer limit;
+		// the box of a bounding box only filter, null for any other filter
+		private final Envelope bounds;
+		private final CoordinateReferenceSystem boundsCrs;
+		private final String boundsProperty;
+		private final int hashCode;
+
+		private CacheKey(
+				final ByteArrayId adapterId,
+				final byte[] optionsKey,
+				final byte[] queryKey,
+				final Integer limit,
+				final BBOX bbox ) {
+			this.adapterId = adapterId;
+			this.optionsKey = optionsKey;
+			this.queryKey = queryKey;
+			this.limit = limit;
+			if (bbox != null) {
+				final BoundingBox box = bbox.getBounds();
+				bounds = new Envelope(
+						box.getMinX(),
+						box.getMaxX(),
+						box.getMinY(),
+						box.getMaxY());
+				boundsCrs = box.getCoordinateReferenceSystem();
+				boundsProperty = String.valueOf(bbox.getExpression1());
+			}
+			else {
+				bounds = null;
+				boundsCrs = null;
+				boundsProperty = null;
+			}
+			final int prime = 31;
+			int result = 1;
+			result = (prime * result) + adapterId.hashCode();
+			result = (prime * result) + Arrays.hashCode(optionsKey);
+			result = (prime * result) + Arrays.hashCode(queryKey);
+			result = (prime * result) + ((limit == null) ? 0 : limit.hashCode());
+			hashCode = result;
+		}
+
+		/**
+		 * @return null if the results of the query can't be cached, which is
+		 *         the case for aggregations, queries that are not serializable
+		 *         and queries of more than one adapter
+		 */
+		private static CacheKey create(
+				final QueryOptions options,
+				final Query query,
+				final Filter filter ) {
+			if ((options.getAggregation() != null) || !(query instanceof Persistable)
+					|| (options.getAdapterIds() == null) || (options.getAdapterIds().size() != 1)) {
+				return null;
+			}
+			final String[] authorizations = options.getAuthorizations() == null ? new String[0] : options
+					.getAuthorizations()
+					.clone();
+			// the order of authorizations and fields does not change the
+			// results
+			Arrays.sort(authorizations);
+			final List<String> fieldIds = new ArrayList<String>();
+			if ((options.getFieldIdsAdapterPair() != null) && (options.getFieldIdsAdapterPair().getLeft() != null)) {
+				fieldIds.addAll(options.getFieldIdsAdapterPair().getLeft());
+				Collections.sort(fieldIds);
+			}
+			final byte[] indexBytes = options.getIndexId() == null ? new byte[0] : options.getIndexId().getBytes();
+			final byte[] authBytes = StringUtils.stringsToBinary(authorizations);
+			final byte[] fieldBytes = StringUtils.stringsToBinary(fieldIds.toArray(new String[fieldIds.size()]));
+			final double[] subsampling = options.getMaxResolutionSubsamplingPerDimension();
+			final int subsamplingLength = subsampling == null ? 0 : subsampling.length;
+			final ByteBuffer buf = ByteBuffer.allocate(16 + indexBytes.length + authBytes.length + fieldBytes.length
+					+ (8 * subsamplingLength));
+			buf.putInt(indexBytes.length);
+			buf.put(indexBytes);
+			buf.putInt(authBytes.length);
+			buf.put(authBytes);
+			buf.putInt(fieldBytes.length);
+			buf.put(fieldBytes);
+			buf.putInt(subsamplingLength);
+			for (int i = 0; i < subsamplingLength; i++) {
+				buf.putDouble(subsampling[i]);
+			}
+			final byte[] queryBytes = ((Persistable) query).toBinary();
+			final byte[] classBytes = StringUtils.stringToBinary(query.getClass().getName());
+			final byte[] queryKey = ByteBuffer.allocate(
+					classBytes.length + queryBytes.length + 4).putInt(
+					classBytes.length).put(
+					classBytes).put(
+					queryBytes).array();
+			return new CacheKey(
+					options.getAdapterIds().get(
+							0),
+					buf.array(),
+					queryKey,
+					options.getLimit(),
+					(filter instanceof BBOX) && (subsamplingLength == 0) ? (BBOX) filter : null);
+		}
+
+		/**
+		 * @return true if this is a bounding box query whose box contains the
+		 *         other's box, with the same CRS and geometry attribute
+		 */
+		private boolean covers(
+				final CacheKey other ) {
+			if ((bounds == null) || (other.bounds == null) || !bounds.contains(other.bounds)
+					|| !boundsProperty.equals(other.boundsProperty)) {
+				return false;
+			}
+			if ((boundsCrs == null) || (other.boundsCrs == null)) {
+				return boundsCrs == other.boundsCrs;
+			}
+			return CRS.equalsIgnoreMetadata(
+					boundsCrs,
+					other.boundsCrs);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(
+				final Object obj ) {
+			if (this == obj) {
+				return true;
+			}
+			if ((obj == null) || (getClass() != obj.getClass())) {
+				return false;
+			}
+			final CacheKey other = (CacheKey) obj;
+			return adapterId.equals(other.adapterId) && Arrays.equals(
+					optionsKey,
+					other.optionsKey) && Arrays.equals(
+					queryKey,
+					other.queryKey) && ((limit == null) ? other.limit == null : limit.equals(other.limit));
+		}
+	}
+
+	private static class CachedResult
+	{
+		private final List<SimpleFeature> features;
+		private final long sizeBytes;
+
+		public CachedResult(
+				final List<SimpleFeature> features,
+				final long sizeBytes ) {
+			this.features = features;
+			this.sizeBytes = sizeBytes;
+		}
+	}
+
+	/**
+	 * Returns copies of the cached features, so that callers that update the
+	 * features they read can't change the cached ones.
+	 */
+	private static class CachedResultIterator implements
+			CloseableIterator<SimpleFeature>
+	{
+		private final Iterator<SimpleFeature> it;
+		private final Filter filter;
+		private final Integer limit;
+		private SimpleFeature next = null;
+		private int count = 0;
+
+		public CachedResultIterator(
+				final List<SimpleFeature> features,
+				final Filter filter,
+				final Integer limit ) {
+			it = features.iterator();
+			this.filter = filter;
+			this.limit = limit;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if ((limit != null) && (limit > 0) && (count >= limit)) {
+				return false;
+			}
+			while ((next == null) && it.hasNext()) {
+				final SimpleFeature feature = it.next();
+				if ((filter == null) || filter.evaluate(feature)) {
+					next = feature;
+				}
+			}
+			return next != null;
+		}
+
+		@Override
+		public SimpleFeature next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final SimpleFeature feature = next;
+			next = null;
+			count++;
+			return SimpleFeatureBuilder.copy(feature);
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close()
+				throws IOException {}
+	}
+
+	/**
+	 * Records the features as they are read from the data store and caches
+	 * them once the results are exhausted. Results that are abandoned early,
+	 * are too large, or were read while the adapter was written to are not
+	 * cached.
+	 */
+	private class CachingIterator implements
+			CloseableIterator<SimpleFeature>
+	{
+		private final CloseableIterator<SimpleFeature> delegate;
+		private final CacheKey key;
+		private final long version;
+		private List<SimpleFeature> features = new ArrayList<SimpleFeature>();
+		private long sizeBytes = 0;
+
+		public CachingIterator(
+				final CloseableIterator<SimpleFeature> delegate,
+				final CacheKey key,
+				final long version ) {
+			this.delegate = delegate;
+			this.key = key;
+			this.version = version;
+		}
+
+		@Override
+		public boolean hasNext() {
+			final boolean hasNext = delegate.hasNext();
+			if (!hasNext && (features != null)) {
+				final AtomicLong currentVersion = getVersion(
+						key.adapterId);
+				if (currentVersion.get() == version) {
+					final CachedResult result = new CachedResult(
+							features,
+							sizeBytes);
+					cache.put(
+							key,
+							result);
+					// an invalidate between the check and the put may have
+					// swept the cache before this entry was added, it bumps
+					// the version first so checking again catches it
+					if (currentVersion.get() != version) {
+						cache.asMap().remove(
+								key,
+								result);
+					}
+				}
+				features = null;
+			}
+			return hasNext;
+		}
+
+		@Override
+		public SimpleFeature next() {
+			final SimpleFeature feature = delegate.next();
+			if (features != null) {
+				sizeBytes += estimateSize(feature);
+				// an entry can't use more than a single segment of the cache
+				if (sizeBytes > (maxSizeBytes / 4)) {
+					LOGGER.debug("Query results are too large to cache");
+					features = null;
+				}
+				else {
+					features.add(SimpleFeatureBuilder.copy(feature));
+				}
+			}
+			return feature;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void close()
+				throws IOException {
+			features = null;
+			delegate.close();
+		}
+	}
+}
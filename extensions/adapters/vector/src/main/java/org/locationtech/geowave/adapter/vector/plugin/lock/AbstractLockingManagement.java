@@ -12,6 +12,7 @@ package org.locationtech.geowave.adapter.vector.plugin.lock;
 
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -89,24 +90,28 @@ public abstract class AbstractLockingManagement implements
 				1 /* minutes */);
 	}
 
+	@Override
+	public void lock(
+			Transaction transaction,
+			Collection<String> featureIDs ) {
+		lock(
+				getLock(
+						transaction,
+						transaction == Transaction.AUTO_COMMIT ? EMPTY_SET : transaction.getAuthorizations(),
+						1 /* minutes */),
+				featureIDs);
+	}
+
 	private void lock(
 			Transaction transaction,
 			String featureID,
 			Set<String> authorizations,
 			long expiryInMinutes ) {
-		AuthorizedLock lock = transaction == Transaction.AUTO_COMMIT ? null : (AuthorizedLock) transaction
-				.getState(this);
-		if (lock == null) {
-			lock = new AuthorizedLock(
-					this,
-					authorizations,
-					expiryInMinutes);
-			if (transaction != Transaction.AUTO_COMMIT) transaction.putState(
-					this,
-					lock);
-		}
 		lock(
-				lock,
+				getLock(
+						transaction,
+						authorizations,
+						expiryInMinutes),
 				featureID);
 	}
 
@@ -115,6 +120,18 @@ public abstract class AbstractLockingManagement implements
 			String featureID,
 			Set<String> authorizations,
 			long expiryInMinutes ) {
+		unlock(
+				getLock(
+						transaction,
+						authorizations,
+						expiryInMinutes),
+				featureID);
+	}
+
+	private AuthorizedLock getLock(
+			Transaction transaction,
+			Set<String> authorizations,
+			long expiryInMinutes ) {
 		AuthorizedLock lock = transaction == Transaction.AUTO_COMMIT ? null : (AuthorizedLock) transaction
 				.getState(this);
 		if (lock == null) {
@@ -126,9 +143,7 @@ public abstract class AbstractLockingManagement implements
 					this,
 					lock);
 		}
-		unlock(
-				lock,
-				featureID);
+		return lock;
 	}
 
 	@Override
@@ -162,6 +177,46 @@ public abstract class AbstractLockingManagement implements
 				featureLock.getDuration());
 	}
 
+	/**
+	 * Lock a set of features with a feature lock, equivalent to calling
+	 * {@link #lockFeatureID(String, String, Transaction, FeatureLock)} for
+	 * each of them.
+	 */
+	public void lockFeatureIDs(
+			String typeName,
+			Collection<String> featureIDs,
+			Transaction transaction,
+			FeatureLock featureLock ) {
+		Set<String> set = new LinkedHashSet<String>();
+		set.add(featureLock.getAuthorization());
+		lock(
+				getLock(
+						transaction,
+						set,
+						featureLock.getDuration()),
+				featureIDs);
+	}
+
+	/**
+	 * Unlock a set of features with a feature lock, equivalent to calling
+	 * {@link #unLockFeatureID(String, String, Transaction, FeatureLock)} for
+	 * each of them.
+	 */
+	public void unLockFeatureIDs(
+			String typeName,
+			Collection<String> featureIDs,
+			Transaction transaction,
+			FeatureLock featureLock ) {
+		Set<String> set = new LinkedHashSet<String>();
+		set.add(featureLock.getAuthorization());
+		unlock(
+				getLock(
+						transaction,
+						set,
+						featureLock.getDuration()),
+				featureIDs);
+	}
+
 	@Override
 	public boolean release(
 			String authID,
@@ -222,6 +277,40 @@ public abstract class AbstractLockingManagement implements
 			AuthorizedLock lock,
 			String featureID );
 
+	/**
+	 * Lock each of the featureIDs as {@link #lock(AuthorizedLock, String)}
+	 * does. Implementations may override this to lock the features in bulk.
+	 * 
+	 * @param lock
+	 * @param featureIDs
+	 */
+	public void lock(
+			AuthorizedLock lock,
+			Collection<String> featureIDs ) {
+		for (String featureID : featureIDs) {
+			lock(
+					lock,
+					featureID);
+		}
+	}
+
+	/**
+	 * Unlock each of the featureIDs as {@link #unlock(AuthorizedLock, String)}
+	 * does. Implementations may override this to unlock the features in bulk.
+	 * 
+	 * @param lock
+	 * @param featureIDs
+	 */
+	public void unlock(
+			AuthorizedLock lock,
+			Collection<String> featureIDs ) {
+		for (String featureID : featureIDs) {
+			unlock(
+					lock,
+					featureID);
+		}
+	}
+
 	/**
 	 * Release all locks associated with a transaction or associated
 	 * authorizations. Occurs on commit and rollback. Basically, call
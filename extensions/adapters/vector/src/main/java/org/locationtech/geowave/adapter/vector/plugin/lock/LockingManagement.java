@@ -10,6 +10,8 @@
  ******************************************************************************/
 package org.locationtech.geowave.adapter.vector.plugin.lock;
 
+import java.util.Collection;
+
 import org.geotools.data.LockingManager;
 import org.geotools.data.Transaction;
 
@@ -36,4 +38,15 @@ public interface LockingManagement extends
 	public void lock(
 			Transaction transaction,
 			String featureID );
+
+	/**
+	 * Lock a set of features for a provided transaction, equivalent to locking
+	 * each feature in turn.
+	 * 
+	 * @param transaction
+	 * @param featureIDs
+	 */
+	public void lock(
+			Transaction transaction,
+			Collection<String> featureIDs );
 }
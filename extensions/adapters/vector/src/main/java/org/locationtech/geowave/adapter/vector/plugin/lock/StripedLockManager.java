@@ -0,0 +1,674 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.plugin.lock;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.locationtech.geowave.adapter.vector.plugin.GeoWavePluginConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Single GeoServer lock support for many concurrent transactions. In a
+ * clustered model, do not use.
+ * 
+ * Feature locks are spread over striped maps, so only requests for features in
+ * the same stripe contend. Waiting requests queue per feature and the lock is
+ * handed to the first of them when it is released, rather than every waiter
+ * polling for it. Locks of expired transactions are released by a timer wheel
+ * shared by all instances, so features are not left locked by clients that
+ * never commit.
+ */
+public class StripedLockManager extends
+		AbstractLockingManagement
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(StripedLockManager.class);
+	private static final int STRIPE_BITS = 6;
+	private static final int STRIPE_COUNT = 1 << STRIPE_BITS;
+	private static final ConcurrentHashMap<String, LockTable> TABLES = new ConcurrentHashMap<String, LockTable>();
+	private static final ExpiryWheel EXPIRY_WHEEL = new ExpiryWheel();
+
+	private final LockTable table;
+
+	public StripedLockManager(
+			final String instanceName ) {
+		LockTable lockTable = TABLES.get(instanceName);
+		if (lockTable == null) {
+			lockTable = new LockTable();
+			final LockTable existing = TABLES.putIfAbsent(
+					instanceName,
+					lockTable);
+			if (existing != null) {
+				lockTable = existing;
+			}
+		}
+		table = lockTable;
+	}
+
+	public StripedLockManager(
+			final GeoWavePluginConfig pluginConfig ) {
+		this(
+				pluginConfig.getName());
+	}
+
+	@Override
+	public void lock(
+			final AuthorizedLock lock,
+			final String featureID ) {
+		final Stripe stripe = table.getStripe(featureID);
+		stripe.lock.lock();
+		try {
+			table.lock(
+					stripe,
+					lock,
+					featureID);
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	/**
+	 * Locks all free features of a stripe while holding the stripe once, then
+	 * waits for the contended features one at a time.
+	 */
+	@Override
+	public void lock(
+			final AuthorizedLock lock,
+			final Collection<String> featureIDs ) {
+		final List<String> contended = new ArrayList<String>();
+		final List<List<String>> stripeIDs = table.groupByStripe(featureIDs);
+		for (int i = 0; i < STRIPE_COUNT; i++) {
+			final List<String> ids = stripeIDs.get(i);
+			if (ids == null) {
+				continue;
+			}
+			final Stripe stripe = table.stripes[i];
+			stripe.lock.lock();
+			try {
+				Set<String> held = null;
+				for (final String featureID : ids) {
+					final AuthorizedLock owner = stripe.locks.get(featureID);
+					if (owner == null) {
+						stripe.locks.put(
+								featureID,
+								lock);
+						if (held == null) {
+							held = table.getHeld(
+									stripe,
+									lock);
+						}
+						held.add(featureID);
+					}
+					else if (!owner.isAuthorized(lock)) {
+						contended.add(featureID);
+					}
+				}
+			}
+			finally {
+				stripe.lock.unlock();
+			}
+		}
+		for (final String featureID : contended) {
+			lock(
+					lock,
+					featureID);
+		}
+	}
+
+	@Override
+	public void unlock(
+			final AuthorizedLock lock,
+			final String featureID ) {
+		final Stripe stripe = table.getStripe(featureID);
+		stripe.lock.lock();
+		try {
+			final AuthorizedLock owner = stripe.locks.get(featureID);
+			if ((owner != null) && owner.isAuthorized(lock)) {
+				table.release(
+						stripe,
+						owner,
+						featureID);
+			}
+		}
+		finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	@Override
+	public void unlock(
+			final AuthorizedLock lock,
+			final Collection<String> featureIDs ) {
+		final List<List<String>> stripeIDs = table.groupByStripe(featureIDs);
+		for (int i = 0; i < STRIPE_COUNT; i++) {
+			final List<String> ids = stripeIDs.get(i);
+			if (ids == null) {
+				continue;
+			}
+			final Stripe stripe = table.stripes[i];
+			stripe.lock.lock();
+			try {
+				for (final String featureID : ids) {
+					final AuthorizedLock owner = stripe.locks.get(featureID);
+					if ((owner != null) && owner.isAuthorized(lock)) {
+						table.release(
+								stripe,
+								owner,
+								featureID);
+					}
+				}
+			}
+			finally {
+				stripe.lock.unlock();
+			}
+		}
+	}
+
+	@Override
+	public void releaseAll(
+			final AuthorizedLock lock ) {
+		for (final AuthorizedLock owner : table.getOwners(lock)) {
+			table.releaseOwner(owner);
+			owner.invalidate();
+		}
+	}
+
+	@Override
+	public void resetAll(
+			final AuthorizedLock lock ) {
+		for (final AuthorizedLock owner : table.getOwners(lock)) {
+			owner.resetExpireTime();
+		}
+	}
+
+	@Override
+	public boolean exists(
+			final String authID ) {
+		for (final Map.Entry<AuthorizedLock, AtomicInteger> owner : table.owners.entrySet()) {
+			if ((owner.getValue().get() > 0) && (owner.getKey().isAuthorized(
+					authID) || !owner.getKey().isStale())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static class LockTable
+	{
+		private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+		/**
+		 * every lock holding features with the number of features it holds,
+		 * so that releasing a transaction's locks does not need to scan every
+		 * lock. An owner stays in the map until it is released or expires,
+		 * even if it has unlocked all of its features.
+		 */
+		private final ConcurrentHashMap<AuthorizedLock, AtomicInteger> owners = new ConcurrentHashMap<AuthorizedLock, AtomicInteger>();
+
+		public LockTable() {
+			for (int i = 0; i < STRIPE_COUNT; i++) {
+				stripes[i] = new Stripe();
+			}
+		}
+
+		private static int getStripeIndex(
+				final String featureID ) {
+			// the stripe is chosen with the high bits of a multiplicative hash,
+			// the low bits select the bucket within the stripe's map and
+			// would leave most of its buckets empty
+			return (featureID.hashCode() * 0x9E3779B9) >>> (32 - STRIPE_BITS);
+		}
+
+		private Stripe getStripe(
+				final String featureID ) {
+			return stripes[getStripeIndex(featureID)];
+		}
+
+		/**
+		 * @return the feature IDs of each stripe, null for stripes without any
+		 */
+		private List<List<String>> groupByStripe(
+				final Collection<String> featureIDs ) {
+			final List<List<String>> groups = new ArrayList<List<String>>(
+					Collections.<List<String>> nCopies(
+							STRIPE_COUNT,
+							null));
+			for (final String featureID : featureIDs) {
+				final int index = getStripeIndex(featureID);
+				List<String> ids = groups.get(index);
+				if (ids == null) {
+					ids = new ArrayList<String>();
+					groups.set(
+							index,
+							ids);
+				}
+				ids.add(featureID);
+			}
+			return groups;
+		}
+
+		private List<AuthorizedLock> getOwners(
+				final AuthorizedLock lock ) {
+			final List<AuthorizedLock> matches = new ArrayList<AuthorizedLock>();
+			for (final AuthorizedLock owner : owners.keySet()) {
+				if (owner.equals(lock) || owner.isAuthorized(lock)) {
+					matches.add(owner);
+				}
+			}
+			return matches;
+		}
+
+		/**
+		 * Must be called holding the stripe's lock, which is released while
+		 * waiting.
+		 */
+		private void lock(
+				final Stripe stripe,
+				final AuthorizedLock lock,
+				final String featureID ) {
+			Waiter waiter = null;
+			boolean interrupted = false;
+			try {
+				while (true) {
+					if ((waiter != null) && waiter.granted) {
+						return;
+					}
+					final AuthorizedLock owner = stripe.locks.get(featureID);
+					if (owner == null) {
+						stripe.locks.put(
+								featureID,
+								lock);
+						getHeld(
+								stripe,
+								lock).add(
+								featureID);
+						return;
+					}
+					if (owner.isStale()) {
+						// hands the lock to the first waiter, which may be
+						// this one
+						release(
+								stripe,
+								owner,
+								featureID);
+						continue;
+					}
+					if (owner.isAuthorized(lock)) {
+						if (waiter != null) {
+							stripe.removeWaiter(
+									featureID,
+									waiter);
+						}
+						return;
+					}
+					if (waiter == null) {
+						waiter = new Waiter(
+								lock,
+								stripe.lock.newCondition());
+						stripe.addWaiter(
+								featureID,
+								waiter);
+					}
+					try {
+						// the wait ends when the lock is handed over, or when
+						// the owner expires if it is not released before then
+						waiter.condition.await(
+								Math.max(
+										1,
+										owner.getExpireTime() - System.currentTimeMillis()),
+								TimeUnit.MILLISECONDS);
+					}
+					catch (final InterruptedException e) {
+						// as with the memory lock manager, keep waiting
+						// until the lock is acquired
+						interrupted = true;
+					}
+				}
+			}
+			finally {
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		/**
+		 * Must be called holding the stripe's lock. The feature is handed to
+		 * its first waiter, or removed if there are none.
+		 */
+		private void release(
+				final Stripe stripe,
+				final AuthorizedLock owner,
+				final String featureID ) {
+			final Set<String> held = stripe.held.get(owner);
+			if ((held != null) && held.remove(featureID)) {
+				if (held.isEmpty()) {
+					stripe.held.remove(owner);
+				}
+				final AtomicInteger count = owners.get(owner);
+				if (count != null) {
+					count.decrementAndGet();
+				}
+			}
+			final Waiter next = stripe.pollWaiter(featureID);
+			if (next == null) {
+				stripe.locks.remove(featureID);
+				return;
+			}
+			stripe.locks.put(
+					featureID,
+					next.lock);
+			getHeld(
+					stripe,
+					next.lock).add(
+					featureID);
+			next.granted = true;
+			next.condition.signal();
+		}
+
+		/**
+		 * Must be called holding the stripe's lock.
+		 * 
+		 * @return the features the owner holds in the stripe, to add newly
+		 *         locked features to
+		 */
+		private Set<String> getHeld(
+				final Stripe stripe,
+				final AuthorizedLock owner ) {
+			Set<String> held = stripe.held.get(owner);
+			if (held == null) {
+				held = new CountingSet(
+						getCount(owner));
+				stripe.held.put(
+						owner,
+						held);
+			}
+			return held;
+		}
+
+		private AtomicInteger getCount(
+				final AuthorizedLock owner ) {
+			AtomicInteger count = owners.get(owner);
+			if (count == null) {
+				count = new AtomicInteger();
+				final AtomicInteger existing = owners.putIfAbsent(
+						owner,
+						count);
+				if (existing != null) {
+					return existing;
+				}
+				EXPIRY_WHEEL.schedule(
+						this,
+						owner);
+			}
+			return count;
+		}
+
+		/**
+		 * Releases everything held by an owner that is done, because its
+		 * transaction completed or expired, so it is not expected to lock any
+		 * more features concurrently.
+		 */
+		private void releaseOwner(
+				final AuthorizedLock owner ) {
+			if (owners.remove(owner) == null) {
+				return;
+			}
+			for (final Stripe stripe : stripes) {
+				stripe.lock.lock();
+				try {
+					final Set<String> held = stripe.held.remove(owner);
+					if (held == null) {
+						continue;
+					}
+					for (final String featureID : held) {
+						if (owner.equals(stripe.locks.get(featureID))) {
+							release(
+									stripe,
+									owner,
+									featureID);
+						}
+					}
+				}
+				finally {
+					stripe.lock.unlock();
+				}
+			}
+		}
+	}
+
+	private static class Stripe
+	{
+		// waiters for a feature queue on its entry, so the stripe itself
+		// does not need to be fair, which would force a hand off on every
+		// contended acquire
+		private final ReentrantLock lock = new ReentrantLock();
+		// the lock holding each feature
+		private final Map<String, AuthorizedLock> locks = new HashMap<String, AuthorizedLock>();
+		// the requests waiting for each contended feature
+		private final Map<String, Queue<Waiter>> waiters = new HashMap<String, Queue<Waiter>>();
+		// the features of this stripe held by each lock
+		private final Map<AuthorizedLock, Set<String>> held = new HashMap<AuthorizedLock, Set<String>>();
+
+		private void addWaiter(
+				final String featureID,
+				final Waiter waiter ) {
+			Queue<Waiter> queue = waiters.get(featureID);
+			if (queue == null) {
+				queue = new ArrayDeque<Waiter>();
+				waiters.put(
+						featureID,
+						queue);
+			}
+			queue.add(waiter);
+		}
+
+		private void removeWaiter(
+				final String featureID,
+				final Waiter waiter ) {
+			final Queue<Waiter> queue = waiters.get(featureID);
+			if ((queue != null) && queue.remove(waiter) && queue.isEmpty()) {
+				waiters.remove(featureID);
+			}
+		}
+
+		private Waiter pollWaiter(
+				final String featureID ) {
+			final Queue<Waiter> queue = waiters.get(featureID);
+			if (queue == null) {
+				return null;
+			}
+			final Waiter next = queue.poll();
+			if (queue.isEmpty()) {
+				waiters.remove(featureID);
+			}
+			return next;
+		}
+	}
+
+	/**
+	 * The features a lock holds within a stripe, which keeps the lock's total
+	 * count up to date
+	 */
+	private static class CountingSet extends
+			HashSet<String>
+	{
+		private static final long serialVersionUID = 1L;
+		private final AtomicInteger count;
+
+		public CountingSet(
+				final AtomicInteger count ) {
+			this.count = count;
+		}
+
+		@Override
+		public boolean add(
+				final String featureID ) {
+			if (super.add(featureID)) {
+				count.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private static class Waiter
+	{
+		private final AuthorizedLock lock;
+		private final Condition condition;
+		private boolean granted = false;
+
+		public Waiter(
+				final AuthorizedLock lock,
+				final Condition condition ) {
+			this.lock = lock;
+			this.condition = condition;
+		}
+	}
+
+	/**
+	 * A hashed timer wheel with one second ticks. Each lock owner is placed in
+	 * the bucket of its expiry time, and on each tick the owners of one bucket
+	 * are checked, so the cost of expiry does not depend on the number of
+	 * features locked. Owners whose expiry was reset are moved to their new
+	 * bucket.
+	 */
+	private static class ExpiryWheel
+	{
+		private static final long TICK_MILLIS = 1000L;
+		private static final int WHEEL_SIZE = 64;
+
+		private final List<Queue<Timeout>> buckets = new ArrayList<Queue<Timeout>>();
+		private volatile long lastTick;
+
+		public ExpiryWheel() {
+			for (int i = 0; i < WHEEL_SIZE; i++) {
+				buckets.add(new ConcurrentLinkedQueue<Timeout>());
+			}
+			lastTick = System.currentTimeMillis() / TICK_MILLIS;
+			final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(
+						final Runnable r ) {
+					final Thread thread = new Thread(
+							r,
+							"geowave-lock-expiry");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			executor.scheduleWithFixedDelay(
+					new Runnable() {
+						@Override
+						public void run() {
+							try {
+								advance();
+							}
+							catch (final Exception e) {
+								LOGGER.error(
+										"Unable to expire stale locks",
+										e);
+							}
+						}
+					},
+					TICK_MILLIS,
+					TICK_MILLIS,
+					TimeUnit.MILLISECONDS);
+		}
+
+		private void schedule(
+				final LockTable table,
+				final AuthorizedLock owner ) {
+			// owners that are already stale are checked on the next tick
+			final long tick = Math.max(
+					(owner.getExpireTime() / TICK_MILLIS) + 1,
+					lastTick + 1);
+			buckets.get(
+					(int) (tick % WHEEL_SIZE)).add(
+					new Timeout(
+							table,
+							owner,
+							tick));
+		}
+
+		private void advance() {
+			final long currentTick = System.currentTimeMillis() / TICK_MILLIS;
+			// catch up on every bucket passed since the last run
+			final long firstTick = Math.max(
+					lastTick + 1,
+					currentTick - WHEEL_SIZE + 1);
+			for (long tick = firstTick; tick <= currentTick; tick++) {
+				final List<Timeout> rescheduled = new ArrayList<Timeout>();
+				final Iterator<Timeout> it = buckets.get(
+						(int) (tick % WHEEL_SIZE)).iterator();
+				while (it.hasNext()) {
+					final Timeout timeout = it.next();
+					if (timeout.tick > currentTick) {
+						// expires in a later round of the wheel
+						continue;
+					}
+					it.remove();
+					if (!timeout.table.owners.containsKey(timeout.owner)) {
+						// already released
+						continue;
+					}
+					if (timeout.owner.isStale()) {
+						timeout.table.releaseOwner(timeout.owner);
+					}
+					else {
+						rescheduled.add(timeout);
+					}
+				}
+				for (final Timeout timeout : rescheduled) {
+					schedule(
+							timeout.table,
+							timeout.owner);
+				}
+			}
+			lastTick = currentTick;
+		}
+	}
+
+	private static class Timeout
+	{
+		private final LockTable table;
+		private final AuthorizedLock owner;
+		private final long tick;
+
+		public Timeout(
+				final LockTable table,
+				final AuthorizedLock owner,
+				final long tick ) {
+			this.table = table;
+			this.owner = owner;
+			this.tick = tick;
+		}
+	}
+}
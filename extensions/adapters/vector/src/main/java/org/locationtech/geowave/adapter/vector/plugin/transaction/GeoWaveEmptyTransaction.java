@@ -16,10 +16,13 @@ import org.geotools.data.Transaction;
 import org.geotools.factory.Hints;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.locationtech.geowave.adapter.vector.plugin.GeoWaveDataStoreComponents;
+import org.locationtech.geowave.core.geotime.store.query.TemporalConstraintsSet;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.Filter;
 
+import com.vividsolutions.jts.geom.Geometry;
+
 /**
  * Commit changes immediately
  * 
@@ -151,6 +154,16 @@ public class GeoWaveEmptyTransaction extends
 		return it;
 	}
 
+	@Override
+	public CloseableIterator<SimpleFeature> interweaveTransaction(
+			final Integer limit,
+			final Filter filter,
+			final Geometry jtsBounds,
+			final TemporalConstraintsSet timeBounds,
+			final CloseableIterator<SimpleFeature> it ) {
+		return it;
+	}
+
 	@Override
 	public String[] composeAuthorizations() {
 		return this.components.getGTstore().getAuthorizationSPI().getAuthorizations();
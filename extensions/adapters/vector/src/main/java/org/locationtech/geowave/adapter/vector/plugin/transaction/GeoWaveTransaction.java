@@ -13,12 +13,15 @@ package org.locationtech.geowave.adapter.vector.plugin.transaction;
 import java.io.IOException;
 import java.util.Map;
 
+import org.locationtech.geowave.core.geotime.store.query.TemporalConstraintsSet;
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.adapter.statistics.DataStatistics;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.Filter;
 
+import com.vividsolutions.jts.geom.Geometry;
+
 /**
  * Represent the Writer's pluggable strategy of a transaction
  * 
@@ -74,4 +77,20 @@ public interface GeoWaveTransaction
 			final Integer limit,
 			final Filter filter,
 			final CloseableIterator<SimpleFeature> it );
+
+	/**
+	 * Merge pending changes into query results, only considering pending
+	 * features within the bounds and time window the query was issued with
+	 *
+	 * @param jtsBounds
+	 *            the spatial bounds of the query, or null if unbounded
+	 * @param timeBounds
+	 *            the temporal bounds of the query, or null if unbounded
+	 */
+	public CloseableIterator<SimpleFeature> interweaveTransaction(
+			final Integer limit,
+			final Filter filter,
+			final Geometry jtsBounds,
+			final TemporalConstraintsSet timeBounds,
+			final CloseableIterator<SimpleFeature> it );
 }
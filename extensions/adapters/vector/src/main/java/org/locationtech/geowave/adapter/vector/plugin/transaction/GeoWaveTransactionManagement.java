@@ -12,13 +12,16 @@ package org.locationtech.geowave.adapter.vector.plugin.transaction;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
@@ -28,15 +31,19 @@ import org.geotools.factory.Hints;
 import org.geotools.geometry.jts.ReferencedEnvelope;
 import org.locationtech.geowave.adapter.vector.plugin.GeoWaveDataStoreComponents;
 import org.locationtech.geowave.adapter.vector.plugin.lock.LockingManagement;
+import org.locationtech.geowave.core.geotime.store.query.TemporalConstraints;
+import org.locationtech.geowave.core.geotime.store.query.TemporalConstraintsSet;
+import org.locationtech.geowave.core.geotime.store.query.TemporalRange;
 import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.adapter.statistics.DataStatistics;
 import org.opengis.feature.simple.SimpleFeature;
 import org.opengis.filter.Filter;
 import org.opengis.referencing.crs.CoordinateReferenceSystem;
 
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.Iterables;
+import com.vividsolutions.jts.geom.Geometry;
 
 /**
  * Captures changes made to a FeatureStore prior to being committed.
@@ -57,13 +64,23 @@ public class GeoWaveTransactionManagement extends
 
 	/** Map of modified features; by feature id */
 	private final Map<String, ModifiedFeature> modifiedFeatures = new ConcurrentHashMap<String, ModifiedFeature>();
-	private final Map<String, SimpleFeature> addedFeatures = new ConcurrentHashMap<String, SimpleFeature>();
-	private final Multimap<String, SimpleFeature> removedFeatures = LinkedListMultimap.create();
+	/** added features that are not yet written, indexed by bounds and time */
+	private final PendingFeatureIndex addedFeatures = new PendingFeatureIndex();
+	/**
+	 * removed features by feature id, values are copy on write so queries can
+	 * read them without locking
+	 */
+	private final Map<String, List<SimpleFeature>> removedFeatures = new ConcurrentHashMap<String, List<SimpleFeature>>();
 
-	private Map<ByteArrayId, DataStatistics<SimpleFeature>> statsCache = null;
+	/**
+	 * private copies of the statistics, kept up to date with added features so
+	 * they only have to be reloaded when features are modified or removed
+	 */
+	private volatile Map<ByteArrayId, DataStatistics<SimpleFeature>> statsCache = null;
+	private boolean statsNeedReload = false;
 
 	/** List of added feature ids; values stored in added above */
-	private final Set<String> addedFidList = new HashSet<String>();
+	private final Set<String> addedFidList = ConcurrentHashMap.newKeySet();
 
 	private int maxAdditionBufferSize = 10000;
 
@@ -179,6 +196,9 @@ public class GeoWaveTransactionManagement extends
 		// the query space. oh well!
 
 		final ModifiedFeature modRecord = modifiedFeatures.get(fid);
+		synchronized (mutex) {
+			statsNeedReload = true;
+		}
 
 		if (!updated.getBounds().equals(
 				original.getBounds())) {
@@ -186,7 +206,7 @@ public class GeoWaveTransactionManagement extends
 			// retain original--original position is removed later.
 			// The original feature needs to be excluded in a query
 			// and removed at commit
-			removedFeatures.put(
+			addRemoved(
 					fid,
 					original);
 
@@ -255,9 +275,16 @@ public class GeoWaveTransactionManagement extends
 		if (addedFeatures.size() >= maxAdditionBufferSize) {
 			flushAddsToStore(true);
 		}
-		addedFeatures.put(
-				fid,
-				feature);
+		synchronized (mutex) {
+			addedFeatures.put(
+					fid,
+					feature);
+			if (statsCache != null) {
+				for (final DataStatistics<SimpleFeature> stat : statsCache.values()) {
+					stat.entryIngested(feature);
+				}
+			}
+		}
 		components.getGTstore().getListenerManager().fireFeaturesAdded(
 				components.getAdapter().getFeatureType().getTypeName(),
 				transaction,
@@ -280,11 +307,12 @@ public class GeoWaveTransactionManagement extends
 				addedFeatures.remove(fid);
 				// will remove at the end of the transaction, except ones
 				// created in the transaction.
-				removedFeatures.put(
+				addRemoved(
 						fid,
 						feature);
 				modifiedFeatures.remove(fid);
 			}
+			statsNeedReload = true;
 		}
 		components.getGTstore().getListenerManager().fireFeaturesRemoved(
 				components.getAdapter().getFeatureType().getTypeName(),
@@ -293,9 +321,30 @@ public class GeoWaveTransactionManagement extends
 				false);
 	}
 
+	private void addRemoved(
+			final String fid,
+			final SimpleFeature feature ) {
+		synchronized (mutex) {
+			final List<SimpleFeature> features = removedFeatures.get(fid);
+			if (features == null) {
+				final List<SimpleFeature> newFeatures = new CopyOnWriteArrayList<SimpleFeature>();
+				newFeatures.add(feature);
+				removedFeatures.put(
+						fid,
+						newFeatures);
+			}
+			else {
+				features.add(feature);
+			}
+		}
+	}
+
 	public void rollback()
 			throws IOException {
-		statsCache = null;
+		synchronized (mutex) {
+			statsCache = null;
+			statsNeedReload = false;
+		}
 		for (final String fid : addedFidList) {
 			components.remove(
 					fid,
@@ -361,7 +410,8 @@ public class GeoWaveTransactionManagement extends
 		// visibilityTransformer);
 		// }
 
-		final Iterator<SimpleFeature> removeIt = removedFeatures.values().iterator();
+		final Iterator<SimpleFeature> removeIt = Iterables.concat(
+				removedFeatures.values()).iterator();
 
 		while (removeIt.hasNext()) {
 			final SimpleFeature delFeatured = removeIt.next();
@@ -396,8 +446,13 @@ public class GeoWaveTransactionManagement extends
 					true);
 		}
 
-		statsCache = null;
-
+		synchronized (mutex) {
+			// added features were already applied to the cached statistics
+			if (statsNeedReload) {
+				statsCache = null;
+				statsNeedReload = false;
+			}
+		}
 	}
 
 	private Iterator<Pair<SimpleFeature, SimpleFeature>> getUpdates() {
@@ -440,20 +495,95 @@ public class GeoWaveTransactionManagement extends
 
 	@Override
 	public Map<ByteArrayId, DataStatistics<SimpleFeature>> getDataStatistics() {
-		if (statsCache == null) {
-			statsCache = super.getDataStatistics();
+		Map<ByteArrayId, DataStatistics<SimpleFeature>> stats = statsCache;
+		if (stats == null) {
+			synchronized (mutex) {
+				if (statsCache == null) {
+					stats = copyStatistics(super.getDataStatistics());
+					// include the features added but not written yet, so
+					// that query bounds clipped to the statistics still
+					// cover them
+					for (final SimpleFeature feature : addedFeatures.values()) {
+						for (final DataStatistics<SimpleFeature> stat : stats.values()) {
+							stat.entryIngested(feature);
+						}
+					}
+					statsCache = stats;
+				}
+				else {
+					stats = statsCache;
+				}
+			}
 		}
-		return statsCache;
+		return stats;
+	}
+
+	/**
+	 * the statistics store may cache the statistics it returns, so they are
+	 * copied before being updated with added features
+	 */
+	@SuppressWarnings("unchecked")
+	private static Map<ByteArrayId, DataStatistics<SimpleFeature>> copyStatistics(
+			final Map<ByteArrayId, DataStatistics<SimpleFeature>> stats ) {
+		final Map<ByteArrayId, DataStatistics<SimpleFeature>> copy = new HashMap<ByteArrayId, DataStatistics<SimpleFeature>>();
+		for (final Entry<ByteArrayId, DataStatistics<SimpleFeature>> stat : stats.entrySet()) {
+			copy.put(
+					stat.getKey(),
+					(DataStatistics<SimpleFeature>) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(stat
+							.getValue())));
+		}
+		return copy;
+	}
+
+	@Override
+	public CloseableIterator<SimpleFeature> interweaveTransaction(
+			final Integer limit,
+			final Filter filter,
+			final CloseableIterator<SimpleFeature> it ) {
+		return interweaveTransaction(
+				limit,
+				filter,
+				null,
+				null,
+				it);
 	}
 
 	@Override
 	public CloseableIterator<SimpleFeature> interweaveTransaction(
 			final Integer limit,
 			final Filter filter,
+			final Geometry jtsBounds,
+			final TemporalConstraintsSet timeBounds,
 			final CloseableIterator<SimpleFeature> it ) {
+		long minTime = Long.MIN_VALUE;
+		long maxTime = Long.MAX_VALUE;
+		if ((timeBounds != null) && !timeBounds.isEmpty()) {
+			// the time window covering every constraint, the filter is
+			// still evaluated on each pending feature
+			minTime = Long.MAX_VALUE;
+			maxTime = Long.MIN_VALUE;
+			for (final Entry<String, TemporalConstraints> constraints : timeBounds.getSet()) {
+				for (final TemporalRange range : constraints.getValue().getRanges()) {
+					minTime = Math.min(
+							minTime,
+							range.getStartTime().getTime());
+					maxTime = Math.max(
+							maxTime,
+							range.getEndTime().getTime());
+				}
+			}
+			if (minTime > maxTime) {
+				minTime = Long.MIN_VALUE;
+				maxTime = Long.MAX_VALUE;
+			}
+		}
+		final Iterator<SimpleFeature> pendingIt = addedFeatures.query(
+				(jtsBounds == null) || jtsBounds.isEmpty() ? null : jtsBounds.getEnvelopeInternal(),
+				minTime,
+				maxTime);
 		return new CloseableIterator<SimpleFeature>() {
 
-			Iterator<SimpleFeature> addedIt = addedFeatures.values().iterator();
+			Iterator<SimpleFeature> addedIt = pendingIt;
 			SimpleFeature feature = null;
 			long count = 0;
 
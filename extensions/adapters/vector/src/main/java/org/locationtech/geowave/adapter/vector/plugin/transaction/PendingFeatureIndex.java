@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.plugin.transaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opengis.feature.simple.SimpleFeature;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Iterators;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.index.strtree.STRtree;
+
+/**
+ * Holds the features added within a transaction that have not been written to
+ * the data store yet, with a spatial index so that queries only merge the
+ * pending features within their bounding box and time window.
+ *
+ * Writers update a concurrent map and bump a version. The STR-tree is
+ * immutable once built, so it is rebuilt lazily by the first query after a
+ * change and published as a snapshot, and readers never block.
+ */
+class PendingFeatureIndex
+{
+	// below this a linear scan of the envelopes is as fast as building a tree
+	private static final int MIN_INDEXED_SIZE = 64;
+	private static final int NODE_CAPACITY = 10;
+
+	private final Map<String, SimpleFeature> features = new ConcurrentHashMap<>();
+	private final AtomicLong version = new AtomicLong();
+	private volatile Snapshot snapshot = null;
+
+	public void put(
+			final String fid,
+			final SimpleFeature feature ) {
+		features.put(
+				fid,
+				feature);
+		version.incrementAndGet();
+	}
+
+	public SimpleFeature remove(
+			final String fid ) {
+		final SimpleFeature removed = features.remove(fid);
+		if (removed != null) {
+			version.incrementAndGet();
+		}
+		return removed;
+	}
+
+	public void clear() {
+		features.clear();
+		version.incrementAndGet();
+	}
+
+	public int size() {
+		return features.size();
+	}
+
+	public boolean isEmpty() {
+		return features.isEmpty();
+	}
+
+	public Collection<SimpleFeature> values() {
+		return features.values();
+	}
+
+	/**
+	 * @param bounds
+	 *            the query bounding box, or null for no spatial constraint
+	 * @param minTime
+	 *            the start of the query time window in milliseconds
+	 * @param maxTime
+	 *            the end of the query time window in milliseconds
+	 * @return the pending features that may be within the constraints, the
+	 *         query filter still needs to be evaluated on each of them
+	 */
+	public Iterator<SimpleFeature> query(
+			final Envelope bounds,
+			final long minTime,
+			final long maxTime ) {
+		final boolean unconstrained = (bounds == null) && (minTime == Long.MIN_VALUE) && (maxTime == Long.MAX_VALUE);
+		if (unconstrained) {
+			return features.values().iterator();
+		}
+		if (features.size() < MIN_INDEXED_SIZE) {
+			return Iterators.filter(
+					features.values().iterator(),
+					new Predicate<SimpleFeature>() {
+						@Override
+						public boolean apply(
+								final SimpleFeature feature ) {
+							return new Entry(
+									feature).matches(
+									bounds,
+									minTime,
+									maxTime);
+						}
+					});
+		}
+		final Snapshot current = getSnapshot();
+		final List<Entry> candidates = new ArrayList<>(
+				current.unindexed);
+		if (bounds == null) {
+			candidates.addAll(current.indexed);
+		}
+		else {
+			for (final Object item : current.tree.query(bounds)) {
+				candidates.add((Entry) item);
+			}
+		}
+		final List<SimpleFeature> results = new ArrayList<>(
+				candidates.size());
+		for (final Entry entry : candidates) {
+			if (entry.matches(
+					bounds,
+					minTime,
+					maxTime)) {
+				results.add(entry.feature);
+			}
+		}
+		return results.iterator();
+	}
+
+	private Snapshot getSnapshot() {
+		final long currentVersion = version.get();
+		Snapshot current = snapshot;
+		if ((current != null) && (current.version == currentVersion)) {
+			return current;
+		}
+		// changes made while building will have bumped the version, so the
+		// next query rebuilds again
+		final STRtree tree = new STRtree(
+				NODE_CAPACITY);
+		final List<Entry> indexed = new ArrayList<>();
+		final List<Entry> unindexed = new ArrayList<>();
+		for (final SimpleFeature feature : features.values()) {
+			final Entry entry = new Entry(
+					feature);
+			if (entry.envelope == null) {
+				unindexed.add(entry);
+			}
+			else {
+				tree.insert(
+						entry.envelope,
+						entry);
+				indexed.add(entry);
+			}
+		}
+		tree.build();
+		current = new Snapshot(
+				currentVersion,
+				tree,
+				indexed,
+				unindexed);
+		snapshot = current;
+		return current;
+	}
+
+	private static class Snapshot
+	{
+		private final long version;
+		private final STRtree tree;
+		private final List<Entry> indexed;
+		private final List<Entry> unindexed;
+
+		public Snapshot(
+				final long version,
+				final STRtree tree,
+				final List<Entry> indexed,
+				final List<Entry> unindexed ) {
+			this.version = version;
+			this.tree = tree;
+			this.indexed = indexed;
+			this.unindexed = unindexed;
+		}
+	}
+
+	private static class Entry
+	{
+		private final SimpleFeature feature;
+		// null if the feature has no geometry
+		private final Envelope envelope;
+		// the extent of every date attribute, unbounded if there are none
+		private long minTime = Long.MAX_VALUE;
+		private long maxTime = Long.MIN_VALUE;
+
+		public Entry(
+				final SimpleFeature feature ) {
+			this.feature = feature;
+			final Object geometry = feature.getDefaultGeometry();
+			envelope = (geometry instanceof Geometry) && !((Geometry) geometry).isEmpty() ? ((Geometry) geometry)
+					.getEnvelopeInternal() : null;
+			for (final Object value : feature.getAttributes()) {
+				if (value instanceof Date) {
+					final long time = ((Date) value).getTime();
+					minTime = Math.min(
+							minTime,
+							time);
+					maxTime = Math.max(
+							maxTime,
+							time);
+				}
+			}
+			if (minTime > maxTime) {
+				minTime = Long.MIN_VALUE;
+				maxTime = Long.MAX_VALUE;
+			}
+		}
+
+		private boolean matches(
+				final Envelope bounds,
+				final long queryMinTime,
+				final long queryMaxTime ) {
+			if ((bounds != null) && (envelope != null) && !bounds.intersects(envelope)) {
+				return false;
+			}
+			return (minTime <= queryMaxTime) && (maxTime >= queryMinTime);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.query.aggregation;
+
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.store.query.aggregate.Aggregation;
+import org.opengis.feature.Feature;
+import org.opengis.feature.FeatureVisitor;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * A GeoTools feature visitor that computes a GeoWave aggregation. When it is
+ * passed to a GeoWave feature collection or feature source the aggregation is
+ * issued as a GeoWave query, so that it is computed within the data store when
+ * the data store supports server side aggregation. Any other feature collection
+ * visits each feature and the aggregation is computed client side.
+ *
+ * @param <R>
+ *            the aggregation result type
+ */
+public class AggregationVisitor<R extends Mergeable> implements
+		FeatureVisitor
+{
+	private final Aggregation<?, R, SimpleFeature> aggregation;
+	private R result = null;
+
+	public AggregationVisitor(
+			final Aggregation<?, R, SimpleFeature> aggregation ) {
+		this.aggregation = aggregation;
+	}
+
+	public Aggregation<?, R, SimpleFeature> getAggregation() {
+		return aggregation;
+	}
+
+	@Override
+	public void visit(
+			final Feature feature ) {
+		if (feature instanceof SimpleFeature) {
+			aggregation.aggregate((SimpleFeature) feature);
+			result = aggregation.getResult();
+		}
+	}
+
+	/**
+	 * @return the aggregation result, or null if no features were aggregated
+	 */
+	public R getResult() {
+		return result;
+	}
+
+	/**
+	 * Used by the GeoWave feature collection to provide the result of the
+	 * aggregation query instead of visiting each feature
+	 */
+	public void setResult(
+			final R result ) {
+		this.result = result;
+	}
+}
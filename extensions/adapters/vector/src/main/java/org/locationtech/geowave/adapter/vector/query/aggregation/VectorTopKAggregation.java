@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.query.aggregation;
+
+import org.locationtech.geowave.core.store.query.aggregate.TopKAggregation;
+import org.locationtech.geowave.core.store.query.aggregate.TopKParameters;
+import org.opengis.feature.simple.SimpleFeature;
+
+/**
+ * Finds the most frequent values of a simple feature attribute
+ */
+public class VectorTopKAggregation extends
+		TopKAggregation<SimpleFeature>
+{
+	public VectorTopKAggregation() {
+		super();
+	}
+
+	public VectorTopKAggregation(
+			final TopKParameters parameters ) {
+		super(
+				parameters);
+	}
+
+	@Override
+	protected Object getFieldValue(
+			final SimpleFeature entry,
+			final String fieldName ) {
+		return entry.getAttribute(fieldName);
+	}
+}
@@ -57,8 +57,13 @@ public class PropertyConstraintSet
 		final FilterableConstraints c = constraints.get(index.getFieldId());
 		if (c != null) {
 			// TODO GEOWAVE-1018 how to handle secondary index ranges?
-			result.addAll(index.getIndexStrategy().getQueryRanges(
-					c).getCompositeQueryRanges());
+			final List<ByteArrayRange> ranges = index.getIndexStrategy().getQueryRanges(
+					c).getCompositeQueryRanges();
+			// null when the index can't narrow the constraint, such as a LIKE
+			// pattern without any literal text
+			if (ranges != null) {
+				result.addAll(ranges);
+			}
 		}
 		return result;
 	}
@@ -19,6 +19,7 @@ import org.locationtech.geowave.core.store.index.numeric.NumericLessThanConstrai
 import org.locationtech.geowave.core.store.index.numeric.NumericLessThanOrEqualToConstraint;
 import org.locationtech.geowave.core.store.index.numeric.NumericQueryConstraint;
 import org.locationtech.geowave.core.store.index.text.TextExactMatchFilter;
+import org.locationtech.geowave.core.store.index.text.TextLikeConstraint;
 import org.locationtech.geowave.core.store.index.text.TextQueryConstraint;
 import org.opengis.filter.And;
 import org.opengis.filter.ExcludeFilter;
@@ -446,7 +447,69 @@ public class PropertyFilterVisitor extends
 	public Object visit(
 			final PropertyIsLike filter,
 			final Object data ) {
-		return new PropertyConstraintSet();
+		final Object fieldId = filter.getExpression().accept(
+				this,
+				data);
+		if (!(fieldId instanceof ByteArrayId) || (filter.getLiteral() == null)) {
+			return new PropertyConstraintSet();
+		}
+		return new PropertyConstraintSet(
+				new TextLikeConstraint(
+						(ByteArrayId) fieldId,
+						toLikePattern(filter),
+						filter.isMatchingCase()));
+	}
+
+	/**
+	 * Converts the filter's pattern, which may use any wildcard, single
+	 * character and escape strings, to the syntax of {@link TextLikeConstraint}
+	 */
+	private static String toLikePattern(
+			final PropertyIsLike filter ) {
+		final String literal = filter.getLiteral();
+		final String wildCard = filter.getWildCard();
+		final String singleChar = filter.getSingleChar();
+		final String escape = filter.getEscape();
+		final StringBuilder pattern = new StringBuilder();
+		int i = 0;
+		while (i < literal.length()) {
+			if ((escape != null) && !escape.isEmpty() && literal.startsWith(
+					escape,
+					i) && ((i + escape.length()) < literal.length())) {
+				i += escape.length();
+				appendLiteral(
+						pattern,
+						literal.charAt(i++));
+			}
+			else if ((wildCard != null) && !wildCard.isEmpty() && literal.startsWith(
+					wildCard,
+					i)) {
+				pattern.append(TextLikeConstraint.MULTI_WILDCARD);
+				i += wildCard.length();
+			}
+			else if ((singleChar != null) && !singleChar.isEmpty() && literal.startsWith(
+					singleChar,
+					i)) {
+				pattern.append(TextLikeConstraint.SINGLE_WILDCARD);
+				i += singleChar.length();
+			}
+			else {
+				appendLiteral(
+						pattern,
+						literal.charAt(i++));
+			}
+		}
+		return pattern.toString();
+	}
+
+	private static void appendLiteral(
+			final StringBuilder pattern,
+			final char c ) {
+		if ((c == TextLikeConstraint.MULTI_WILDCARD) || (c == TextLikeConstraint.SINGLE_WILDCARD)
+				|| (c == TextLikeConstraint.ESCAPE)) {
+			pattern.append(TextLikeConstraint.ESCAPE);
+		}
+		pattern.append(c);
 	}
 
 	@Override
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.query.decimation;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+import org.locationtech.geowave.core.geotime.store.dimension.GeometryWrapper;
+import org.locationtech.geowave.core.store.data.IndexedPersistenceEncoding;
+import org.locationtech.geowave.core.store.dimension.NumericDimensionField;
+import org.locationtech.geowave.core.store.filter.DistributableQueryFilter;
+import org.locationtech.geowave.core.store.index.CommonIndexModel;
+
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * Drops features that would be painted entirely within a pixel that an
+ * earlier feature already painted. The output envelope is divided into a grid
+ * of pixels and a bitmap keeps track of the pixels that are occupied. A
+ * feature whose envelope spans more than one pixel or that is outside of the
+ * grid is always accepted, and it does not mark any pixel as occupied.
+ *
+ * The bitmap is not serialized, so every node that runs this filter
+ * decimates the rows it reads independently, and the client decimates only
+ * its own share. This assumes an opaque style, and that this is the last
+ * filter applied to a row, otherwise a row that is rejected by a later filter
+ * may hide another feature in the same pixel.
+ */
+public class PixelDecimationFilter implements
+		DistributableQueryFilter
+{
+	private double minX;
+	private double minY;
+	private double pixelWidth;
+	private double pixelHeight;
+	private int columns;
+	private int rows;
+	private transient BitSet occupied;
+
+	public PixelDecimationFilter() {}
+
+	/**
+	 * @param envelope
+	 *            the output envelope in the CRS of the index
+	 * @param columns
+	 *            the number of pixels across the envelope
+	 * @param rows
+	 *            the number of pixels down the envelope
+	 */
+	public PixelDecimationFilter(
+			final Envelope envelope,
+			final int columns,
+			final int rows ) {
+		minX = envelope.getMinX();
+		minY = envelope.getMinY();
+		this.columns = Math.max(
+				1,
+				columns);
+		this.rows = Math.max(
+				1,
+				rows);
+		pixelWidth = envelope.getWidth() / this.columns;
+		pixelHeight = envelope.getHeight() / this.rows;
+	}
+
+	@Override
+	public boolean accept(
+			final CommonIndexModel indexModel,
+			final IndexedPersistenceEncoding<?> persistenceEncoding ) {
+		if ((pixelWidth <= 0) || (pixelHeight <= 0)) {
+			return true;
+		}
+		final Envelope envelope = getEnvelope(
+				indexModel,
+				persistenceEncoding);
+		if ((envelope == null) || envelope.isNull()) {
+			return true;
+		}
+		final int column = column(envelope.getMinX());
+		final int row = row(envelope.getMinY());
+		if ((column != column(envelope.getMaxX())) || (row != row(envelope.getMaxY())) || (column < 0)
+				|| (column >= columns) || (row < 0) || (row >= rows)) {
+			return true;
+		}
+		final int pixel = (row * columns) + column;
+		synchronized (this) {
+			if (occupied == null) {
+				occupied = new BitSet(
+						columns * rows);
+			}
+			else if (occupied.get(pixel)) {
+				return false;
+			}
+			occupied.set(pixel);
+		}
+		return true;
+	}
+
+	private int column(
+			final double x ) {
+		return (int) Math.floor((x - minX) / pixelWidth);
+	}
+
+	private int row(
+			final double y ) {
+		return (int) Math.floor((y - minY) / pixelHeight);
+	}
+
+	private static Envelope getEnvelope(
+			final CommonIndexModel indexModel,
+			final IndexedPersistenceEncoding<?> persistenceEncoding ) {
+		if ((indexModel == null) || (persistenceEncoding.getCommonData() == null)) {
+			return null;
+		}
+		for (final NumericDimensionField<?> dimension : indexModel.getDimensions()) {
+			final Object value = persistenceEncoding.getCommonData().getValue(
+					dimension.getFieldId());
+			if (value instanceof GeometryWrapper) {
+				return ((GeometryWrapper) value).getGeometry().getEnvelopeInternal();
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final ByteBuffer buf = ByteBuffer.allocate(40);
+		buf.putDouble(minX);
+		buf.putDouble(minY);
+		buf.putDouble(pixelWidth);
+		buf.putDouble(pixelHeight);
+		buf.putInt(columns);
+		buf.putInt(rows);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		minX = buf.getDouble();
+		minY = buf.getDouble();
+		pixelWidth = buf.getDouble();
+		pixelHeight = buf.getDouble();
+		columns = buf.getInt();
+		rows = buf.getInt();
+		occupied = null;
+	}
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.query.decimation;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
+import org.locationtech.geowave.core.store.filter.DistributableQueryFilter;
+import org.locationtech.geowave.core.store.filter.QueryFilter;
+import org.locationtech.geowave.core.store.index.PrimaryIndex;
+import org.locationtech.geowave.core.store.index.SecondaryIndex;
+import org.locationtech.geowave.core.store.query.DistributableQuery;
+
+/**
+ * Decorates a query with a {@link PixelDecimationFilter}, which is applied
+ * after all of the filters of the decorated query so that only features that
+ * pass them occupy a pixel.
+ */
+public class PixelDecimationQuery implements
+		DistributableQuery
+{
+	private DistributableQuery baseQuery;
+	private PixelDecimationFilter filter;
+
+	public PixelDecimationQuery() {}
+
+	public PixelDecimationQuery(
+			final DistributableQuery baseQuery,
+			final PixelDecimationFilter filter ) {
+		this.baseQuery = baseQuery;
+		this.filter = filter;
+	}
+
+	@Override
+	public List<QueryFilter> createFilters(
+			final PrimaryIndex index ) {
+		final List<QueryFilter> queryFilters = new ArrayList<>();
+		if (baseQuery != null) {
+			final List<QueryFilter> baseFilters = baseQuery.createFilters(index);
+			if (baseFilters != null) {
+				queryFilters.addAll(baseFilters);
+			}
+		}
+		queryFilters.add(filter);
+		return queryFilters;
+	}
+
+	@Override
+	public List<MultiDimensionalNumericData> getIndexConstraints(
+			final PrimaryIndex index ) {
+		if (baseQuery != null) {
+			return baseQuery.getIndexConstraints(index);
+		}
+		return Collections.emptyList();
+	}
+
+	@Override
+	public List<ByteArrayRange> getSecondaryIndexConstraints(
+			final SecondaryIndex<?> index ) {
+		if (baseQuery != null) {
+			return baseQuery.getSecondaryIndexConstraints(index);
+		}
+		return Collections.emptyList();
+	}
+
+	@Override
+	public List<DistributableQueryFilter> getSecondaryQueryFilter(
+			final SecondaryIndex<?> index ) {
+		if (baseQuery != null) {
+			return baseQuery.getSecondaryQueryFilter(index);
+		}
+		return Collections.emptyList();
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final byte[] baseQueryBytes = baseQuery == null ? new byte[] {} : PersistenceUtils.toBinary(baseQuery);
+		final byte[] filterBytes = filter.toBinary();
+		final ByteBuffer buf = ByteBuffer.allocate(filterBytes.length + baseQueryBytes.length + 4);
+		buf.putInt(filterBytes.length);
+		buf.put(filterBytes);
+		buf.put(baseQueryBytes);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		final byte[] filterBytes = new byte[buf.getInt()];
+		buf.get(filterBytes);
+		filter = new PixelDecimationFilter();
+		filter.fromBinary(filterBytes);
+		if (buf.hasRemaining()) {
+			final byte[] baseQueryBytes = new byte[buf.remaining()];
+			buf.get(baseQueryBytes);
+			baseQuery = (DistributableQuery) PersistenceUtils.fromBinary(baseQueryBytes);
+		}
+		else {
+			baseQuery = null;
+		}
+	}
+}
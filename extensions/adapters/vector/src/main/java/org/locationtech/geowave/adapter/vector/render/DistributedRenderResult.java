@@ -12,6 +12,7 @@ package org.locationtech.geowave.adapter.vector.render;
 
 import java.awt.AlphaComposite;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.nio.ByteBuffer;
@@ -402,15 +403,42 @@ public class DistributedRenderResult implements
 	private static PersistableRenderedImage mergeImage(
 			final PersistableRenderedImage image1,
 			final PersistableRenderedImage image2 ) {
+		if ((image2 == null) || (image2.image == null)) {
+			return image1;
+		}
+		if ((image1 == null) || (image1.image == null)) {
+			return image2;
+		}
+		// partials are typically sparse so only the region of the other image
+		// that was actually rendered to needs to be composited
+		final Rectangle otherBounds = image2.getTouchedBounds().intersection(
+				new Rectangle(
+						0,
+						0,
+						image1.image.getWidth(),
+						image1.image.getHeight()));
+		if (otherBounds.isEmpty()) {
+			return image1;
+		}
+		final Rectangle thisBounds = image1.getTouchedBounds();
+		if (thisBounds.isEmpty() && (image1.image.getWidth() == image2.image.getWidth())
+				&& (image1.image.getHeight() == image2.image.getHeight())) {
+			return image2;
+		}
 		final Graphics2D graphics = image1.image.createGraphics();
 		graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER));
 		graphics.drawImage(
-				image2.image,
-				0,
-				0,
+				image2.image.getSubimage(
+						otherBounds.x,
+						otherBounds.y,
+						otherBounds.width,
+						otherBounds.height),
+				otherBounds.x,
+				otherBounds.y,
 				null);
 		graphics.dispose();
 		return new PersistableRenderedImage(
-				image1.image);
+				image1.image,
+				thisBounds.isEmpty() ? otherBounds : thisBounds.union(otherBounds));
 	}
 }
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.store.query.aggregate.FieldSubsetAggregation;
+import org.opengis.feature.simple.SimpleFeature;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.Point;
+
+/**
+ * Bins features into the grid described by {@link HeatmapOptions}, summing an
+ * optional weight attribute (or counting features) within each cell. Points
+ * are binned by their coordinate and all other geometries by their centroid.
+ */
+public class HeatmapAggregation implements
+		FieldSubsetAggregation<HeatmapOptions, HeatmapResult, SimpleFeature>
+{
+	private HeatmapOptions options;
+	private HeatmapResult result = null;
+
+	public HeatmapAggregation() {}
+
+	public HeatmapAggregation(
+			final HeatmapOptions options ) {
+		this.options = options;
+	}
+
+	@Override
+	public void aggregate(
+			final SimpleFeature entry ) {
+		final Object geometryValue = options.getGeometryAttribute() == null ? entry.getDefaultGeometry() : entry
+				.getAttribute(options.getGeometryAttribute());
+		if (!(geometryValue instanceof Geometry) || ((Geometry) geometryValue).isEmpty()) {
+			return;
+		}
+		double weight = 1;
+		if (options.getWeightAttribute() != null) {
+			final Object weightValue = entry.getAttribute(options.getWeightAttribute());
+			if (!(weightValue instanceof Number)) {
+				return;
+			}
+			weight = ((Number) weightValue).doubleValue();
+		}
+		final Geometry geometry = (Geometry) geometryValue;
+		final Point point = geometry instanceof Point ? (Point) geometry : geometry.getCentroid();
+		final int column = options.getColumn(point.getX());
+		final int row = options.getRow(point.getY());
+		if ((column < 0) || (row < 0)) {
+			return;
+		}
+		if (result == null) {
+			result = new HeatmapResult(
+					options.getWidth(),
+					options.getHeight());
+		}
+		result.add(
+				column,
+				row,
+				weight);
+	}
+
+	@Override
+	public List<ByteArrayId> getFieldIds() {
+		if (options.getGeometryAttribute() == null) {
+			// the default geometry is unknown, so decode every field
+			return null;
+		}
+		final List<ByteArrayId> fieldIds = new ArrayList<>();
+		fieldIds.add(new ByteArrayId(
+				options.getGeometryAttribute()));
+		if (options.getWeightAttribute() != null) {
+			fieldIds.add(new ByteArrayId(
+					options.getWeightAttribute()));
+		}
+		return fieldIds;
+	}
+
+	@Override
+	public HeatmapOptions getParameters() {
+		return options;
+	}
+
+	@Override
+	public void setParameters(
+			final HeatmapOptions options ) {
+		this.options = options;
+	}
+
+	@Override
+	public HeatmapResult getResult() {
+		return result;
+	}
+
+	@Override
+	public void clearResult() {
+		result = null;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		return new byte[] {};
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {}
+}
@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import java.nio.ByteBuffer;
+
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+
+/**
+ * The grid that a {@link HeatmapAggregation} bins geometries into. The grid
+ * covers a bounding box in the data CRS with a fixed number of columns and
+ * rows, either matching the pixels of a map request or aligned with geohash
+ * cells of a given precision.
+ */
+public class HeatmapOptions implements
+		Persistable
+{
+	// keep the grid small enough that a result is at most a few MB
+	public static final int MAX_CELLS = 1 << 20;
+
+	private double minX;
+	private double minY;
+	private double maxX;
+	private double maxY;
+	private int width;
+	private int height;
+	private String weightAttribute;
+	private String geometryAttribute;
+
+	public HeatmapOptions() {}
+
+	/**
+	 * @param weightAttribute
+	 *            a numeric attribute to sum within each cell, or null to count
+	 *            features
+	 */
+	public HeatmapOptions(
+			final double minX,
+			final double minY,
+			final double maxX,
+			final double maxY,
+			final int width,
+			final int height,
+			final String weightAttribute ) {
+		this(
+				minX,
+				minY,
+				maxX,
+				maxY,
+				width,
+				height,
+				weightAttribute,
+				null);
+	}
+
+	/**
+	 * @param geometryAttribute
+	 *            the geometry attribute, if given only the geometry and weight
+	 *            attributes are decoded when the aggregation is computed within
+	 *            the data store
+	 */
+	public HeatmapOptions(
+			final double minX,
+			final double minY,
+			final double maxX,
+			final double maxY,
+			final int width,
+			final int height,
+			final String weightAttribute,
+			final String geometryAttribute ) {
+		if ((width <= 0) || (height <= 0) || (((long) width * height) > MAX_CELLS)) {
+			throw new IllegalArgumentException(
+					"Heatmap grid of " + width + "x" + height + " cells must be non-empty and have at most "
+							+ MAX_CELLS + " cells");
+		}
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.width = width;
+		this.height = height;
+		this.weightAttribute = weightAttribute;
+		this.geometryAttribute = geometryAttribute;
+	}
+
+	/**
+	 * Create a grid of geohash cells covering a longitude/latitude bounding box.
+	 * A geohash of the given precision has 5 bits per character, split between
+	 * longitude and latitude with longitude getting the extra bit for odd totals.
+	 */
+	public static HeatmapOptions forGeohashPrecision(
+			final double minLon,
+			final double minLat,
+			final double maxLon,
+			final double maxLat,
+			final int precision,
+			final String weightAttribute ) {
+		final int bits = precision * 5;
+		final double cellWidth = 360.0 / (1L << ((bits + 1) / 2));
+		final double cellHeight = 180.0 / (1L << (bits / 2));
+		final double snappedMinX = Math.max(
+				-180,
+				Math.floor((minLon + 180) / cellWidth) * cellWidth - 180);
+		final double snappedMinY = Math.max(
+				-90,
+				Math.floor((minLat + 90) / cellHeight) * cellHeight - 90);
+		final double snappedMaxX = Math.min(
+				180,
+				Math.ceil((maxLon + 180) / cellWidth) * cellWidth - 180);
+		final double snappedMaxY = Math.min(
+				90,
+				Math.ceil((maxLat + 90) / cellHeight) * cellHeight - 90);
+		return new HeatmapOptions(
+				snappedMinX,
+				snappedMinY,
+				snappedMaxX,
+				snappedMaxY,
+				Math.max(
+						1,
+						(int) Math.round((snappedMaxX - snappedMinX) / cellWidth)),
+				Math.max(
+						1,
+						(int) Math.round((snappedMaxY - snappedMinY) / cellHeight)),
+				weightAttribute);
+	}
+
+	/**
+	 * @return a copy of these options that decodes only the given geometry
+	 *         attribute
+	 */
+	public HeatmapOptions withGeometryAttribute(
+			final String geometryAttribute ) {
+		return new HeatmapOptions(
+				minX,
+				minY,
+				maxX,
+				maxY,
+				width,
+				height,
+				weightAttribute,
+				geometryAttribute);
+	}
+
+	/**
+	 * @return the column of the x coordinate, or -1 if it is outside the grid
+	 */
+	public int getColumn(
+			final double x ) {
+		return toCell(
+				x,
+				minX,
+				maxX,
+				width);
+	}
+
+	/**
+	 * @return the row of the y coordinate counted from the bottom (minimum y)
+	 *         of the grid, or -1 if it is outside the grid
+	 */
+	public int getRow(
+			final double y ) {
+		return toCell(
+				y,
+				minY,
+				maxY,
+				height);
+	}
+
+	private static int toCell(
+			final double value,
+			final double min,
+			final double max,
+			final int cells ) {
+		if ((value < min) || (value > max) || Double.isNaN(value)) {
+			return -1;
+		}
+		// the maximum edge belongs to the last cell
+		return Math.min(
+				(int) (((value - min) / (max - min)) * cells),
+				cells - 1);
+	}
+
+	public double getMinX() {
+		return minX;
+	}
+
+	public double getMinY() {
+		return minY;
+	}
+
+	public double getMaxX() {
+		return maxX;
+	}
+
+	public double getMaxY() {
+		return maxY;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public String getWeightAttribute() {
+		return weightAttribute;
+	}
+
+	public String getGeometryAttribute() {
+		return geometryAttribute;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final byte[] weightBytes = weightAttribute == null ? null : StringUtils.stringToBinary(weightAttribute);
+		final byte[] geometryBytes = geometryAttribute == null ? null : StringUtils
+				.stringToBinary(geometryAttribute);
+		final ByteBuffer buf = ByteBuffer.allocate(48 + (weightBytes == null ? 0 : weightBytes.length)
+				+ (geometryBytes == null ? 0 : geometryBytes.length));
+		buf.putDouble(minX);
+		buf.putDouble(minY);
+		buf.putDouble(maxX);
+		buf.putDouble(maxY);
+		buf.putInt(width);
+		buf.putInt(height);
+		putString(
+				buf,
+				weightBytes);
+		putString(
+				buf,
+				geometryBytes);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		minX = buf.getDouble();
+		minY = buf.getDouble();
+		maxX = buf.getDouble();
+		maxY = buf.getDouble();
+		width = buf.getInt();
+		height = buf.getInt();
+		weightAttribute = getString(buf);
+		geometryAttribute = getString(buf);
+	}
+
+	private static void putString(
+			final ByteBuffer buf,
+			final byte[] bytes ) {
+		if (bytes == null) {
+			buf.putInt(-1);
+		}
+		else {
+			buf.putInt(bytes.length);
+			buf.put(bytes);
+		}
+	}
+
+	private static String getString(
+			final ByteBuffer buf ) {
+		final int length = buf.getInt();
+		if (length < 0) {
+			return null;
+		}
+		final byte[] bytes = new byte[length];
+		buf.get(bytes);
+		return StringUtils.stringFromBinary(bytes);
+	}
+}
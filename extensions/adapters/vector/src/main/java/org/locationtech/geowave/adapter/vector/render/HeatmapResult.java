@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import java.nio.ByteBuffer;
+
+import org.locationtech.geowave.core.index.Mergeable;
+
+/**
+ * The binned weights of a {@link HeatmapAggregation}, stored row by row from
+ * the bottom (minimum y) of the grid. Heatmaps over sparse data are mostly
+ * empty so only the non-empty cells are serialized unless that would be larger
+ * than the full grid.
+ */
+public class HeatmapResult implements
+		Mergeable
+{
+	private static final byte DENSE = 0;
+	private static final byte SPARSE = 1;
+
+	private int width;
+	private int height;
+	private double[] grid;
+
+	public HeatmapResult() {}
+
+	public HeatmapResult(
+			final int width,
+			final int height ) {
+		this.width = width;
+		this.height = height;
+		grid = new double[width * height];
+	}
+
+	public void add(
+			final int column,
+			final int row,
+			final double weight ) {
+		grid[(row * width) + column] += weight;
+	}
+
+	/**
+	 * @param row
+	 *            the row counted from the bottom (minimum y) of the grid
+	 */
+	public double get(
+			final int column,
+			final int row ) {
+		return grid[(row * width) + column];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @return the cell values row by row from the bottom of the grid, this is
+	 *         the internal array and is not copied
+	 */
+	public double[] getGrid() {
+		return grid;
+	}
+
+	@Override
+	public void merge(
+			final Mergeable merge ) {
+		if ((merge != null) && (merge instanceof HeatmapResult)) {
+			final HeatmapResult other = (HeatmapResult) merge;
+			if ((other.width != width) || (other.height != height)) {
+				throw new IllegalArgumentException(
+						"Cannot merge a " + other.width + "x" + other.height + " heatmap into a " + width + "x"
+								+ height + " heatmap");
+			}
+			for (int i = 0; i < grid.length; i++) {
+				grid[i] += other.grid[i];
+			}
+		}
+	}
+
+	@Override
+	public byte[] toBinary() {
+		int nonEmptyCells = 0;
+		for (final double value : grid) {
+			if (value != 0) {
+				nonEmptyCells++;
+			}
+		}
+		final boolean sparse = (nonEmptyCells * 12L) < (grid.length * 8L);
+		final ByteBuffer buf = ByteBuffer.allocate(9 + (sparse ? 4 + (nonEmptyCells * 12) : grid.length * 8));
+		buf.putInt(width);
+		buf.putInt(height);
+		if (sparse) {
+			buf.put(SPARSE);
+			buf.putInt(nonEmptyCells);
+			for (int i = 0; i < grid.length; i++) {
+				if (grid[i] != 0) {
+					buf.putInt(i);
+					buf.putDouble(grid[i]);
+				}
+			}
+		}
+		else {
+			buf.put(DENSE);
+			for (final double value : grid) {
+				buf.putDouble(value);
+			}
+		}
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		width = buf.getInt();
+		height = buf.getInt();
+		grid = new double[width * height];
+		if (buf.get() == SPARSE) {
+			final int nonEmptyCells = buf.getInt();
+			for (int i = 0; i < nonEmptyCells; i++) {
+				final int index = buf.getInt();
+				grid[index] = buf.getDouble();
+			}
+		}
+		else {
+			for (int i = 0; i < grid.length; i++) {
+				grid[i] = buf.getDouble();
+			}
+		}
+	}
+}
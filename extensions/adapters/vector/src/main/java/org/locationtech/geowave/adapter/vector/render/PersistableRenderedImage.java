@@ -10,10 +10,15 @@
  ******************************************************************************/
 package org.locationtech.geowave.adapter.vector.render;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 
 import javax.imageio.ImageIO;
 
@@ -21,20 +26,33 @@ import org.locationtech.geowave.core.index.persist.Persistable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ar.com.hjg.pngj.FilterType;
-import it.geosolutions.imageio.plugins.png.PNGWriter;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
 
 /**
- * This class wraps a rendered image as a GeoWave Persistable object. It
- * serializes and deserializes the BufferedImage as a png using ImageIO.
+ * This class wraps a rendered image as a GeoWave Persistable object. Partial
+ * renders are only an intermediate result that is composited on the client, so
+ * rather than encoding a PNG the image is serialized as raw ARGB pixels,
+ * cropped to the bounding box of non-transparent pixels and split into tiles
+ * so that fully transparent tiles are skipped, and the remaining pixels are
+ * LZ4 compressed. Images serialized as PNG by previous versions can still be
+ * read.
  *
  */
 public class PersistableRenderedImage implements
 		Persistable
 {
 	private final static Logger LOGGER = LoggerFactory.getLogger(PersistableRenderedImage.class);
-	private final static float DEFAULT_PNG_QUALITY = 0.8f;
+	// PNG always starts with 0x89 so this can't be confused with a legacy
+	// encoding
+	private final static byte RAW_TILED_FORMAT = 1;
+	private final static int TILE_SIZE = 64;
+	private final static LZ4Factory LZ4 = LZ4Factory.fastestInstance();
 	public BufferedImage image;
+	// the region that may contain non-transparent pixels, only known after
+	// deserializing or merging, null means the whole image
+	private Rectangle touchedBounds;
 
 	public PersistableRenderedImage() {}
 
@@ -43,36 +61,115 @@ public class PersistableRenderedImage implements
 		this.image = image;
 	}
 
+	PersistableRenderedImage(
+			final BufferedImage image,
+			final Rectangle touchedBounds ) {
+		this.image = image;
+		this.touchedBounds = touchedBounds;
+	}
+
 	public BufferedImage getImage() {
 		return image;
 	}
 
+	/**
+	 * @return the region of the image that may contain non-transparent pixels,
+	 *         an empty rectangle if nothing was rendered
+	 */
+	public Rectangle getTouchedBounds() {
+		if (image == null) {
+			return new Rectangle();
+		}
+		if (touchedBounds == null) {
+			return new Rectangle(
+					0,
+					0,
+					image.getWidth(),
+					image.getHeight());
+		}
+		return touchedBounds;
+	}
+
 	@Override
 	public byte[] toBinary() {
 		if (image == null) {
 			return new byte[0];
 		}
-		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		try {
-			// we could just use the expected output format, but that may not be
-			// correct, instead we use PNG
-
-			// it seems that even though the requested image may be jpeg
-			// example, the individual styles may need to retain transparency to
-			// be composited correctly
-			final PNGWriter writer = new PNGWriter();
-			image = (BufferedImage) writer.writePNG(
-					image,
-					baos,
-					DEFAULT_PNG_QUALITY,
-					FilterType.FILTER_NONE);
-		}
-		catch (final Exception e) {
-			LOGGER.warn(
-					"Unable to serialize image",
-					e);
+		final int width = image.getWidth();
+		final int height = image.getHeight();
+		final int[] pixels = getArgbPixels(image);
+		final Rectangle crop = computeBounds(
+				pixels,
+				width,
+				height,
+				getTouchedBounds());
+		final int tilesX = (crop.width + TILE_SIZE - 1) / TILE_SIZE;
+		final int tilesY = (crop.height + TILE_SIZE - 1) / TILE_SIZE;
+		final byte[] tileMask = new byte[((tilesX * tilesY) + 7) / 8];
+		final int[] tilePixels = new int[crop.width * crop.height];
+		int pixelCount = 0;
+		for (int ty = 0; ty < tilesY; ty++) {
+			final int minY = crop.y + (ty * TILE_SIZE);
+			final int maxY = Math.min(
+					minY + TILE_SIZE,
+					crop.y + crop.height);
+			for (int tx = 0; tx < tilesX; tx++) {
+				final int minX = crop.x + (tx * TILE_SIZE);
+				final int maxX = Math.min(
+						minX + TILE_SIZE,
+						crop.x + crop.width);
+				if (isTransparent(
+						pixels,
+						width,
+						minX,
+						minY,
+						maxX,
+						maxY)) {
+					continue;
+				}
+				final int tile = (ty * tilesX) + tx;
+				tileMask[tile >>> 3] |= (1 << (tile & 7));
+				for (int y = minY; y < maxY; y++) {
+					System.arraycopy(
+							pixels,
+							(y * width) + minX,
+							tilePixels,
+							pixelCount,
+							maxX - minX);
+					pixelCount += (maxX - minX);
+				}
+			}
 		}
-		return baos.toByteArray();
+		final int rawLength = pixelCount * 4;
+		final ByteBuffer raw = ByteBuffer.allocate(rawLength);
+		raw.asIntBuffer().put(
+				tilePixels,
+				0,
+				pixelCount);
+		final LZ4Compressor compressor = LZ4.fastCompressor();
+		final byte[] compressed = new byte[compressor.maxCompressedLength(rawLength)];
+		final int compressedLength = compressor.compress(
+				raw.array(),
+				0,
+				rawLength,
+				compressed,
+				0,
+				compressed.length);
+		final ByteBuffer buf = ByteBuffer.allocate(29 + tileMask.length + compressedLength);
+		buf.put(RAW_TILED_FORMAT);
+		buf.putInt(width);
+		buf.putInt(height);
+		buf.putInt(crop.x);
+		buf.putInt(crop.y);
+		buf.putInt(crop.width);
+		buf.putInt(crop.height);
+		buf.putInt(rawLength);
+		buf.put(tileMask);
+		buf.put(
+				compressed,
+				0,
+				compressedLength);
+		return buf.array();
 	}
 
 	@Override
@@ -81,10 +178,73 @@ public class PersistableRenderedImage implements
 		if (bytes.length == 0) {
 			return;
 		}
+		if (bytes[0] != RAW_TILED_FORMAT) {
+			fromPng(bytes);
+			return;
+		}
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		buf.get();
+		final int width = buf.getInt();
+		final int height = buf.getInt();
+		final Rectangle crop = new Rectangle(
+				buf.getInt(),
+				buf.getInt(),
+				buf.getInt(),
+				buf.getInt());
+		final int rawLength = buf.getInt();
+		image = new BufferedImage(
+				width,
+				height,
+				BufferedImage.TYPE_INT_ARGB);
+		touchedBounds = crop;
+		if (rawLength == 0) {
+			return;
+		}
+		final int tilesX = (crop.width + TILE_SIZE - 1) / TILE_SIZE;
+		final int tilesY = (crop.height + TILE_SIZE - 1) / TILE_SIZE;
+		final byte[] tileMask = new byte[((tilesX * tilesY) + 7) / 8];
+		buf.get(tileMask);
+		final byte[] raw = new byte[rawLength];
+		LZ4.fastDecompressor().decompress(
+				bytes,
+				buf.position(),
+				raw,
+				0,
+				rawLength);
+		final IntBuffer tilePixels = ByteBuffer.wrap(
+				raw).asIntBuffer();
+		final int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+		for (int ty = 0; ty < tilesY; ty++) {
+			final int minY = crop.y + (ty * TILE_SIZE);
+			final int maxY = Math.min(
+					minY + TILE_SIZE,
+					crop.y + crop.height);
+			for (int tx = 0; tx < tilesX; tx++) {
+				final int tile = (ty * tilesX) + tx;
+				if ((tileMask[tile >>> 3] & (1 << (tile & 7))) == 0) {
+					continue;
+				}
+				final int minX = crop.x + (tx * TILE_SIZE);
+				final int maxX = Math.min(
+						minX + TILE_SIZE,
+						crop.x + crop.width);
+				for (int y = minY; y < maxY; y++) {
+					tilePixels.get(
+							pixels,
+							(y * width) + minX,
+							maxX - minX);
+				}
+			}
+		}
+	}
+
+	private void fromPng(
+			final byte[] bytes ) {
 		final ByteArrayInputStream bais = new ByteArrayInputStream(
 				bytes);
 		try {
 			image = ImageIO.read(bais);
+			touchedBounds = null;
 		}
 		catch (final IOException e) {
 			LOGGER.warn(
@@ -92,4 +252,96 @@ public class PersistableRenderedImage implements
 					e);
 		}
 	}
+
+	private static int[] getArgbPixels(
+			final BufferedImage image ) {
+		final int width = image.getWidth();
+		final int height = image.getHeight();
+		final WritableRaster raster = image.getRaster();
+		if ((image.getType() == BufferedImage.TYPE_INT_ARGB) && (raster.getParent() == null)
+				&& (raster.getSampleModel() instanceof SinglePixelPackedSampleModel)
+				&& (((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride() == width)
+				&& (raster.getDataBuffer().getNumBanks() == 1) && (raster.getDataBuffer().getOffset() == 0)) {
+			// the common case, read the pixels directly without conversion
+			return ((DataBufferInt) raster.getDataBuffer()).getData();
+		}
+		return image.getRGB(
+				0,
+				0,
+				width,
+				height,
+				null,
+				0,
+				width);
+	}
+
+	/**
+	 * shrink the search region to the bounding box of non-transparent pixels
+	 */
+	private static Rectangle computeBounds(
+			final int[] pixels,
+			final int width,
+			final int height,
+			final Rectangle searchRegion ) {
+		final Rectangle region = searchRegion.intersection(new Rectangle(
+				0,
+				0,
+				width,
+				height));
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = -1;
+		int maxY = -1;
+		for (int y = region.y; y < (region.y + region.height); y++) {
+			final int rowOffset = y * width;
+			int x = region.x;
+			final int rowEnd = region.x + region.width;
+			while ((x < rowEnd) && ((pixels[rowOffset + x] >>> 24) == 0)) {
+				x++;
+			}
+			if (x == rowEnd) {
+				continue;
+			}
+			int lastX = rowEnd - 1;
+			while ((pixels[rowOffset + lastX] >>> 24) == 0) {
+				lastX--;
+			}
+			minX = Math.min(
+					minX,
+					x);
+			maxX = Math.max(
+					maxX,
+					lastX);
+			if (minY == Integer.MAX_VALUE) {
+				minY = y;
+			}
+			maxY = y;
+		}
+		if (maxY < 0) {
+			return new Rectangle();
+		}
+		return new Rectangle(
+				minX,
+				minY,
+				(maxX - minX) + 1,
+				(maxY - minY) + 1);
+	}
+
+	private static boolean isTransparent(
+			final int[] pixels,
+			final int width,
+			final int minX,
+			final int minY,
+			final int maxX,
+			final int maxY ) {
+		for (int y = minY; y < maxY; y++) {
+			final int rowOffset = y * width;
+			for (int x = minX; x < maxX; x++) {
+				if ((pixels[rowOffset + x] >>> 24) != 0) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
 }
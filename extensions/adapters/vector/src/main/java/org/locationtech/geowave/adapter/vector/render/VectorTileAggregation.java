@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.store.query.aggregate.FieldSubsetAggregation;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.type.AttributeDescriptor;
+import org.opengis.feature.type.GeometryDescriptor;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Encodes features into a single Mapbox Vector Tile layer as described by
+ * {@link VectorTileOptions}. Geometries are clipped to the buffered tile,
+ * simplified and quantized to tile units, and the requested attributes are
+ * kept as feature tags. Partial layers computed within the data store are
+ * merged into one layer.
+ */
+public class VectorTileAggregation implements
+		FieldSubsetAggregation<VectorTileOptions, VectorTileResult, SimpleFeature>
+{
+	private VectorTileOptions options;
+	private VectorTileResult result = null;
+
+	public VectorTileAggregation() {}
+
+	public VectorTileAggregation(
+			final VectorTileOptions options ) {
+		this.options = options;
+	}
+
+	@Override
+	public void aggregate(
+			final SimpleFeature entry ) {
+		final Object geometryValue = options.getGeometryAttribute() == null ? entry.getDefaultGeometry() : entry
+				.getAttribute(options.getGeometryAttribute());
+		if (!(geometryValue instanceof Geometry) || ((Geometry) geometryValue).isEmpty()) {
+			return;
+		}
+		final List<Pair<Integer, int[]>> geometries = VectorTileGeometryEncoder.encode(
+				(Geometry) geometryValue,
+				options);
+		if (geometries.isEmpty()) {
+			return;
+		}
+		if (result == null) {
+			result = new VectorTileResult(
+					options.getLayerName() == null ? entry.getFeatureType().getTypeName() : options.getLayerName(),
+					options.getExtent());
+		}
+		final Map<String, Object> attributes = getAttributes(entry);
+		final Long id = toNumericId(entry.getID());
+		for (final Pair<Integer, int[]> geometry : geometries) {
+			result.addFeature(
+					id,
+					geometry.getLeft(),
+					geometry.getRight(),
+					attributes);
+		}
+	}
+
+	private Map<String, Object> getAttributes(
+			final SimpleFeature entry ) {
+		final Map<String, Object> attributes = new LinkedHashMap<>();
+		if (options.getAttributes() == null) {
+			for (final AttributeDescriptor descriptor : entry.getFeatureType().getAttributeDescriptors()) {
+				if (!(descriptor instanceof GeometryDescriptor)) {
+					attributes.put(
+							descriptor.getLocalName(),
+							entry.getAttribute(descriptor.getLocalName()));
+				}
+			}
+		}
+		else {
+			for (final String attribute : options.getAttributes()) {
+				if (entry.getFeatureType().getDescriptor(
+						attribute) != null) {
+					attributes.put(
+							attribute,
+							entry.getAttribute(attribute));
+				}
+			}
+		}
+		return attributes;
+	}
+
+	/**
+	 * vector tile feature IDs are unsigned integers, so only numeric feature IDs
+	 * are kept
+	 */
+	private static Long toNumericId(
+			final String id ) {
+		if ((id == null) || id.isEmpty() || (id.length() > 18)) {
+			return null;
+		}
+		for (int i = 0; i < id.length(); i++) {
+			if (!Character.isDigit(id.charAt(i))) {
+				return null;
+			}
+		}
+		return Long.parseLong(id);
+	}
+
+	@Override
+	public List<ByteArrayId> getFieldIds() {
+		if ((options.getGeometryAttribute() == null) || (options.getAttributes() == null)) {
+			// either the default geometry or the attributes are unknown, so
+			// decode every field
+			return null;
+		}
+		final List<ByteArrayId> fieldIds = new ArrayList<>();
+		fieldIds.add(new ByteArrayId(
+				options.getGeometryAttribute()));
+		for (final String attribute : options.getAttributes()) {
+			fieldIds.add(new ByteArrayId(
+					attribute));
+		}
+		return fieldIds;
+	}
+
+	@Override
+	public VectorTileOptions getParameters() {
+		return options;
+	}
+
+	@Override
+	public void setParameters(
+			final VectorTileOptions options ) {
+		this.options = options;
+	}
+
+	@Override
+	public VectorTileResult getResult() {
+		return result;
+	}
+
+	@Override
+	public void clearResult() {
+		result = null;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		return new byte[] {};
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {}
+}
@@ -0,0 +1,449 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.CoordinateSequence;
+import com.vividsolutions.jts.geom.CoordinateSequenceFilter;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import com.vividsolutions.jts.geom.TopologyException;
+import com.vividsolutions.jts.simplify.DouglasPeuckerSimplifier;
+
+/**
+ * Converts geometries into vector tile geometry commands: coordinates are
+ * transformed into tile space, clipped to the buffered tile, simplified,
+ * quantized to integer tile units and encoded as zig-zag delta commands.
+ */
+final class VectorTileGeometryEncoder
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(VectorTileGeometryEncoder.class);
+	private static final int MOVE_TO = 1;
+	private static final int LINE_TO = 2;
+	private static final int CLOSE_PATH = 7;
+
+	private VectorTileGeometryEncoder() {}
+
+	/**
+	 * @return the encoded geometries keyed by vector tile geometry type, one
+	 *         per type present in the geometry, empty if nothing remains
+	 *         within the tile
+	 */
+	static List<Pair<Integer, int[]>> encode(
+			final Geometry geometry,
+			final VectorTileOptions options ) {
+		final List<Pair<Integer, int[]>> encoded = new ArrayList<>();
+		final Geometry tileGeometry = toTileGeometry(
+				geometry,
+				options);
+		if (tileGeometry == null) {
+			return encoded;
+		}
+		final List<Point> points = new ArrayList<>();
+		final List<LineString> lines = new ArrayList<>();
+		final List<Polygon> polygons = new ArrayList<>();
+		collect(
+				tileGeometry,
+				points,
+				lines,
+				polygons);
+		final Envelope clip = getClipEnvelope(options);
+		final CommandBuilder pointCommands = new CommandBuilder();
+		encodePoints(
+				points,
+				clip,
+				pointCommands);
+		final CommandBuilder lineCommands = new CommandBuilder();
+		for (final LineString line : lines) {
+			encodeLine(
+					line,
+					lineCommands);
+		}
+		final CommandBuilder polygonCommands = new CommandBuilder();
+		for (final Polygon polygon : polygons) {
+			encodePolygon(
+					polygon,
+					polygonCommands);
+		}
+		if (!pointCommands.isEmpty()) {
+			encoded.add(Pair.of(
+					VectorTileResult.GEOM_TYPE_POINT,
+					pointCommands.toArray()));
+		}
+		if (!lineCommands.isEmpty()) {
+			encoded.add(Pair.of(
+					VectorTileResult.GEOM_TYPE_LINESTRING,
+					lineCommands.toArray()));
+		}
+		if (!polygonCommands.isEmpty()) {
+			encoded.add(Pair.of(
+					VectorTileResult.GEOM_TYPE_POLYGON,
+					polygonCommands.toArray()));
+		}
+		return encoded;
+	}
+
+	private static Envelope getClipEnvelope(
+			final VectorTileOptions options ) {
+		return new Envelope(
+				-options.getBuffer(),
+				options.getExtent() + options.getBuffer(),
+				-options.getBuffer(),
+				options.getExtent() + options.getBuffer());
+	}
+
+	/**
+	 * @return the geometry transformed into tile units, clipped and
+	 *         simplified, or null if it is entirely outside the tile
+	 */
+	private static Geometry toTileGeometry(
+			final Geometry geometry,
+			final VectorTileOptions options ) {
+		Geometry tileGeometry = (Geometry) geometry.clone();
+		tileGeometry.apply(new CoordinateSequenceFilter() {
+			@Override
+			public void filter(
+					final CoordinateSequence seq,
+					final int i ) {
+				final double x = seq.getOrdinate(
+						i,
+						CoordinateSequence.X);
+				final double y = seq.getOrdinate(
+						i,
+						CoordinateSequence.Y);
+				seq.setOrdinate(
+						i,
+						CoordinateSequence.X,
+						options.toTileX(x));
+				seq.setOrdinate(
+						i,
+						CoordinateSequence.Y,
+						options.toTileY(y));
+			}
+
+			@Override
+			public boolean isDone() {
+				return false;
+			}
+
+			@Override
+			public boolean isGeometryChanged() {
+				return true;
+			}
+		});
+		final Envelope clip = getClipEnvelope(options);
+		if (!clip.intersects(tileGeometry.getEnvelopeInternal())) {
+			return null;
+		}
+		if ((tileGeometry.getDimension() > 0) && !clip.contains(tileGeometry.getEnvelopeInternal())) {
+			// points are filtered individually while encoding
+			final Geometry clipGeometry = tileGeometry.getFactory().toGeometry(
+					clip);
+			try {
+				tileGeometry = tileGeometry.intersection(clipGeometry);
+			}
+			catch (final TopologyException e) {
+				if (tileGeometry.getDimension() < 2) {
+					LOGGER.debug(
+							"Unable to clip geometry to vector tile",
+							e);
+					return null;
+				}
+				// repair invalid polygons and try again
+				try {
+					tileGeometry = tileGeometry.buffer(
+							0).intersection(
+							clipGeometry);
+				}
+				catch (final TopologyException e2) {
+					LOGGER.debug(
+							"Unable to clip geometry to vector tile",
+							e2);
+					return null;
+				}
+			}
+			if (tileGeometry.isEmpty()) {
+				return null;
+			}
+		}
+		if ((options.getSimplifyTolerance() > 0) && (tileGeometry.getDimension() > 0)) {
+			tileGeometry = DouglasPeuckerSimplifier.simplify(
+					tileGeometry,
+					options.getSimplifyTolerance());
+		}
+		return tileGeometry;
+	}
+
+	private static void collect(
+			final Geometry geometry,
+			final List<Point> points,
+			final List<LineString> lines,
+			final List<Polygon> polygons ) {
+		if (geometry.isEmpty()) {
+			return;
+		}
+		if (geometry instanceof Point) {
+			points.add((Point) geometry);
+		}
+		else if (geometry instanceof LineString) {
+			lines.add((LineString) geometry);
+		}
+		else if (geometry instanceof Polygon) {
+			polygons.add((Polygon) geometry);
+		}
+		else {
+			for (int i = 0; i < geometry.getNumGeometries(); i++) {
+				collect(
+						geometry.getGeometryN(i),
+						points,
+						lines,
+						polygons);
+			}
+		}
+	}
+
+	private static void encodePoints(
+			final List<Point> points,
+			final Envelope clip,
+			final CommandBuilder commands ) {
+		final List<int[]> quantized = new ArrayList<>();
+		for (final Point point : points) {
+			if (clip.contains(point.getCoordinate())) {
+				quantized.add(new int[] {
+					(int) Math.round(point.getX()),
+					(int) Math.round(point.getY())
+				});
+			}
+		}
+		if (quantized.isEmpty()) {
+			return;
+		}
+		commands.command(
+				MOVE_TO,
+				quantized.size());
+		for (final int[] point : quantized) {
+			commands.point(
+					point[0],
+					point[1]);
+		}
+	}
+
+	private static void encodeLine(
+			final LineString line,
+			final CommandBuilder commands ) {
+		final int[] coords = quantize(
+				line.getCoordinates(),
+				false);
+		final int numPoints = coords.length / 2;
+		if (numPoints < 2) {
+			return;
+		}
+		writePath(
+				coords,
+				commands);
+	}
+
+	private static void encodePolygon(
+			final Polygon polygon,
+			final CommandBuilder commands ) {
+		// the exterior ring must have a positive area in tile coordinates (y
+		// down) and the interior rings a negative area
+		final int[] exterior = orientedRing(
+				polygon.getExteriorRing().getCoordinates(),
+				true);
+		if (exterior == null) {
+			return;
+		}
+		writeRing(
+				exterior,
+				commands);
+		for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+			final int[] interior = orientedRing(
+					polygon.getInteriorRingN(
+							i).getCoordinates(),
+					false);
+			if (interior != null) {
+				writeRing(
+						interior,
+						commands);
+			}
+		}
+	}
+
+	/**
+	 * @return the quantized ring without its closing point, or null if it
+	 *         collapsed
+	 */
+	private static int[] orientedRing(
+			final Coordinate[] coordinates,
+			final boolean exterior ) {
+		final int[] coords = quantize(
+				coordinates,
+				true);
+		final int numPoints = coords.length / 2;
+		if (numPoints < 3) {
+			return null;
+		}
+		long area = 0;
+		for (int i = 0; i < numPoints; i++) {
+			final int next = (i + 1) % numPoints;
+			area += ((long) coords[2 * i] * coords[(2 * next) + 1]) - ((long) coords[2 * next] * coords[(2 * i) + 1]);
+		}
+		if (area == 0) {
+			return null;
+		}
+		if ((area > 0) != exterior) {
+			// reverse the ring
+			for (int i = 0, j = numPoints - 1; i < j; i++, j--) {
+				final int x = coords[2 * i];
+				final int y = coords[(2 * i) + 1];
+				coords[2 * i] = coords[2 * j];
+				coords[(2 * i) + 1] = coords[(2 * j) + 1];
+				coords[2 * j] = x;
+				coords[(2 * j) + 1] = y;
+			}
+		}
+		return coords;
+	}
+
+	private static void writeRing(
+			final int[] coords,
+			final CommandBuilder commands ) {
+		writePath(
+				coords,
+				commands);
+		commands.command(
+				CLOSE_PATH,
+				1);
+	}
+
+	private static void writePath(
+			final int[] coords,
+			final CommandBuilder commands ) {
+		commands.command(
+				MOVE_TO,
+				1);
+		commands.point(
+				coords[0],
+				coords[1]);
+		commands.command(
+				LINE_TO,
+				(coords.length / 2) - 1);
+		for (int i = 2; i < coords.length; i += 2) {
+			commands.point(
+					coords[i],
+					coords[i + 1]);
+		}
+	}
+
+	/**
+	 * round coordinates to tile units dropping repeated points, and the
+	 * closing point of a ring
+	 */
+	private static int[] quantize(
+			final Coordinate[] coordinates,
+			final boolean ring ) {
+		final int[] coords = new int[coordinates.length * 2];
+		int length = 0;
+		for (final Coordinate coordinate : coordinates) {
+			final int x = (int) Math.round(coordinate.x);
+			final int y = (int) Math.round(coordinate.y);
+			if ((length > 0) && (coords[length - 2] == x) && (coords[length - 1] == y)) {
+				continue;
+			}
+			coords[length++] = x;
+			coords[length++] = y;
+		}
+		if (ring && (length > 2) && (coords[0] == coords[length - 2]) && (coords[1] == coords[length - 1])) {
+			length -= 2;
+		}
+		final int[] result = new int[length];
+		System.arraycopy(
+				coords,
+				0,
+				result,
+				0,
+				length);
+		return result;
+	}
+
+	/**
+	 * accumulates command integers, point parameters are deltas from the
+	 * previous point of the feature
+	 */
+	private static class CommandBuilder
+	{
+		private int[] commands = new int[16];
+		private int length = 0;
+		private int cursorX = 0;
+		private int cursorY = 0;
+
+		private void command(
+				final int id,
+				final int count ) {
+			add((id & 0x7) | (count << 3));
+		}
+
+		private void point(
+				final int x,
+				final int y ) {
+			add(zigZag(x - cursorX));
+			add(zigZag(y - cursorY));
+			cursorX = x;
+			cursorY = y;
+		}
+
+		private static int zigZag(
+				final int value ) {
+			return (value << 1) ^ (value >> 31);
+		}
+
+		private void add(
+				final int value ) {
+			if (length == commands.length) {
+				final int[] newCommands = new int[commands.length * 2];
+				System.arraycopy(
+						commands,
+						0,
+						newCommands,
+						0,
+						length);
+				commands = newCommands;
+			}
+			commands[length++] = value;
+		}
+
+		private boolean isEmpty() {
+			return length == 0;
+		}
+
+		private int[] toArray() {
+			final int[] result = new int[length];
+			System.arraycopy(
+					commands,
+					0,
+					result,
+					0,
+					length);
+			return result;
+		}
+	}
+}
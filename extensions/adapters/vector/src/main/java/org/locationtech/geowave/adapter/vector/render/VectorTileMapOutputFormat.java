@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.geoserver.platform.ServiceException;
+import org.geoserver.wms.GetMapOutputFormat;
+import org.geoserver.wms.MapProducerCapabilities;
+import org.geoserver.wms.WMSMapContent;
+import org.geoserver.wms.WebMap;
+import org.geoserver.wms.map.RawMap;
+import org.geotools.data.FeatureSource;
+import org.geotools.data.Query;
+import org.geotools.factory.CommonFactoryFinder;
+import org.geotools.factory.Hints;
+import org.geotools.feature.FeatureCollection;
+import org.geotools.feature.FeatureIterator;
+import org.geotools.geometry.jts.ReferencedEnvelope;
+import org.geotools.map.FeatureLayer;
+import org.geotools.map.Layer;
+import org.geotools.referencing.CRS;
+import org.locationtech.geowave.adapter.vector.plugin.GeoWaveFeatureCollection;
+import org.locationtech.geowave.adapter.vector.query.aggregation.AggregationVisitor;
+import org.locationtech.geowave.core.geotime.GeometryUtils;
+import org.opengis.feature.Feature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.opengis.feature.type.FeatureType;
+import org.opengis.filter.Filter;
+import org.opengis.filter.FilterFactory2;
+import org.opengis.referencing.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.operation.TransformException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A WMS GetMap output format producing Mapbox Vector Tiles, so that tiles can
+ * be requested through WMS or through a tile cache serving z/x/y tiles in web
+ * mercator. Each feature layer of the request becomes a tile layer. For GeoWave
+ * layers the tile layer is built by a {@link VectorTileAggregation} within the
+ * data store, other layers are encoded client side. Extra attributes to keep
+ * can be given as a comma separated "attributes" format option, otherwise every
+ * attribute is kept.
+ */
+public class VectorTileMapOutputFormat implements
+		GetMapOutputFormat
+{
+	private final static Logger LOGGER = LoggerFactory.getLogger(VectorTileMapOutputFormat.class);
+	public static final String MIME_TYPE = "application/vnd.mapbox-vector-tile";
+	public static final Hints.Key OPTIONS = new Hints.Key(
+			VectorTileOptions.class);
+	private static final Set<String> OUTPUT_FORMATS = Collections.unmodifiableSet(new HashSet<>(
+			Arrays.asList(
+					MIME_TYPE,
+					"application/x-protobuf;type=mapbox-vector",
+					"mvt",
+					"pbf")));
+	private static final Set<Integer> WEB_MERCATOR_CODES = new HashSet<>(
+			Arrays.asList(
+					3857,
+					900913,
+					3785,
+					102100,
+					102113));
+	private static final MapProducerCapabilities CAPABILITIES = new MapProducerCapabilities(
+			true,
+			false,
+			false,
+			true,
+			null);
+
+	@Override
+	public WebMap produceMap(
+			final WMSMapContent mapContent )
+			throws ServiceException,
+			IOException {
+		final String[] attributes = getAttributes(mapContent);
+		final ByteArrayOutputStream tile = new ByteArrayOutputStream();
+		for (final Layer layer : mapContent.layers()) {
+			if (!(layer instanceof FeatureLayer)) {
+				continue;
+			}
+			final VectorTileResult result = encodeLayer(
+					(FeatureLayer) layer,
+					mapContent.getRenderingArea(),
+					attributes);
+			if ((result != null) && (result.getFeatureCount() > 0)) {
+				// each result is a complete tile with one layer, appending
+				// them produces one tile with every layer
+				tile.write(result.toBinary());
+			}
+		}
+		return new RawMap(
+				mapContent,
+				tile.toByteArray(),
+				MIME_TYPE);
+	}
+
+	private static String[] getAttributes(
+			final WMSMapContent mapContent ) {
+		if ((mapContent.getRequest() == null) || (mapContent.getRequest().getFormatOptions() == null)) {
+			return null;
+		}
+		final Map<String, Object> formatOptions = mapContent.getRequest().getFormatOptions();
+		final Object attributes = formatOptions.get("attributes");
+		if ((attributes == null) || attributes.toString().trim().isEmpty()) {
+			return null;
+		}
+		final String[] names = attributes.toString().split(
+				",");
+		for (int i = 0; i < names.length; i++) {
+			names[i] = names[i].trim();
+		}
+		return names;
+	}
+
+	private static VectorTileResult encodeLayer(
+			final FeatureLayer layer,
+			final ReferencedEnvelope renderingArea,
+			final String[] attributes )
+			throws IOException {
+		final FeatureSource<?, ?> source = layer.getFeatureSource();
+		final FeatureType schema = source.getSchema();
+		if (!(schema instanceof SimpleFeatureType) || (schema.getGeometryDescriptor() == null)) {
+			return null;
+		}
+		CoordinateReferenceSystem dataCrs = schema.getCoordinateReferenceSystem();
+		if (dataCrs == null) {
+			dataCrs = GeometryUtils.getDefaultCRS();
+		}
+		final VectorTileOptions options;
+		final ReferencedEnvelope queryEnvelope;
+		try {
+			final ReferencedEnvelope dataEnvelope = renderingArea.transform(
+					dataCrs,
+					true);
+			options = new VectorTileOptions(
+					dataEnvelope.getMinX(),
+					dataEnvelope.getMinY(),
+					dataEnvelope.getMaxX(),
+					dataEnvelope.getMaxY(),
+					isWebMercator(renderingArea.getCoordinateReferenceSystem()) && (dataCrs instanceof GeographicCRS),
+					schema.getName().getLocalPart(),
+					attributes);
+			// include features in the buffer around the tile
+			queryEnvelope = new ReferencedEnvelope(
+					dataEnvelope);
+			queryEnvelope.expandBy(
+					(dataEnvelope.getWidth() * options.getBuffer()) / options.getExtent(),
+					(dataEnvelope.getHeight() * options.getBuffer()) / options.getExtent());
+		}
+		catch (TransformException | FactoryException e) {
+			throw new ServiceException(
+					"Unable to transform the tile bounds to the layer CRS",
+					e);
+		}
+		final FilterFactory2 ff = CommonFactoryFinder.getFilterFactory2();
+		Filter filter = ff.bbox(
+				ff.property(schema.getGeometryDescriptor().getLocalName()),
+				queryEnvelope);
+		if ((layer.getQuery() != null) && (layer.getQuery().getFilter() != null)
+				&& !Filter.INCLUDE.equals(layer.getQuery().getFilter())) {
+			filter = ff.and(
+					filter,
+					layer.getQuery().getFilter());
+		}
+		final Query query = new Query(
+				schema.getName().getLocalPart(),
+				filter);
+		query.getHints().put(
+				OPTIONS,
+				options);
+		final FeatureCollection<?, ?> features = source.getFeatures(query);
+		if (GeoWaveFeatureCollection.getVectorTileFeatureType().equals(
+				features.getSchema())) {
+			// the layer was encoded within GeoWave
+			VectorTileResult result = null;
+			try (FeatureIterator<?> it = features.features()) {
+				while (it.hasNext()) {
+					final Feature feature = it.next();
+					final VectorTileResult featureResult = (VectorTileResult) feature.getProperty(
+							"result").getValue();
+					if (result == null) {
+						result = featureResult;
+					}
+					else {
+						result.merge(featureResult);
+					}
+				}
+			}
+			return result;
+		}
+		final AggregationVisitor<VectorTileResult> visitor = new AggregationVisitor<>(
+				new VectorTileAggregation(
+						options));
+		features.accepts(
+				visitor,
+				null);
+		return visitor.getResult();
+	}
+
+	private static boolean isWebMercator(
+			final CoordinateReferenceSystem crs ) {
+		if (crs == null) {
+			return false;
+		}
+		try {
+			final Integer code = CRS.lookupEpsgCode(
+					crs,
+					false);
+			return (code != null) && WEB_MERCATOR_CODES.contains(code);
+		}
+		catch (final FactoryException e) {
+			LOGGER.debug(
+					"Unable to look up EPSG code of map CRS",
+					e);
+			return false;
+		}
+	}
+
+	@Override
+	public Set<String> getOutputFormatNames() {
+		return OUTPUT_FORMATS;
+	}
+
+	@Override
+	public String getMimeType() {
+		return MIME_TYPE;
+	}
+
+	@Override
+	public MapProducerCapabilities getCapabilities(
+			final String format ) {
+		return CAPABILITIES;
+	}
+}
@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import java.nio.ByteBuffer;
+
+import org.locationtech.geowave.core.index.StringUtils;
+import org.locationtech.geowave.core.index.persist.Persistable;
+
+/**
+ * The tile that a {@link VectorTileAggregation} encodes features into. The tile
+ * covers a bounding box in the data CRS. Tile coordinates are either linear
+ * within the bounding box, or, for longitude/latitude data rendered in web
+ * mercator tiles, linear in longitude and mercator projected latitude so that
+ * the tile lines up with the usual z/x/y tile grid.
+ */
+public class VectorTileOptions implements
+		Persistable
+{
+	public static final int DEFAULT_EXTENT = 4096;
+	// the most common tile size in pixels, used to express the defaults below
+	// in pixels
+	private static final int TILE_PIXELS = 256;
+	private static final double MAX_MERCATOR_LATITUDE = 85.0511287798066;
+
+	private double minX;
+	private double minY;
+	private double maxX;
+	private double maxY;
+	private boolean webMercator;
+	private int extent;
+	private int buffer;
+	private double simplifyTolerance;
+	private String layerName;
+	private String[] attributes;
+	private String geometryAttribute;
+
+	public VectorTileOptions() {}
+
+	/**
+	 * Create options using the default extent, a buffer of 16 pixels and a
+	 * simplification tolerance of a quarter of a pixel
+	 *
+	 * @param attributes
+	 *            the attributes to keep, or null to keep every non-geometry
+	 *            attribute
+	 */
+	public VectorTileOptions(
+			final double minX,
+			final double minY,
+			final double maxX,
+			final double maxY,
+			final boolean webMercator,
+			final String layerName,
+			final String[] attributes ) {
+		this(
+				minX,
+				minY,
+				maxX,
+				maxY,
+				webMercator,
+				DEFAULT_EXTENT,
+				(16 * DEFAULT_EXTENT) / TILE_PIXELS,
+				DEFAULT_EXTENT / (4.0 * TILE_PIXELS),
+				layerName,
+				attributes,
+				null);
+	}
+
+	/**
+	 * @param extent
+	 *            the number of tile units across the tile
+	 * @param buffer
+	 *            the number of tile units beyond the tile edges to keep so that
+	 *            features crossing tile boundaries render seamlessly
+	 * @param simplifyTolerance
+	 *            the simplification distance tolerance in tile units, 0 to not
+	 *            simplify
+	 * @param geometryAttribute
+	 *            the geometry attribute, if given along with attributes only
+	 *            those attributes are decoded when the aggregation is computed
+	 *            within the data store
+	 */
+	public VectorTileOptions(
+			final double minX,
+			final double minY,
+			final double maxX,
+			final double maxY,
+			final boolean webMercator,
+			final int extent,
+			final int buffer,
+			final double simplifyTolerance,
+			final String layerName,
+			final String[] attributes,
+			final String geometryAttribute ) {
+		if ((extent <= 0) || (buffer < 0) || (maxX <= minX) || (maxY <= minY)) {
+			throw new IllegalArgumentException(
+					"Vector tile must have a non-empty bounding box, a positive extent and a non-negative buffer");
+		}
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.webMercator = webMercator;
+		this.extent = extent;
+		this.buffer = buffer;
+		this.simplifyTolerance = simplifyTolerance;
+		this.layerName = layerName;
+		this.attributes = attributes;
+		this.geometryAttribute = geometryAttribute;
+	}
+
+	/**
+	 * Create options for a tile of the z/x/y web mercator tile grid, where y
+	 * counts down from the north, over longitude/latitude data
+	 */
+	public static VectorTileOptions forTile(
+			final int z,
+			final int x,
+			final int y,
+			final String layerName,
+			final String[] attributes ) {
+		final int tiles = 1 << z;
+		if ((z < 0) || (x < 0) || (y < 0) || (x >= tiles) || (y >= tiles)) {
+			throw new IllegalArgumentException(
+					"Tile " + z + "/" + x + "/" + y + " is outside of the tile grid");
+		}
+		return new VectorTileOptions(
+				((x * 360.0) / tiles) - 180,
+				tileLatitude(
+						y + 1,
+						tiles),
+				(((x + 1) * 360.0) / tiles) - 180,
+				tileLatitude(
+						y,
+						tiles),
+				true,
+				layerName,
+				attributes);
+	}
+
+	private static double tileLatitude(
+			final int y,
+			final int tiles ) {
+		return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - ((2.0 * y) / tiles)))));
+	}
+
+	/**
+	 * @return a copy of these options that decodes only the given geometry
+	 *         attribute and the requested attributes
+	 */
+	public VectorTileOptions withGeometryAttribute(
+			final String geometryAttribute ) {
+		return new VectorTileOptions(
+				minX,
+				minY,
+				maxX,
+				maxY,
+				webMercator,
+				extent,
+				buffer,
+				simplifyTolerance,
+				layerName,
+				attributes,
+				geometryAttribute);
+	}
+
+	/**
+	 * @return the tile x coordinate of a data x coordinate
+	 */
+	public double toTileX(
+			final double x ) {
+		return ((x - minX) / (maxX - minX)) * extent;
+	}
+
+	/**
+	 * @return the tile y coordinate of a data y coordinate, tile coordinates
+	 *         increase downwards
+	 */
+	public double toTileY(
+			final double y ) {
+		if (webMercator) {
+			final double top = mercatorY(maxY);
+			return ((top - mercatorY(y)) / (top - mercatorY(minY))) * extent;
+		}
+		return ((maxY - y) / (maxY - minY)) * extent;
+	}
+
+	private static double mercatorY(
+			final double latitude ) {
+		final double clamped = Math.max(
+				-MAX_MERCATOR_LATITUDE,
+				Math.min(
+						MAX_MERCATOR_LATITUDE,
+						latitude));
+		return Math.log(Math.tan((Math.PI / 4) + (Math.toRadians(clamped) / 2)));
+	}
+
+	public double getMinX() {
+		return minX;
+	}
+
+	public double getMinY() {
+		return minY;
+	}
+
+	public double getMaxX() {
+		return maxX;
+	}
+
+	public double getMaxY() {
+		return maxY;
+	}
+
+	public boolean isWebMercator() {
+		return webMercator;
+	}
+
+	public int getExtent() {
+		return extent;
+	}
+
+	public int getBuffer() {
+		return buffer;
+	}
+
+	public double getSimplifyTolerance() {
+		return simplifyTolerance;
+	}
+
+	public String getLayerName() {
+		return layerName;
+	}
+
+	public String[] getAttributes() {
+		return attributes;
+	}
+
+	public String getGeometryAttribute() {
+		return geometryAttribute;
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final byte[] layerNameBytes = layerName == null ? null : StringUtils.stringToBinary(layerName);
+		final byte[] attributesBytes = attributes == null ? null : StringUtils.stringsToBinary(attributes);
+		final byte[] geometryBytes = geometryAttribute == null ? null : StringUtils
+				.stringToBinary(geometryAttribute);
+		final ByteBuffer buf = ByteBuffer.allocate(61 + (layerNameBytes == null ? 0 : layerNameBytes.length)
+				+ (attributesBytes == null ? 0 : attributesBytes.length)
+				+ (geometryBytes == null ? 0 : geometryBytes.length));
+		buf.putDouble(minX);
+		buf.putDouble(minY);
+		buf.putDouble(maxX);
+		buf.putDouble(maxY);
+		buf.put(webMercator ? (byte) 1 : (byte) 0);
+		buf.putInt(extent);
+		buf.putInt(buffer);
+		buf.putDouble(simplifyTolerance);
+		putBytes(
+				buf,
+				layerNameBytes);
+		putBytes(
+				buf,
+				attributesBytes);
+		putBytes(
+				buf,
+				geometryBytes);
+		return buf.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buf = ByteBuffer.wrap(bytes);
+		minX = buf.getDouble();
+		minY = buf.getDouble();
+		maxX = buf.getDouble();
+		maxY = buf.getDouble();
+		webMercator = buf.get() != 0;
+		extent = buf.getInt();
+		buffer = buf.getInt();
+		simplifyTolerance = buf.getDouble();
+		final byte[] layerNameBytes = getBytes(buf);
+		layerName = layerNameBytes == null ? null : StringUtils.stringFromBinary(layerNameBytes);
+		final byte[] attributesBytes = getBytes(buf);
+		attributes = attributesBytes == null ? null : StringUtils.stringsFromBinary(attributesBytes);
+		final byte[] geometryBytes = getBytes(buf);
+		geometryAttribute = geometryBytes == null ? null : StringUtils.stringFromBinary(geometryBytes);
+	}
+
+	private static void putBytes(
+			final ByteBuffer buf,
+			final byte[] bytes ) {
+		if (bytes == null) {
+			buf.putInt(-1);
+		}
+		else {
+			buf.putInt(bytes.length);
+			buf.put(bytes);
+		}
+	}
+
+	private static byte[] getBytes(
+			final ByteBuffer buf ) {
+		final int length = buf.getInt();
+		if (length < 0) {
+			return null;
+		}
+		final byte[] bytes = new byte[length];
+		buf.get(bytes);
+		return bytes;
+	}
+}
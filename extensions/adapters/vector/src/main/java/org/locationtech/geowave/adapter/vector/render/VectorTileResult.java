@@ -0,0 +1,616 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.index.StringUtils;
+
+/**
+ * A single layer of a Mapbox Vector Tile built by a
+ * {@link VectorTileAggregation}. The binary form of this result is a complete
+ * vector tile (version 2 of the specification) containing this layer, and
+ * because repeated protobuf fields concatenate, the binary forms of results for
+ * different layers can simply be appended to build a tile with several layers.
+ * Merging appends the features of the other result and re-maps its keys and
+ * values into this layer's dictionaries.
+ */
+public class VectorTileResult implements
+		Mergeable
+{
+	public static final int GEOM_TYPE_POINT = 1;
+	public static final int GEOM_TYPE_LINESTRING = 2;
+	public static final int GEOM_TYPE_POLYGON = 3;
+
+	private static final int VERSION = 2;
+
+	// protobuf wire types
+	private static final int VARINT = 0;
+	private static final int FIXED64 = 1;
+	private static final int LENGTH_DELIMITED = 2;
+	private static final int FIXED32 = 5;
+
+	// field numbers of the vector tile schema
+	private static final int TILE_LAYERS = 3;
+	private static final int LAYER_NAME = 1;
+	private static final int LAYER_FEATURES = 2;
+	private static final int LAYER_KEYS = 3;
+	private static final int LAYER_VALUES = 4;
+	private static final int LAYER_EXTENT = 5;
+	private static final int LAYER_VERSION = 15;
+	private static final int FEATURE_ID = 1;
+	private static final int FEATURE_TAGS = 2;
+	private static final int FEATURE_TYPE = 3;
+	private static final int FEATURE_GEOMETRY = 4;
+	private static final int VALUE_STRING = 1;
+	private static final int VALUE_FLOAT = 2;
+	private static final int VALUE_DOUBLE = 3;
+	private static final int VALUE_INT = 4;
+	private static final int VALUE_UINT = 5;
+	private static final int VALUE_SINT = 6;
+	private static final int VALUE_BOOL = 7;
+
+	private String name;
+	private int extent;
+	private final List<String> keys = new ArrayList<>();
+	private final Map<String, Integer> keyIndices = new HashMap<>();
+	private final List<Object> values = new ArrayList<>();
+	private final Map<Object, Integer> valueIndices = new HashMap<>();
+	private final List<TileFeature> features = new ArrayList<>();
+
+	public VectorTileResult() {}
+
+	public VectorTileResult(
+			final String name,
+			final int extent ) {
+		this.name = name;
+		this.extent = extent;
+	}
+
+	/**
+	 * @param id
+	 *            the feature ID, or null if the feature has no numeric ID
+	 * @param type
+	 *            one of the GEOM_TYPE constants
+	 * @param geometry
+	 *            the encoded geometry commands
+	 * @param attributes
+	 *            the attribute values, null values are omitted
+	 */
+	public void addFeature(
+			final Long id,
+			final int type,
+			final int[] geometry,
+			final Map<String, Object> attributes ) {
+		final int[] tags = new int[attributes.size() * 2];
+		int t = 0;
+		for (final Entry<String, Object> attribute : attributes.entrySet()) {
+			final Object value = normalizeValue(attribute.getValue());
+			if (value == null) {
+				continue;
+			}
+			tags[t++] = keyIndex(attribute.getKey());
+			tags[t++] = valueIndex(value);
+		}
+		features.add(new TileFeature(
+				id,
+				type,
+				t == tags.length ? tags : Arrays.copyOf(
+						tags,
+						t),
+				geometry));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getExtent() {
+		return extent;
+	}
+
+	public int getFeatureCount() {
+		return features.size();
+	}
+
+	/**
+	 * @return the attributes of the feature at the given position
+	 */
+	public Map<String, Object> getAttributes(
+			final int featureIndex ) {
+		final int[] tags = features.get(featureIndex).tags;
+		final Map<String, Object> attributes = new HashMap<>();
+		for (int t = 0; t < (tags.length - 1); t += 2) {
+			attributes.put(
+					keys.get(tags[t]),
+					values.get(tags[t + 1]));
+		}
+		return attributes;
+	}
+
+	public int getGeometryType(
+			final int featureIndex ) {
+		return features.get(featureIndex).type;
+	}
+
+	public int[] getGeometry(
+			final int featureIndex ) {
+		return features.get(featureIndex).geometry;
+	}
+
+	public Long getId(
+			final int featureIndex ) {
+		return features.get(featureIndex).id;
+	}
+
+	private int keyIndex(
+			final String key ) {
+		Integer index = keyIndices.get(key);
+		if (index == null) {
+			index = keys.size();
+			keys.add(key);
+			keyIndices.put(
+					key,
+					index);
+		}
+		return index;
+	}
+
+	private int valueIndex(
+			final Object value ) {
+		Integer index = valueIndices.get(value);
+		if (index == null) {
+			index = values.size();
+			values.add(value);
+			valueIndices.put(
+					value,
+					index);
+		}
+		return index;
+	}
+
+	/**
+	 * map attribute values onto the types a vector tile can hold
+	 */
+	private static Object normalizeValue(
+			final Object value ) {
+		if ((value == null) || (value instanceof String) || (value instanceof Boolean) || (value instanceof Long)
+				|| (value instanceof Double) || (value instanceof Float)) {
+			return value;
+		}
+		if ((value instanceof Integer) || (value instanceof Short) || (value instanceof Byte)) {
+			return ((Number) value).longValue();
+		}
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		if (value instanceof Date) {
+			return ((Date) value).toInstant().toString();
+		}
+		return value.toString();
+	}
+
+	@Override
+	public void merge(
+			final Mergeable merge ) {
+		if ((merge != null) && (merge instanceof VectorTileResult)) {
+			final VectorTileResult other = (VectorTileResult) merge;
+			if (other.extent != extent) {
+				throw new IllegalArgumentException(
+						"Cannot merge a vector tile layer with extent " + other.extent + " into one with extent "
+								+ extent);
+			}
+			final int[] keyMapping = new int[other.keys.size()];
+			for (int k = 0; k < keyMapping.length; k++) {
+				keyMapping[k] = keyIndex(other.keys.get(k));
+			}
+			final int[] valueMapping = new int[other.values.size()];
+			for (int v = 0; v < valueMapping.length; v++) {
+				valueMapping[v] = valueIndex(other.values.get(v));
+			}
+			for (final TileFeature feature : other.features) {
+				final int[] tags = new int[feature.tags.length];
+				for (int t = 0; t < (tags.length - 1); t += 2) {
+					tags[t] = keyMapping[feature.tags[t]];
+					tags[t + 1] = valueMapping[feature.tags[t + 1]];
+				}
+				features.add(new TileFeature(
+						feature.id,
+						feature.type,
+						tags,
+						feature.geometry));
+			}
+		}
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final ProtobufWriter layer = new ProtobufWriter();
+		layer.writeVarintField(
+				LAYER_VERSION,
+				VERSION);
+		layer.writeBytesField(
+				LAYER_NAME,
+				StringUtils.stringToBinary(name));
+		for (final TileFeature feature : features) {
+			final ProtobufWriter featureWriter = new ProtobufWriter();
+			if (feature.id != null) {
+				featureWriter.writeVarintField(
+						FEATURE_ID,
+						feature.id);
+			}
+			featureWriter.writePackedField(
+					FEATURE_TAGS,
+					feature.tags);
+			featureWriter.writeVarintField(
+					FEATURE_TYPE,
+					feature.type);
+			featureWriter.writePackedField(
+					FEATURE_GEOMETRY,
+					feature.geometry);
+			layer.writeBytesField(
+					LAYER_FEATURES,
+					featureWriter.toByteArray());
+		}
+		for (final String key : keys) {
+			layer.writeBytesField(
+					LAYER_KEYS,
+					StringUtils.stringToBinary(key));
+		}
+		for (final Object value : values) {
+			layer.writeBytesField(
+					LAYER_VALUES,
+					encodeValue(value));
+		}
+		layer.writeVarintField(
+				LAYER_EXTENT,
+				extent);
+		final ProtobufWriter tile = new ProtobufWriter();
+		tile.writeBytesField(
+				TILE_LAYERS,
+				layer.toByteArray());
+		return tile.toByteArray();
+	}
+
+	private static byte[] encodeValue(
+			final Object value ) {
+		final ProtobufWriter writer = new ProtobufWriter();
+		if (value instanceof String) {
+			writer.writeBytesField(
+					VALUE_STRING,
+					StringUtils.stringToBinary((String) value));
+		}
+		else if (value instanceof Float) {
+			writer.writeTag(
+					VALUE_FLOAT,
+					FIXED32);
+			writer.writeFixed32(Float.floatToIntBits((Float) value));
+		}
+		else if (value instanceof Double) {
+			writer.writeTag(
+					VALUE_DOUBLE,
+					FIXED64);
+			writer.writeFixed64(Double.doubleToLongBits((Double) value));
+		}
+		else if (value instanceof Long) {
+			final long l = (Long) value;
+			writer.writeVarintField(
+					VALUE_SINT,
+					(l << 1) ^ (l >> 63));
+		}
+		else if (value instanceof Boolean) {
+			writer.writeVarintField(
+					VALUE_BOOL,
+					((Boolean) value) ? 1 : 0);
+		}
+		return writer.toByteArray();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		keys.clear();
+		keyIndices.clear();
+		values.clear();
+		valueIndices.clear();
+		features.clear();
+		name = null;
+		extent = 4096;
+		final ByteBuffer tile = ByteBuffer.wrap(bytes);
+		while (tile.hasRemaining()) {
+			final long tag = readVarint(tile);
+			if (((int) (tag >>> 3) == TILE_LAYERS) && ((tag & 7) == LENGTH_DELIMITED)) {
+				readLayer(readLengthDelimited(tile));
+				// a result holds a single layer
+				return;
+			}
+			skip(
+					tile,
+					(int) (tag & 7));
+		}
+	}
+
+	private void readLayer(
+			final ByteBuffer layer ) {
+		while (layer.hasRemaining()) {
+			final long tag = readVarint(layer);
+			final int wireType = (int) (tag & 7);
+			switch ((int) (tag >>> 3)) {
+				case LAYER_NAME:
+					name = readString(layer);
+					break;
+				case LAYER_FEATURES:
+					features.add(readFeature(readLengthDelimited(layer)));
+					break;
+				case LAYER_KEYS:
+					keyIndex(readString(layer));
+					break;
+				case LAYER_VALUES:
+					values.add(readValue(readLengthDelimited(layer)));
+					valueIndices.put(
+							values.get(values.size() - 1),
+							values.size() - 1);
+					break;
+				case LAYER_EXTENT:
+					extent = (int) readVarint(layer);
+					break;
+				default:
+					skip(
+							layer,
+							wireType);
+			}
+		}
+	}
+
+	private static TileFeature readFeature(
+			final ByteBuffer feature ) {
+		Long id = null;
+		int[] tags = new int[0];
+		int type = 0;
+		int[] geometry = new int[0];
+		while (feature.hasRemaining()) {
+			final long tag = readVarint(feature);
+			final int wireType = (int) (tag & 7);
+			switch ((int) (tag >>> 3)) {
+				case FEATURE_ID:
+					id = readVarint(feature);
+					break;
+				case FEATURE_TAGS:
+					tags = readPacked(readLengthDelimited(feature));
+					break;
+				case FEATURE_TYPE:
+					type = (int) readVarint(feature);
+					break;
+				case FEATURE_GEOMETRY:
+					geometry = readPacked(readLengthDelimited(feature));
+					break;
+				default:
+					skip(
+							feature,
+							wireType);
+			}
+		}
+		return new TileFeature(
+				id,
+				type,
+				tags,
+				geometry);
+	}
+
+	private static Object readValue(
+			final ByteBuffer value ) {
+		Object result = null;
+		while (value.hasRemaining()) {
+			final long tag = readVarint(value);
+			final int wireType = (int) (tag & 7);
+			switch ((int) (tag >>> 3)) {
+				case VALUE_STRING:
+					result = readString(value);
+					break;
+				case VALUE_FLOAT:
+					result = Float.intBitsToFloat(value.order(
+							ByteOrder.LITTLE_ENDIAN).getInt());
+					break;
+				case VALUE_DOUBLE:
+					result = Double.longBitsToDouble(value.order(
+							ByteOrder.LITTLE_ENDIAN).getLong());
+					break;
+				case VALUE_INT:
+				case VALUE_UINT:
+					result = readVarint(value);
+					break;
+				case VALUE_SINT:
+					final long zigZag = readVarint(value);
+					result = (zigZag >>> 1) ^ -(zigZag & 1);
+					break;
+				case VALUE_BOOL:
+					result = readVarint(value) != 0;
+					break;
+				default:
+					skip(
+							value,
+							wireType);
+			}
+		}
+		return result;
+	}
+
+	private static long readVarint(
+			final ByteBuffer buf ) {
+		long result = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buf.get();
+			result |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while ((b & 0x80) != 0);
+		return result;
+	}
+
+	private static ByteBuffer readLengthDelimited(
+			final ByteBuffer buf ) {
+		final int length = (int) readVarint(buf);
+		final ByteBuffer slice = buf.slice();
+		slice.limit(length);
+		buf.position(buf.position() + length);
+		return slice;
+	}
+
+	private static String readString(
+			final ByteBuffer buf ) {
+		final ByteBuffer slice = readLengthDelimited(buf);
+		final byte[] bytes = new byte[slice.remaining()];
+		slice.get(bytes);
+		return StringUtils.stringFromBinary(bytes);
+	}
+
+	private static int[] readPacked(
+			final ByteBuffer buf ) {
+		int[] result = new int[buf.remaining()];
+		int count = 0;
+		while (buf.hasRemaining()) {
+			result[count++] = (int) readVarint(buf);
+		}
+		return count == result.length ? result : Arrays.copyOf(
+				result,
+				count);
+	}
+
+	private static void skip(
+			final ByteBuffer buf,
+			final int wireType ) {
+		switch (wireType) {
+			case VARINT:
+				readVarint(buf);
+				break;
+			case FIXED64:
+				buf.position(buf.position() + 8);
+				break;
+			case LENGTH_DELIMITED:
+				readLengthDelimited(buf);
+				break;
+			case FIXED32:
+				buf.position(buf.position() + 4);
+				break;
+			default:
+				throw new IllegalArgumentException(
+						"Unsupported protobuf wire type " + wireType);
+		}
+	}
+
+	private static class TileFeature
+	{
+		private final Long id;
+		private final int type;
+		private final int[] tags;
+		private final int[] geometry;
+
+		public TileFeature(
+				final Long id,
+				final int type,
+				final int[] tags,
+				final int[] geometry ) {
+			this.id = id;
+			this.type = type;
+			this.tags = tags;
+			this.geometry = geometry;
+		}
+	}
+
+	private static class ProtobufWriter
+	{
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		private void writeTag(
+				final int field,
+				final int wireType ) {
+			writeVarint((field << 3) | wireType);
+		}
+
+		private void writeVarint(
+				final long value ) {
+			long v = value;
+			while ((v & ~0x7FL) != 0) {
+				out.write((int) ((v & 0x7F) | 0x80));
+				v >>>= 7;
+			}
+			out.write((int) v);
+		}
+
+		private void writeVarintField(
+				final int field,
+				final long value ) {
+			writeTag(
+					field,
+					VARINT);
+			writeVarint(value);
+		}
+
+		private void writeBytesField(
+				final int field,
+				final byte[] bytes ) {
+			writeTag(
+					field,
+					LENGTH_DELIMITED);
+			writeVarint(bytes.length);
+			out.write(
+					bytes,
+					0,
+					bytes.length);
+		}
+
+		private void writePackedField(
+				final int field,
+				final int[] ints ) {
+			if (ints.length == 0) {
+				return;
+			}
+			final ProtobufWriter packed = new ProtobufWriter();
+			for (final int i : ints) {
+				// the values are unsigned 32 bit integers
+				packed.writeVarint(i & 0xFFFFFFFFL);
+			}
+			writeBytesField(
+					field,
+					packed.toByteArray());
+		}
+
+		private void writeFixed32(
+				final int value ) {
+			for (int i = 0; i < 4; i++) {
+				out.write((value >>> (8 * i)) & 0xFF);
+			}
+		}
+
+		private void writeFixed64(
+				final long value ) {
+			for (int i = 0; i < 8; i++) {
+				out.write((int) ((value >>> (8 * i)) & 0xFF));
+			}
+		}
+
+		private byte[] toByteArray() {
+			return out.toByteArray();
+		}
+	}
+}
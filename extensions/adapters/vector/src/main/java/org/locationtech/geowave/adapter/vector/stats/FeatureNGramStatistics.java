@@ -0,0 +1,243 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.stats;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayRange;
+import org.locationtech.geowave.core.index.Mergeable;
+import org.locationtech.geowave.core.store.adapter.InternalAdapterStore;
+import org.locationtech.geowave.core.store.adapter.statistics.AbstractDataStatistics;
+import org.locationtech.geowave.core.store.adapter.statistics.DataStatistics;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.index.SecondaryIndexCardinalityEstimator;
+import org.locationtech.geowave.core.store.index.text.NGramTextIndexStrategy;
+import org.opengis.feature.simple.SimpleFeature;
+
+import com.clearspring.analytics.stream.frequency.CountMinSketch;
+import com.clearspring.analytics.stream.frequency.FrequencyMergeException;
+
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+
+/**
+ *
+ * Maintains an estimate of how many entries contain each n-gram of an
+ * attribute, for an attribute with an n-gram text secondary index. The
+ * estimated number of matches of a text query is the frequency of its least
+ * frequent gram, which lets the query planner compare the index against the
+ * alternatives.
+ *
+ * Uses the same defaults as {@link FeatureCountMinSketchStatistics}.
+ *
+ */
+public class FeatureNGramStatistics extends
+		AbstractDataStatistics<SimpleFeature> implements
+		FeatureStatistic,
+		SecondaryIndexCardinalityEstimator
+{
+	public static final ByteArrayId STATS_TYPE = new ByteArrayId(
+			"ATT_NGRAM");
+	private NGramTextIndexStrategy strategy;
+	private CountMinSketch sketch = null;
+
+	public FeatureNGramStatistics() {
+		super();
+		strategy = new NGramTextIndexStrategy();
+		sketch = newSketch();
+	}
+
+	public FeatureNGramStatistics(
+			final String statisticsId,
+			final NGramTextIndexStrategy strategy ) {
+		this(
+				null,
+				statisticsId,
+				strategy);
+	}
+
+	public FeatureNGramStatistics(
+			final Short internalDataAdapterId,
+			final String statisticsId,
+			final NGramTextIndexStrategy strategy ) {
+		super(
+				internalDataAdapterId,
+				composeId(
+						STATS_TYPE.getString(),
+						statisticsId));
+		this.strategy = strategy;
+		sketch = newSketch();
+	}
+
+	private static CountMinSketch newSketch() {
+		return new CountMinSketch(
+				0.001,
+				0.98,
+				7364181);
+	}
+
+	public static final ByteArrayId composeId(
+			final String fieldName ) {
+		return composeId(
+				STATS_TYPE.getString(),
+				fieldName);
+	}
+
+	@Override
+	public String getFieldName() {
+		return decomposeNameFromId(getStatisticsId());
+	}
+
+	@Override
+	public DataStatistics<SimpleFeature> duplicate() {
+		return new FeatureNGramStatistics(
+				internalDataAdapterId,
+				getFieldName(),
+				strategy);
+	}
+
+	public long count(
+			final String gram ) {
+		return sketch.estimateCount(gram);
+	}
+
+	/**
+	 * Each range of the n-gram index is the posting list of a single gram.
+	 */
+	@Override
+	public long estimateCardinality(
+			final ByteArrayRange range ) {
+		if (!range.isSingleValue()) {
+			return Long.MAX_VALUE;
+		}
+		return strategy.estimateCardinality(
+				Collections.singletonList(range.getStart()),
+				gram -> sketch.estimateCount(gram.getString()));
+	}
+
+	@Override
+	public void merge(
+			final Mergeable mergeable ) {
+		if (mergeable instanceof FeatureNGramStatistics) {
+			try {
+				sketch = CountMinSketch.merge(
+						sketch,
+						((FeatureNGramStatistics) mergeable).sketch);
+			}
+			catch (final FrequencyMergeException e) {
+				throw new RuntimeException(
+						"Unable to merge sketches",
+						e);
+			}
+		}
+	}
+
+	@Override
+	public byte[] toBinary() {
+		final byte[] strategyBytes = strategy.toBinary();
+		final byte[] data = CountMinSketch.serialize(sketch);
+		final ByteBuffer buffer = super.binaryBuffer(8 + strategyBytes.length + data.length);
+		buffer.putInt(strategyBytes.length);
+		buffer.put(strategyBytes);
+		buffer.putInt(data.length);
+		buffer.put(data);
+		return buffer.array();
+	}
+
+	@Override
+	public void fromBinary(
+			final byte[] bytes ) {
+		final ByteBuffer buffer = super.binaryBuffer(bytes);
+		final byte[] strategyBytes = new byte[buffer.getInt()];
+		buffer.get(strategyBytes);
+		strategy = new NGramTextIndexStrategy();
+		strategy.fromBinary(strategyBytes);
+		final byte[] data = new byte[buffer.getInt()];
+		buffer.get(data);
+		sketch = CountMinSketch.deserialize(data);
+	}
+
+	@Override
+	public void entryIngested(
+			final SimpleFeature entry,
+			final GeoWaveRow... rows ) {
+		final Object o = entry.getAttribute(getFieldName());
+		if (o == null) {
+			return;
+		}
+		// grams are distinct per value, so this counts entries per gram
+		for (final ByteArrayId gram : strategy.getGrams(o.toString())) {
+			sketch.add(
+					gram.getString(),
+					1);
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuffer buffer = new StringBuffer();
+		buffer.append(
+				"ngram[internalDataAdapterId=").append(
+				super.getInternalDataAdapterId());
+		buffer.append(
+				", field=").append(
+				getFieldName());
+		buffer.append(
+				", strategy=").append(
+				strategy.getId());
+		buffer.append(
+				", size=").append(
+				sketch.size());
+		buffer.append("]");
+		return buffer.toString();
+	}
+
+	/**
+	 * Convert FeatureNGram statistics to a JSON object
+	 */
+
+	@Override
+	public JSONObject toJSONObject(
+			final InternalAdapterStore store )
+			throws JSONException {
+		final JSONObject jo = new JSONObject();
+		jo.put(
+				"type",
+				STATS_TYPE.getString());
+		jo.put(
+				"dataAdapterID",
+				store.getAdapterId(internalDataAdapterId));
+
+		jo.put(
+				"statisticsID",
+				statisticsId.getString());
+
+		jo.put(
+				"field_identifier",
+				getFieldName());
+
+		jo.put(
+				"gramLength",
+				strategy.getGramLength());
+
+		jo.put(
+				"caseSensitive",
+				strategy.isCaseSensitive());
+
+		jo.put(
+				"size",
+				sketch.size());
+
+		return jo;
+	}
+}
@@ -10,7 +10,11 @@
  ******************************************************************************/
 package org.locationtech.geowave.adapter.vector.stats;
 
-public interface FeatureStatistic
+import org.locationtech.geowave.core.store.adapter.statistics.FieldStatistic;
+
+public interface FeatureStatistic extends
+		FieldStatistic
 {
+	@Override
 	public String getFieldName();
 }
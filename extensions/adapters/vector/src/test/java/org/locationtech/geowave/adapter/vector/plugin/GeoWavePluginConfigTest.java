@@ -25,6 +25,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.locationtech.geowave.adapter.vector.plugin.GeoWavePluginConfig;
 import org.locationtech.geowave.adapter.vector.plugin.GeoWavePluginException;
+import org.locationtech.geowave.adapter.vector.plugin.lock.MemoryLockManagerFactory;
 import org.locationtech.geowave.core.store.memory.MemoryStoreFactoryFamily;
 
 public class GeoWavePluginConfigTest
@@ -73,6 +74,8 @@ public class GeoWavePluginConfigTest
 				1000,
 				(int) config.getTransactionBufferSize());
 		assertNotNull(config.getLockingManagementFactory());
+		// an unrecognized lock management option falls back to memory locking
+		Assert.assertTrue(config.getLockingManagementFactory() instanceof MemoryLockManagerFactory);
 		assertNotNull(config.getLockingManagementFactory().createLockingManager(
 				config));
 
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.plugin;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.geotools.data.DataStore;
+import org.geotools.data.DataUtilities;
+import org.geotools.data.DefaultTransaction;
+import org.geotools.data.FeatureReader;
+import org.geotools.data.FeatureWriter;
+import org.geotools.data.Query;
+import org.geotools.data.Transaction;
+import org.geotools.filter.FilterFactoryImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.geowave.adapter.vector.BaseDataStoreTest;
+import org.locationtech.geowave.core.geotime.ingest.SpatialDimensionalityTypeProvider.SpatialIndexBuilder;
+import org.locationtech.geowave.core.store.memory.MemoryStoreFactoryFamily;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class QueryResultCacheTest extends
+		BaseDataStoreTest
+{
+	private final GeometryFactory factory = new GeometryFactory();
+	private final FilterFactoryImpl filterFactory = new FilterFactoryImpl();
+	private DataStore dataStore;
+	private SimpleFeatureType type;
+
+	@Override
+	protected DataStore createDataStore()
+			throws IOException,
+			GeoWavePluginException {
+		// initializes the namespace
+		super.createDataStore();
+		final Map<String, Serializable> params = new HashMap<String, Serializable>();
+		params.put(
+				"gwNamespace",
+				"test_" + getClass().getName() + "_" + name.getMethodName());
+		params.put(
+				GeoWavePluginConfig.QUERY_CACHE_SIZE,
+				8);
+		return new GeoWaveGTDataStoreFactory(
+				new MemoryStoreFactoryFamily()).createNewDataStore(params);
+	}
+
+	@Before
+	public void setup()
+			throws Exception {
+		dataStore = createDataStore();
+		type = DataUtilities.createType(
+				"QueryResultCacheTest",
+				"geometry:Point:srid=4326,pid:String");
+		((GeoWaveGTDataStore) dataStore).getIndexStore().addIndex(
+				new SpatialIndexBuilder().createIndex());
+		dataStore.createSchema(type);
+		write(
+				"a",
+				27.25,
+				41.25);
+		write(
+				"b",
+				28.25,
+				41.25);
+	}
+
+	private void write(
+			final String pid,
+			final double x,
+			final double y )
+			throws IOException {
+		try (Transaction transaction = new DefaultTransaction()) {
+			final FeatureWriter<SimpleFeatureType, SimpleFeature> writer = dataStore.getFeatureWriterAppend(
+					type.getTypeName(),
+					transaction);
+			final SimpleFeature feature = writer.next();
+			feature.setAttribute(
+					"pid",
+					pid);
+			feature.setAttribute(
+					"geometry",
+					factory.createPoint(new Coordinate(
+							x,
+							y)));
+			writer.write();
+			writer.close();
+			transaction.commit();
+		}
+	}
+
+	private int count(
+			final double minX,
+			final double maxX )
+			throws IOException {
+		final Query query = new Query(
+				type.getTypeName(),
+				filterFactory.bbox(
+						"geometry",
+						minX,
+						41,
+						maxX,
+						41.5,
+						"EPSG:4326"));
+		int count = 0;
+		try (FeatureReader<SimpleFeatureType, SimpleFeature> reader = dataStore.getFeatureReader(
+				query,
+				Transaction.AUTO_COMMIT)) {
+			while (reader.hasNext()) {
+				reader.next();
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Test
+	public void testCacheAndInvalidate()
+			throws IOException {
+		final QueryResultCache cache = ((GeoWaveGTDataStore) dataStore).getQueryCache();
+		cache.invalidateAll();
+		assertEquals(
+				2,
+				count(
+						27,
+						29));
+		assertEquals(
+				1,
+				cache.size());
+		assertEquals(
+				2,
+				count(
+						27,
+						29));
+		// answered from the cached results of the larger box
+		assertEquals(
+				1,
+				count(
+						28,
+						29));
+		assertEquals(
+				1,
+				cache.size());
+
+		write(
+				"c",
+				28.5,
+				41.25);
+		assertEquals(
+				0,
+				cache.size());
+		assertEquals(
+				3,
+				count(
+						27,
+						29));
+		assertEquals(
+				2,
+				count(
+						28,
+						29));
+	}
+
+	@Test
+	public void testWriteDuringQueryIsNotCached()
+			throws IOException {
+		final QueryResultCache cache = ((GeoWaveGTDataStore) dataStore).getQueryCache();
+		cache.invalidateAll();
+		final Query query = new Query(
+				type.getTypeName(),
+				filterFactory.bbox(
+						"geometry",
+						27,
+						41,
+						29,
+						41.5,
+						"EPSG:4326"));
+		try (FeatureReader<SimpleFeatureType, SimpleFeature> reader = dataStore.getFeatureReader(
+				query,
+				Transaction.AUTO_COMMIT)) {
+			reader.next();
+			write(
+					"c",
+					28.5,
+					41.25);
+			while (reader.hasNext()) {
+				reader.next();
+			}
+		}
+		// the results may not include the write, so they aren't kept
+		assertEquals(
+				0,
+				cache.size());
+		assertEquals(
+				3,
+				count(
+						27,
+						29));
+		assertEquals(
+				1,
+				cache.size());
+	}
+}
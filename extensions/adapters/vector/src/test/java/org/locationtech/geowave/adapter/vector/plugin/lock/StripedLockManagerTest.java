@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.plugin.lock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.geotools.data.DefaultTransaction;
+import org.geotools.data.FeatureLock;
+import org.geotools.data.Transaction;
+import org.junit.Test;
+
+public class StripedLockManagerTest
+{
+
+	@Test
+	public void testRelockLock()
+			throws IOException {
+		final LockingManagement lockManager = new StripedLockManager(
+				UUID.randomUUID().toString());
+		final DefaultTransaction t1 = new DefaultTransaction();
+		lockManager.lock(
+				t1,
+				"f8");
+		lockManager.lock(
+				t1,
+				"f8");
+		t1.commit();
+		t1.close();
+	}
+
+	@Test
+	public void testLockReleaseOfBulkAuthLock()
+			throws IOException {
+		final StripedLockManager lockManager = new StripedLockManager(
+				UUID.randomUUID().toString());
+		final Transaction t1 = Transaction.AUTO_COMMIT;
+		final DefaultTransaction t2 = new DefaultTransaction();
+		t2.addAuthorization("auth1");
+		final FeatureLock lock = new FeatureLock(
+				"auth1",
+				1 /* minute */);
+		lockManager.lockFeatureIDs(
+				"sometime",
+				features(
+						"f",
+						100),
+				t1,
+				lock);
+		// authorized, so this does not block
+		lockManager.lock(
+				t2,
+				features(
+						"f",
+						100));
+		t2.commit();
+		// commit should not take away the lock
+		assertTrue(lockManager.exists("auth1"));
+		lockManager.release(
+				"auth1",
+				t1);
+		assertFalse(lockManager.exists("auth1"));
+		t2.close();
+	}
+
+	@Test
+	public void testStaleLocksExpire()
+			throws InterruptedException {
+		final StripedLockManager lockManager = new StripedLockManager(
+				UUID.randomUUID().toString());
+		// a zero duration lock is stale once acquired
+		lockManager.lockFeatureIDs(
+				"sometime",
+				features(
+						"f",
+						10),
+				Transaction.AUTO_COMMIT,
+				new FeatureLock(
+						"auth3",
+						0));
+		assertTrue(lockManager.exists("auth3"));
+		// released by the expiry wheel without any other request
+		Thread.sleep(2500);
+		assertFalse(lockManager.exists("auth3"));
+	}
+
+	@Test
+	public void testBlockingLock()
+			throws InterruptedException,
+			IOException {
+		final LockingManagement lockManager = new StripedLockManager(
+				UUID.randomUUID().toString());
+		final DefaultTransaction t1 = new DefaultTransaction();
+		lockManager.lock(
+				t1,
+				features(
+						"f",
+						1000));
+		final DefaultTransaction t2 = new DefaultTransaction();
+		final Thread commiter = new Thread(
+				new Runnable() {
+					@Override
+					public void run() {
+						try {
+							Thread.sleep(1000);
+							t1.commit();
+						}
+						catch (final InterruptedException | IOException e) {
+							throw new RuntimeException(
+									e);
+						}
+					}
+				});
+		final long currentTime = System.currentTimeMillis();
+		commiter.start();
+		// blocks until t1 commits, then is handed the lock
+		lockManager.lock(
+				t2,
+				"f500");
+		final long endTime = System.currentTimeMillis();
+		assertTrue((endTime - currentTime) >= 900);
+		// and well before the one minute expiry
+		assertTrue((endTime - currentTime) < 30000);
+		commiter.join();
+		t2.commit();
+		t2.close();
+		t1.close();
+	}
+
+	@Test
+	public void testWaitersAreServedInOrder()
+			throws InterruptedException,
+			IOException {
+		final LockingManagement lockManager = new StripedLockManager(
+				UUID.randomUUID().toString());
+		final DefaultTransaction owner = new DefaultTransaction();
+		lockManager.lock(
+				owner,
+				"f1");
+		final List<Integer> order = new ArrayList<Integer>();
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			final int id = i;
+			final Thread thread = new Thread(
+					new Runnable() {
+						@Override
+						public void run() {
+							final DefaultTransaction transaction = new DefaultTransaction();
+							lockManager.lock(
+									transaction,
+									"f1");
+							synchronized (order) {
+								order.add(id);
+							}
+							try {
+								transaction.commit();
+							}
+							catch (final IOException e) {
+								throw new RuntimeException(
+										e);
+							}
+						}
+					});
+			thread.start();
+			threads.add(thread);
+			// give each thread time to queue
+			Thread.sleep(200);
+		}
+		owner.commit();
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(
+				4,
+				order.size());
+		for (int i = 0; i < 4; i++) {
+			assertEquals(
+					Integer.valueOf(i),
+					order.get(i));
+		}
+	}
+
+	@Test
+	public void testContention()
+			throws InterruptedException {
+		// not a rigorous benchmark, but shows the difference for concurrent
+		// transactions bulk locking many features
+		final int threadCount = 8;
+		final int featureCount = 10000;
+		for (int round = 0; round < 2; round++) {
+			final long memoryNanos = lockConcurrently(
+					new MemoryLockManager(
+							UUID.randomUUID().toString()),
+					threadCount,
+					featureCount);
+			final long stripedNanos = lockConcurrently(
+					new StripedLockManager(
+							UUID.randomUUID().toString()),
+					threadCount,
+					featureCount);
+			if (round == 1) {
+				System.out.println(String.format(
+						"Locking %d features in each of %d transactions: memory %.1f ms, striped %.1f ms",
+						featureCount,
+						threadCount,
+						memoryNanos / 1000000.0,
+						stripedNanos / 1000000.0));
+			}
+		}
+	}
+
+	private static long lockConcurrently(
+			final LockingManagement lockManager,
+			final int threadCount,
+			final int featureCount )
+			throws InterruptedException {
+		final AtomicInteger failures = new AtomicInteger();
+		final List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < threadCount; t++) {
+			final String prefix = "t" + t + "_";
+			threads.add(new Thread(
+					new Runnable() {
+						@Override
+						public void run() {
+							final DefaultTransaction transaction = new DefaultTransaction();
+							try {
+								// each transaction locks its own features, so
+								// only the lock manager itself contends
+								lockManager.lock(
+										transaction,
+										features(
+												prefix,
+												featureCount));
+								transaction.commit();
+							}
+							catch (final Exception e) {
+								failures.incrementAndGet();
+							}
+						}
+					}));
+		}
+		final long start = System.nanoTime();
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		final long nanos = System.nanoTime() - start;
+		assertEquals(
+				0,
+				failures.get());
+		return nanos;
+	}
+
+	private static List<String> features(
+			final String prefix,
+			final int count ) {
+		final List<String> featureIDs = new ArrayList<String>();
+		for (int i = 0; i < count; i++) {
+			featureIDs.add(prefix + i);
+		}
+		return featureIDs;
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.plugin.transaction;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Date;
+import java.util.Iterator;
+
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class PendingFeatureIndexTest
+{
+	private final GeometryFactory factory = new GeometryFactory();
+	private SimpleFeatureType type;
+
+	@Before
+	public void setup()
+			throws SchemaException {
+		type = DataUtilities.createType(
+				"pending",
+				"geometry:Point:srid=4326,when:Date,pid:String");
+	}
+
+	private PendingFeatureIndex createIndex(
+			final int count ) {
+		final PendingFeatureIndex index = new PendingFeatureIndex();
+		final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(
+				type);
+		// one feature per degree of longitude and per hour
+		for (int i = 0; i < count; i++) {
+			builder.set(
+					"geometry",
+					factory.createPoint(new Coordinate(
+							i,
+							0)));
+			builder.set(
+					"when",
+					new Date(
+							i * 3600000L));
+			builder.set(
+					"pid",
+					Integer.toString(i));
+			index.put(
+					Integer.toString(i),
+					builder.buildFeature(Integer.toString(i)));
+		}
+		return index;
+	}
+
+	private static int count(
+			final Iterator<SimpleFeature> it ) {
+		int count = 0;
+		while (it.hasNext()) {
+			it.next();
+			count++;
+		}
+		return count;
+	}
+
+	@Test
+	public void testQuery() {
+		// small enough to be scanned linearly and large enough to be indexed
+		for (final int size : new int[] {
+			10,
+			200
+		}) {
+			final PendingFeatureIndex index = createIndex(size);
+			assertEquals(
+					size,
+					count(index.query(
+							null,
+							Long.MIN_VALUE,
+							Long.MAX_VALUE)));
+			assertEquals(
+					6,
+					count(index.query(
+							new Envelope(
+									2.5,
+									8.5,
+									-1,
+									1),
+							Long.MIN_VALUE,
+							Long.MAX_VALUE)));
+			// the time window is hours 4 through 6
+			assertEquals(
+					3,
+					count(index.query(
+							new Envelope(
+									2.5,
+									8.5,
+									-1,
+									1),
+							4 * 3600000L,
+							6 * 3600000L)));
+			assertEquals(
+					3,
+					count(index.query(
+							null,
+							4 * 3600000L,
+							6 * 3600000L)));
+		}
+	}
+
+	@Test
+	public void testUpdatesAreVisible() {
+		final PendingFeatureIndex index = createIndex(200);
+		final Envelope bounds = new Envelope(
+				2.5,
+				8.5,
+				-1,
+				1);
+		assertEquals(
+				6,
+				count(index.query(
+						bounds,
+						Long.MIN_VALUE,
+						Long.MAX_VALUE)));
+		index.remove("3");
+		assertEquals(
+				5,
+				count(index.query(
+						bounds,
+						Long.MIN_VALUE,
+						Long.MAX_VALUE)));
+		index.clear();
+		assertEquals(
+				0,
+				count(index.query(
+						bounds,
+						Long.MIN_VALUE,
+						Long.MAX_VALUE)));
+	}
+}
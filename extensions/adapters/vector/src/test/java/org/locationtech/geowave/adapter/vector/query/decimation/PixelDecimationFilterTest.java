@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.query.decimation;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.locationtech.geowave.core.geotime.ingest.SpatialDimensionalityTypeProvider.SpatialIndexBuilder;
+import org.locationtech.geowave.core.geotime.store.dimension.GeometryAdapter;
+import org.locationtech.geowave.core.geotime.store.dimension.GeometryWrapper;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.store.data.IndexedPersistenceEncoding;
+import org.locationtech.geowave.core.store.data.PersistentDataset;
+import org.locationtech.geowave.core.store.index.CommonIndexModel;
+import org.locationtech.geowave.core.store.index.CommonIndexValue;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class PixelDecimationFilterTest
+{
+	private final GeometryFactory factory = new GeometryFactory();
+	private final CommonIndexModel model = new SpatialIndexBuilder().createIndex().getIndexModel();
+
+	private IndexedPersistenceEncoding createData(
+			final Geometry geomData ) {
+		final PersistentDataset<CommonIndexValue> commonData = new PersistentDataset<CommonIndexValue>();
+		commonData.addValue(
+				GeometryAdapter.DEFAULT_GEOMETRY_FIELD_ID,
+				new GeometryWrapper(
+						geomData));
+		return new IndexedPersistenceEncoding(
+				(short) 1,
+				new ByteArrayId(
+						"1"),
+				new ByteArrayId(
+						"1"),
+				new ByteArrayId(
+						"1"),
+				1,
+				commonData,
+				new PersistentDataset<byte[]>());
+	}
+
+	private IndexedPersistenceEncoding point(
+			final double x,
+			final double y ) {
+		return createData(factory.createPoint(new Coordinate(
+				x,
+				y)));
+	}
+
+	@Test
+	public void testDecimation() {
+		// 10x10 pixels of 1 degree each
+		final PixelDecimationFilter filter = new PixelDecimationFilter(
+				new Envelope(
+						0,
+						10,
+						0,
+						10),
+				10,
+				10);
+		assertTrue(filter.accept(
+				model,
+				point(
+						1.2,
+						1.2)));
+		// same pixel
+		assertFalse(filter.accept(
+				model,
+				point(
+						1.8,
+						1.5)));
+		assertTrue(filter.accept(
+				model,
+				point(
+						2.5,
+						1.5)));
+		// spans two pixels, so it is always kept
+		final Geometry line = factory.createLineString(new Coordinate[] {
+			new Coordinate(
+					1.1,
+					1.1),
+			new Coordinate(
+					2.9,
+					1.1)
+		});
+		assertTrue(filter.accept(
+				model,
+				createData(line)));
+		assertTrue(filter.accept(
+				model,
+				createData(line)));
+		// outside of the grid
+		assertTrue(filter.accept(
+				model,
+				point(
+						20,
+						20)));
+		assertTrue(filter.accept(
+				model,
+				point(
+						20,
+						20)));
+
+		// a deserialized filter starts with no pixels painted
+		final PixelDecimationFilter copy = new PixelDecimationFilter();
+		copy.fromBinary(filter.toBinary());
+		assertTrue(copy.accept(
+				model,
+				point(
+						1.5,
+						1.5)));
+		assertFalse(copy.accept(
+				model,
+				point(
+						1.6,
+						1.6)));
+	}
+}
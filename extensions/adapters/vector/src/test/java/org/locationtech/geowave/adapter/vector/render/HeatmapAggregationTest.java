@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class HeatmapAggregationTest
+{
+	private static final GeometryFactory FACTORY = new GeometryFactory();
+
+	private static SimpleFeature point(
+			final SimpleFeatureType type,
+			final double x,
+			final double y,
+			final Double weight ) {
+		return SimpleFeatureBuilder.build(
+				type,
+				new Object[] {
+					FACTORY.createPoint(new Coordinate(
+							x,
+							y)),
+					weight
+				},
+				x + "_" + y);
+	}
+
+	@Test
+	public void testBinning()
+			throws SchemaException {
+		final SimpleFeatureType type = DataUtilities.createType(
+				"heatmap_test",
+				"geometry:Point:srid=4326,weight:Double");
+		final HeatmapOptions options = new HeatmapOptions(
+				0,
+				0,
+				10,
+				10,
+				10,
+				5,
+				"weight",
+				"geometry");
+		final HeatmapAggregation first = new HeatmapAggregation(
+				options);
+		// outside of the grid
+		first.aggregate(point(
+				type,
+				20,
+				5,
+				1.0));
+		assertNull(first.getResult());
+		first.aggregate(point(
+				type,
+				0.5,
+				0.5,
+				2.0));
+		first.aggregate(point(
+				type,
+				10,
+				10,
+				1.0));
+		// no weight
+		first.aggregate(point(
+				type,
+				0.5,
+				0.5,
+				null));
+		final HeatmapAggregation second = new HeatmapAggregation(
+				(HeatmapOptions) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(options)));
+		second.aggregate(point(
+				type,
+				0.7,
+				1.9,
+				3.0));
+		final HeatmapResult result = first.getResult();
+		result.merge((HeatmapResult) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(second.getResult())));
+		assertEquals(
+				5.0,
+				result.get(
+						0,
+						0),
+				0.0);
+		// the maximum edge falls into the last cell
+		assertEquals(
+				1.0,
+				result.get(
+						9,
+						4),
+				0.0);
+		double total = 0;
+		for (final double value : result.getGrid()) {
+			total += value;
+		}
+		assertEquals(
+				6.0,
+				total,
+				0.0);
+		assertEquals(
+				2,
+				second.getFieldIds().size());
+	}
+
+	@Test
+	public void testGeohashPrecision() {
+		// precision 2 has 5 longitude bits and 5 latitude bits, so cells are
+		// 11.25 by 5.625 degrees
+		final HeatmapOptions options = HeatmapOptions.forGeohashPrecision(
+				-10,
+				-10,
+				10,
+				10,
+				2,
+				null);
+		assertEquals(
+				-11.25,
+				options.getMinX(),
+				1e-9);
+		assertEquals(
+				11.25,
+				options.getMaxX(),
+				1e-9);
+		assertEquals(
+				2,
+				options.getWidth());
+		assertEquals(
+				-11.25,
+				options.getMinY(),
+				1e-9);
+		assertEquals(
+				4,
+				options.getHeight());
+	}
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+public class PersistableRenderedImageTest
+{
+	private static BufferedImage sparseImage(
+			final int imageType ) {
+		final BufferedImage image = new BufferedImage(
+				512,
+				512,
+				imageType);
+		final Graphics2D graphics = image.createGraphics();
+		graphics.setColor(new Color(
+				255,
+				0,
+				0,
+				128));
+		graphics.fillRect(
+				70,
+				100,
+				30,
+				20);
+		graphics.setColor(Color.BLUE);
+		graphics.drawLine(
+				300,
+				400,
+				400,
+				410);
+		graphics.dispose();
+		return image;
+	}
+
+	private static void assertSamePixels(
+			final BufferedImage expected,
+			final BufferedImage actual ) {
+		assertEquals(
+				expected.getWidth(),
+				actual.getWidth());
+		assertEquals(
+				expected.getHeight(),
+				actual.getHeight());
+		for (int y = 0; y < expected.getHeight(); y++) {
+			for (int x = 0; x < expected.getWidth(); x++) {
+				assertEquals(
+						"pixel " + x + "," + y,
+						expected.getRGB(
+								x,
+								y),
+						actual.getRGB(
+								x,
+								y));
+			}
+		}
+	}
+
+	private static PersistableRenderedImage roundTrip(
+			final PersistableRenderedImage image ) {
+		final PersistableRenderedImage result = new PersistableRenderedImage();
+		result.fromBinary(image.toBinary());
+		return result;
+	}
+
+	@Test
+	public void testSparseRoundTrip() {
+		for (final int imageType : new int[] {
+			BufferedImage.TYPE_INT_ARGB,
+			BufferedImage.TYPE_4BYTE_ABGR
+		}) {
+			final BufferedImage image = sparseImage(imageType);
+			final byte[] binary = new PersistableRenderedImage(
+					image).toBinary();
+			// only the two touched tiles are encoded, well under the raw size
+			assertTrue(binary.length < (2 * 64 * 64 * 4));
+			final PersistableRenderedImage result = new PersistableRenderedImage();
+			result.fromBinary(binary);
+			assertSamePixels(
+					image,
+					result.getImage());
+			assertEquals(
+					new Rectangle(
+							70,
+							100,
+							331,
+							311),
+					result.getTouchedBounds());
+		}
+	}
+
+	@Test
+	public void testEmptyImage() {
+		final PersistableRenderedImage result = roundTrip(new PersistableRenderedImage(
+				new BufferedImage(
+						256,
+						128,
+						BufferedImage.TYPE_INT_ARGB)));
+		assertEquals(
+				256,
+				result.getImage().getWidth());
+		assertEquals(
+				128,
+				result.getImage().getHeight());
+		assertTrue(result.getTouchedBounds().isEmpty());
+		assertEquals(
+				0,
+				new PersistableRenderedImage().toBinary().length);
+	}
+
+	@Test
+	public void testReadsPng()
+			throws IOException {
+		final BufferedImage image = sparseImage(BufferedImage.TYPE_INT_ARGB);
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ImageIO.write(
+				image,
+				"png",
+				baos);
+		final PersistableRenderedImage result = new PersistableRenderedImage();
+		result.fromBinary(baos.toByteArray());
+		assertSamePixels(
+				image,
+				result.getImage());
+	}
+
+	@Test
+	public void testEncodingPerformance() {
+		final BufferedImage image = sparseImage(BufferedImage.TYPE_INT_ARGB);
+		final PersistableRenderedImage persistable = new PersistableRenderedImage(
+				image);
+		final int iterations = 200;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			roundTrip(persistable);
+		}
+		final long rawNanos = (System.nanoTime() - start) / iterations;
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			try {
+				ImageIO.write(
+						image,
+						"png",
+						baos);
+				ImageIO.read(new ByteArrayInputStream(
+						baos.toByteArray()));
+			}
+			catch (final IOException e) {
+				throw new RuntimeException(
+						e);
+			}
+		}
+		final long pngNanos = (System.nanoTime() - start) / iterations;
+		System.out.println("512x512 sparse image round trip: raw tiled " + (rawNanos / 1000) + " us, png "
+				+ (pngNanos / 1000) + " us");
+	}
+}
@@ -0,0 +1,352 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.adapter.vector.render;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.Test;
+import org.locationtech.geowave.core.index.persist.PersistenceUtils;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+
+public class VectorTileAggregationTest
+{
+	private static final GeometryFactory FACTORY = new GeometryFactory();
+
+	private static SimpleFeatureType createType()
+			throws SchemaException {
+		return DataUtilities.createType(
+				"vectortile_test",
+				"geometry:Geometry:srid=4326,name:String,count:Integer");
+	}
+
+	private static SimpleFeature feature(
+			final SimpleFeatureType type,
+			final String id,
+			final Geometry geometry,
+			final String name,
+			final Integer count ) {
+		return SimpleFeatureBuilder.build(
+				type,
+				new Object[] {
+					geometry,
+					name,
+					count
+				},
+				id);
+	}
+
+	private static VectorTileOptions options() {
+		// a 10x10 tile with linear coordinates, 4096 tile units across
+		return new VectorTileOptions(
+				0,
+				0,
+				10,
+				10,
+				false,
+				"test",
+				null);
+	}
+
+	@Test
+	public void testPointAndAttributes()
+			throws SchemaException {
+		final SimpleFeatureType type = createType();
+		final VectorTileAggregation aggregation = new VectorTileAggregation(
+				options());
+		// outside of the buffered tile
+		aggregation.aggregate(feature(
+				type,
+				"1",
+				FACTORY.createPoint(new Coordinate(
+						20,
+						5)),
+				"outside",
+				1));
+		assertNull(aggregation.getResult());
+		aggregation.aggregate(feature(
+				type,
+				"42",
+				FACTORY.createPoint(new Coordinate(
+						5,
+						7.5)),
+				"inside",
+				3));
+		final VectorTileResult result = (VectorTileResult) PersistenceUtils.fromBinary(PersistenceUtils
+				.toBinary(aggregation.getResult()));
+		assertEquals(
+				"test",
+				result.getName());
+		assertEquals(
+				1,
+				result.getFeatureCount());
+		assertEquals(
+				Long.valueOf(42),
+				result.getId(0));
+		assertEquals(
+				VectorTileResult.GEOM_TYPE_POINT,
+				result.getGeometryType(0));
+		// move to (2048, 1024), tile y increases downwards
+		assertArrayEquals(
+				new int[] {
+					9,
+					4096,
+					2048
+				},
+				result.getGeometry(0));
+		final Map<String, Object> attributes = result.getAttributes(0);
+		assertEquals(
+				"inside",
+				attributes.get("name"));
+		assertEquals(
+				3L,
+				attributes.get("count"));
+	}
+
+	@Test
+	public void testClipAndOrientPolygon()
+			throws SchemaException {
+		final SimpleFeatureType type = createType();
+		final VectorTileAggregation aggregation = new VectorTileAggregation(
+				options());
+		// counter clockwise in data coordinates, covering the bottom half of
+		// the tile and extending beyond it on three sides
+		aggregation.aggregate(feature(
+				type,
+				"a",
+				FACTORY.createPolygon(new Coordinate[] {
+					new Coordinate(
+							-5,
+							-5),
+					new Coordinate(
+							15,
+							-5),
+					new Coordinate(
+							15,
+							5),
+					new Coordinate(
+							-5,
+							5),
+					new Coordinate(
+							-5,
+							-5)
+				}),
+				"polygon",
+				null));
+		final VectorTileResult result = aggregation.getResult();
+		assertNull(result.getId(0));
+		assertEquals(
+				VectorTileResult.GEOM_TYPE_POLYGON,
+				result.getGeometryType(0));
+		assertEquals(
+				1,
+				result.getAttributes(
+						0).size());
+		final int[] commands = result.getGeometry(0);
+		// move to, 2 parameters, line to, 6 parameters, close path
+		assertEquals(
+				11,
+				commands.length);
+		assertEquals(
+				9,
+				commands[0]);
+		assertEquals(
+				2 | (3 << 3),
+				commands[3]);
+		assertEquals(
+				15,
+				commands[10]);
+		final int[] ring = decode(
+				commands,
+				new int[] {
+					1,
+					2,
+					4,
+					5,
+					6,
+					7,
+					8,
+					9
+				});
+		int minX = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		long area = 0;
+		for (int i = 0; i < ring.length; i += 2) {
+			minX = Math.min(
+					minX,
+					ring[i]);
+			maxX = Math.max(
+					maxX,
+					ring[i]);
+			minY = Math.min(
+					minY,
+					ring[i + 1]);
+			maxY = Math.max(
+					maxY,
+					ring[i + 1]);
+			final int next = (i + 2) % ring.length;
+			area += ((long) ring[i] * ring[next + 1]) - ((long) ring[next] * ring[i + 1]);
+		}
+		// clipped to the 256 unit buffer around the tile
+		assertEquals(
+				-256,
+				minX);
+		assertEquals(
+				4352,
+				maxX);
+		assertEquals(
+				2048,
+				minY);
+		assertEquals(
+				4352,
+				maxY);
+		// exterior rings have a positive area in tile coordinates
+		assertTrue(area > 0);
+	}
+
+	/**
+	 * decode zig-zag deltas at the given command positions into absolute
+	 * coordinates
+	 */
+	private static int[] decode(
+			final int[] commands,
+			final int[] parameterPositions ) {
+		final int[] coords = new int[parameterPositions.length];
+		int x = 0;
+		int y = 0;
+		for (int i = 0; i < parameterPositions.length; i += 2) {
+			final int dx = commands[parameterPositions[i]];
+			final int dy = commands[parameterPositions[i + 1]];
+			x += (dx >>> 1) ^ -(dx & 1);
+			y += (dy >>> 1) ^ -(dy & 1);
+			coords[i] = x;
+			coords[i + 1] = y;
+		}
+		return coords;
+	}
+
+	@Test
+	public void testMergeLayers()
+			throws SchemaException {
+		final SimpleFeatureType type = createType();
+		final VectorTileAggregation first = new VectorTileAggregation(
+				options());
+		first.aggregate(feature(
+				type,
+				"1",
+				FACTORY.createLineString(new Coordinate[] {
+					new Coordinate(
+							1,
+							1),
+					new Coordinate(
+							9,
+							9)
+				}),
+				"line",
+				1));
+		final VectorTileAggregation second = new VectorTileAggregation(
+				(VectorTileOptions) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(options())));
+		second.aggregate(feature(
+				type,
+				"2",
+				FACTORY.createPoint(new Coordinate(
+						1,
+						1)),
+				"point",
+				1));
+		final VectorTileResult result = first.getResult();
+		result.merge((VectorTileResult) PersistenceUtils.fromBinary(PersistenceUtils.toBinary(second
+				.getResult())));
+		final VectorTileResult merged = (VectorTileResult) PersistenceUtils.fromBinary(PersistenceUtils
+				.toBinary(result));
+		assertEquals(
+				2,
+				merged.getFeatureCount());
+		assertEquals(
+				VectorTileResult.GEOM_TYPE_LINESTRING,
+				merged.getGeometryType(0));
+		assertEquals(
+				"line",
+				merged.getAttributes(
+						0).get(
+						"name"));
+		assertEquals(
+				VectorTileResult.GEOM_TYPE_POINT,
+				merged.getGeometryType(1));
+		assertEquals(
+				"point",
+				merged.getAttributes(
+						1).get(
+						"name"));
+		assertEquals(
+				1L,
+				merged.getAttributes(
+						1).get(
+						"count"));
+	}
+
+	@Test
+	public void testTileBounds() {
+		final VectorTileOptions world = VectorTileOptions.forTile(
+				0,
+				0,
+				0,
+				"test",
+				null);
+		assertEquals(
+				-180,
+				world.getMinX(),
+				1e-9);
+		assertEquals(
+				85.0511287798066,
+				world.getMaxY(),
+				1e-9);
+		// the equator is in the middle of the world tile in web mercator
+		assertEquals(
+				2048,
+				world.toTileY(0),
+				1e-6);
+		final VectorTileOptions tile = VectorTileOptions.forTile(
+				1,
+				1,
+				0,
+				"test",
+				new String[] {
+					"name"
+				});
+		assertEquals(
+				0,
+				tile.getMinX(),
+				1e-9);
+		assertEquals(
+				0,
+				tile.getMinY(),
+				1e-9);
+		assertEquals(
+				4096,
+				tile.toTileY(0),
+				1e-6);
+	}
+}
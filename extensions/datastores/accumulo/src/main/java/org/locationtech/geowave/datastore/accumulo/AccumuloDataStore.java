@@ -13,6 +13,7 @@ package org.locationtech.geowave.datastore.accumulo;
 import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.TableNotFoundException;
+import org.locationtech.geowave.core.index.StringUtils;
 import org.locationtech.geowave.core.store.adapter.AdapterIndexMappingStore;
 import org.locationtech.geowave.core.store.adapter.AdapterStore;
 import org.locationtech.geowave.core.store.adapter.DataAdapter;
@@ -34,6 +35,7 @@ import org.locationtech.geowave.datastore.accumulo.cli.config.AccumuloOptions;
 import org.locationtech.geowave.datastore.accumulo.index.secondary.AccumuloSecondaryIndexDataStore;
 import org.locationtech.geowave.datastore.accumulo.mapreduce.AccumuloSplitsProvider;
 import org.locationtech.geowave.datastore.accumulo.operations.AccumuloOperations;
+import org.locationtech.geowave.datastore.accumulo.util.AttributeColumnFamilies;
 import org.locationtech.geowave.mapreduce.BaseMapReduceDataStore;
 import org.locationtech.geowave.mapreduce.splits.SplitsProvider;
 import org.slf4j.Logger;
@@ -174,6 +176,36 @@ public class AccumuloDataStore extends
 						indexName,
 						adapterId);
 			}
+			if ((((AccumuloOptions) baseOptions).getAttributeLocalityGroups() > 0) && baseOptions.isCreateTable()) {
+				// the table has to exist with its attribute locality groups
+				// stored before they can be configured
+				((AccumuloOperations) baseOperations).createTable(
+						indexName,
+						baseOptions.isServerSideLibraryEnabled(),
+						baseOptions.isEnableBlockCache(),
+						((AccumuloOptions) baseOptions).getAttributeLocalityGroups());
+			}
+			// the table's persisted setting, the configured one only applies
+			// when the table is created
+			final int attributeLocalityGroups = ((AccumuloOperations) baseOperations)
+					.getAttributeLocalityGroups(indexName);
+			if ((attributeLocalityGroups > 0) && !(adapter.getAdapter() instanceof RowMergingDataAdapter)) {
+				for (int group = 0; group <= attributeLocalityGroups; group++) {
+					final byte[] localityGroup = StringUtils.stringToBinary(AttributeColumnFamilies.getLocalityGroupName(
+							adapter.getAdapterId(),
+							group));
+					if (!((AccumuloOperations) baseOperations).localityGroupExists(
+							indexName,
+							localityGroup)) {
+						((AccumuloOperations) baseOperations).addLocalityGroup(
+								indexName,
+								localityGroup,
+								AttributeColumnFamilies.getColumnFamily(
+										adapter.getInternalAdapterId(),
+										group));
+					}
+				}
+			}
 		}
 		catch (AccumuloException | TableNotFoundException | AccumuloSecurityException e) {
 			LOGGER.error(
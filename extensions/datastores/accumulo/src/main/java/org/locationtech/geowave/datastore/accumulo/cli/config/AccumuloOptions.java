@@ -11,6 +11,7 @@
 package org.locationtech.geowave.datastore.accumulo.cli.config;
 
 import org.locationtech.geowave.core.store.BaseDataStoreOptions;
+import org.locationtech.geowave.core.store.index.SecondaryIndexJoinExecutor;
 import org.locationtech.geowave.datastore.accumulo.util.AccumuloUtils;
 
 import com.beust.jcommander.Parameter;
@@ -34,6 +35,30 @@ public class AccumuloOptions extends
 		this.useLocalityGroups = useLocalityGroups;
 	}
 
+	@Parameter(names = "--attributeLocalityGroups", description = "The number of column families (each with its own locality group) that non-indexed attributes are spread across, with the indexed attributes kept in a family of their own.  Queries for a subset of attributes then only read the families they need.  0 stores every attribute in a single column family.  This only applies to index tables when they are created, and is stored with the table.")
+	protected int attributeLocalityGroups = 0;
+
+	public int getAttributeLocalityGroups() {
+		return attributeLocalityGroups;
+	}
+
+	public void setAttributeLocalityGroups(
+			final int attributeLocalityGroups ) {
+		this.attributeLocalityGroups = attributeLocalityGroups;
+	}
+
+	@Parameter(names = "--secondaryIndexJoinBatchSize", description = "The number of 'JOIN' secondary index hits to buffer before their primary rows are fetched together in a single multi-range read.")
+	protected int secondaryIndexJoinBatchSize = SecondaryIndexJoinExecutor.DEFAULT_BATCH_SIZE;
+
+	public int getSecondaryIndexJoinBatchSize() {
+		return secondaryIndexJoinBatchSize;
+	}
+
+	public void setSecondaryIndexJoinBatchSize(
+			final int secondaryIndexJoinBatchSize ) {
+		this.secondaryIndexJoinBatchSize = secondaryIndexJoinBatchSize;
+	}
+
 	@Override
 	protected int defaultMaxRangeDecomposition() {
 		return AccumuloUtils.ACCUMULO_DEFAULT_MAX_RANGE_DECOMPOSITION;
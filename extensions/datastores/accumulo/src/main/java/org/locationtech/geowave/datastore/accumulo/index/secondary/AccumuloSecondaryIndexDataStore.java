@@ -10,20 +10,22 @@
  ******************************************************************************/
 package org.locationtech.geowave.datastore.accumulo.index.secondary;
 
-import java.io.Closeable;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.iterators.user.WholeRowIterator;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hadoop.io.Text;
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.ByteArrayRange;
@@ -33,15 +35,22 @@ import org.locationtech.geowave.core.store.CloseableIteratorWrapper;
 import org.locationtech.geowave.core.store.DataStore;
 import org.locationtech.geowave.core.store.adapter.DataAdapter;
 import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
+import org.locationtech.geowave.core.store.adapter.statistics.DataStatistics;
+import org.locationtech.geowave.core.store.adapter.statistics.DataStatisticsStore;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.index.BaseSecondaryIndexDataStore;
+import org.locationtech.geowave.core.store.index.PostingListIntersection;
 import org.locationtech.geowave.core.store.index.PrimaryIndex;
 import org.locationtech.geowave.core.store.index.SecondaryIndex;
+import org.locationtech.geowave.core.store.index.SecondaryIndexCardinalityEstimator;
+import org.locationtech.geowave.core.store.index.SecondaryIndexJoinExecutor;
 import org.locationtech.geowave.core.store.index.SecondaryIndexType;
 import org.locationtech.geowave.core.store.index.SecondaryIndexUtils;
+import org.locationtech.geowave.core.store.index.text.NGramTextIndexStrategy;
+import org.locationtech.geowave.core.store.metadata.DataStatisticsStoreImpl;
 import org.locationtech.geowave.core.store.operations.Writer;
 import org.locationtech.geowave.core.store.query.DistributableQuery;
-import org.locationtech.geowave.core.store.query.PrefixIdQuery;
+import org.locationtech.geowave.core.store.query.PrefixIdsQuery;
 import org.locationtech.geowave.core.store.query.QueryOptions;
 import org.locationtech.geowave.datastore.accumulo.cli.config.AccumuloOptions;
 import org.locationtech.geowave.datastore.accumulo.operations.AccumuloOperations;
@@ -56,6 +65,7 @@ public class AccumuloSecondaryIndexDataStore extends
 	private final static Logger LOGGER = LoggerFactory.getLogger(AccumuloSecondaryIndexDataStore.class);
 	private final AccumuloOperations accumuloOperations;
 	private final AccumuloOptions accumuloOptions;
+	private final DataStatisticsStore statisticsStore;
 	private DataStore dataStore = null;
 
 	public AccumuloSecondaryIndexDataStore(
@@ -71,6 +81,9 @@ public class AccumuloSecondaryIndexDataStore extends
 		super();
 		this.accumuloOperations = accumuloOperations;
 		this.accumuloOptions = accumuloOptions;
+		statisticsStore = new DataStatisticsStoreImpl(
+				accumuloOperations,
+				accumuloOptions);
 	}
 
 	@Override
@@ -208,19 +221,31 @@ public class AccumuloSecondaryIndexDataStore extends
 			final PrimaryIndex primaryIndex,
 			final DistributableQuery query,
 			final String... authorizations ) {
-		final Scanner scanner = getScanner(
-				StringUtils.stringFromBinary(secondaryIndex.getId().getBytes()),
+		final String tableName = StringUtils.stringFromBinary(secondaryIndex.getId().getBytes());
+		final Text columnFamily = new Text(
+				SecondaryIndexUtils.constructColumnFamily(
+						adapter.getAdapterId(),
+						indexedAttributeFieldId));
+		final List<ByteArrayRange> constraints = query.getSecondaryIndexConstraints(secondaryIndex);
+		if ((secondaryIndex.getIndexStrategy() instanceof NGramTextIndexStrategy) && (constraints != null)
+				&& !constraints.isEmpty() && !secondaryIndex.getSecondaryIndexType().equals(
+						SecondaryIndexType.JOIN)) {
+			return queryPostingLists(
+					secondaryIndex,
+					tableName,
+					columnFamily,
+					constraints,
+					adapter,
+					primaryIndex,
+					authorizations);
+		}
+		final BatchScanner scanner = getScanner(
+				tableName,
 				authorizations);
 
 		if (scanner != null) {
-			scanner.fetchColumnFamily(new Text(
-					SecondaryIndexUtils.constructColumnFamily(
-							adapter.getAdapterId(),
-							indexedAttributeFieldId)));
-			final Collection<Range> ranges = getScanRanges(query.getSecondaryIndexConstraints(secondaryIndex));
-			for (final Range range : ranges) {
-				scanner.setRange(range);
-			}
+			scanner.fetchColumnFamily(columnFamily);
+			scanner.setRanges(getScanRanges(constraints));
 
 			if (!secondaryIndex.getSecondaryIndexType().equals(
 					SecondaryIndexType.JOIN)) {
@@ -235,56 +260,169 @@ public class AccumuloSecondaryIndexDataStore extends
 						primaryIndex);
 			}
 			else {
-				final List<CloseableIterator<Object>> allResults = new ArrayList<>();
-				try (final CloseableIterator<Pair<ByteArrayId, ByteArrayId>> joinEntryIterator = new AccumuloSecondaryIndexJoinEntryIteratorWrapper<T>(
-						scanner,
-						adapter)) {
-					while (joinEntryIterator.hasNext()) {
-						final Pair<ByteArrayId, ByteArrayId> entry = joinEntryIterator.next();
-						final ByteArrayId primaryIndexId = entry.getLeft();
-						final ByteArrayId primaryIndexRowId = entry.getRight();
-						final CloseableIterator<Object> intermediateResults = dataStore.query(
+				// primary rows are fetched in sorted batches rather than one
+				// lookup per hit
+				return new SecondaryIndexJoinExecutor<T>(
+						new AccumuloSecondaryIndexJoinEntryIteratorWrapper<T>(
+								scanner,
+								adapter),
+						(primaryIndexId, primaryIndexRowIds) -> dataStore.<T> query(
 								new QueryOptions(
 										adapter.getAdapterId(),
 										primaryIndexId),
-								new PrefixIdQuery(
+								new PrefixIdsQuery(
 										null, // TODO GEOWAVE-1018: need
 												// partition key with join
-												// entry, also why is the a
-												// prefix query and not an
-												// insertion ID query
-										primaryIndexRowId));
-						allResults.add(intermediateResults);
-						return new CloseableIteratorWrapper<T>(
-								new Closeable() {
-									@Override
-									public void close()
-											throws IOException {
-										for (final CloseableIterator<Object> resultIter : allResults) {
-											resultIter.close();
-										}
-									}
-								},
-								(Iterator<T>) Iterators.concat(allResults.iterator()));
-					}
-				}
-				catch (final IOException e) {
-					LOGGER.error(
-							"Could not close iterator",
-							e);
-				}
+												// entry
+										primaryIndexRowIds)),
+						accumuloOptions.getSecondaryIndexJoinBatchSize());
 			}
 		}
 
 		return new CloseableIterator.Empty<T>();
 	}
 
-	private Scanner getScanner(
+	/**
+	 * Each range of an n-gram index is the posting list of one gram and an
+	 * entry can only match if it is in all of them. The data IDs of the
+	 * posting lists are intersected, reading the smallest posting lists first
+	 * according to the index statistics, and the matching entries are then
+	 * read from the smallest posting list.
+	 */
+	private <T> CloseableIterator<T> queryPostingLists(
+			final SecondaryIndex<T> secondaryIndex,
+			final String tableName,
+			final Text columnFamily,
+			final List<ByteArrayRange> postingLists,
+			final InternalDataAdapter<T> adapter,
+			final PrimaryIndex primaryIndex,
+			final String... authorizations ) {
+		final List<SecondaryIndexCardinalityEstimator> estimators = getCardinalityEstimators(
+				secondaryIndex,
+				adapter,
+				authorizations);
+		final Map<ByteArrayRange, Long> estimates = new HashMap<>();
+		for (final ByteArrayRange postingList : postingLists) {
+			long estimate = Long.MAX_VALUE;
+			for (final SecondaryIndexCardinalityEstimator estimator : estimators) {
+				estimate = Math.min(
+						estimate,
+						estimator.estimateCardinality(postingList));
+			}
+			if (estimate == 0) {
+				// the gram was never indexed so nothing can match
+				return new CloseableIterator.Empty<T>();
+			}
+			estimates.put(
+					postingList,
+					estimate);
+		}
+		final List<ScannerBase> scanners = new ArrayList<>();
+		final Set<ByteArrayId> dataIds;
+		try {
+			dataIds = PostingListIntersection.intersect(
+					postingLists,
+					estimates::get,
+					postingList -> {
+						final Scanner scanner = getPostingListScanner(
+								tableName,
+								columnFamily,
+								postingList,
+								authorizations);
+						if (scanner == null) {
+							return Collections.<ByteArrayId> emptyIterator();
+						}
+						scanners.add(scanner);
+						return Iterators.transform(
+								scanner.iterator(),
+								entry -> new ByteArrayId(
+										SecondaryIndexUtils.getDataId(entry
+												.getKey()
+												.getColumnQualifierData()
+												.getBackingArray())));
+					});
+		}
+		finally {
+			for (final ScannerBase scanner : scanners) {
+				scanner.close();
+			}
+		}
+		if (dataIds.isEmpty()) {
+			return new CloseableIterator.Empty<T>();
+		}
+		final Scanner scanner = getPostingListScanner(
+				tableName,
+				columnFamily,
+				Collections.min(
+						postingLists,
+						Comparator.<ByteArrayRange> comparingLong(estimates::get)),
+				authorizations);
+		if (scanner == null) {
+			return new CloseableIterator.Empty<T>();
+		}
+		scanner.addScanIterator(new IteratorSetting(
+				10,
+				"GEOWAVE_WHOLE_ROW_ITERATOR",
+				WholeRowIterator.class));
+		final AccumuloSecondaryIndexEntryIteratorWrapper<T> entries = new AccumuloSecondaryIndexEntryIteratorWrapper<T>(
+				scanner,
+				adapter,
+				primaryIndex);
+		// removing each match also drops duplicates of the same entry
+		return new CloseableIteratorWrapper<T>(
+				entries,
+				Iterators.filter(
+						entries,
+						entry -> dataIds.remove(adapter.getDataId(entry))));
+	}
+
+	private Scanner getPostingListScanner(
+			final String tableName,
+			final Text columnFamily,
+			final ByteArrayRange postingList,
+			final String... authorizations ) {
+		try {
+			final Scanner scanner = accumuloOperations.createScanner(
+					tableName,
+					authorizations);
+			scanner.fetchColumnFamily(columnFamily);
+			// a gram shorter than the gram length is a prefix of the longer
+			// grams, a full length gram only prefixes itself
+			scanner.setRange(Range.prefix(new Text(
+					postingList.getStart().getBytes())));
+			return scanner;
+		}
+		catch (final TableNotFoundException e) {
+			LOGGER.error(
+					"Could not obtain scanner",
+					e);
+		}
+		return null;
+	}
+
+	private <T> List<SecondaryIndexCardinalityEstimator> getCardinalityEstimators(
+			final SecondaryIndex<T> secondaryIndex,
+			final InternalDataAdapter<T> adapter,
+			final String... authorizations ) {
+		final List<SecondaryIndexCardinalityEstimator> estimators = new ArrayList<>();
+		for (final DataStatistics<T> statistics : secondaryIndex.getAssociatedStatistics()) {
+			final DataStatistics<?> persisted = statisticsStore.getDataStatistics(
+					adapter.getInternalAdapterId(),
+					statistics.getStatisticsId(),
+					authorizations);
+			if (persisted instanceof SecondaryIndexCardinalityEstimator) {
+				estimators.add((SecondaryIndexCardinalityEstimator) persisted);
+			}
+		}
+		return estimators;
+	}
+
+	private BatchScanner getScanner(
 			final String secondaryIndexId,
 			final String... visibility ) {
-		Scanner scanner = null;
+		BatchScanner scanner = null;
 		try {
-			scanner = accumuloOperations.createScanner(
+			scanner = accumuloOperations.createBatchScanner(
 					secondaryIndexId,
 					visibility);
 		}
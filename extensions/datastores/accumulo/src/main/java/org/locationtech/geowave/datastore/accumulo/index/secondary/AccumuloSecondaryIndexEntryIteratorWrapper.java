@@ -13,7 +13,7 @@ package org.locationtech.geowave.datastore.accumulo.index.secondary;
 import java.io.IOException;
 import java.util.Map.Entry;
 
-import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.locationtech.geowave.core.store.adapter.DataAdapter;
@@ -33,11 +33,11 @@ public class AccumuloSecondaryIndexEntryIteratorWrapper<T> extends
 {
 
 	private final static Logger LOGGER = LoggerFactory.getLogger(AccumuloSecondaryIndexEntryIteratorWrapper.class);
-	private final Scanner scanner;
+	private final ScannerBase scanner;
 	private final PrimaryIndex index;
 
 	public AccumuloSecondaryIndexEntryIteratorWrapper(
-			final Scanner scanner,
+			final ScannerBase scanner,
 			final InternalDataAdapter<T> adapter,
 			final PrimaryIndex index ) {
 		super(
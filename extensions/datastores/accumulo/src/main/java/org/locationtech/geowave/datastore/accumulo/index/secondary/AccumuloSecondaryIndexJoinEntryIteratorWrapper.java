@@ -13,7 +13,7 @@ package org.locationtech.geowave.datastore.accumulo.index.secondary;
 import java.io.IOException;
 import java.util.Map.Entry;
 
-import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.commons.lang3.tuple.Pair;
@@ -32,10 +32,10 @@ public class AccumuloSecondaryIndexJoinEntryIteratorWrapper<T> extends
 		SecondaryIndexEntryIteratorWrapper<T, Pair<ByteArrayId, ByteArrayId>>
 {
 	private final static Logger LOGGER = LoggerFactory.getLogger(AccumuloSecondaryIndexJoinEntryIteratorWrapper.class);
-	private final Scanner scanner;
+	private final ScannerBase scanner;
 
 	public AccumuloSecondaryIndexJoinEntryIteratorWrapper(
-			final Scanner scanner,
+			final ScannerBase scanner,
 			final InternalDataAdapter<T> adapter ) {
 		super(
 				scanner.iterator(),
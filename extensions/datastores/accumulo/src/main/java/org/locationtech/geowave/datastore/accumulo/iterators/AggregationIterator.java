@@ -13,6 +13,7 @@ package org.locationtech.geowave.datastore.accumulo.iterators;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.accumulo.core.data.ByteSequence;
@@ -23,6 +24,7 @@ import org.apache.accumulo.core.iterators.Filter;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.hadoop.io.Text;
+import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
 import org.locationtech.geowave.core.index.Mergeable;
 import org.locationtech.geowave.core.index.persist.Persistable;
@@ -32,11 +34,13 @@ import org.locationtech.geowave.core.store.adapter.IndexedAdapterPersistenceEnco
 import org.locationtech.geowave.core.store.adapter.InternalDataAdapter;
 import org.locationtech.geowave.core.store.data.CommonIndexedPersistenceEncoding;
 import org.locationtech.geowave.core.store.data.PersistentDataset;
+import org.locationtech.geowave.core.store.flatten.BitmaskUtils;
 import org.locationtech.geowave.core.store.flatten.FlattenedUnreadData;
 import org.locationtech.geowave.core.store.index.CommonIndexModel;
 import org.locationtech.geowave.core.store.index.CommonIndexValue;
 import org.locationtech.geowave.core.store.index.PrimaryIndex;
 import org.locationtech.geowave.core.store.query.aggregate.Aggregation;
+import org.locationtech.geowave.core.store.query.aggregate.FieldSubsetAggregation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +59,8 @@ public class AggregationIterator extends
 	protected QueryFilterIterator queryFilterIterator;
 	private Aggregation aggregationFunction;
 	private InternalDataAdapter adapter;
+	private byte[] fieldSubsetBitmask = null;
+	private boolean fieldSubsetInitialized = false;
 	private boolean aggregationReturned = false;
 	private Text startRowOfAggregation = null;
 	private final Text currentRow = new Text();
@@ -163,9 +169,11 @@ public class AggregationIterator extends
 				.equals((Short) (adapter.getInternalAdapterId()))) {
 			final PersistentDataset<Object> adapterExtendedValues = new PersistentDataset<Object>();
 			if (persistenceEncoding instanceof AbstractAdapterPersistenceEncoding) {
+				// only deserialize the fields the aggregation reads
 				((AbstractAdapterPersistenceEncoding) persistenceEncoding).convertUnknownValues(
 						adapter,
-						model);
+						model,
+						getFieldSubsetBitmask(model));
 				final PersistentDataset<Object> existingExtValues = ((AbstractAdapterPersistenceEncoding) persistenceEncoding)
 						.getAdapterExtendedData();
 				if (existingExtValues != null) {
@@ -203,6 +211,23 @@ public class AggregationIterator extends
 		}
 	}
 
+	private byte[] getFieldSubsetBitmask(
+			final CommonIndexModel model ) {
+		if (!fieldSubsetInitialized) {
+			if (aggregationFunction instanceof FieldSubsetAggregation) {
+				final List<ByteArrayId> fieldIds = ((FieldSubsetAggregation) aggregationFunction).getFieldIds();
+				if (fieldIds != null) {
+					fieldSubsetBitmask = BitmaskUtils.generateFieldSubsetBitmask(
+							model,
+							fieldIds,
+							adapter);
+				}
+			}
+			fieldSubsetInitialized = true;
+		}
+		return fieldSubsetBitmask;
+	}
+
 	public void setOptions(
 			final Map<String, String> options ) {
 		try {
@@ -336,6 +361,8 @@ public class AggregationIterator extends
 		if (iterator instanceof AggregationIterator) {
 			((AggregationIterator) iterator).startRowOfAggregation = startRowOfAggregation;
 			((AggregationIterator) iterator).adapter = adapter;
+			((AggregationIterator) iterator).fieldSubsetBitmask = fieldSubsetBitmask;
+			((AggregationIterator) iterator).fieldSubsetInitialized = fieldSubsetInitialized;
 			((AggregationIterator) iterator).queryFilterIterator = queryFilterIterator;
 			((AggregationIterator) iterator).parent = parent;
 			((AggregationIterator) iterator).aggregationFunction = aggregationFunction;
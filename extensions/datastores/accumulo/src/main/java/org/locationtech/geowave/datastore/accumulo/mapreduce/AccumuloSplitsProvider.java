@@ -28,7 +28,6 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hadoop.io.Text;
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.NumericIndexStrategy;
-import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
 import org.locationtech.geowave.core.store.adapter.AdapterStore;
 import org.locationtech.geowave.core.store.adapter.DataAdapter;
 import org.locationtech.geowave.core.store.adapter.TransientAdapterStore;
@@ -37,7 +36,6 @@ import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramS
 import org.locationtech.geowave.core.store.index.PrimaryIndex;
 import org.locationtech.geowave.core.store.operations.DataStoreOperations;
 import org.locationtech.geowave.core.store.query.DistributableQuery;
-import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.locationtech.geowave.datastore.accumulo.mapreduce.BackwardCompatibleTabletLocatorFactory.BackwardCompatibleTabletLocator;
 import org.locationtech.geowave.datastore.accumulo.operations.AccumuloOperations;
 import org.locationtech.geowave.datastore.accumulo.util.AccumuloUtils;
@@ -103,19 +101,10 @@ public class AccumuloSplitsProvider extends
 
 		final TreeSet<Range> ranges;
 		if (query != null) {
-			final List<MultiDimensionalNumericData> indexConstraints = query.getIndexConstraints(index);
-			if ((maxSplits != null) && (maxSplits > 0)) {
-				ranges = AccumuloUtils.byteArrayRangesToAccumuloRanges(DataStoreUtils.constraintsToQueryRanges(
-						indexConstraints,
-						indexStrategy,
-						maxSplits).getCompositeQueryRanges());
-			}
-			else {
-				ranges = AccumuloUtils.byteArrayRangesToAccumuloRanges(DataStoreUtils.constraintsToQueryRanges(
-						indexConstraints,
-						indexStrategy,
-						-1).getCompositeQueryRanges());
-			}
+			ranges = AccumuloUtils.byteArrayRangesToAccumuloRanges(getQueryRanges(
+					index,
+					query,
+					maxSplits).getCompositeQueryRanges());
 			if (ranges.size() == 1) {
 				final Range range = ranges.first();
 				if (range.isInfiniteStartKey() || range.isInfiniteStopKey()) {
@@ -26,6 +26,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
@@ -110,6 +111,7 @@ import org.locationtech.geowave.datastore.accumulo.iterators.WholeRowAggregation
 import org.locationtech.geowave.datastore.accumulo.iterators.WholeRowQueryFilterIterator;
 import org.locationtech.geowave.datastore.accumulo.mapreduce.AccumuloSplitsProvider;
 import org.locationtech.geowave.datastore.accumulo.util.AccumuloUtils;
+import org.locationtech.geowave.datastore.accumulo.util.AttributeColumnFamilies;
 import org.locationtech.geowave.datastore.accumulo.util.ConnectorPool;
 import org.locationtech.geowave.mapreduce.MapReduceDataStoreOperations;
 import org.locationtech.geowave.mapreduce.splits.GeoWaveRowRange;
@@ -137,6 +139,10 @@ public class AccumuloOperations implements
 	private static final long DEFAULT_BYTE_BUFFER_SIZE = 1048576L; // 1 MB
 	private static final String DEFAULT_AUTHORIZATION = null;
 	private static final String DEFAULT_TABLE_NAMESPACE = "";
+	// the number of attribute locality groups a table was created with, absent
+	// if attributes are not grouped
+	public static final String ATTRIBUTE_LOCALITY_GROUPS_PROPERTY = Property.TABLE_ARBITRARY_PROP_PREFIX.getKey()
+			+ "geowave.attributeLocalityGroups";
 	private final int numThreads;
 	private final long timeoutMillis;
 	private final long byteBufferSize;
@@ -148,6 +154,9 @@ public class AccumuloOperations implements
 	private String password;
 	private final Map<String, Set<String>> ensuredAuthorizationCache = new HashMap<>();
 	private final Map<String, Set<ByteArrayId>> ensuredPartitionCache = new HashMap<>();
+	// the property is only set when a table is created, so it never changes
+	// for an existing table
+	private final Map<String, Integer> attributeLocalityGroupsCache = new ConcurrentHashMap<>();
 	private final AccumuloOptions options;
 
 	/**
@@ -306,13 +315,33 @@ public class AccumuloOperations implements
 		return createTable(
 				index.getId().getString(),
 				options.isServerSideLibraryEnabled(),
-				options.isEnableBlockCache());
+				options.isEnableBlockCache(),
+				options.getAttributeLocalityGroups());
 	}
 
 	public boolean createTable(
 			final String tableName,
 			final boolean enableVersioning,
 			final boolean enableBlockCache ) {
+		return createTable(
+				tableName,
+				enableVersioning,
+				enableBlockCache,
+				0);
+	}
+
+	/**
+	 * @param attributeLocalityGroups
+	 *            the number of column families the extended fields of rows in
+	 *            this table are spread across, 0 to write all fields in a
+	 *            single family. This is stored with the table and can't be
+	 *            changed afterwards.
+	 */
+	public boolean createTable(
+			final String tableName,
+			final boolean enableVersioning,
+			final boolean enableBlockCache,
+			final int attributeLocalityGroups ) {
 		final String qName = getQualifiedTableName(tableName);
 
 		if (!connector.tableOperations().exists(
@@ -330,6 +359,13 @@ public class AccumuloOperations implements
 
 					config.setProperties(propMap);
 				}
+				if (attributeLocalityGroups > 0) {
+					propMap.put(
+							ATTRIBUTE_LOCALITY_GROUPS_PROPERTY,
+							Integer.toString(attributeLocalityGroups));
+
+					config.setProperties(propMap);
+				}
 
 				connector.tableOperations().create(
 						qName,
@@ -389,6 +425,7 @@ public class AccumuloOperations implements
 		try {
 			connector.tableOperations().delete(
 					qName);
+			attributeLocalityGroupsCache.remove(qName);
 			return true;
 		}
 		catch (final TableNotFoundException e) {
@@ -438,6 +475,7 @@ public class AccumuloOperations implements
 				tableNamespace,
 				AccumuloStoreFactoryFamily.TYPE).deleteAll();
 		locGrpCache.clear();
+		attributeLocalityGroupsCache.clear();
 		ensuredAuthorizationCache.clear();
 		ensuredPartitionCache.clear();
 	}
@@ -587,6 +625,24 @@ public class AccumuloOperations implements
 			throws AccumuloException,
 			TableNotFoundException,
 			AccumuloSecurityException {
+		addLocalityGroup(
+				tableName,
+				localityGroup,
+				new Text(
+						localityGroup));
+	}
+
+	/**
+	 * Adds a locality group with the given name holding a single column
+	 * family, for column families that aren't valid locality group names
+	 */
+	public void addLocalityGroup(
+			final String tableName,
+			final byte[] localityGroup,
+			final Text columnFamily )
+			throws AccumuloException,
+			TableNotFoundException,
+			AccumuloSecurityException {
 		final String qName = getQualifiedTableName(tableName);
 		final String localityGroupStr = qName + StringUtils.stringFromBinary(localityGroup);
 
@@ -608,8 +664,7 @@ public class AccumuloOperations implements
 
 			final Set<Text> groupSet = new HashSet<Text>();
 
-			groupSet.add(new Text(
-					localityGroup));
+			groupSet.add(columnFamily);
 
 			localityGroups.put(
 					StringUtils.stringFromBinary(localityGroup),
@@ -973,8 +1028,11 @@ public class AccumuloOperations implements
 					additionalAuthorizations);
 
 			deleter.setRanges(Arrays.asList(new Range()));
-			deleter.fetchColumnFamily(new Text(
-					ByteArrayUtils.shortToString(adapterId)));
+			for (final Text columnFamily : AttributeColumnFamilies.getAllColumnFamilies(
+					adapterId,
+					getAttributeLocalityGroups(indexId.getString()))) {
+				deleter.fetchColumnFamily(columnFamily);
+			}
 			deleter.delete();
 			return true;
 		}
@@ -1064,13 +1122,101 @@ public class AccumuloOperations implements
 					e);
 			return null;
 		}
-		if ((params.getAdapterIds() != null) && !params.getAdapterIds().isEmpty()) {
-			for (final short adapterId : params.getAdapterIds()) {
+		fetchColumnFamilies(
+				params,
+				scanner);
+		return scanner;
+	}
+
+	/**
+	 * Restricts the scanner to the column families of the queried adapters.
+	 * When attributes are grouped into locality groups and only a subset of
+	 * fields is requested, only the families holding those fields are fetched
+	 * so the locality groups of all other fields are never read.
+	 */
+	protected <T> void fetchColumnFamilies(
+			final BaseReaderParams<T> params,
+			final ScannerBase scanner ) {
+		if ((params.getAdapterIds() == null) || params.getAdapterIds().isEmpty()) {
+			return;
+		}
+		final int attributeLocalityGroups = getAttributeLocalityGroups(params.getIndex().getId().getString());
+		for (final short adapterId : params.getAdapterIds()) {
+			if (attributeLocalityGroups <= 0) {
 				scanner.fetchColumnFamily(new Text(
 						ByteArrayUtils.shortToString(adapterId)));
+				continue;
+			}
+			final List<Text> columnFamilies;
+			if ((params.getFieldSubsets() != null) && !params.isAggregation()
+					&& (params.getFieldSubsets().getLeft() != null) && !params.getFieldSubsets().getLeft().isEmpty()
+					&& (params.getFieldSubsets().getRight() != null)
+					&& (params.getFieldSubsets().getRight().getInternalAdapterId() == adapterId)) {
+				columnFamilies = AttributeColumnFamilies.getColumnFamilies(
+						adapterId,
+						attributeLocalityGroups,
+						params.getFieldSubsets().getLeft(),
+						params.getFieldSubsets().getRight(),
+						params.getIndex().getIndexModel());
+			}
+			else {
+				columnFamilies = AttributeColumnFamilies.getAllColumnFamilies(
+						adapterId,
+						attributeLocalityGroups);
+			}
+			for (final Text columnFamily : columnFamilies) {
+				scanner.fetchColumnFamily(columnFamily);
 			}
 		}
-		return scanner;
+	}
+
+	/**
+	 * @return true if the cells of a row must be combined into a single entry
+	 *         on the server, either because fields have different visibilities
+	 *         or because they are spread across attribute column families
+	 */
+	protected <T> boolean isWholeRowRead(
+			final BaseReaderParams<T> params ) {
+		return params.isMixedVisibility() || (getAttributeLocalityGroups(params.getIndex().getId().getString()) > 0);
+	}
+
+	/**
+	 * @return the number of attribute locality groups the table was created
+	 *         with, 0 if its attributes are not grouped. This is read from the
+	 *         table rather than the options so that every client reads the
+	 *         layout the data was written with.
+	 */
+	public int getAttributeLocalityGroups(
+			final String tableName ) {
+		final String qName = getQualifiedTableName(tableName);
+		final Integer cached = attributeLocalityGroupsCache.get(qName);
+		if (cached != null) {
+			return cached;
+		}
+		int attributeLocalityGroups = 0;
+		try {
+			for (final Entry<String, String> property : connector.tableOperations().getProperties(
+					qName)) {
+				if (ATTRIBUTE_LOCALITY_GROUPS_PROPERTY.equals(property.getKey())) {
+					attributeLocalityGroups = Integer.parseInt(property.getValue());
+					break;
+				}
+			}
+		}
+		catch (final TableNotFoundException e) {
+			// not cached, the table may be created later
+			return 0;
+		}
+		catch (final AccumuloException | NumberFormatException e) {
+			LOGGER.warn(
+					"Unable to read attribute locality groups of table '" + qName + "'",
+					e);
+			return 0;
+		}
+		attributeLocalityGroupsCache.put(
+				qName,
+				attributeLocalityGroups);
+		return attributeLocalityGroups;
 	}
 
 	protected <T> void addConstraintsScanIteratorSettings(
@@ -1082,7 +1228,7 @@ public class AccumuloOperations implements
 				scanner);
 		IteratorSetting iteratorSettings = null;
 		if (params.isServersideAggregation()) {
-			if (params.isMixedVisibility()) {
+			if (isWholeRowRead(params)) {
 				iteratorSettings = new IteratorSetting(
 						QueryFilterIterator.QUERY_ITERATOR_PRIORITY,
 						QueryFilterIterator.QUERY_ITERATOR_NAME,
@@ -1118,7 +1264,7 @@ public class AccumuloOperations implements
 		if (params.getFilter() != null) {
 			usingDistributableFilter = true;
 			if (iteratorSettings == null) {
-				if (params.isMixedVisibility()) {
+				if (isWholeRowRead(params)) {
 					iteratorSettings = new IteratorSetting(
 							QueryFilterIterator.QUERY_ITERATOR_PRIORITY,
 							QueryFilterIterator.QUERY_ITERATOR_NAME,
@@ -1145,7 +1291,7 @@ public class AccumuloOperations implements
 						Integer.toString(params.getIndex().getIndexStrategy().getPartitionKeyLength()));
 			}
 		}
-		else if ((iteratorSettings == null) && params.isMixedVisibility()) {
+		else if ((iteratorSettings == null) && isWholeRowRead(params)) {
 			// we have to at least use a whole row iterator
 			iteratorSettings = new IteratorSetting(
 					QueryFilterIterator.QUERY_ITERATOR_PRIORITY,
@@ -1204,7 +1350,7 @@ public class AccumuloOperations implements
 
 				iteratorSetting.addOption(
 						AttributeSubsettingIterator.WHOLE_ROW_ENCODED_KEY,
-						Boolean.toString(params.isMixedVisibility()));
+						Boolean.toString(isWholeRowRead(params)));
 				scanner.addScanIterator(iteratorSetting);
 			}
 		}
@@ -1216,7 +1362,7 @@ public class AccumuloOperations implements
 		addFieldSubsettingToIterator(
 				params,
 				scanner);
-		if (params.isMixedVisibility()) {
+		if (isWholeRowRead(params)) {
 			// we have to at least use a whole row iterator
 			final IteratorSetting iteratorSettings = new IteratorSetting(
 					QueryFilterIterator.QUERY_ITERATOR_PRIORITY,
@@ -1241,7 +1387,7 @@ public class AccumuloOperations implements
 				scanner,
 				(GeoWaveRowIteratorTransformer<T>) params.getRowTransformer(),
 				params.getIndex().getIndexStrategy().getPartitionKeyLength(),
-				params.isMixedVisibility() && !params.isServersideAggregation(),
+				isWholeRowRead(params) && !params.isServersideAggregation(),
 				params.isClientsideRowMerging(),
 				true);
 	}
@@ -1302,12 +1448,9 @@ public class AccumuloOperations implements
 					e);
 			return null;
 		}
-		if ((params.getAdapterIds() != null) && !params.getAdapterIds().isEmpty()) {
-			for (final Short adapterId : params.getAdapterIds()) {
-				scanner.fetchColumnFamily(new Text(
-						ByteArrayUtils.shortToString(adapterId)));
-			}
-		}
+		fetchColumnFamilies(
+				params,
+				scanner);
 		return scanner;
 	}
 
@@ -1324,7 +1467,7 @@ public class AccumuloOperations implements
 				scanner,
 				(GeoWaveRowIteratorTransformer<T>) readerParams.getRowTransformer(),
 				readerParams.getIndex().getIndexStrategy().getPartitionKeyLength(),
-				readerParams.isMixedVisibility() && !readerParams.isServersideAggregation(),
+				isWholeRowRead(readerParams) && !readerParams.isServersideAggregation(),
 				false,
 				false);
 	}
@@ -1353,14 +1496,29 @@ public class AccumuloOperations implements
 			createTable(
 					tableName,
 					options.isServerSideLibraryEnabled(),
-					options.isEnableBlockCache());
+					options.isEnableBlockCache(),
+					options.getAttributeLocalityGroups());
 		}
 
+		int attributeLocalityGroups = getAttributeLocalityGroups(tableName);
+		if (attributeLocalityGroups != options.getAttributeLocalityGroups()) {
+			LOGGER.warn("Table '" + tableName + "' was created with " + attributeLocalityGroups
+					+ " attribute locality groups, ignoring the configured " + options.getAttributeLocalityGroups());
+		}
+		if ((attributeLocalityGroups > 0) && isRowMergingEnabled(
+				internalAdapterId,
+				tableName)) {
+			// row merging combines whole values, so merged rows are never
+			// split across families
+			attributeLocalityGroups = 0;
+		}
 		try {
 			return new org.locationtech.geowave.datastore.accumulo.operations.AccumuloWriter(
 					createBatchWriter(tableName),
 					this,
-					tableName);
+					tableName,
+					AttributeColumnFamilies.getCommonIndexFieldCount(index.getIndexModel()),
+					attributeLocalityGroups);
 		}
 		catch (final TableNotFoundException e) {
 			LOGGER.error(
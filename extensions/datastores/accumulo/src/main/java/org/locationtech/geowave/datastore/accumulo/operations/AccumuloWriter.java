@@ -10,6 +10,8 @@
  ******************************************************************************/
 package org.locationtech.geowave.datastore.accumulo.operations;
 
+import java.util.Map.Entry;
+
 import org.apache.accumulo.core.client.MutationsRejectedException;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Value;
@@ -22,6 +24,7 @@ import org.locationtech.geowave.core.store.entities.GeoWaveKey;
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.entities.GeoWaveValue;
 import org.locationtech.geowave.core.store.operations.Writer;
+import org.locationtech.geowave.datastore.accumulo.util.AttributeColumnFamilies;
 
 /**
  * This is a basic wrapper around the Accumulo batch writer so that write
@@ -36,14 +39,39 @@ public class AccumuloWriter implements
 	private org.apache.accumulo.core.client.BatchWriter batchWriter;
 	private final AccumuloOperations operations;
 	private final String tableName;
+	private final int commonIndexFieldCount;
+	private final int attributeLocalityGroups;
 
 	public AccumuloWriter(
 			final org.apache.accumulo.core.client.BatchWriter batchWriter,
 			final AccumuloOperations operations,
 			final String tableName ) {
+		this(
+				batchWriter,
+				operations,
+				tableName,
+				0,
+				0);
+	}
+
+	/**
+	 * @param commonIndexFieldCount
+	 *            the number of unique common index fields of the index
+	 * @param attributeLocalityGroups
+	 *            the number of column families the extended fields are
+	 *            spread across, 0 to write all fields in a single family
+	 */
+	public AccumuloWriter(
+			final org.apache.accumulo.core.client.BatchWriter batchWriter,
+			final AccumuloOperations operations,
+			final String tableName,
+			final int commonIndexFieldCount,
+			final int attributeLocalityGroups ) {
 		this.batchWriter = batchWriter;
 		this.operations = operations;
 		this.tableName = tableName;
+		this.commonIndexFieldCount = commonIndexFieldCount;
+		this.attributeLocalityGroups = attributeLocalityGroups;
 	}
 
 	public org.apache.accumulo.core.client.BatchWriter getBatchWriter() {
@@ -121,7 +149,15 @@ public class AccumuloWriter implements
 							partition),
 					tableName);
 		}
-		write(rowToMutation(row));
+		if (attributeLocalityGroups > 0) {
+			write(rowToMutation(
+					row,
+					commonIndexFieldCount,
+					attributeLocalityGroups));
+		}
+		else {
+			write(rowToMutation(row));
+		}
 	}
 
 	public static Mutation rowToMutation(
@@ -152,4 +188,46 @@ public class AccumuloWriter implements
 		}
 		return mutation;
 	}
+
+	/**
+	 * Like {@link #rowToMutation(GeoWaveRow)} but each field is written to the
+	 * column family of its group, splitting values that span several groups
+	 */
+	public static Mutation rowToMutation(
+			final GeoWaveRow row,
+			final int commonIndexFieldCount,
+			final int attributeLocalityGroups ) {
+		final Mutation mutation = new Mutation(
+				GeoWaveKey.getCompositeId(row));
+		for (final GeoWaveValue originalValue : row.getFieldValues()) {
+			for (final Entry<Integer, GeoWaveValue> groupValue : AttributeColumnFamilies.splitValue(
+					originalValue,
+					commonIndexFieldCount,
+					attributeLocalityGroups).entrySet()) {
+				final GeoWaveValue value = groupValue.getValue();
+				final Text columnFamily = AttributeColumnFamilies.getColumnFamily(
+						row.getInternalAdapterId(),
+						groupValue.getKey());
+				if ((value.getVisibility() != null) && (value.getVisibility().length > 0)) {
+					mutation.put(
+							columnFamily,
+							new Text(
+									value.getFieldMask()),
+							new ColumnVisibility(
+									value.getVisibility()),
+							new Value(
+									value.getValue()));
+				}
+				else {
+					mutation.put(
+							columnFamily,
+							new Text(
+									value.getFieldMask()),
+							new Value(
+									value.getValue()));
+				}
+			}
+		}
+		return mutation;
+	}
 }
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.datastore.accumulo.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.hadoop.io.Text;
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.core.index.ByteArrayUtils;
+import org.locationtech.geowave.core.store.adapter.DataAdapter;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+import org.locationtech.geowave.core.store.flatten.BitmaskUtils;
+import org.locationtech.geowave.core.store.index.CommonIndexModel;
+import org.locationtech.geowave.core.store.util.DataStoreUtils;
+
+/**
+ * Maps the fields of a row to a fixed set of column families so that each
+ * family can be given its own locality group. Group 0 holds the common index
+ * fields (typically geometry and time) and the remaining fields are spread
+ * across the extended groups by field position. A query for a subset of fields
+ * then only needs to fetch the families holding those fields, and Accumulo
+ * will skip the RFile locality groups of every other family entirely.
+ *
+ * The family of a group is the adapter's column family with a group suffix, so
+ * anything that reads the internal adapter ID from the leading bytes of the
+ * column family is unaffected.
+ */
+public class AttributeColumnFamilies
+{
+	private static final String GROUP_SEPARATOR = "_";
+
+	private AttributeColumnFamilies() {}
+
+	public static int getCommonIndexFieldCount(
+			final CommonIndexModel indexModel ) {
+		return DataStoreUtils.getUniqueDimensionFields(indexModel).size();
+	}
+
+	/**
+	 * @param fieldPosition
+	 *            the position of the field as assigned by the adapter
+	 * @param commonIndexFieldCount
+	 *            the number of unique common index fields, these always take
+	 *            the lowest positions
+	 * @param extendedGroups
+	 *            the number of groups the extended fields are spread across
+	 * @return the group for this field position
+	 */
+	public static int getGroup(
+			final int fieldPosition,
+			final int commonIndexFieldCount,
+			final int extendedGroups ) {
+		if (fieldPosition < commonIndexFieldCount) {
+			return 0;
+		}
+		return 1 + ((fieldPosition - commonIndexFieldCount) % extendedGroups);
+	}
+
+	public static Text getColumnFamily(
+			final short internalAdapterId,
+			final int group ) {
+		return new Text(
+				ByteArrayUtils.shortToString(internalAdapterId) + GROUP_SEPARATOR + group);
+	}
+
+	/**
+	 * @return a locality group name for the group, the column family itself
+	 *         contains the binary internal adapter ID so it can't be used
+	 */
+	public static String getLocalityGroupName(
+			final ByteArrayId adapterId,
+			final int group ) {
+		return adapterId.getString() + GROUP_SEPARATOR + "attr" + group;
+	}
+
+	/**
+	 * @return the column families of every group, including the ungrouped
+	 *         family so that rows written without grouping are still read
+	 */
+	public static List<Text> getAllColumnFamilies(
+			final short internalAdapterId,
+			final int extendedGroups ) {
+		final List<Text> families = new ArrayList<>();
+		families.add(new Text(
+				ByteArrayUtils.shortToString(internalAdapterId)));
+		for (int group = 0; group <= extendedGroups; group++) {
+			families.add(getColumnFamily(
+					internalAdapterId,
+					group));
+		}
+		return families;
+	}
+
+	/**
+	 * @return the column families needed to read the given fields, the common
+	 *         index fields are always included because they are required to
+	 *         decode an entry
+	 */
+	public static List<Text> getColumnFamilies(
+			final short internalAdapterId,
+			final int extendedGroups,
+			final List<String> fieldIds,
+			final DataAdapter<?> adapter,
+			final CommonIndexModel indexModel ) {
+		final int commonIndexFieldCount = getCommonIndexFieldCount(indexModel);
+		final SortedSet<Integer> groups = new TreeSet<>();
+		groups.add(0);
+		for (final String fieldId : fieldIds) {
+			final int position = adapter.getPositionOfOrderedField(
+					indexModel,
+					new ByteArrayId(
+							fieldId));
+			if (position < 0) {
+				// unknown field, fall back to reading everything
+				return getAllColumnFamilies(
+						internalAdapterId,
+						extendedGroups);
+			}
+			groups.add(getGroup(
+					position,
+					commonIndexFieldCount,
+					extendedGroups));
+		}
+		final List<Text> families = new ArrayList<>();
+		families.add(new Text(
+				ByteArrayUtils.shortToString(internalAdapterId)));
+		for (final Integer group : groups) {
+			families.add(getColumnFamily(
+					internalAdapterId,
+					group));
+		}
+		return families;
+	}
+
+	/**
+	 * Splits a flattened value so that each resulting value only contains the
+	 * fields of a single group.
+	 *
+	 * @return the values keyed by group
+	 */
+	public static Map<Integer, GeoWaveValue> splitValue(
+			final GeoWaveValue value,
+			final int commonIndexFieldCount,
+			final int extendedGroups ) {
+		final Map<Integer, SortedSet<Integer>> positionsPerGroup = new TreeMap<>();
+		for (final Integer position : BitmaskUtils.getFieldPositions(value.getFieldMask())) {
+			final int group = getGroup(
+					position,
+					commonIndexFieldCount,
+					extendedGroups);
+			SortedSet<Integer> positions = positionsPerGroup.get(group);
+			if (positions == null) {
+				positions = new TreeSet<>();
+				positionsPerGroup.put(
+						group,
+						positions);
+			}
+			positions.add(position);
+		}
+		final Map<Integer, GeoWaveValue> values = new TreeMap<>();
+		if (positionsPerGroup.size() == 1) {
+			values.put(
+					positionsPerGroup.keySet().iterator().next(),
+					value);
+			return values;
+		}
+		for (final Map.Entry<Integer, SortedSet<Integer>> entry : positionsPerGroup.entrySet()) {
+			final byte[] groupMask = BitmaskUtils.generateCompositeBitmask(entry.getValue());
+			values.put(
+					entry.getKey(),
+					new GeoWaveValueImpl(
+							groupMask,
+							value.getVisibility(),
+							BitmaskUtils.constructNewValue(
+									value.getValue(),
+									value.getFieldMask(),
+									groupMask)));
+		}
+		return values;
+	}
+}
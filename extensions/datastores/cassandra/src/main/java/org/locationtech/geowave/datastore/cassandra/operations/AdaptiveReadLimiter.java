@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.datastore.cassandra.operations;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of outstanding async reads, adjusting the limit by additive
+ * increase and multiplicative decrease (AIMD). Every read that completes within
+ * the target latency raises the limit by roughly one per round trip, while a
+ * timeout, an overloaded coordinator or a read slower than the target halves
+ * it. The limit is halved at most once per target latency so that a burst of
+ * slow reads issued under the old limit only counts once.
+ */
+public class AdaptiveReadLimiter
+{
+	private final int minLimit;
+	private final int maxLimit;
+	private final long targetLatencyNanos;
+
+	private double limit;
+	private int inFlight = 0;
+	private long lastDecreaseNanos;
+
+	public AdaptiveReadLimiter(
+			final int initialLimit,
+			final int maxLimit,
+			final long targetLatencyMillis ) {
+		this.maxLimit = Math.max(
+				1,
+				maxLimit);
+		minLimit = 1;
+		limit = Math.max(
+				minLimit,
+				Math.min(
+						initialLimit,
+						this.maxLimit));
+		targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+		lastDecreaseNanos = System.nanoTime() - targetLatencyNanos;
+	}
+
+	/**
+	 * Blocks until another read may be issued.
+	 *
+	 * @return the start time of the read, to be passed back when the response
+	 *         arrives
+	 */
+	public synchronized long acquire()
+			throws InterruptedException {
+		while (inFlight >= (int) limit) {
+			wait();
+		}
+		inFlight++;
+		return System.nanoTime();
+	}
+
+	/**
+	 * The first page of a read arrived, the latency from the start time is used
+	 * to adjust the limit.
+	 */
+	public synchronized void onResponse(
+			final long startNanos ) {
+		final long now = System.nanoTime();
+		if ((now - startNanos) > targetLatencyNanos) {
+			decrease(now);
+		}
+		else {
+			limit = Math.min(
+					maxLimit,
+					limit + (1.0 / limit));
+			notifyAll();
+		}
+	}
+
+	/**
+	 * A read timed out or was rejected because the cluster is overloaded.
+	 */
+	public synchronized void onOverload() {
+		decrease(System.nanoTime());
+	}
+
+	/**
+	 * A read is finished and its results are consumed, which makes room for
+	 * another read. Permits are held until the results are consumed so that
+	 * reads are not issued faster than their results can be used.
+	 */
+	public synchronized void release() {
+		inFlight--;
+		notifyAll();
+	}
+
+	public synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	private void decrease(
+			final long now ) {
+		if ((now - lastDecreaseNanos) >= targetLatencyNanos) {
+			limit = Math.max(
+					minLimit,
+					limit / 2);
+			lastDecreaseNanos = now;
+		}
+	}
+}
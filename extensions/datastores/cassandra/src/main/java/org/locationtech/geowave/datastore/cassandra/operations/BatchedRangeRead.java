@@ -16,11 +16,13 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.locationtech.geowave.core.index.ByteArrayRange;
@@ -36,23 +38,37 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.Metadata;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.datastax.driver.core.exceptions.OverloadedException;
+import com.datastax.driver.core.exceptions.ReadTimeoutException;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
 
+/**
+ * Reads a set of ranges with async queries. Ranges are grouped by the replica
+ * that owns their partition and issued round robin across the groups so that
+ * outstanding reads are spread over the cluster, and each statement is routed
+ * to a replica by the driver's token aware load balancing because the
+ * partition key is bound. The number of outstanding reads is adjusted by an
+ * {@link AdaptiveReadLimiter} based on observed latency and timeouts, starting
+ * from the limit the previous query on the same data store converged to.
+ */
 public class BatchedRangeRead<T>
 {
 	private final static Logger LOGGER = LoggerFactory.getLogger(BatchedRangeRead.class);
-	private final static int MAX_CONCURRENT_READ = 100;
 	private final static int MAX_BOUNDED_READS_ENQUEUED = 1000000;
 	private final CassandraOperations operations;
 	private final PreparedStatement preparedRead;
@@ -61,10 +77,9 @@ public class BatchedRangeRead<T>
 	private final GeoWaveRowIteratorTransformer<T> rowTransformer;
 	Predicate<GeoWaveRow> filter;
 
-	// only allow so many outstanding async reads or writes, use this semaphore
-	// to control it
-	private final Semaphore readSemaphore = new Semaphore(
-			MAX_CONCURRENT_READ);
+	// only allow so many outstanding async reads, this limiter adapts the
+	// number to what the cluster is able to serve
+	private final AdaptiveReadLimiter readLimiter;
 
 	protected BatchedRangeRead(
 			final PreparedStatement preparedRead,
@@ -79,11 +94,26 @@ public class BatchedRangeRead<T>
 		this.ranges = ranges;
 		this.rowTransformer = rowTransformer;
 		this.filter = filter;
+		readLimiter = operations.createReadLimiter();
 	}
 
 	public CloseableIterator<T> results() {
-		final List<BoundStatement> statements = new ArrayList<>();
+		final Metadata metadata = operations.getSession().getCluster().getMetadata();
+		final Map<Host, List<BoundStatement>> statementsPerReplica = new LinkedHashMap<>();
 		for (final SinglePartitionQueryRanges r : ranges) {
+			final ByteBuffer partitionKey = ByteBuffer.wrap(r.getPartitionKey().getBytes());
+			final Set<Host> replicas = metadata.getReplicas(
+					Metadata.quote(operations.getKeyspace()),
+					partitionKey);
+			// ranges without known replicas are grouped together under null
+			final Host replica = replicas.isEmpty() ? null : replicas.iterator().next();
+			List<BoundStatement> statements = statementsPerReplica.get(replica);
+			if (statements == null) {
+				statements = new ArrayList<>();
+				statementsPerReplica.put(
+						replica,
+						statements);
+			}
 			for (final ByteArrayRange range : r.getSortKeyRanges()) {
 				final BoundStatement boundRead = new BoundStatement(
 						preparedRead);
@@ -108,7 +138,7 @@ public class BatchedRangeRead<T>
 						ByteBuffer.class);
 				boundRead.set(
 						CassandraField.GW_PARTITION_ID_KEY.getBindMarkerName(),
-						ByteBuffer.wrap(r.getPartitionKey().getBytes()),
+						partitionKey.duplicate(),
 						ByteBuffer.class);
 
 				boundRead.set(
@@ -119,7 +149,29 @@ public class BatchedRangeRead<T>
 			}
 
 		}
-		return executeQueryAsync(statements.toArray(new BoundStatement[] {}));
+		return executeQueryAsync(interleave(statementsPerReplica.values()));
+	}
+
+	private static BoundStatement[] interleave(
+			final Collection<List<BoundStatement>> statementsPerReplica ) {
+		final List<BoundStatement> interleaved = new ArrayList<>();
+		final List<Iterator<BoundStatement>> iterators = new ArrayList<>();
+		for (final List<BoundStatement> statements : statementsPerReplica) {
+			iterators.add(statements.iterator());
+		}
+		while (!iterators.isEmpty()) {
+			final Iterator<Iterator<BoundStatement>> it = iterators.iterator();
+			while (it.hasNext()) {
+				final Iterator<BoundStatement> statements = it.next();
+				if (statements.hasNext()) {
+					interleaved.add(statements.next());
+				}
+				else {
+					it.remove();
+				}
+			}
+		}
+		return interleaved.toArray(new BoundStatement[] {});
 	}
 
 	public CloseableIterator<T> executeQueryAsync(
@@ -137,28 +189,37 @@ public class BatchedRangeRead<T>
 						final AtomicInteger queryCount = new AtomicInteger(
 								1);
 						for (final Statement s : statements) {
+							final long startNanos;
 							try {
-								readSemaphore.acquire();
-
-								final ResultSetFuture f = operations.getSession().executeAsync(
-										s);
-								futures.add(f);
-								Futures.addCallback(
-										f,
-										new QueryCallback(
-												queryCount,
-												results,
-												rowTransformer,
-												filter,
-												readSemaphore),
-										CassandraOperations.READ_RESPONSE_THREADS);
+								startNanos = readLimiter.acquire();
 							}
 							catch (final InterruptedException e) {
 								LOGGER.warn(
 										"Exception while executing query",
 										e);
-								readSemaphore.release();
+								continue;
 							}
+							final ResultSetFuture f = operations.getSession().executeAsync(
+									s);
+							futures.add(f);
+							// latency is measured where the driver completes
+							// the future rather than once a response thread
+							// gets to the results
+							Futures.addCallback(
+									f,
+									new LatencyCallback(
+											readLimiter,
+											startNanos),
+									MoreExecutors.directExecutor());
+							Futures.addCallback(
+									f,
+									new QueryCallback(
+											queryCount,
+											results,
+											rowTransformer,
+											filter,
+											readLimiter),
+									CassandraOperations.READ_RESPONSE_THREADS);
 						}
 						// then decrement
 						if (queryCount.decrementAndGet() <= 0) {
@@ -189,11 +250,49 @@ public class BatchedRangeRead<T>
 						results));
 	}
 
+	private static boolean isOverload(
+			final Throwable t ) {
+		return (t instanceof ReadTimeoutException) || (t instanceof OperationTimedOutException)
+				|| (t instanceof OverloadedException);
+	}
+
+	/**
+	 * Reports the latency of the first page, or an overload, to the limiter as
+	 * soon as the driver completes the read
+	 */
+	private static class LatencyCallback implements
+			FutureCallback<ResultSet>
+	{
+		private final AdaptiveReadLimiter limiter;
+		private final long startNanos;
+
+		public LatencyCallback(
+				final AdaptiveReadLimiter limiter,
+				final long startNanos ) {
+			this.limiter = limiter;
+			this.startNanos = startNanos;
+		}
+
+		@Override
+		public void onSuccess(
+				final ResultSet result ) {
+			limiter.onResponse(startNanos);
+		}
+
+		@Override
+		public void onFailure(
+				final Throwable t ) {
+			if (isOverload(t)) {
+				limiter.onOverload();
+			}
+		}
+	}
+
 	// callback class
 	protected static class QueryCallback<T> implements
 			FutureCallback<ResultSet>
 	{
-		private final Semaphore semaphore;
+		private final AdaptiveReadLimiter limiter;
 		private final BlockingQueue<Object> resultQueue;
 		private final AtomicInteger queryCount;
 
@@ -205,13 +304,13 @@ public class BatchedRangeRead<T>
 				final BlockingQueue<Object> resultQueue,
 				final GeoWaveRowIteratorTransformer<T> rowTransform,
 				final Predicate<GeoWaveRow> filter,
-				final Semaphore semaphore ) {
+				final AdaptiveReadLimiter limiter ) {
 			this.queryCount = queryCount;
 			this.queryCount.incrementAndGet();
 			this.resultQueue = resultQueue;
 			this.rowTransform = rowTransform;
 			this.filter = filter;
-			this.semaphore = semaphore;
+			this.limiter = limiter;
 		}
 
 		@Override
@@ -224,7 +323,8 @@ public class BatchedRangeRead<T>
 										.filter(
 												Iterators
 														.transform(
-																result.iterator(),
+																new PrefetchingIterator(
+																		result),
 																new Function<Row, CassandraRow>() {
 
 																	@Override
@@ -251,6 +351,13 @@ public class BatchedRangeRead<T>
 								});
 
 			}
+			catch (final RuntimeException e) {
+				// subsequent pages are fetched while results are consumed
+				if (isOverload(e)) {
+					limiter.onOverload();
+				}
+				throw e;
+			}
 			finally {
 				checkFinalize();
 			}
@@ -273,7 +380,7 @@ public class BatchedRangeRead<T>
 		}
 
 		private void checkFinalize() {
-			semaphore.release();
+			limiter.release();
 			if (queryCount.decrementAndGet() <= 0) {
 				try {
 					resultQueue.put(CassandraRowConsumer.POISON);
@@ -284,4 +391,37 @@ public class BatchedRangeRead<T>
 			}
 		}
 	}
+
+	/**
+	 * Iterates the rows of a result set, requesting the next page in the
+	 * background once half of the current page has been consumed so that
+	 * consuming a page rarely waits for the next one.
+	 */
+	private static class PrefetchingIterator implements
+			Iterator<Row>
+	{
+		private final ResultSet resultSet;
+		private final Iterator<Row> rows;
+		private final int prefetchThreshold;
+
+		public PrefetchingIterator(
+				final ResultSet resultSet ) {
+			this.resultSet = resultSet;
+			rows = resultSet.iterator();
+			prefetchThreshold = resultSet.getAvailableWithoutFetching() / 2;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return rows.hasNext();
+		}
+
+		@Override
+		public Row next() {
+			if ((resultSet.getAvailableWithoutFetching() == prefetchThreshold) && !resultSet.isFullyFetched()) {
+				resultSet.fetchMoreResults();
+			}
+			return rows.next();
+		}
+	}
 }
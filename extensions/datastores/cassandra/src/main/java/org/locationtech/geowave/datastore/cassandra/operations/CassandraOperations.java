@@ -107,6 +107,7 @@ public class CassandraOperations implements
 	private static final Object CREATE_TABLE_MUTEX = new Object();
 	private final CassandraOptions options;
 	private final KeyspaceState state;
+	private final AtomicInteger readConcurrency;
 
 	public CassandraOperations(
 			final CassandraRequiredOptions options ) {
@@ -123,6 +124,8 @@ public class CassandraOperations implements
 				options.getContactPoint(),
 				gwNamespace);
 		this.options = (CassandraOptions) options.getStoreOptions();
+		readConcurrency = new AtomicInteger(
+				this.options.getInitialConcurrentReads());
 		initKeyspace();
 	}
 
@@ -151,6 +154,27 @@ public class CassandraOperations implements
 				options.isDurableWrites()));
 	}
 
+	public String getKeyspace() {
+		return gwNamespace;
+	}
+
+	/**
+	 * @return a limiter for the outstanding reads of a single query, starting
+	 *         at the limit the last query converged to
+	 */
+	protected AdaptiveReadLimiter createReadLimiter() {
+		return new AdaptiveReadLimiter(
+				readConcurrency.get(),
+				options.getMaxConcurrentReads(),
+				options.getTargetReadLatencyMillis()) {
+			@Override
+			public synchronized void release() {
+				super.release();
+				readConcurrency.set(getLimit());
+			}
+		};
+	}
+
 	public Session getSession() {
 		return session;
 	}
@@ -23,6 +23,12 @@ public class CassandraOptions extends
 	private boolean durableWrites = true;
 	@Parameter(names = "--replicas", description = "The number of replicas to use when creating a new keyspace.")
 	private int replicationFactor = 3;
+	@Parameter(names = "--maxConcurrentReads", description = "The maximum number of outstanding async reads per query, the number used adapts to observed latency up to this maximum.")
+	private int maxConcurrentReads = 100;
+	@Parameter(names = "--initialConcurrentReads", description = "The number of outstanding async reads the first query starts with, later queries start where the previous one converged.")
+	private int initialConcurrentReads = 100;
+	@Parameter(names = "--targetReadLatencyMillis", description = "The read latency above which the number of outstanding async reads is reduced.")
+	private long targetReadLatencyMillis = 500;
 
 	// TODO: it'd be nice to offer an option to organize the data where the
 	// space filling curve cluster column precedes the adapter ID so you can
@@ -74,6 +80,33 @@ public class CassandraOptions extends
 		this.replicationFactor = replicationFactor;
 	}
 
+	public int getMaxConcurrentReads() {
+		return maxConcurrentReads;
+	}
+
+	public void setMaxConcurrentReads(
+			final int maxConcurrentReads ) {
+		this.maxConcurrentReads = maxConcurrentReads;
+	}
+
+	public int getInitialConcurrentReads() {
+		return initialConcurrentReads;
+	}
+
+	public void setInitialConcurrentReads(
+			final int initialConcurrentReads ) {
+		this.initialConcurrentReads = initialConcurrentReads;
+	}
+
+	public long getTargetReadLatencyMillis() {
+		return targetReadLatencyMillis;
+	}
+
+	public void setTargetReadLatencyMillis(
+			final long targetReadLatencyMillis ) {
+		this.targetReadLatencyMillis = targetReadLatencyMillis;
+	}
+
 	@Override
 	public boolean isServerSideLibraryEnabled() {
 		return false;
@@ -76,6 +76,17 @@ public class DynamoDBOptions extends
 	@Parameter(names = "--initialReadCapacity")
 	protected long readCapacity = 5;
 
+	@Parameter(names = "--writeRateLimit", description = "The maximum write capacity units per second used by writers of a table, "
+			+ "by default the provisioned write capacity of the table and not positive for no limit")
+	protected Long writeRateLimit = null;
+
+	@Parameter(names = "--maxScanSegments", description = "The maximum number of segments a full table scan is split into, "
+			+ "the number used depends on the size of the table")
+	protected int maxScanSegments = 16;
+
+	@Parameter(names = "--writeThreads", description = "The number of batches each writer sends concurrently")
+	protected int writeThreads = 4;
+
 	/**
 	 * List of client configuration that the user can tweak
 	 */
@@ -150,6 +161,37 @@ public class DynamoDBOptions extends
 		this.readCapacity = readCapacity;
 	}
 
+	/**
+	 * @return the write capacity units per second for writers of a table, or
+	 *         null to use the provisioned write capacity of the table
+	 */
+	public Long getWriteRateLimit() {
+		return writeRateLimit;
+	}
+
+	public void setWriteRateLimit(
+			final Long writeRateLimit ) {
+		this.writeRateLimit = writeRateLimit;
+	}
+
+	public int getMaxScanSegments() {
+		return maxScanSegments;
+	}
+
+	public void setMaxScanSegments(
+			final int maxScanSegments ) {
+		this.maxScanSegments = maxScanSegments;
+	}
+
+	public int getWriteThreads() {
+		return writeThreads;
+	}
+
+	public void setWriteThreads(
+			final int writeThreads ) {
+		this.writeThreads = writeThreads;
+	}
+
 	@Override
 	public StoreFactoryFamilySpi getStoreFactory() {
 		return new DynamoDBStoreFactoryFamily();
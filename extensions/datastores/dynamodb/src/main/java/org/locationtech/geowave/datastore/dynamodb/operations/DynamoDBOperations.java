@@ -16,6 +16,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
@@ -55,6 +56,7 @@ import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
 import com.amazonaws.services.dynamodbv2.model.KeyType;
 import com.amazonaws.services.dynamodbv2.model.ListTablesResult;
 import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputDescription;
 import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
 import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.ScanResult;
@@ -78,6 +80,11 @@ public class DynamoDBOperations implements
 	private final String gwNamespace;
 	private final DynamoDBOptions options;
 	public static Map<String, Boolean> tableExistsCache = new HashMap<>();
+	// the amount of a table's data each segment of a parallel scan should read
+	private static final long BYTES_PER_SCAN_SEGMENT = 256L * 1024 * 1024;
+	// keyed by the endpoint or region and the qualified table name, so that
+	// writers of the same table share its capacity
+	private static final Map<String, DynamoDBWriteThrottle> WRITE_THROTTLES = new ConcurrentHashMap<>();
 
 	public DynamoDBOperations(
 			final DynamoDBOptions options ) {
@@ -203,12 +210,88 @@ public class DynamoDBOperations implements
 			short internalAdapterId ) {
 		final String qName = getQualifiedTableName(index.getId().getString());
 
-		final DynamoDBWriter writer = new DynamoDBWriter(
+		createTable(qName);
+		return new DynamoDBWriter(
 				client,
-				qName);
+				qName,
+				getWriteThrottle(qName),
+				options.getWriteThreads());
+	}
 
-		createTable(qName);
-		return writer;
+	/**
+	 * @return the number of segments to split a full scan of the table into,
+	 *         based on the table size DynamoDB reports, which is updated
+	 *         approximately every six hours
+	 */
+	public int getScanSegments(
+			final String qualifiedTableName ) {
+		if (options.getMaxScanSegments() <= 1) {
+			return 1;
+		}
+		try {
+			final Long tableSize = client.describeTable(
+					qualifiedTableName).getTable().getTableSizeBytes();
+			if ((tableSize == null) || (tableSize <= 0)) {
+				return 1;
+			}
+			return (int) Math.max(
+					1,
+					Math.min(
+							options.getMaxScanSegments(),
+							((tableSize + BYTES_PER_SCAN_SEGMENT) - 1) / BYTES_PER_SCAN_SEGMENT));
+		}
+		catch (final AmazonDynamoDBException e) {
+			LOGGER.warn(
+					"Unable to describe table '" + qualifiedTableName + "', scanning without segments",
+					e);
+			return 1;
+		}
+	}
+
+	/**
+	 * @return the throttle shared by every writer of the table, on the same
+	 *         endpoint or region, within this JVM, which also holds the
+	 *         table's write metrics
+	 */
+	public DynamoDBWriteThrottle getWriteThrottle(
+			final String qualifiedTableName ) {
+		return WRITE_THROTTLES.computeIfAbsent(
+				getLocation() + "/" + qualifiedTableName,
+				key -> new DynamoDBWriteThrottle(
+						qualifiedTableName,
+						getWriteRateLimit(qualifiedTableName)));
+	}
+
+	/**
+	 * @return the endpoint if one is configured, otherwise the region
+	 */
+	private String getLocation() {
+		if ((options.getEndpoint() != null) && !options.getEndpoint().isEmpty()) {
+			return options.getEndpoint();
+		}
+		return options.getRegion() == null ? "" : options.getRegion().getName();
+	}
+
+	private double getWriteRateLimit(
+			final String qualifiedTableName ) {
+		if (options.getWriteRateLimit() != null) {
+			return options.getWriteRateLimit();
+		}
+		try {
+			final ProvisionedThroughputDescription throughput = client.describeTable(
+					qualifiedTableName).getTable().getProvisionedThroughput();
+			if (throughput != null) {
+				// on-demand tables report no write capacity and are not
+				// limited
+				return throughput.getWriteCapacityUnits() == null ? 0 : throughput.getWriteCapacityUnits();
+			}
+		}
+		catch (final AmazonDynamoDBException e) {
+			LOGGER.warn(
+					"Unable to describe table '" + qualifiedTableName + "', using the configured write capacity",
+					e);
+		}
+		return options.getWriteCapacity();
 	}
 
 	private boolean createTable(
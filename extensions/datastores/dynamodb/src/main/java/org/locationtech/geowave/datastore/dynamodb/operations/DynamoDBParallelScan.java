@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.datastore.dynamodb.operations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowIteratorTransformer;
+import org.locationtech.geowave.core.store.operations.ParallelDecoder;
+import org.locationtech.geowave.datastore.dynamodb.util.LazyPaginatedScan;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+
+/**
+ * Scans a table with a DynamoDB parallel scan, each segment of the table is
+ * scanned and decoded by its own task and the decoded rows are combined into a
+ * single bounded stream. All of the items with the same partition key are in
+ * the same segment, so rows that are split across multiple items are still
+ * merged within a segment.
+ *
+ * @param <T>
+ *            the type of the decoded rows
+ */
+public class DynamoDBParallelScan<T> extends
+		ParallelDecoder<T>
+{
+	private final DynamoDBOperations operations;
+	private final String tableName;
+	private final int totalSegments;
+	private final Function<Iterator<Map<String, AttributeValue>>, Iterator<GeoWaveRow>> itemsToRows;
+
+	/**
+	 * @param itemsToRows
+	 *            converts the items of a segment to rows, applying any
+	 *            filtering that must be done before decoding
+	 */
+	public DynamoDBParallelScan(
+			final GeoWaveRowIteratorTransformer<T> rowTransformer,
+			final DynamoDBOperations operations,
+			final String tableName,
+			final int totalSegments,
+			final Function<Iterator<Map<String, AttributeValue>>, Iterator<GeoWaveRow>> itemsToRows ) {
+		super(
+				rowTransformer,
+				totalSegments);
+		this.operations = operations;
+		this.tableName = tableName;
+		this.totalSegments = totalSegments;
+		this.itemsToRows = itemsToRows;
+	}
+
+	@Override
+	protected List<RowProvider> getRowProviders()
+			throws Exception {
+		final List<RowProvider> rowProviders = new ArrayList<>(
+				totalSegments);
+		for (int segment = 0; segment < totalSegments; segment++) {
+			rowProviders.add(new SegmentRowProvider(
+					segment));
+		}
+		return rowProviders;
+	}
+
+	private class SegmentRowProvider extends
+			ParallelDecoder.RowProvider
+	{
+		private final int segment;
+		private Iterator<GeoWaveRow> rows;
+
+		public SegmentRowProvider(
+				final int segment ) {
+			this.segment = segment;
+		}
+
+		@Override
+		public void init() {
+			final ScanRequest request = new ScanRequest(
+					tableName).withSegment(
+					segment).withTotalSegments(
+					totalSegments);
+			rows = itemsToRows.apply(new LazyPaginatedScan(
+					operations.getClient().scan(
+							request),
+					request,
+					operations.getClient()));
+		}
+
+		@Override
+		public boolean hasNext() {
+			return rows.hasNext();
+		}
+
+		@Override
+		public GeoWaveRow next() {
+			return rows.next();
+		}
+
+		@Override
+		public void close()
+				throws IOException {
+			// the scan has no resources to release
+		}
+	}
+}
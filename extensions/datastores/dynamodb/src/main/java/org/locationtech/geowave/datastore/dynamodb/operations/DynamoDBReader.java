@@ -220,15 +220,6 @@ public class DynamoDBReader<T> implements
 						operations.getClient());
 			}
 			else {
-				// query everything
-				final ScanRequest request = new ScanRequest(
-						tableName);
-				final ScanResult scanResult = operations.getClient().scan(
-						request);
-				rawIterator = new LazyPaginatedScan(
-						scanResult,
-						request,
-						operations.getClient());
 				// TODO it'd be best to keep the set of partitions as a stat and
 				// use it to query by adapter IDs server-side
 				// but stats could be disabled so we may need to do client-side
@@ -245,6 +236,46 @@ public class DynamoDBReader<T> implements
 
 					};
 				}
+				final int segments = parallelDecode ? operations.getScanSegments(tableName) : 1;
+				if (segments > 1) {
+					// scan the segments of the table in parallel, each segment
+					// is decoded by its own task
+					final Predicate<DynamoDBRow> segmentAdapterIdFilter = adapterIdFilter;
+					final DynamoDBParallelScan<T> decoder = new DynamoDBParallelScan<>(
+							rowTransformer,
+							operations,
+							tableName,
+							segments,
+							raw -> {
+								Iterator<DynamoDBRow> rows = rawToDynamoDBRow.apply(raw);
+								if (segmentAdapterIdFilter != null) {
+									rows = Iterators.filter(
+											rows,
+											segmentAdapterIdFilter);
+								}
+								return Iterators.transform(
+										rows,
+										r -> (GeoWaveRow) r);
+							});
+					try {
+						decoder.startDecode();
+					}
+					catch (final Exception e) {
+						Throwables.propagate(e);
+					}
+					iterator = decoder;
+					closeable = decoder;
+					return;
+				}
+				// query everything
+				final ScanRequest request = new ScanRequest(
+						tableName);
+				final ScanResult scanResult = operations.getClient().scan(
+						request);
+				rawIterator = new LazyPaginatedScan(
+						scanResult,
+						request,
+						operations.getClient());
 			}
 		}
 
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.datastore.dynamodb.operations;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters describing the writes to a single table, shared by every writer of
+ * the table within this JVM.
+ */
+public class DynamoDBWriteMetrics
+{
+	private final AtomicLong itemsWritten = new AtomicLong();
+	private final AtomicLong batchesSent = new AtomicLong();
+	private final AtomicLong throttledItems = new AtomicLong();
+	private final AtomicLong retries = new AtomicLong();
+	private final AtomicLong failedItems = new AtomicLong();
+	private final long startMillis = System.currentTimeMillis();
+
+	protected void batchSent(
+			final int itemsWritten ) {
+		batchesSent.incrementAndGet();
+		this.itemsWritten.addAndGet(itemsWritten);
+	}
+
+	protected void itemsThrottled(
+			final int items ) {
+		throttledItems.addAndGet(items);
+	}
+
+	protected void retried() {
+		retries.incrementAndGet();
+	}
+
+	protected void itemsFailed(
+			final int items ) {
+		failedItems.addAndGet(items);
+	}
+
+	public long getItemsWritten() {
+		return itemsWritten.get();
+	}
+
+	public long getBatchesSent() {
+		return batchesSent.get();
+	}
+
+	/**
+	 * @return the number of items that were returned unprocessed or rejected
+	 *         because provisioned throughput was exceeded, each attempt is
+	 *         counted
+	 */
+	public long getThrottledItems() {
+		return throttledItems.get();
+	}
+
+	public long getRetries() {
+		return retries.get();
+	}
+
+	/**
+	 * @return the number of items that could not be written after all retries
+	 */
+	public long getFailedItems() {
+		return failedItems.get();
+	}
+
+	/**
+	 * @return the average number of items written per second since the
+	 *         metrics were created
+	 */
+	public double getItemsPerSecond() {
+		final long elapsed = Math.max(
+				1,
+				System.currentTimeMillis() - startMillis);
+		return (itemsWritten.get() * 1000.0) / elapsed;
+	}
+
+	@Override
+	public String toString() {
+		return "DynamoDBWriteMetrics [itemsWritten=" + itemsWritten + ", batchesSent=" + batchesSent
+				+ ", throttledItems=" + throttledItems + ", retries=" + retries + ", failedItems=" + failedItems
+				+ ", itemsPerSecond=" + String.format(
+						"%.1f",
+						getItemsPerSecond()) + "]";
+	}
+}
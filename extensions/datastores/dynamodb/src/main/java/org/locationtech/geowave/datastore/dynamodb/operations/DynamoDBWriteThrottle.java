@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.datastore.dynamodb.operations;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.locationtech.geowave.core.index.ByteArrayId;
+import org.locationtech.geowave.datastore.dynamodb.DynamoDBRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * Controls the rate of writes to a single table. Write capacity units are
+ * acquired from a token bucket before each batch is sent, the rate starts at
+ * the table's write capacity, is halved (at most once per second) when writes
+ * are throttled and recovers gradually while writes succeed. Throttled items
+ * are also counted per partition key so that a partition that receives most of
+ * the throttling, which more capacity can't fix, is reported.
+ */
+public class DynamoDBWriteThrottle
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(DynamoDBWriteThrottle.class);
+	private static final double MIN_RATE = 1;
+	private static final double RECOVERY_FACTOR = 1.05;
+	private static final long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+	private static final int ITEM_OVERHEAD_BYTES = 100;
+	private static final int CAPACITY_UNIT_BYTES = 1024;
+	private static final int MAX_TRACKED_PARTITIONS = 10000;
+	private static final long HOT_PARTITION_MIN_THROTTLES = 100;
+	private static final double HOT_PARTITION_FRACTION = 0.5;
+
+	private final String tableName;
+	// null if writes are not rate limited
+	private final RateLimiter rateLimiter;
+	private final double maxRate;
+	private long lastDecreaseNanos = System.nanoTime() - DECREASE_INTERVAL_NANOS;
+	private final DynamoDBWriteMetrics metrics = new DynamoDBWriteMetrics();
+	private final Map<ByteArrayId, AtomicLong> throttlesPerPartition = new ConcurrentHashMap<>();
+	private final Set<ByteArrayId> reportedHotPartitions = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	/**
+	 * @param writeCapacityUnitsPerSecond
+	 *            the maximum rate of writes, not positive for no limit
+	 */
+	public DynamoDBWriteThrottle(
+			final String tableName,
+			final double writeCapacityUnitsPerSecond ) {
+		this.tableName = tableName;
+		if (writeCapacityUnitsPerSecond > 0) {
+			maxRate = Math.max(
+					MIN_RATE,
+					writeCapacityUnitsPerSecond);
+			rateLimiter = RateLimiter.create(maxRate);
+		}
+		else {
+			maxRate = 0;
+			rateLimiter = null;
+		}
+	}
+
+	/**
+	 * Blocks until there is capacity to write the items.
+	 */
+	public void acquire(
+			final List<WriteRequest> items ) {
+		if (rateLimiter != null) {
+			rateLimiter.acquire(getCapacityUnits(items));
+		}
+	}
+
+	public synchronized void onSuccess() {
+		if ((rateLimiter != null) && (rateLimiter.getRate() < maxRate)) {
+			rateLimiter.setRate(Math.min(
+					maxRate,
+					rateLimiter.getRate() * RECOVERY_FACTOR));
+		}
+	}
+
+	public void onThrottled(
+			final List<WriteRequest> items ) {
+		metrics.itemsThrottled(items.size());
+		synchronized (this) {
+			final long now = System.nanoTime();
+			if ((rateLimiter != null) && ((now - lastDecreaseNanos) >= DECREASE_INTERVAL_NANOS)) {
+				rateLimiter.setRate(Math.max(
+						MIN_RATE,
+						rateLimiter.getRate() / 2));
+				lastDecreaseNanos = now;
+			}
+		}
+		for (final WriteRequest item : items) {
+			final ByteArrayId partition = getPartitionKey(item);
+			if (partition == null) {
+				continue;
+			}
+			AtomicLong count = throttlesPerPartition.get(partition);
+			if (count == null) {
+				if (throttlesPerPartition.size() >= MAX_TRACKED_PARTITIONS) {
+					continue;
+				}
+				count = throttlesPerPartition.computeIfAbsent(
+						partition,
+						p -> new AtomicLong());
+			}
+			final long partitionThrottles = count.incrementAndGet();
+			if ((partitionThrottles >= HOT_PARTITION_MIN_THROTTLES)
+					&& (partitionThrottles >= (metrics.getThrottledItems() * HOT_PARTITION_FRACTION))
+					&& reportedHotPartitions.add(partition)) {
+				LOGGER.warn("Partition '" + partition.getHexString() + "' of table '" + tableName + "' accounts for "
+						+ partitionThrottles + " of " + metrics.getThrottledItems()
+						+ " throttled writes, consider partitioning the index to spread writes");
+			}
+		}
+	}
+
+	/**
+	 * @return the partition keys that received most of the throttled writes
+	 */
+	public List<ByteArrayId> getHotPartitions() {
+		return new ArrayList<>(
+				reportedHotPartitions);
+	}
+
+	public DynamoDBWriteMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return the current rate in write capacity units per second, or 0 if
+	 *         writes are not rate limited
+	 */
+	public double getRate() {
+		return rateLimiter == null ? 0 : rateLimiter.getRate();
+	}
+
+	private static ByteArrayId getPartitionKey(
+			final WriteRequest item ) {
+		if (item.getPutRequest() == null) {
+			return null;
+		}
+		final AttributeValue partition = item.getPutRequest().getItem().get(
+				DynamoDBRow.GW_PARTITION_ID_KEY);
+		if ((partition == null) || (partition.getB() == null)) {
+			return null;
+		}
+		final ByteBuffer buffer = partition.getB().duplicate();
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return new ByteArrayId(
+				bytes);
+	}
+
+	/**
+	 * Estimates the write capacity units consumed by the items, one unit per
+	 * kilobyte (rounded up) of each item.
+	 */
+	private static int getCapacityUnits(
+			final List<WriteRequest> items ) {
+		int units = 0;
+		for (final WriteRequest item : items) {
+			int bytes = ITEM_OVERHEAD_BYTES;
+			if (item.getPutRequest() != null) {
+				for (final Map.Entry<String, AttributeValue> attribute : item.getPutRequest().getItem().entrySet()) {
+					bytes += attribute.getKey().length();
+					if (attribute.getValue().getB() != null) {
+						bytes += attribute.getValue().getB().remaining();
+					}
+				}
+			}
+			units += (bytes + CAPACITY_UNIT_BYTES - 1) / CAPACITY_UNIT_BYTES;
+		}
+		return Math.max(
+				1,
+				units);
+	}
+}
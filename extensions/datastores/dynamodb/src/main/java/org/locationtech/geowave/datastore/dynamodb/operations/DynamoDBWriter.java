@@ -13,13 +13,16 @@ package org.locationtech.geowave.datastore.dynamodb.operations;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.locationtech.geowave.core.store.entities.GeoWaveRow;
 import org.locationtech.geowave.core.store.entities.GeoWaveValue;
@@ -28,23 +31,36 @@ import org.locationtech.geowave.datastore.dynamodb.DynamoDBRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.amazonaws.AmazonWebServiceRequest;
-import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
 import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
-import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
-import com.amazonaws.services.dynamodbv2.model.PutItemResult;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
 import com.amazonaws.services.dynamodbv2.model.PutRequest;
 import com.amazonaws.services.dynamodbv2.model.WriteRequest;
-
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Writes rows in batches of 25 items, the maximum of a BatchWriteItem request.
+ * Full batches are handed to a pool of sender threads so that several batches
+ * are in flight at once, and the number of batches waiting to be sent is
+ * bounded so that writing blocks rather than buffering without limit. Before a
+ * batch is sent its capacity is acquired from the table's
+ * {@link DynamoDBWriteThrottle}. Unprocessed items and batches rejected
+ * because provisioned throughput was exceeded are retried with exponential
+ * backoff and full jitter, items that still can't be written are logged and
+ * counted as failed in the table's {@link DynamoDBWriteMetrics}. If any items
+ * were lost, the next flush or close throws once every outstanding batch is
+ * sent.
+ */
 public class DynamoDBWriter implements
 		Writer
 {
 	private static final Logger LOGGER = LoggerFactory.getLogger(DynamoDBWriter.class);
 	private static final int NUM_ITEMS = 25;
-	private static final boolean ASYNC_WRITE = false;
+	private static final long BASE_BACKOFF_MILLIS = 50;
+	private static final long MAX_BACKOFF_MILLIS = 20000;
+	private static final int MAX_ATTEMPTS = 10;
 	// because DynamoDB requires a hash key, if the geowave partition key is
 	// empty, we need a non-empty constant alternative
 	protected static final byte[] EMPTY_PARTITION_KEY = new byte[] {
@@ -53,19 +69,71 @@ public class DynamoDBWriter implements
 	private final List<WriteRequest> batchedItems = new ArrayList<>();
 	private final String tableName;
 	private final AmazonDynamoDBAsync client;
-	private final Map<AmazonWebServiceRequest, Future<?>> futureMap = new Hashtable<>();
+	private final DynamoDBWriteThrottle throttle;
+	private final ExecutorService senders;
+	private final int maxOutstandingBatches;
+	private final Semaphore outstandingBatches;
+	// items this writer failed to write since the last flush
+	private final AtomicLong failedItems = new AtomicLong();
 
 	public DynamoDBWriter(
 			final AmazonDynamoDBAsync client,
 			final String tableName ) {
+		this(
+				client,
+				tableName,
+				new DynamoDBWriteThrottle(
+						tableName,
+						0),
+				1);
+	}
+
+	/**
+	 * @param throttle
+	 *            the throttle shared by all writers of the table
+	 * @param senderThreads
+	 *            the number of batches to send concurrently
+	 */
+	public DynamoDBWriter(
+			final AmazonDynamoDBAsync client,
+			final String tableName,
+			final DynamoDBWriteThrottle throttle,
+			final int senderThreads ) {
 		this.client = client;
 		this.tableName = tableName;
+		this.throttle = throttle;
+		final int threads = Math.max(
+				1,
+				senderThreads);
+		senders = Executors.newFixedThreadPool(
+				threads,
+				new ThreadFactoryBuilder().setDaemon(
+						true).setNameFormat(
+						"DynamoDB Writer " + tableName + " %d").build());
+		// allow one batch queued per sender in addition to the one being sent
+		maxOutstandingBatches = threads * 2;
+		outstandingBatches = new Semaphore(
+				maxOutstandingBatches);
+	}
+
+	public DynamoDBWriteMetrics getMetrics() {
+		return throttle.getMetrics();
 	}
 
 	@Override
 	public void close()
 			throws IOException {
-		flush();
+		try {
+			flush();
+		}
+		catch (final IllegalStateException e) {
+			throw new IOException(
+					e.getMessage(),
+					e);
+		}
+		finally {
+			senders.shutdown();
+		}
 	}
 
 	@Override
@@ -98,165 +166,137 @@ public class DynamoDBWriter implements
 		synchronized (batchedItems) {
 			batchedItems.add(item);
 			if (batchedItems.size() >= NUM_ITEMS) {
-				do {
-					writeBatch(ASYNC_WRITE);
-				}
-				while (batchedItems.size() >= NUM_ITEMS);
+				submitBatch();
 			}
 		}
 	}
 
-	private void writeBatch(
-			final boolean async ) {
-		final List<WriteRequest> batch;
-
-		if (batchedItems.size() <= NUM_ITEMS) {
-			batch = batchedItems;
-		}
-		else {
-			batch = batchedItems.subList(
-					0,
-					NUM_ITEMS + 1);
-		}
-		final Map<String, List<WriteRequest>> writes = new HashMap<>();
-		writes.put(
-				tableName,
-				new ArrayList<>(
-						batch));
-		if (async) {
-
-			/**
-			 * To support asynchronous batch write a async handler is created
-			 * Callbacks are provided for success and error. As there might be
-			 * unprocessed items on failure, they are retried asynchronously
-			 * Keep track of futures, so that they can be waited on during
-			 * "flush"
-			 */
-			final BatchWriteItemRequest batchRequest = new BatchWriteItemRequest(
-					writes);
-			final Future<BatchWriteItemResult> future = client.batchWriteItemAsync(
-					batchRequest,
-					new AsyncHandler<BatchWriteItemRequest, BatchWriteItemResult>() {
-
-						@Override
-						public void onError(
-								final Exception exception ) {
-							LOGGER.warn("Unable to get response from Dynamo-Async Write " + exception.toString());
-							futureMap.remove(batchRequest);
-							return;
-						}
-
-						@Override
-						public void onSuccess(
-								final BatchWriteItemRequest request,
-								final BatchWriteItemResult result ) {
-							retryAsync(result.getUnprocessedItems());
-							if (futureMap.remove(request) == null) {
-								LOGGER.warn(" Unable to delete BatchWriteRequest from futuresMap ");
-							}
-						}
-
-					});
-
-			futureMap.put(
-					batchRequest,
-					future);
+	private void submitBatch() {
+		final List<WriteRequest> batch = new ArrayList<>(
+				batchedItems);
+		batchedItems.clear();
+		outstandingBatches.acquireUninterruptibly();
+		try {
+			senders.execute(() -> {
+				try {
+					sendBatch(batch);
+				}
+				finally {
+					outstandingBatches.release();
+				}
+			});
 		}
-		else {
-			final BatchWriteItemResult response = client.batchWriteItem(new BatchWriteItemRequest(
-					writes));
-			retry(response.getUnprocessedItems());
+		catch (final RuntimeException e) {
+			outstandingBatches.release();
+			throw e;
 		}
-
-		batch.clear();
 	}
 
-	private void retry(
-			final Map<String, List<WriteRequest>> map ) {
-		for (final Entry<String, List<WriteRequest>> requests : map.entrySet()) {
-			for (final WriteRequest r : requests.getValue()) {
-				if (r.getPutRequest() != null) {
-					client.putItem(
-							requests.getKey(),
-							r.getPutRequest().getItem());
+	private void sendBatch(
+			final List<WriteRequest> batch ) {
+		List<WriteRequest> remaining = batch;
+		int attempt = 0;
+		while (true) {
+			try {
+				throttle.acquire(remaining);
+				final BatchWriteItemResult result = client.batchWriteItem(new BatchWriteItemRequest(
+						Collections.singletonMap(
+								tableName,
+								remaining)));
+				final List<WriteRequest> unprocessed = getUnprocessedItems(result);
+				throttle.getMetrics().batchSent(
+						remaining.size() - unprocessed.size());
+				if (unprocessed.isEmpty()) {
+					throttle.onSuccess();
+					return;
 				}
+				throttle.onThrottled(unprocessed);
+				remaining = unprocessed;
+			}
+			catch (final ProvisionedThroughputExceededException e) {
+				throttle.onThrottled(remaining);
+			}
+			catch (final RuntimeException e) {
+				// not only AmazonClientException, so that nothing is dropped
+				// without being counted
+				itemsFailed(remaining.size());
+				LOGGER.error(
+						"Unable to write " + remaining.size() + " items to table '" + tableName + "'",
+						e);
+				return;
+			}
+			if (++attempt >= MAX_ATTEMPTS) {
+				itemsFailed(remaining.size());
+				LOGGER.error("Unable to write " + remaining.size() + " items to table '" + tableName + "' after "
+						+ attempt + " attempts");
+				return;
+			}
+			throttle.getMetrics().retried();
+			try {
+				TimeUnit.MILLISECONDS.sleep(getBackoffMillis(attempt));
+			}
+			catch (final InterruptedException e) {
+				itemsFailed(remaining.size());
+				LOGGER.error("Interrupted while retrying " + remaining.size() + " items for table '" + tableName
+						+ "'");
+				Thread.currentThread().interrupt();
+				return;
 			}
 		}
 	}
 
-	private void retryAsync(
-			final Map<String, List<WriteRequest>> map ) {
-		for (final Entry<String, List<WriteRequest>> requests : map.entrySet()) {
-			for (final WriteRequest r : requests.getValue()) {
-				if (r.getPutRequest() != null) {
-
-					/**
-					 * The code is pretty similar to retry. The only difference
-					 * is retryAsync uses putItemAsync instead of putItem
-					 */
-					final PutItemRequest putRequest = new PutItemRequest(
-							requests.getKey(),
-							r.getPutRequest().getItem());
-					final Future<PutItemResult> future = client.putItemAsync(
-							putRequest,
-							new AsyncHandler<PutItemRequest, PutItemResult>() {
-
-								@Override
-								public void onError(
-										final Exception exception ) {
-									LOGGER.warn("Putitem Async failed in Dynamo");
-									futureMap.remove(putRequest);
-								}
-
-								@Override
-								public void onSuccess(
-										final PutItemRequest request,
-										final PutItemResult result ) {
-									if (futureMap.remove(request) == null) {
-										LOGGER.warn("Unable to delete PutItemRequest from futuresMap ");
-									}
-
-									return;
-								}
-
-							});
+	private void itemsFailed(
+			final int count ) {
+		throttle.getMetrics().itemsFailed(
+				count);
+		failedItems.addAndGet(count);
+	}
 
-					futureMap.put(
-							putRequest,
-							future);
-				}
-			}
+	private List<WriteRequest> getUnprocessedItems(
+			final BatchWriteItemResult result ) {
+		final Map<String, List<WriteRequest>> unprocessed = result.getUnprocessedItems();
+		if ((unprocessed == null) || !unprocessed.containsKey(tableName)) {
+			return Collections.emptyList();
 		}
+		return unprocessed.get(tableName);
+	}
+
+	/**
+	 * @return a random delay up to an exponentially growing bound ("full
+	 *         jitter"), so retries from many writers don't arrive in waves
+	 */
+	private static long getBackoffMillis(
+			final int attempt ) {
+		final long bound = Math.min(
+				MAX_BACKOFF_MILLIS,
+				BASE_BACKOFF_MILLIS << Math.min(
+						attempt,
+						20));
+		return 1 + ThreadLocalRandom.current().nextLong(
+				bound);
 	}
 
+	/**
+	 * Sends every batched item and waits for all outstanding batches.
+	 *
+	 * @throws IllegalStateException
+	 *             if any items written since the last flush could not be
+	 *             written to the table
+	 */
 	@Override
 	public void flush() {
 		synchronized (batchedItems) {
-			while (!batchedItems.isEmpty()) {
-				writeBatch(ASYNC_WRITE);
-			}
-
-			/**
-			 * If its asynchronous, wait for future jobs to complete before we
-			 * consider flush complete
-			 */
-			for (final Future<?> future : futureMap.values()) {
-				if (!future.isDone() && !future.isCancelled()) {
-					try {
-						future.get();
-					}
-					catch (final InterruptedException e) {
-						LOGGER.error(
-								"Future interrupted",
-								e);
-					}
-					catch (final ExecutionException e) {
-						LOGGER.error(
-								"Execution exception ",
-								e);
-					}
-				}
+			if (!batchedItems.isEmpty()) {
+				submitBatch();
 			}
+			// wait for every outstanding batch to be sent
+			outstandingBatches.acquireUninterruptibly(maxOutstandingBatches);
+			outstandingBatches.release(maxOutstandingBatches);
+		}
+		final long failed = failedItems.getAndSet(0);
+		if (failed > 0) {
+			throw new IllegalStateException(
+					"Unable to write " + failed + " items to table '" + tableName + "'");
 		}
 	}
 
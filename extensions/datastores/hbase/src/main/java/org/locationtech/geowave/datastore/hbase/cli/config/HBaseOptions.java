@@ -26,6 +26,12 @@ public class HBaseOptions extends
 	@Parameter(names = "--disableVerifyCoprocessors")
 	protected boolean disableVerifyCoprocessors = false;
 
+	@Parameter(names = "--timestampedWrites", description = "Assign cell timestamps on the client so that duplicate rows within a batch are retained without flushing, holding back a row rewritten faster than once per millisecond so timestamps stay near the clock")
+	protected boolean timestampedWrites = false;
+
+	@Parameter(names = "--writeBufferSize", description = "The size in bytes of the client write buffer, or the HBase client default if not positive")
+	protected long writeBufferSize = -1;
+
 	protected boolean bigTable = false;
 
 	@Parameter(names = {
@@ -67,6 +73,24 @@ public class HBaseOptions extends
 		disableVerifyCoprocessors = !verifyCoprocessors;
 	}
 
+	public boolean isTimestampedWrites() {
+		return timestampedWrites;
+	}
+
+	public void setTimestampedWrites(
+			final boolean timestampedWrites ) {
+		this.timestampedWrites = timestampedWrites;
+	}
+
+	public long getWriteBufferSize() {
+		return writeBufferSize;
+	}
+
+	public void setWriteBufferSize(
+			final long writeBufferSize ) {
+		this.writeBufferSize = writeBufferSize;
+	}
+
 	public String getCoprocessorJar() {
 		return coprocessorJar;
 	}
@@ -27,12 +27,15 @@ import org.apache.hadoop.hbase.filter.FilterList;
 import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
 import org.apache.hadoop.hbase.regionserver.InternalScanner;
 import org.apache.hadoop.hbase.security.visibility.Authorizations;
+import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.ByteArrayUtils;
 import org.locationtech.geowave.core.index.Mergeable;
 import org.locationtech.geowave.core.index.StringUtils;
 import org.locationtech.geowave.core.index.persist.Persistable;
 import org.locationtech.geowave.core.store.adapter.DataAdapter;
+import org.locationtech.geowave.core.store.flatten.BitmaskUtils;
 import org.locationtech.geowave.core.store.query.aggregate.Aggregation;
+import org.locationtech.geowave.core.store.query.aggregate.FieldSubsetAggregation;
 import org.locationtech.geowave.datastore.hbase.coprocessors.protobuf.AggregationProtosServer;
 import org.locationtech.geowave.datastore.hbase.filters.HBaseDistributableFilter;
 import org.locationtech.geowave.datastore.hbase.filters.HBaseNumericIndexStrategyFilter;
@@ -284,13 +287,19 @@ public class AggregationEndpoint extends
 		try (InternalScanner scanner = env.getRegion().getScanner(
 				scan)) {
 			final List<Cell> results = new ArrayList<Cell>();
+			final byte[] fieldSubsetBitmask = getFieldSubsetBitmask(
+					aggregation,
+					dataAdapter,
+					hdFilter);
 			boolean hasNext;
 			do {
 				hasNext = scanner.next(results);
 				if (!results.isEmpty()) {
 					if (hdFilter != null) {
 						if (dataAdapter != null) {
-							final Object row = hdFilter.decodeRow(dataAdapter);
+							final Object row = hdFilter.decodeRow(
+									dataAdapter,
+									fieldSubsetBitmask);
 
 							if (row != null) {
 								aggregation.aggregate(row);
@@ -313,4 +322,23 @@ public class AggregationEndpoint extends
 		}
 		return aggregation.getResult();
 	}
+
+	private static byte[] getFieldSubsetBitmask(
+			final Aggregation aggregation,
+			final DataAdapter dataAdapter,
+			final HBaseDistributableFilter hdFilter ) {
+		if ((dataAdapter == null) || (hdFilter == null) || (hdFilter.getModel() == null)
+				|| !(aggregation instanceof FieldSubsetAggregation)) {
+			return null;
+		}
+		// only deserialize the fields the aggregation reads
+		final List<ByteArrayId> fieldIds = ((FieldSubsetAggregation) aggregation).getFieldIds();
+		if (fieldIds == null) {
+			return null;
+		}
+		return BitmaskUtils.generateFieldSubsetBitmask(
+				hdFilter.getModel(),
+				fieldIds,
+				dataAdapter);
+	}
 }
@@ -295,11 +295,20 @@ public class HBaseDistributableFilter extends
 
 	public IndexedAdapterPersistenceEncoding getAdapterEncoding(
 			final DataAdapter dataAdapter ) {
+		return getAdapterEncoding(
+				dataAdapter,
+				null);
+	}
+
+	public IndexedAdapterPersistenceEncoding getAdapterEncoding(
+			final DataAdapter dataAdapter,
+			final byte[] fieldSubsetBitmask ) {
 		final PersistentDataset<Object> adapterExtendedValues = new PersistentDataset<Object>();
 		if (persistenceEncoding instanceof AbstractAdapterPersistenceEncoding) {
 			((AbstractAdapterPersistenceEncoding) persistenceEncoding).convertUnknownValues(
 					dataAdapter,
-					model);
+					model,
+					fieldSubsetBitmask);
 			final PersistentDataset<Object> existingExtValues = ((AbstractAdapterPersistenceEncoding) persistenceEncoding)
 					.getAdapterExtendedData();
 			if (existingExtValues != null) {
@@ -323,13 +332,31 @@ public class HBaseDistributableFilter extends
 	// Called by the aggregation endpoint, after filtering the current row
 	public Object decodeRow(
 			final DataAdapter dataAdapter ) {
+		return decodeRow(
+				dataAdapter,
+				null);
+	}
+
+	/**
+	 * Decodes the current row with only the common index fields and the fields
+	 * within the field subset populated
+	 */
+	public Object decodeRow(
+			final DataAdapter dataAdapter,
+			final byte[] fieldSubsetBitmask ) {
 		return dataAdapter.decode(
-				getAdapterEncoding(dataAdapter),
+				getAdapterEncoding(
+						dataAdapter,
+						fieldSubsetBitmask),
 				new PrimaryIndex(
 						null,
 						model));
 	}
 
+	public CommonIndexModel getModel() {
+		return model;
+	}
+
 	protected boolean filterInternal(
 			final CommonIndexedPersistenceEncoding encoding ) {
 		if (filterList == null) {
@@ -30,7 +30,6 @@ import org.apache.hadoop.hbase.util.Bytes;
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.ByteArrayRange;
 import org.locationtech.geowave.core.index.NumericIndexStrategy;
-import org.locationtech.geowave.core.index.sfc.data.MultiDimensionalNumericData;
 import org.locationtech.geowave.core.store.adapter.AdapterStore;
 import org.locationtech.geowave.core.store.adapter.DataAdapter;
 import org.locationtech.geowave.core.store.adapter.TransientAdapterStore;
@@ -40,7 +39,6 @@ import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramS
 import org.locationtech.geowave.core.store.index.PrimaryIndex;
 import org.locationtech.geowave.core.store.operations.DataStoreOperations;
 import org.locationtech.geowave.core.store.query.DistributableQuery;
-import org.locationtech.geowave.core.store.util.DataStoreUtils;
 import org.locationtech.geowave.datastore.hbase.operations.HBaseOperations;
 import org.locationtech.geowave.mapreduce.splits.GeoWaveRowRange;
 import org.locationtech.geowave.mapreduce.splits.IntermediateSplitInfo;
@@ -86,19 +84,10 @@ public class HBaseSplitsProvider extends
 		// Build list of row ranges from query
 		List<ByteArrayRange> ranges = null;
 		if (query != null) {
-			final List<MultiDimensionalNumericData> indexConstraints = query.getIndexConstraints(index);
-			if ((maxSplits != null) && (maxSplits > 0)) {
-				ranges = DataStoreUtils.constraintsToQueryRanges(
-						indexConstraints,
-						indexStrategy,
-						maxSplits).getCompositeQueryRanges();
-			}
-			else {
-				ranges = DataStoreUtils.constraintsToQueryRanges(
-						indexConstraints,
-						indexStrategy,
-						-1).getCompositeQueryRanges();
-			}
+			ranges = getQueryRanges(
+					index,
+					query,
+					maxSplits).getCompositeQueryRanges();
 		}
 
 		final Map<HRegionLocation, Map<HRegionInfo, List<ByteArrayRange>>> binnedRanges = new HashMap<HRegionLocation, Map<HRegionInfo, List<ByteArrayRange>>>();
@@ -48,12 +48,14 @@ import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.RegionLocator;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.client.coprocessor.Batch;
 import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
 import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
 import org.apache.hadoop.hbase.ipc.BlockingRpcCallback;
+import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -934,7 +936,8 @@ public class HBaseOperations implements
 					true);
 
 			return new HBaseWriter(
-					getBufferedMutator(tableName));
+					getBufferedMutator(tableName),
+					options.isTimestampedWrites());
 		}
 		catch (final TableNotFoundException e) {
 			LOGGER.error(
@@ -1044,11 +1047,37 @@ public class HBaseOperations implements
 			final TableName tableName )
 			throws IOException {
 		final BufferedMutatorParams params = new BufferedMutatorParams(
-				tableName);
-
+				tableName).listener(getMutatorExceptionListener());
+		if (options.getWriteBufferSize() > 0) {
+			params.writeBufferSize(options.getWriteBufferSize());
+		}
 		return conn.getBufferedMutator(params);
 	}
 
+	/**
+	 * Failures of mutations that are sent in the background are reported to
+	 * this listener rather than thrown from a later write or flush. By default
+	 * each failed row is logged, this can be overridden to count or retry
+	 * failures.
+	 */
+	protected BufferedMutator.ExceptionListener getMutatorExceptionListener() {
+		return new BufferedMutator.ExceptionListener() {
+			@Override
+			public void onException(
+					final RetriesExhaustedWithDetailsException exception,
+					final BufferedMutator mutator )
+					throws RetriesExhaustedWithDetailsException {
+				for (int i = 0; i < exception.getNumExceptions(); i++) {
+					LOGGER.error(
+							"Unable to write row '" + Bytes.toStringBinary(exception.getRow(
+									i).getRow()) + "' to table '" + mutator.getName() + "' on server '"
+									+ exception.getHostnamePort(i) + "'",
+							exception.getCause(i));
+				}
+			}
+		};
+	}
+
 	public MultiRowRangeFilter getMultiRowRangeFilter(
 			final List<ByteArrayRange> ranges ) {
 		// create the multi-row filter
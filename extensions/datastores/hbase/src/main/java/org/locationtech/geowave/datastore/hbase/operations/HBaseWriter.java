@@ -13,7 +13,12 @@ package org.locationtech.geowave.datastore.hbase.operations;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.client.BufferedMutator;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.RowMutations;
@@ -32,18 +37,59 @@ import org.locationtech.geowave.core.store.operations.Writer;
  * operations will use an interface that can be implemented differently for
  * different purposes. For example, a bulk ingest can be performed by replacing
  * this implementation within a custom implementation of HBaseOperations.
+ *
+ * Multiple versions of the same row can be retained in one of two ways. By
+ * default a set of row IDs is tracked and the mutator is flushed whenever a row
+ * repeats, because the server assigns the same timestamp to an entire batch. In
+ * timestamped mode the writer instead assigns each row its own cell timestamp,
+ * the current time or one millisecond past the last timestamp given to that
+ * row, so duplicates within a batch are retained without flushing. A row that
+ * is written faster than once per millisecond would run its timestamps into the
+ * future, where a Delete using the server's time can't reach them, so a write
+ * is held back until its timestamp is no more than
+ * {@link #MAX_TIMESTAMP_DRIFT_MILLIS} ahead of the clock.
  */
 public class HBaseWriter implements
 		Writer
 {
 	private final static Logger LOGGER = Logger.getLogger(HBaseWriter.class);
+	// the per row timestamps are forgotten once this many rows are tracked,
+	// which is safe because every timestamp issued afterwards is greater than
+	// all of the timestamps issued before
+	private static final int MAX_TIMESTAMPED_ROWS = 100000;
+	// how far ahead of the current time a cell timestamp may be when it is
+	// written
+	protected static final long MAX_TIMESTAMP_DRIFT_MILLIS = 50;
 
 	protected Set<ByteArrayId> duplicateRowTracker = new HashSet<>();
 	private final BufferedMutator mutator;
+	private final boolean timestampedWrites;
+
+	private final ConcurrentHashMap<ByteArrayId, Long> rowTimestamps = new ConcurrentHashMap<>();
+	private final ReadWriteLock rowTimestampsLock = new ReentrantReadWriteLock();
+	private final AtomicLong maxTimestamp = new AtomicLong(
+			Long.MIN_VALUE);
+	private volatile long timestampFloor = Long.MIN_VALUE;
 
 	public HBaseWriter(
 			final BufferedMutator mutator ) {
+		this(
+				mutator,
+				false);
+	}
+
+	/**
+	 * @param mutator
+	 *            the mutator to write to
+	 * @param timestampedWrites
+	 *            if true cell timestamps are assigned by this writer rather
+	 *            than flushing the mutator whenever a row repeats
+	 */
+	public HBaseWriter(
+			final BufferedMutator mutator,
+			final boolean timestampedWrites ) {
 		this.mutator = mutator;
+		this.timestampedWrites = timestampedWrites;
 	}
 
 	@Override
@@ -61,6 +107,11 @@ public class HBaseWriter implements
 	@Override
 	public void flush() {
 		try {
+			if (timestampedWrites) {
+				mutator.flush();
+				resetRowTimestamps();
+				return;
+			}
 			synchronized (duplicateRowTracker) {
 				mutator.flush();
 				duplicateRowTracker.clear();
@@ -102,6 +153,15 @@ public class HBaseWriter implements
 	private RowMutations rowToMutation(
 			final GeoWaveRow row ) {
 		final byte[] rowBytes = GeoWaveKey.getCompositeId(row);
+		if (timestampedWrites) {
+			final long timestamp = nextTimestamp(new ByteArrayId(
+					rowBytes));
+			awaitClock(timestamp);
+			return rowToMutation(
+					row,
+					rowBytes,
+					timestamp);
+		}
 
 		// we use a hashset of row IDs so that we can retain multiple versions
 		// (otherwise timestamps will be applied on the server side in
@@ -123,7 +183,16 @@ public class HBaseWriter implements
 				}
 			}
 		}
+		return rowToMutation(
+				row,
+				rowBytes,
+				HConstants.LATEST_TIMESTAMP);
+	}
 
+	private static RowMutations rowToMutation(
+			final GeoWaveRow row,
+			final byte[] rowBytes,
+			final long timestamp ) {
 		final RowMutations mutation = new RowMutations(
 				rowBytes);
 		for (final GeoWaveValue value : row.getFieldValues()) {
@@ -133,6 +202,7 @@ public class HBaseWriter implements
 			put.addColumn(
 					StringUtils.stringToBinary(ByteArrayUtils.shortToString(row.getInternalAdapterId())),
 					value.getFieldMask(),
+					timestamp,
 					value.getValue());
 
 			if ((value.getVisibility() != null) && (value.getVisibility().length > 0)) {
@@ -150,4 +220,65 @@ public class HBaseWriter implements
 
 		return mutation;
 	}
+
+	private long nextTimestamp(
+			final ByteArrayId rowId ) {
+		if (rowTimestamps.size() >= MAX_TIMESTAMPED_ROWS) {
+			resetRowTimestamps();
+		}
+		rowTimestampsLock.readLock().lock();
+		try {
+			final long now = Math.max(
+					System.currentTimeMillis(),
+					timestampFloor);
+			final long timestamp = rowTimestamps.merge(
+					rowId,
+					now,
+					(previous, current) -> Math.max(
+							previous + 1,
+							current));
+			maxTimestamp.accumulateAndGet(
+					timestamp,
+					Math::max);
+			return timestamp;
+		}
+		finally {
+			rowTimestampsLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Waits until the timestamp is within the allowed drift of the clock
+	 */
+	private static void awaitClock(
+			final long timestamp ) {
+		long ahead;
+		while ((ahead = timestamp - MAX_TIMESTAMP_DRIFT_MILLIS - System.currentTimeMillis()) > 0) {
+			try {
+				Thread.sleep(ahead);
+			}
+			catch (final InterruptedException e) {
+				LOGGER.warn(
+						"Interrupted waiting for the clock, writing cell " + ahead + "ms further ahead than allowed",
+						e);
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void resetRowTimestamps() {
+		rowTimestampsLock.writeLock().lock();
+		try {
+			if (maxTimestamp.get() != Long.MIN_VALUE) {
+				timestampFloor = Math.max(
+						timestampFloor,
+						maxTimestamp.get() + 1);
+			}
+			rowTimestamps.clear();
+		}
+		finally {
+			rowTimestampsLock.writeLock().unlock();
+		}
+	}
 }
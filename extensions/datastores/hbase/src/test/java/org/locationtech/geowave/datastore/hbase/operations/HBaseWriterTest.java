@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.datastore.hbase.operations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.junit.Assert;
+import org.junit.Test;
+import org.locationtech.geowave.core.store.entities.GeoWaveKeyImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveRow;
+import org.locationtech.geowave.core.store.entities.GeoWaveRowImpl;
+import org.locationtech.geowave.core.store.entities.GeoWaveValue;
+import org.locationtech.geowave.core.store.entities.GeoWaveValueImpl;
+
+public class HBaseWriterTest
+{
+	@Test
+	public void testRepeatedWrites() {
+		final List<Mutation> mutations = new ArrayList<>();
+		final HBaseWriter writer = new HBaseWriter(
+				new CapturingMutator(
+						mutations),
+				true);
+		final GeoWaveRow row = new GeoWaveRowImpl(
+				new GeoWaveKeyImpl(
+						new byte[] {
+							1
+						},
+						(short) 1,
+						new byte[0],
+						new byte[] {
+							2,
+							3
+						},
+						0),
+				new GeoWaveValue[] {
+					new GeoWaveValueImpl(
+							new byte[] {
+								1
+							},
+							new byte[0],
+							new byte[] {
+								4
+							})
+				});
+		// far more writes to the same row than there are milliseconds
+		final int writes = 1000;
+		for (int i = 0; i < writes; i++) {
+			writer.write(row);
+			Assert
+					.assertTrue(
+							"cell timestamp drifted too far ahead of the clock",
+							getTimestamp(mutations.get(i)) <= (System.currentTimeMillis() + HBaseWriter.MAX_TIMESTAMP_DRIFT_MILLIS));
+		}
+		writer.flush();
+		// every write is retained as its own version
+		final Set<Long> timestamps = new HashSet<>();
+		for (final Mutation mutation : mutations) {
+			timestamps.add(getTimestamp(mutation));
+		}
+		Assert.assertEquals(
+				writes,
+				timestamps.size());
+		writer.close();
+	}
+
+	private static long getTimestamp(
+			final Mutation mutation ) {
+		long timestamp = Long.MIN_VALUE;
+		for (final List<Cell> cells : mutation.getFamilyCellMap().values()) {
+			for (final Cell cell : cells) {
+				timestamp = Math.max(
+						timestamp,
+						cell.getTimestamp());
+			}
+		}
+		return timestamp;
+	}
+
+	private static class CapturingMutator implements
+			BufferedMutator
+	{
+		private final List<Mutation> mutations;
+
+		private CapturingMutator(
+				final List<Mutation> mutations ) {
+			this.mutations = mutations;
+		}
+
+		@Override
+		public TableName getName() {
+			return TableName.valueOf("test");
+		}
+
+		@Override
+		public Configuration getConfiguration() {
+			return new Configuration();
+		}
+
+		@Override
+		public void mutate(
+				final Mutation mutation )
+				throws IOException {
+			mutations.add(mutation);
+		}
+
+		@Override
+		public void mutate(
+				final List<? extends Mutation> mutations )
+				throws IOException {
+			this.mutations.addAll(mutations);
+		}
+
+		@Override
+		public void close()
+				throws IOException {}
+
+		@Override
+		public void flush()
+				throws IOException {}
+
+		@Override
+		public long getWriteBufferSize() {
+			return 0;
+		}
+	}
+}
@@ -40,6 +40,9 @@ import org.locationtech.geowave.core.ingest.GeoWaveData;
 import org.locationtech.geowave.core.ingest.IngestPluginBase;
 import org.locationtech.geowave.core.ingest.hdfs.mapreduce.IngestWithMapper;
 import org.locationtech.geowave.core.ingest.hdfs.mapreduce.IngestWithReducer;
+import org.locationtech.geowave.core.ingest.local.LineRangeIterator;
+import org.locationtech.geowave.core.ingest.local.LocalFileSplit;
+import org.locationtech.geowave.core.ingest.local.SplittableLocalFileIngestPlugin;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.core.store.index.CommonIndexValue;
 import org.locationtech.geowave.core.store.index.PrimaryIndex;
@@ -52,7 +55,8 @@ import com.vividsolutions.jts.geom.Coordinate;
 /*
  */
 public class TdriveIngestPlugin extends
-		AbstractSimpleFeatureIngestPlugin<TdrivePoint>
+		AbstractSimpleFeatureIngestPlugin<TdrivePoint> implements
+		SplittableLocalFileIngestPlugin<SimpleFeature>
 {
 
 	private final static Logger LOGGER = LoggerFactory.getLogger(TdriveIngestPlugin.class);
@@ -184,6 +188,107 @@ public class TdriveIngestPlugin extends
 		return new CloseableIterator.Empty<>();
 	}
 
+	@Override
+	public boolean isSplittable(
+			final URL file ) {
+		// every line is a point so any plain text file can be split
+		return true;
+	}
+
+	/**
+	 * Reads the points on the lines starting within the split. The point
+	 * instance of a point is the number of its line within the file, the same
+	 * as when the file is read as a whole, so re-ingesting a file with a
+	 * different split size overwrites the same features.
+	 */
+	@Override
+	public CloseableIterator<GeoWaveData<SimpleFeature>> toGeoWaveData(
+			final LocalFileSplit split,
+			final Collection<ByteArrayId> primaryIndexIds,
+			final String globalVisibility ) {
+		if (split.getFirstLine() < 0) {
+			LOGGER.warn("Lines of tdrive file split " + split
+					+ " were not counted, reading the whole file instead");
+			return split.getStart() == 0 ? toGeoWaveData(
+					split.getFile(),
+					primaryIndexIds,
+					globalVisibility) : new CloseableIterator.Empty<GeoWaveData<SimpleFeature>>();
+		}
+		final LineRangeIterator lines;
+		try {
+			lines = new LineRangeIterator(
+					split,
+					StringUtils.getGeoWaveCharset());
+		}
+		catch (final IOException e) {
+			LOGGER.warn(
+					"Error reading tdrive file split: " + split,
+					e);
+			return new CloseableIterator.Empty<>();
+		}
+		// splits are parsed concurrently so each needs its own builder
+		final SimpleFeatureBuilder splitBuilder = new SimpleFeatureBuilder(
+				tdrivepointType);
+		return wrapIteratorWithFilters(new CloseableIterator<GeoWaveData<SimpleFeature>>() {
+			GeoWaveData<SimpleFeature> next = null;
+
+			private void computeNext() {
+				while ((next == null) && lines.hasNext()) {
+					final String line = lines.next();
+					final String[] vals = line.split(",");
+					try {
+						final TdrivePoint point = new TdrivePoint();
+						point.setTaxiid(Integer.parseInt(vals[0]));
+						try {
+							point.setTimestamp(TdriveUtils.parseDate(
+									vals[1]).getTime());
+						}
+						catch (final ParseException e) {
+							point.setTimestamp(0l);
+							LOGGER.warn(
+									"Couldn't parse time format: " + vals[1],
+									e);
+						}
+						point.setLongitude(Double.parseDouble(vals[2]));
+						point.setLatitude(Double.parseDouble(vals[3]));
+						point.setPointinstance(lines.getLineNumber());
+						next = new GeoWaveData<SimpleFeature>(
+								pointKey,
+								primaryIndexIds,
+								buildFeature(
+										splitBuilder,
+										point));
+					}
+					catch (final Exception e) {
+						LOGGER.warn(
+								"Error parsing line '" + line + "' of tdrive file split: " + split,
+								e);
+					}
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				computeNext();
+				return next != null;
+			}
+
+			@Override
+			public GeoWaveData<SimpleFeature> next() {
+				computeNext();
+				final GeoWaveData<SimpleFeature> retVal = next;
+				next = null;
+				return retVal;
+			}
+
+			@Override
+			public void close()
+					throws IOException {
+				lines.close();
+			}
+		});
+	}
+
 	@Override
 	public boolean isUseReducerPreferred() {
 		return false;
@@ -210,7 +315,20 @@ public class TdriveIngestPlugin extends
 
 		final List<GeoWaveData<SimpleFeature>> featureData = new ArrayList<GeoWaveData<SimpleFeature>>();
 
-		// tdrivepointBuilder = new SimpleFeatureBuilder(tdrivepointType);
+		featureData.add(new GeoWaveData<SimpleFeature>(
+				pointKey,
+				primaryIndexIds,
+				buildFeature(
+						tdrivepointBuilder,
+						tdrivePoint)));
+
+		return new CloseableIterator.Wrapper<GeoWaveData<SimpleFeature>>(
+				featureData.iterator());
+	}
+
+	private static SimpleFeature buildFeature(
+			final SimpleFeatureBuilder tdrivepointBuilder,
+			final TdrivePoint tdrivePoint ) {
 		tdrivepointBuilder.set(
 				"geometry",
 				GeometryUtils.GEOMETRY_FACTORY.createPoint(new Coordinate(
@@ -232,13 +350,7 @@ public class TdriveIngestPlugin extends
 		tdrivepointBuilder.set(
 				"Longitude",
 				tdrivePoint.getLongitude());
-		featureData.add(new GeoWaveData<SimpleFeature>(
-				pointKey,
-				primaryIndexIds,
-				tdrivepointBuilder.buildFeature(tdrivePoint.getTaxiid() + "_" + tdrivePoint.getPointinstance())));
-
-		return new CloseableIterator.Wrapper<GeoWaveData<SimpleFeature>>(
-				featureData.iterator());
+		return tdrivepointBuilder.buildFeature(tdrivePoint.getTaxiid() + "_" + tdrivePoint.getPointinstance());
 	}
 
 	@Override
@@ -10,13 +10,20 @@
  ******************************************************************************/
 package org.locationtech.geowave.format.tdrive;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -24,6 +31,7 @@ import org.locationtech.geowave.adapter.vector.ingest.DataSchemaOptionProvider;
 import org.locationtech.geowave.core.index.ByteArrayId;
 import org.locationtech.geowave.core.index.StringUtils;
 import org.locationtech.geowave.core.ingest.GeoWaveData;
+import org.locationtech.geowave.core.ingest.local.LocalFileSplit;
 import org.locationtech.geowave.core.store.CloseableIterator;
 import org.locationtech.geowave.format.tdrive.TdriveIngestPlugin;
 import org.locationtech.geowave.format.tdrive.TdriveUtils;
@@ -84,6 +92,77 @@ public class TDRIVEIngestTest
 		assertTrue(readExpectedCount);
 	}
 
+	@Test
+	public void testSplitIngest()
+			throws Exception {
+		final URL resource = this.getClass().getClassLoader().getResource(
+				filePath);
+		final byte[] content = Files.readAllBytes(Paths.get(resource.toURI()));
+		final int copies = 20;
+		final File file = File.createTempFile(
+				"tdrive",
+				".txt");
+		file.deleteOnExit();
+		for (int i = 0; i < copies; i++) {
+			Files.write(
+					file.toPath(),
+					content,
+					StandardOpenOption.APPEND);
+		}
+		final URL toIngest = file.toURI().toURL();
+		assertTrue(ingester.isSplittable(toIngest));
+
+		final List<LocalFileSplit> splits = LocalFileSplit.getLineSplits(
+				toIngest,
+				file.length(),
+				file.length() / 7);
+		assertTrue(splits.size() > 1);
+
+		final Collection<ByteArrayId> indexIds = new ArrayList<ByteArrayId>();
+		indexIds.add(new ByteArrayId(
+				"123".getBytes(StringUtils.UTF8_CHARSET)));
+		final Set<String> featureIds = new HashSet<String>();
+		int featureCount = 0;
+		for (final LocalFileSplit split : splits) {
+			try (CloseableIterator<GeoWaveData<SimpleFeature>> features = ingester.toGeoWaveData(
+					split,
+					indexIds,
+					"")) {
+				while (features.hasNext()) {
+					final GeoWaveData<SimpleFeature> feature = features.next();
+					if (isValidTDRIVEFeature(feature)) {
+						featureCount++;
+						featureIds.add(feature.getValue().getID());
+					}
+				}
+			}
+		}
+		// every line is read exactly once across the splits
+		assertEquals(
+				expectedCount * copies,
+				featureCount);
+		assertEquals(
+				featureCount,
+				featureIds.size());
+
+		// the feature IDs do not depend on whether the file is split
+		final Set<String> wholeFileIds = new HashSet<String>();
+		try (CloseableIterator<GeoWaveData<SimpleFeature>> features = ingester.toGeoWaveData(
+				toIngest,
+				indexIds,
+				"")) {
+			while (features.hasNext()) {
+				final GeoWaveData<SimpleFeature> feature = features.next();
+				if (isValidTDRIVEFeature(feature)) {
+					wholeFileIds.add(feature.getValue().getID());
+				}
+			}
+		}
+		assertEquals(
+				wholeFileIds,
+				featureIds);
+	}
+
 	private boolean isValidTDRIVEFeature(
 			final GeoWaveData<SimpleFeature> feature ) {
 		if ((feature.getValue().getAttribute(
@@ -81,6 +81,19 @@ public class KafkaTestUtils
 			final boolean spatialTemporal,
 			final String ingestFilePath )
 			throws Exception {
+		testKafkaIngest(
+				options,
+				spatialTemporal,
+				ingestFilePath,
+				false);
+	}
+
+	public static void testKafkaIngest(
+			final DataStorePluginOptions options,
+			final boolean spatialTemporal,
+			final String ingestFilePath,
+			final boolean useConsumerApi )
+			throws Exception {
 		LOGGER.warn("Ingesting '" + ingestFilePath + "' - this may take several minutes...");
 
 		// // FIXME
@@ -133,6 +146,27 @@ public class KafkaTestUtils
 				MAX_MESSAGE_BYTES);
 		kafkaToGeowave.getKafkaOptions().setZookeeperConnect(
 				ZookeeperTestEnvironment.getInstance().getZookeeper());
+		if (useConsumerApi) {
+			String localhost = "localhost";
+			try {
+				localhost = java.net.InetAddress.getLocalHost().getCanonicalHostName();
+			}
+			catch (final UnknownHostException e) {
+				LOGGER.warn(
+						"unable to get canonical hostname for localhost",
+						e);
+			}
+			// consume the same topic again from the beginning in a separate
+			// consumer group
+			kafkaToGeowave.getKafkaOptions().setGroupId(
+					"testConsumerGroup");
+			kafkaToGeowave.getKafkaOptions().setBootstrapServers(
+					localhost + ":9092");
+			kafkaToGeowave.getKafkaOptions().setConsumerThreads(
+					2);
+			kafkaToGeowave.getKafkaOptions().setBatchSize(
+					1000);
+		}
 		kafkaToGeowave.setParameters(
 				"test-store",
 				"test-index");
@@ -31,6 +31,7 @@ import org.locationtech.geowave.test.mapreduce.BulkIngestInputGenerationIT;
 import org.locationtech.geowave.test.mapreduce.CustomCRSKDERasterResizeIT;
 import org.locationtech.geowave.test.mapreduce.DBScanIT;
 import org.locationtech.geowave.test.mapreduce.GeoWaveNNIT;
+import org.locationtech.geowave.test.query.AttributeLocalityGroupsIT;
 import org.locationtech.geowave.test.query.AttributesSubsetQueryIT;
 import org.locationtech.geowave.test.query.PolygonDataIdQueryIT;
 import org.locationtech.geowave.test.query.SpatialTemporalQueryIT;
@@ -65,6 +66,7 @@ import org.locationtech.geowave.test.spark.GeoWaveSparkSpatialJoinIT;
 	BulkIngestInputGenerationIT.class,
 	GeoWaveNNIT.class,
 	AttributesSubsetQueryIT.class,
+	AttributeLocalityGroupsIT.class,
 	SpatialTemporalQueryIT.class,
 	PolygonDataIdQueryIT.class,
 	ConfigCacheIT.class,
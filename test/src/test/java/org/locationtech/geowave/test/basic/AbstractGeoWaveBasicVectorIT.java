@@ -49,6 +49,7 @@ import org.locationtech.geowave.core.store.adapter.statistics.CountDataStatistic
 import org.locationtech.geowave.core.store.adapter.statistics.DataStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.DataStatisticsStore;
 import org.locationtech.geowave.core.store.adapter.statistics.DuplicateEntryCount;
+import org.locationtech.geowave.core.store.adapter.statistics.PartitionSizeStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.PartitionStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.RowRangeHistogramStatistics;
 import org.locationtech.geowave.core.store.adapter.statistics.StatisticsProvider;
@@ -638,7 +639,8 @@ abstract public class AbstractGeoWaveBasicVectorIT extends
 								|| (nextStats instanceof FieldVisibilityCount)
 								|| (nextStats instanceof DifferingFieldVisibilityEntryCount)
 								|| (nextStats instanceof DuplicateEntryCount)
-								|| (nextStats instanceof PartitionStatistics)) {
+								|| (nextStats instanceof PartitionStatistics)
+								|| (nextStats instanceof PartitionSizeStatistics)) {
 							continue;
 						}
 						statsCount++;
@@ -132,7 +132,20 @@ public class BasicKafkaIT extends
 				dataStorePluginOptions,
 				false,
 				OSM_GPX_INPUT_DIR);
+		verifyIngestedGpx();
 
+		TestUtils.deleteAll(dataStorePluginOptions);
+		KafkaTestUtils.testKafkaIngest(
+				dataStorePluginOptions,
+				false,
+				OSM_GPX_INPUT_DIR,
+				true);
+		verifyIngestedGpx();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void verifyIngestedGpx()
+			throws Exception {
 		final DataStatisticsStore statsStore = dataStorePluginOptions.createDataStatisticsStore();
 		final PersistentAdapterStore adapterStore = dataStorePluginOptions.createAdapterStore();
 		int adapterCount = 0;
@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2013-2018 Contributors to the Eclipse Foundation
+ *   
+ *  See the NOTICE file distributed with this work for additional
+ *  information regarding copyright ownership.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Apache License,
+ *  Version 2.0 which accompanies this distribution and is available at
+ *  http://www.apache.org/licenses/LICENSE-2.0.txt
+ ******************************************************************************/
+package org.locationtech.geowave.test.query;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.geotools.data.DataUtilities;
+import org.geotools.feature.SchemaException;
+import org.geotools.feature.simple.SimpleFeatureBuilder;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.locationtech.geowave.adapter.vector.FeatureDataAdapter;
+import org.locationtech.geowave.core.geotime.GeometryUtils;
+import org.locationtech.geowave.core.geotime.store.query.SpatialQuery;
+import org.locationtech.geowave.core.store.CloseableIterator;
+import org.locationtech.geowave.core.store.DataStore;
+import org.locationtech.geowave.core.store.IndexWriter;
+import org.locationtech.geowave.core.store.cli.remote.options.DataStorePluginOptions;
+import org.locationtech.geowave.core.store.query.Query;
+import org.locationtech.geowave.core.store.query.QueryOptions;
+import org.locationtech.geowave.datastore.accumulo.cli.config.AccumuloOptions;
+import org.locationtech.geowave.test.GeoWaveITRunner;
+import org.locationtech.geowave.test.TestUtils;
+import org.locationtech.geowave.test.annotation.GeoWaveTestStore;
+import org.locationtech.geowave.test.annotation.GeoWaveTestStore.GeoWaveStoreType;
+import org.opengis.feature.simple.SimpleFeature;
+import org.opengis.feature.simple.SimpleFeatureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Envelope;
+
+/**
+ * Compares attribute subset queries against a wide feature type when all
+ * attributes share a single column family (subsetting is done by the
+ * AttributeSubsettingIterator) and when attributes are spread across column
+ * families with their own locality groups (subsetting is done by fetching only
+ * the needed families).
+ */
+@RunWith(GeoWaveITRunner.class)
+public class AttributeLocalityGroupsIT
+{
+	private static final Logger LOGGER = LoggerFactory.getLogger(AttributeLocalityGroupsIT.class);
+
+	@GeoWaveTestStore(value = {
+		GeoWaveStoreType.ACCUMULO
+	}, namespace = "attrsubset_iterator")
+	protected DataStorePluginOptions iteratorStore;
+
+	@GeoWaveTestStore(value = {
+		GeoWaveStoreType.ACCUMULO
+	}, namespace = "attrsubset_groups", options = {
+		"attributeLocalityGroups=8"
+	})
+	protected DataStorePluginOptions localityGroupStore;
+
+	private static final String GEOMETRY_ATTRIBUTE = "geometry";
+	private static final String ATTRIBUTE_PREFIX = "attr";
+	private static final int ATTRIBUTE_COUNT = 79;
+	private static final int FEATURE_COUNT = 10000;
+	private static final int QUERY_ITERATIONS = 10;
+
+	private static SimpleFeatureType simpleFeatureType;
+	private static FeatureDataAdapter dataAdapter;
+	private static long startMillis;
+
+	private final Query spatialQuery = new SpatialQuery(
+			GeometryUtils.GEOMETRY_FACTORY.toGeometry(new Envelope(
+					new Coordinate(
+							-90,
+							-45),
+					new Coordinate(
+							90,
+							45))));
+
+	@BeforeClass
+	public static void setupData()
+			throws SchemaException {
+		final StringBuilder spec = new StringBuilder(
+				GEOMETRY_ATTRIBUTE + ":Point");
+		for (int i = 0; i < ATTRIBUTE_COUNT; i++) {
+			spec.append(
+					",").append(
+					ATTRIBUTE_PREFIX).append(
+					i).append(
+					":Double");
+		}
+		simpleFeatureType = DataUtilities.createType(
+				"wideFeatureData",
+				spec.toString());
+		dataAdapter = new FeatureDataAdapter(
+				simpleFeatureType);
+		dataAdapter.init(TestUtils.DEFAULT_SPATIAL_INDEX);
+
+		startMillis = System.currentTimeMillis();
+		LOGGER.warn("-----------------------------------------");
+		LOGGER.warn("*                                       *");
+		LOGGER.warn("*   RUNNING AttributeLocalityGroupsIT   *");
+		LOGGER.warn("*                                       *");
+		LOGGER.warn("-----------------------------------------");
+	}
+
+	@AfterClass
+	public static void reportTest() {
+		LOGGER.warn("-----------------------------------------");
+		LOGGER.warn("*                                       *");
+		LOGGER.warn("*  FINISHED AttributeLocalityGroupsIT   *");
+		LOGGER.warn("*         " + ((System.currentTimeMillis() - startMillis) / 1000)
+				+ "s elapsed.                 *");
+		LOGGER.warn("*                                       *");
+		LOGGER.warn("-----------------------------------------");
+	}
+
+	@Before
+	public void ingestSampleData()
+			throws IOException {
+		ingest(iteratorStore.createDataStore());
+		ingest(localityGroupStore.createDataStore());
+	}
+
+	@After
+	public void deleteSampleData()
+			throws IOException {
+		TestUtils.deleteAll(iteratorStore);
+		TestUtils.deleteAll(localityGroupStore);
+	}
+
+	@Test
+	public void testSubsetQueryPerformance()
+			throws IOException {
+		final List<String> subset = Arrays.asList(ATTRIBUTE_PREFIX + (ATTRIBUTE_COUNT / 2));
+		// warm up both stores before timing
+		final int expected = query(
+				iteratorStore.createDataStore(),
+				subset);
+		Assert.assertEquals(
+				expected,
+				query(
+						localityGroupStore.createDataStore(),
+						subset));
+
+		final long iteratorNanos = timeQueries(
+				iteratorStore.createDataStore(),
+				subset,
+				expected);
+		final long localityGroupNanos = timeQueries(
+				localityGroupStore.createDataStore(),
+				subset,
+				expected);
+		LOGGER.warn(String.format(
+				"Subset of 2 of %d attributes over %d features, average of %d queries: "
+						+ "subsetting iterator %.1f ms, locality groups %.1f ms",
+				ATTRIBUTE_COUNT + 1,
+				expected,
+				QUERY_ITERATIONS,
+				iteratorNanos / (QUERY_ITERATIONS * 1000000.0),
+				localityGroupNanos / (QUERY_ITERATIONS * 1000000.0)));
+	}
+
+	@Test
+	public void testFullQuery()
+			throws IOException {
+		final int expected = query(
+				iteratorStore.createDataStore(),
+				null);
+		Assert.assertEquals(
+				expected,
+				query(
+						localityGroupStore.createDataStore(),
+						null));
+	}
+
+	@Test
+	public void testReopenWithDifferentGroups()
+			throws IOException {
+		final int expected = query(
+				iteratorStore.createDataStore(),
+				null);
+		final List<String> subset = Arrays.asList(ATTRIBUTE_PREFIX + (ATTRIBUTE_COUNT / 2));
+		final AccumuloOptions options = (AccumuloOptions) localityGroupStore.getFactoryOptions().getStoreOptions();
+		final int attributeLocalityGroups = options.getAttributeLocalityGroups();
+		try {
+			// the layout is stored with the table, so reading with a different
+			// setting must still find every attribute
+			for (final int reopenedGroups : new int[] {
+				0,
+				3
+			}) {
+				options.setAttributeLocalityGroups(reopenedGroups);
+				Assert.assertEquals(
+						expected,
+						query(
+								localityGroupStore.createDataStore(),
+								null));
+				Assert.assertEquals(
+						expected,
+						query(
+								localityGroupStore.createDataStore(),
+								subset));
+			}
+		}
+		finally {
+			options.setAttributeLocalityGroups(attributeLocalityGroups);
+		}
+	}
+
+	private long timeQueries(
+			final DataStore store,
+			final List<String> subset,
+			final int expected )
+			throws IOException {
+		final long start = System.nanoTime();
+		for (int i = 0; i < QUERY_ITERATIONS; i++) {
+			Assert.assertEquals(
+					expected,
+					query(
+							store,
+							subset));
+		}
+		return System.nanoTime() - start;
+	}
+
+	private int query(
+			final DataStore store,
+			final List<String> subset )
+			throws IOException {
+		final QueryOptions queryOptions = new QueryOptions(
+				dataAdapter,
+				TestUtils.DEFAULT_SPATIAL_INDEX);
+		if (subset != null) {
+			queryOptions.setFieldIds(
+					subset,
+					dataAdapter);
+		}
+		int count = 0;
+		try (CloseableIterator<SimpleFeature> results = store.query(
+				queryOptions,
+				spatialQuery)) {
+			while (results.hasNext()) {
+				final SimpleFeature feature = results.next();
+				Assert.assertNotNull(feature.getAttribute(GEOMETRY_ATTRIBUTE));
+				for (int i = 0; i < ATTRIBUTE_COUNT; i++) {
+					final String attribute = ATTRIBUTE_PREFIX + i;
+					if ((subset == null) || subset.contains(attribute)) {
+						Assert.assertEquals(
+								"Unexpected value for " + attribute,
+								Double.valueOf(i),
+								feature.getAttribute(attribute));
+					}
+					else {
+						Assert.assertNull(
+								"Expected null " + attribute + " value!",
+								feature.getAttribute(attribute));
+					}
+				}
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static void ingest(
+			final DataStore store )
+			throws IOException {
+		final SimpleFeatureBuilder builder = new SimpleFeatureBuilder(
+				simpleFeatureType);
+		try (IndexWriter writer = store.createWriter(
+				dataAdapter,
+				TestUtils.DEFAULT_SPATIAL_INDEX)) {
+			for (int f = 0; f < FEATURE_COUNT; f++) {
+				builder.set(
+						GEOMETRY_ATTRIBUTE,
+						GeometryUtils.GEOMETRY_FACTORY.createPoint(new Coordinate(
+								((f * 37) % 360) - 180,
+								((f * 17) % 180) - 90)));
+				for (int i = 0; i < ATTRIBUTE_COUNT; i++) {
+					builder.set(
+							ATTRIBUTE_PREFIX + i,
+							Double.valueOf(i));
+				}
+				writer.write(builder.buildFeature("feature" + f));
+			}
+		}
+	}
+}